@@ -0,0 +1,72 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * ONAP - Logging
+ * ================================================================================
+ * Copyright (C) 2021 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.benchmarks;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.onap.logging.ref.slf4j.IDGenerator;
+import org.onap.logging.ref.slf4j.IDGenerators;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// several threads, since UUID.randomUUID's cost is mostly contention on its SecureRandom
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Thread)
+public class IDGeneratorBenchmark {
+    private final IDGenerator random = IDGenerators.random();
+    private final IDGenerator timeOrdered = IDGenerators.timeOrdered();
+    private final char[] buffer = new char[IDGenerators.LENGTH];
+
+    @Benchmark
+    public String randomUUID() {
+        return UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    public String random() {
+        return random.nextID();
+    }
+
+    @Benchmark
+    public String timeOrdered() {
+        return timeOrdered.nextID();
+    }
+
+    @Benchmark
+    public char[] randomIntoBuffer() {
+        random.nextID(buffer, 0);
+        return buffer;
+    }
+}
@@ -0,0 +1,90 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * ONAP - Logging
+ * ================================================================================
+ * Copyright (C) 2021 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.onap.logging.filter.base.Constants;
+import org.onap.logging.filter.base.MDCSetup;
+import org.onap.logging.filter.base.SimpleMap;
+import org.onap.logging.filter.base.SimpleServletHeadersMap;
+import org.onap.logging.ref.slf4j.ONAPLogConstants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MDCSetupBenchmark {
+    private final MDCSetup mdcSetup = new MDCSetup();
+    private SimpleMap onapHeaders;
+    private SimpleMap legacyHeaders;
+    private SimpleMap crowdedHeaders;
+
+    @Setup
+    public void setup() {
+        MockHttpServletRequest onapRequest = new MockHttpServletRequest();
+        onapRequest.addHeader(ONAPLogConstants.Headers.REQUEST_ID, "8c7b9a2e-6f2d-4a3b-9c1e-0d5f4e3a2b1c");
+        onapHeaders = new SimpleServletHeadersMap(onapRequest);
+
+        // found last in the prioritized header list
+        MockHttpServletRequest legacyRequest = new MockHttpServletRequest();
+        legacyRequest.addHeader(Constants.HttpHeaders.ECOMP_REQUEST_ID, "8c7b9a2e-6f2d-4a3b-9c1e-0d5f4e3a2b1c");
+        legacyHeaders = new SimpleServletHeadersMap(legacyRequest);
+
+        // a browser-like request where the interesting headers are buried among many others
+        MockHttpServletRequest crowdedRequest = new MockHttpServletRequest();
+        for (int i = 0; i < 40; i++) {
+            crowdedRequest.addHeader("X-Custom-Header-" + i, "value-" + i);
+        }
+        crowdedRequest.addHeader("authorization", "Basic dXNlcjpwYXNz");
+        crowdedRequest.addHeader("x-ecomp-requestid", "8c7b9a2e-6f2d-4a3b-9c1e-0d5f4e3a2b1c");
+        crowdedHeaders = new SimpleServletHeadersMap(crowdedRequest);
+    }
+
+    @Benchmark
+    public String getRequestIdOnapHeader(AppenderState appender) {
+        return mdcSetup.getRequestId(onapHeaders);
+    }
+
+    @Benchmark
+    public String getRequestIdLegacyHeader(AppenderState appender) {
+        return mdcSetup.getRequestId(legacyHeaders);
+    }
+
+    @Benchmark
+    public String requestStartHeadersCrowded(AppenderState appender) {
+        mdcSetup.setMDCPartnerName(crowdedHeaders);
+        return mdcSetup.getRequestId(crowdedHeaders);
+    }
+}
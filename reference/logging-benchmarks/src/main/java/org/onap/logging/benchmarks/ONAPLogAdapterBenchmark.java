@@ -0,0 +1,64 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * ONAP - Logging
+ * ================================================================================
+ * Copyright (C) 2021 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.onap.logging.ref.slf4j.ONAPLogAdapter;
+import org.onap.logging.ref.slf4j.ONAPLogConstants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ONAPLogAdapterBenchmark {
+    private ONAPLogAdapter adapter;
+    private ONAPLogAdapter.HttpServletRequestAdapter request;
+
+    @Setup
+    public void setup() {
+        adapter = new ONAPLogAdapter(LoggerFactory.getLogger(ONAPLogAdapterBenchmark.class));
+        MockHttpServletRequest servletRequest = new MockHttpServletRequest("GET", "/services/benchmark");
+        servletRequest.addHeader(ONAPLogConstants.Headers.REQUEST_ID, "8c7b9a2e-6f2d-4a3b-9c1e-0d5f4e3a2b1c");
+        servletRequest.addHeader(ONAPLogConstants.Headers.INVOCATION_ID, "1f2e3d4c-5b6a-4978-8695-a4b3c2d1e0f9");
+        servletRequest.addHeader(ONAPLogConstants.Headers.PARTNER_NAME, "benchmark");
+        request = new ONAPLogAdapter.HttpServletRequestAdapter(servletRequest);
+    }
+
+    @Benchmark
+    public ONAPLogAdapter enteringExiting(AppenderState appender) {
+        return adapter.entering(request).exiting();
+    }
+}
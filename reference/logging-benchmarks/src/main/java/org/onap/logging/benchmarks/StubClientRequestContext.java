@@ -0,0 +1,201 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * ONAP - Logging
+ * ================================================================================
+ * Copyright (C) 2021 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.benchmarks;
+
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.core.Configuration;
+import javax.ws.rs.core.Cookie;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+
+/**
+ * Allocation-free stand-in for a JAX-RS client request; only the URI, method and headers are meaningful.
+ */
+class StubClientRequestContext implements ClientRequestContext {
+    private final MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+    private URI uri;
+    private String method;
+
+    StubClientRequestContext(String method, URI uri) {
+        this.method = method;
+        this.uri = uri;
+    }
+
+    @Override
+    public Object getProperty(String name) {
+        return null;
+    }
+
+    @Override
+    public Collection<String> getPropertyNames() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public void setProperty(String name, Object object) {
+        // properties are not used by the filters
+    }
+
+    @Override
+    public void removeProperty(String name) {
+        // properties are not used by the filters
+    }
+
+    @Override
+    public URI getUri() {
+        return uri;
+    }
+
+    @Override
+    public void setUri(URI uri) {
+        this.uri = uri;
+    }
+
+    @Override
+    public String getMethod() {
+        return method;
+    }
+
+    @Override
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    @Override
+    public MultivaluedMap<String, Object> getHeaders() {
+        return headers;
+    }
+
+    @Override
+    public MultivaluedMap<String, String> getStringHeaders() {
+        return null;
+    }
+
+    @Override
+    public String getHeaderString(String name) {
+        Object value = headers.getFirst(name);
+        return value == null ? null : value.toString();
+    }
+
+    @Override
+    public Date getDate() {
+        return null;
+    }
+
+    @Override
+    public Locale getLanguage() {
+        return null;
+    }
+
+    @Override
+    public MediaType getMediaType() {
+        return null;
+    }
+
+    @Override
+    public List<MediaType> getAcceptableMediaTypes() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public List<Locale> getAcceptableLanguages() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public Map<String, Cookie> getCookies() {
+        return Collections.emptyMap();
+    }
+
+    @Override
+    public boolean hasEntity() {
+        return false;
+    }
+
+    @Override
+    public Object getEntity() {
+        return null;
+    }
+
+    @Override
+    public Class<?> getEntityClass() {
+        return null;
+    }
+
+    @Override
+    public Type getEntityType() {
+        return null;
+    }
+
+    @Override
+    public void setEntity(Object entity) {
+        // entities are not used by the filters
+    }
+
+    @Override
+    public void setEntity(Object entity, Annotation[] annotations, MediaType mediaType) {
+        // entities are not used by the filters
+    }
+
+    @Override
+    public Annotation[] getEntityAnnotations() {
+        return new Annotation[0];
+    }
+
+    @Override
+    public OutputStream getEntityStream() {
+        return null;
+    }
+
+    @Override
+    public void setEntityStream(OutputStream outputStream) {
+        // entities are not used by the filters
+    }
+
+    @Override
+    public Client getClient() {
+        return null;
+    }
+
+    @Override
+    public Configuration getConfiguration() {
+        return null;
+    }
+
+    @Override
+    public void abortWith(Response response) {
+        throw new UnsupportedOperationException();
+    }
+}
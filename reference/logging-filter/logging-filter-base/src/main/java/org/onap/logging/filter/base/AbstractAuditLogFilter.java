@@ -20,8 +20,10 @@
 
 package org.onap.logging.filter.base;
 
+import java.util.concurrent.atomic.AtomicBoolean;
 import javax.servlet.http.HttpServletRequest;
 import org.onap.logging.ref.slf4j.ONAPLogConstants;
+import org.onap.logging.ref.slf4j.RequestLogContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
@@ -31,25 +33,39 @@ public abstract class AbstractAuditLogFilter<GenericRequest, GenericResponse> ex
 
     protected void pre(SimpleMap headers, GenericRequest request, HttpServletRequest httpServletRequest) {
         try {
-            String requestId = getRequestId(headers);
-            MDC.put(ONAPLogConstants.MDCs.REQUEST_ID, requestId);
-            setInvocationId(headers);
+            createRequestLogContext(headers, httpServletRequest).install();
             setServiceName(request);
-            setMDCPartnerName(headers);
-            setServerFQDN();
-            setClientIPAddress(httpServletRequest);
-            setInstanceID();
-            setEntryTimeStamp();
-            MDC.put(ONAPLogConstants.MDCs.RESPONSE_STATUS_CODE, ONAPLogConstants.ResponseStatus.INPROGRESS.toString());
+            SamplingDecision decision = getSamplingEngine().decideInbound(headers,
+                    MDC.get(ONAPLogConstants.MDCs.REQUEST_ID), MDC.get(ONAPLogConstants.MDCs.SERVICE_NAME));
             additionalPreHandling(request);
             setLogTimestamp();
             setElapsedTime();
-            logEntering();
+            if (decision == SamplingDecision.DEFERRED) {
+                DeferredLog.open(MDC.get(ONAPLogConstants.MDCs.SERVER_INVOCATION_ID), MDCSnapshot.capture());
+            } else if (decision == SamplingDecision.SAMPLED) {
+                logEntering();
+            }
         } catch (Exception e) {
             logger.warn("Error in AbstractInboundFilter pre", e);
         }
     }
 
+    /**
+     * Builds the request's logging context, which pre installs in one step. Each value comes from the overridable
+     * MDCSetup hook of the same name, such as {@link #setInvocationId(RequestLogContext, HeaderExtractor.Headers)}.
+     */
+    protected RequestLogContext createRequestLogContext(SimpleMap headers, HttpServletRequest httpServletRequest) {
+        HeaderExtractor.Headers extracted = extractHeaders(headers);
+        RequestLogContext context = new RequestLogContext().setRequestID(getRequestId(extracted));
+        setInvocationId(context, extracted);
+        setMDCPartnerName(context, extracted);
+        setServerFQDN(context);
+        setClientIPAddress(context, httpServletRequest);
+        setInstanceID(context);
+        setEntryTimeStamp(context);
+        return context.setResponseStatusCode(ONAPLogConstants.ResponseStatus.INPROGRESS.toString());
+    }
+
     protected void post(GenericResponse response) {
         try {
             MDC.put(ONAPLogConstants.MDCs.INVOCATION_ID, MDC.get(ONAPLogConstants.MDCs.SERVER_INVOCATION_ID));
@@ -59,12 +75,89 @@ public abstract class AbstractAuditLogFilter<GenericRequest, GenericResponse> ex
             setResponseDescription(responseCode);
             setLogTimestamp();
             setElapsedTime();
+            recordMetrics(RedMetricsRegistry.KIND_SERVER, MDC.get(ONAPLogConstants.MDCs.SERVICE_NAME), responseCode);
             additionalPostHandling(response);
-            logExiting();
+            SamplingDecision decision = SamplingEngine.current();
+            if (decision == SamplingDecision.DEFERRED) {
+                logDeferred(responseCode);
+            } else if (decision != SamplingDecision.NOT_SAMPLED) {
+                logExiting();
+            }
         } catch (Exception e) {
             logger.warn("Error in AbstractInboundFilter post", e);
         } finally {
-            MDC.clear();
+            DeferredLog.close(MDC.get(ONAPLogConstants.MDCs.SERVER_INVOCATION_ID));
+            RequestLogContext.clear();
+        }
+    }
+
+    /**
+     * Captures the request's logging context so that its EXIT can be logged on whichever thread completes it.
+     */
+    protected Suspension capture() {
+        return new Suspension(MDCSnapshot.capture());
+    }
+
+    /**
+     * Captures the request's logging context and detaches it from this thread, for a request which continues
+     * asynchronously.
+     */
+    protected Suspension suspend() {
+        Suspension suspension = capture();
+        RequestLogContext.clear();
+        return suspension;
+    }
+
+    /**
+     * Attaches a suspended request's logging context to this thread, replacing any other.
+     */
+    protected void resume(Suspension suspension) {
+        suspension.mdc.apply();
+    }
+
+    /**
+     * Logs EXIT for a request which may have completed on another thread, at most once. The thread's own MDC is
+     * restored afterwards, unless it was the request's.
+     */
+    protected void complete(Suspension suspension, GenericResponse response) {
+        if (!suspension.completed.compareAndSet(false, true)) {
+            return;
+        }
+        String invocationId = suspension.mdc.get(ONAPLogConstants.MDCs.SERVER_INVOCATION_ID);
+        if (invocationId != null && invocationId.equals(MDC.get(ONAPLogConstants.MDCs.SERVER_INVOCATION_ID))) {
+            // still on the request's thread, whose MDC may have gained values since it was captured
+            post(response);
+            return;
+        }
+        MDCSnapshot previous = MDCSnapshot.capture();
+        resume(suspension);
+        try {
+            post(response);
+        } finally {
+            MDCSnapshot.restore(previous);
+        }
+    }
+
+    protected SamplingEngine getSamplingEngine() {
+        return SamplingEngine.getInstance();
+    }
+
+    /**
+     * Logs a DEFERRED request's ENTRY, its calls and its EXIT if it, or any of its calls, met the tail policy.
+     */
+    protected void logDeferred(int responseCode) {
+        DeferredLog deferred = DeferredLog.close(MDC.get(ONAPLogConstants.MDCs.SERVER_INVOCATION_ID));
+        if (deferred == null) {
+            return;
+        }
+        SamplingPolicy policy = getSamplingEngine().getServicePolicy(MDC.get(ONAPLogConstants.MDCs.SERVICE_NAME));
+        if (deferred.isCallKept()
+                || SamplingEngine.keep(policy, responseCode, MDC.get(ONAPLogConstants.MDCs.ELAPSED_TIME))) {
+            MDCSnapshot exit = deferred.getEntry().apply();
+            logEntering();
+            MDCSnapshot.restore(exit);
+            deferred.logCalls();
+            logExiting();
         }
     }
 
@@ -88,4 +181,31 @@ public abstract class AbstractAuditLogFilter<GenericRequest, GenericResponse> ex
         logger.info(ONAPLogConstants.Markers.EXIT, "Exiting.");
     }
 
+    /**
+     * A request's logging context, detached from the thread which received it.
+     */
+    public static final class Suspension {
+        private final MDCSnapshot mdc;
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        Suspension(MDCSnapshot mdc) {
+            this.mdc = mdc;
+        }
+
+        public String get(String key) {
+            return mdc.get(key);
+        }
+
+        public boolean isCompleted() {
+            return completed.get();
+        }
+
+        /**
+         * Runs a task with the request's logging context, e.g. work handed off by a suspended resource method.
+         */
+        public Runnable wrap(Runnable task) {
+            return mdc.wrap(task);
+        }
+    }
+
 }
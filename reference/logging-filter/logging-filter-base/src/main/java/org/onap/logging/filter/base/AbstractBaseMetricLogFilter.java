@@ -23,7 +23,7 @@ package org.onap.logging.filter.base;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.UUID;
+import org.onap.logging.ref.slf4j.IDGenerators;
 import org.onap.logging.ref.slf4j.ONAPLogConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,6 +35,7 @@ public abstract class AbstractBaseMetricLogFilter<Request, Response> extends MDC
     protected static final Logger logger = LoggerFactory.getLogger(AbstractBaseMetricLogFilter.class);
     protected final String partnerName;
     protected static final Marker INVOKE_RETURN = MarkerFactory.getMarker("INVOKE-RETURN");
+    protected static final String OUTBOUND_STATE_PROPERTY_NAME = "org.onap.logging.filter.base.OutboundState";
 
     public AbstractBaseMetricLogFilter() {
         partnerName = getPartnerName();
@@ -48,16 +49,25 @@ public abstract class AbstractBaseMetricLogFilter<Request, Response> extends MDC
 
     protected abstract String getTargetEntity(Request request);
 
-    protected void pre(Request request) {
+    /**
+     * Logs the start of a call.
+     *
+     * @return the call's state, for callers which run pre and post in one frame to hand to
+     *         {@link #post(Object, Object, OutboundSampling)}
+     */
+    protected OutboundSampling pre(Request request) {
+        OutboundSampling sampling = null;
         try {
             setupMDC(request);
             extractRequestID();
             setInvocationId();
+            sampling = decideSampling(request);
             additionalPre(request);
-            logRequest();
+            logRequest(sampling);
         } catch (Exception e) {
             logger.warn("Error in AbstractBaseMetricLogFilter pre", e);
         }
+        return sampling;
     }
 
     protected void additionalPre(Request request) {
@@ -65,14 +75,14 @@ public abstract class AbstractBaseMetricLogFilter<Request, Response> extends MDC
     }
 
     protected String setInvocationId() {
-        String invocationId = UUID.randomUUID().toString();
+        String invocationId = IDGenerators.nextID();
         MDC.put(ONAPLogConstants.MDCs.CLIENT_INVOCATION_ID, invocationId);
         MDC.put(ONAPLogConstants.MDCs.INVOCATION_ID, invocationId);
         return invocationId;
     }
 
     protected void setupMDC(Request request) {
-        MDC.put(ONAPLogConstants.MDCs.INVOKE_TIMESTAMP, getCurrentTimeStamp());
+        setInvokeTimeStamp();
         MDC.put(ONAPLogConstants.MDCs.TARGET_SERVICE_NAME, getTargetServiceName(request));
         MDC.put(ONAPLogConstants.MDCs.RESPONSE_STATUS_CODE, ONAPLogConstants.ResponseStatus.INPROGRESS.toString());
 
@@ -92,7 +102,7 @@ public abstract class AbstractBaseMetricLogFilter<Request, Response> extends MDC
     protected String extractRequestID() {
         String requestId = MDC.get(ONAPLogConstants.MDCs.REQUEST_ID);
         if (requestId == null || requestId.isEmpty()) {
-            requestId = UUID.randomUUID().toString();
+            requestId = IDGenerators.nextID();
             logger.trace("No value found in MDC when checking key {} value will be set to {}",
                     ONAPLogConstants.MDCs.REQUEST_ID, requestId);
             MDC.put(ONAPLogConstants.MDCs.REQUEST_ID, requestId);
@@ -100,15 +110,30 @@ public abstract class AbstractBaseMetricLogFilter<Request, Response> extends MDC
         return requestId;
     }
 
+    /**
+     * Logs the end of a call whose state {@link #setOutboundState(Object, Object)} kept with the request.
+     */
     protected void post(Request request, Response response) {
+        post(request, response, takeOutboundState(request));
+    }
+
+    /**
+     * Logs the end of a call.
+     *
+     * @param sampling what {@link #pre(Object)} returned for the call
+     */
+    protected void post(Request request, Response response, OutboundSampling sampling) {
         try {
             setLogTimestamp();
             setElapsedTimeInvokeTimestamp();
-            setResponseStatusCode(getHttpStatusCode(response));
-            setResponseDescription(getHttpStatusCode(response));
+            int statusCode = getHttpStatusCode(response);
+            setResponseStatusCode(statusCode);
+            setResponseDescription(statusCode);
+            recordMetrics(RedMetricsRegistry.KIND_CLIENT, MDC.get(ONAPLogConstants.MDCs.TARGET_ENTITY), statusCode);
+            recordSpan(sampling, statusCode);
             MDC.put(ONAPLogConstants.MDCs.RESPONSE_CODE, getResponseCode(response));
             additionalPost(request, response);
-            logResponse();
+            logResponse(sampling, statusCode);
             clearClientMDCs();
         } catch (Exception e) {
             logger.warn("Error in AbstractBaseMetricLogFilter post", e);
@@ -119,10 +144,110 @@ public abstract class AbstractBaseMetricLogFilter<Request, Response> extends MDC
         // override to add application specific logic
     }
 
+    private static void recordSpan(OutboundSampling sampling, int statusCode) {
+        SpanRecorder spans = SpanRecorder.getInstance();
+        if (spans != null && sampling != null) {
+            spans.record(sampling.startMillis, sampling.startNanos, System.nanoTime() - sampling.startNanos, statusCode,
+                    MDC.get(ONAPLogConstants.MDCs.TARGET_ENTITY), MDC.get(ONAPLogConstants.MDCs.TARGET_SERVICE_NAME),
+                    MDC.get(ONAPLogConstants.MDCs.REQUEST_ID), MDC.get(ONAPLogConstants.MDCs.CLIENT_INVOCATION_ID),
+                    MDC.get(ONAPLogConstants.MDCs.SERVER_INVOCATION_ID));
+        }
+    }
+
+    private static boolean spansReplaceLogs() {
+        SpanRecorder spans = SpanRecorder.getInstance();
+        return spans != null && spans.isReplacingLogs();
+    }
+
     protected String getPartnerName() {
         return getProperty(Constants.Property.PARTNER_NAME);
     }
 
+    protected SamplingEngine getSamplingEngine() {
+        return SamplingEngine.getInstance();
+    }
+
+    /**
+     * Decides whether to log the call and keeps the decision, with the call's start time, for post.
+     */
+    OutboundSampling decideSampling(Request request) {
+        SamplingEngine engine = getSamplingEngine();
+        String targetEntity = MDC.get(ONAPLogConstants.MDCs.TARGET_ENTITY);
+        SamplingDecision decision = engine.decideOutbound(MDC.get(ONAPLogConstants.MDCs.REQUEST_ID), targetEntity);
+        OutboundSampling sampling = new OutboundSampling(decision,
+                engine.getOutboundPolicy(MDC.get(ONAPLogConstants.MDCs.SERVICE_NAME), targetEntity));
+        setOutboundState(request, sampling);
+        return sampling;
+    }
+
+    protected SamplingDecision getSamplingDecision(Request request) {
+        Object sampling = getOutboundState(request);
+        return sampling instanceof OutboundSampling ? ((OutboundSampling) sampling).decision : null;
+    }
+
+    private OutboundSampling takeOutboundState(Request request) {
+        Object sampling = getOutboundState(request);
+        if (sampling == null) {
+            return null;
+        }
+        removeOutboundState(request);
+        return sampling instanceof OutboundSampling ? (OutboundSampling) sampling : null;
+    }
+
+    /**
+     * Keeps a call's state with the request for {@link #post(Object, Object)}, for asynchronous clients which may run
+     * pre and post on different threads. Their filters override this and the two methods below to use the request's own
+     * properties; by default nothing is kept, and callers hand what pre returned to
+     * {@link #post(Object, Object, OutboundSampling)} instead.
+     */
+    protected void setOutboundState(Request request, Object state) {
+        // kept by the caller
+    }
+
+    protected Object getOutboundState(Request request) {
+        return null;
+    }
+
+    protected void removeOutboundState(Request request) {
+        // kept by the caller
+    }
+
+    void logRequest(OutboundSampling sampling) {
+        if (spansReplaceLogs()) {
+            return;
+        }
+        SamplingDecision decision = sampling == null ? null : sampling.decision;
+        if (decision == SamplingDecision.DEFERRED) {
+            sampling.invoke = MDCSnapshot.capture();
+        } else if (decision != SamplingDecision.NOT_SAMPLED) {
+            logRequest();
+        }
+    }
+
+    private void logResponse(OutboundSampling sampling, int statusCode) {
+        if (spansReplaceLogs()) {
+            return;
+        }
+        SamplingDecision decision = sampling == null ? null : sampling.decision;
+        if (decision == SamplingDecision.DEFERRED) {
+            if (sampling.invoke == null) {
+                return;
+            }
+            boolean kept =
+                    SamplingEngine.keep(sampling.policy, statusCode, MDC.get(ONAPLogConstants.MDCs.ELAPSED_TIME));
+            // within a DEFERRED inbound request the call is logged, or not, with the rest of the request
+            DeferredLog request = DeferredLog.get(MDC.get(ONAPLogConstants.MDCs.SERVER_INVOCATION_ID));
+            if ((request == null || !request.add(this, sampling.invoke, MDCSnapshot.capture(), kept)) && kept) {
+                MDCSnapshot invokeReturn = sampling.invoke.apply();
+                logRequest();
+                MDCSnapshot.restore(invokeReturn);
+                logResponse();
+            }
+        } else if (decision != SamplingDecision.NOT_SAMPLED) {
+            logResponse();
+        }
+    }
+
     protected void logRequest() {
         logger.info(ONAPLogConstants.Markers.INVOKE, "Invoke");
     }
@@ -131,4 +256,24 @@ public abstract class AbstractBaseMetricLogFilter<Request, Response> extends MDC
         logger.info(INVOKE_RETURN, "InvokeReturn");
     }
 
+    /**
+     * The state of one outbound call: its sampling decision and start time.
+     */
+    public static final class OutboundSampling {
+        private final SamplingDecision decision;
+        private final SamplingPolicy policy;
+        private final long startMillis = System.currentTimeMillis();
+        private final long startNanos = System.nanoTime();
+        private MDCSnapshot invoke;
+
+        OutboundSampling(SamplingDecision decision, SamplingPolicy policy) {
+            this.decision = decision;
+            this.policy = policy;
+        }
+
+        SamplingDecision getDecision() {
+            return decision;
+        }
+    }
+
 }
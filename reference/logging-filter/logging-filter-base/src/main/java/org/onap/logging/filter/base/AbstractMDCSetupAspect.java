@@ -20,9 +20,8 @@
 
 package org.onap.logging.filter.base;
 
-import java.util.UUID;
-
 import org.aspectj.lang.ProceedingJoinPoint;
+import org.onap.logging.ref.slf4j.IDGenerators;
 import org.onap.logging.ref.slf4j.ONAPLogConstants;
 import org.slf4j.MDC;
 
@@ -35,9 +34,9 @@ public abstract class AbstractMDCSetupAspect extends MDCSetup {
             setEntryTimeStamp();
             setServerFQDN();
             String partnerName = getProperty(Constants.Property.PARTNER_NAME);
-            MDC.put(ONAPLogConstants.MDCs.INVOCATION_ID, UUID.randomUUID().toString());
+            MDC.put(ONAPLogConstants.MDCs.INVOCATION_ID, IDGenerators.nextID());
             MDC.put(ONAPLogConstants.MDCs.RESPONSE_STATUS_CODE, ONAPLogConstants.ResponseStatus.INPROGRESS.toString());
-            MDC.put(ONAPLogConstants.MDCs.REQUEST_ID, UUID.randomUUID().toString());
+            MDC.put(ONAPLogConstants.MDCs.REQUEST_ID, IDGenerators.nextID());
             MDC.put(ONAPLogConstants.MDCs.TARGET_ENTITY, partnerName);
             MDC.put(ONAPLogConstants.MDCs.TARGET_SERVICE_NAME, Constants.DefaultValues.UNKNOWN);
             MDC.put(ONAPLogConstants.MDCs.SERVICE_NAME, methodName);
@@ -34,16 +34,28 @@ public abstract class AbstractMetricLogFilter<Request, Response, RequestHeaders>
 
     protected abstract void addHeader(RequestHeaders requestHeaders, String headerName, String headerValue);
 
-    protected void pre(Request request, RequestHeaders requestHeaders) {
+    /**
+     * Logs the start of a call and adds the ONAP headers to it.
+     *
+     * @return the call's state, for callers which run pre and post in one frame to hand to
+     *         {@link #post(Object, Object, OutboundSampling)}
+     */
+    protected OutboundSampling pre(Request request, RequestHeaders requestHeaders) {
+        OutboundSampling sampling = null;
         try {
             setupMDC(request);
-            setupHeaders(request, requestHeaders, extractRequestID(), setInvocationId());
+            String requestId = extractRequestID();
+            String invocationId = setInvocationId();
+            sampling = decideSampling(request);
+            setupHeaders(request, requestHeaders, requestId, invocationId);
+            addSamplingHeader(requestHeaders, sampling.getDecision());
             additionalPre(request);
             additionalPre(request, requestHeaders);
-            logRequest();
+            logRequest(sampling);
         } catch (Exception e) {
             logger.warn("Error in AbstractMetricLogFilter pre", e);
         }
+        return sampling;
     }
 
     protected void additionalPre(Request request, RequestHeaders requestHeaders) {
@@ -61,4 +73,10 @@ public abstract class AbstractMetricLogFilter<Request, Response, RequestHeaders>
         addHeader(requestHeaders, ONAPLogConstants.Headers.INVOCATION_ID, invocationId);
     }
 
+    protected void addSamplingHeader(RequestHeaders requestHeaders, SamplingDecision decision) {
+        if (SamplingEngine.current() != null || getSamplingEngine().isConfigured()) {
+            addHeader(requestHeaders, Constants.HttpHeaders.SAMPLED, decision.getHeaderValue());
+        }
+    }
+
 }
@@ -0,0 +1,81 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * ONAP - Logging
+ * ================================================================================
+ * Copyright (C) 2021 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.filter.base;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.Context;
+
+/**
+ * {@link AuditLogContainerFilter} for resources which use <tt>@Suspended AsyncResponse</tt>. The response filter runs
+ * on whichever thread resumes the response, so the logging context is carried there in a request property, and EXIT is
+ * logged with it.
+ *
+ * JAX-RS has no hook on the container thread once a suspended resource method returns, so for a matched method taking
+ * an <tt>@Suspended</tt> parameter the context is detached from that thread as soon as the request is suspended, before
+ * the method runs, and the thread is left with an empty MDC. Such a method gets the context back by wrapping the work
+ * it hands off with the {@link Suspension} from the {@link #SUSPENSION_PROPERTY} request property. Synchronous methods
+ * keep the MDC until the response filter clears it.
+ */
+public class AsyncAuditLogContainerFilter extends AuditLogContainerFilter {
+    public static final String SUSPENSION_PROPERTY = AsyncAuditLogContainerFilter.class.getName() + ".suspension";
+
+    @Context
+    private ResourceInfo resourceInfo;
+
+    @Override
+    public void filter(ContainerRequestContext containerRequest) {
+        super.filter(containerRequest);
+        Method method = resourceInfo == null ? null : resourceInfo.getResourceMethod();
+        containerRequest.setProperty(SUSPENSION_PROPERTY, isSuspended(method) ? suspend() : capture());
+    }
+
+    protected static boolean isSuspended(Method method) {
+        if (method == null) {
+            return false;
+        }
+        for (Annotation[] annotations : method.getParameterAnnotations()) {
+            for (Annotation annotation : annotations) {
+                if (annotation instanceof Suspended) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext)
+            throws IOException {
+        Object suspension = requestContext.getProperty(SUSPENSION_PROPERTY);
+        if (suspension instanceof Suspension) {
+            complete((Suspension) suspension, responseContext);
+        } else {
+            super.filter(requestContext, responseContext);
+        }
+    }
+}
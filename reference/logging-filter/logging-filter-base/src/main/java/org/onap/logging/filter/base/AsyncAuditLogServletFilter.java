@@ -0,0 +1,109 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * ONAP - Logging
+ * ================================================================================
+ * Copyright (C) 2021 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.filter.base;
+
+import java.io.IOException;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.DispatcherType;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.onap.logging.ref.slf4j.RequestLogContext;
+
+/**
+ * {@link AuditLogServletFilter} for applications which use Servlet 3 async processing. When a request goes async, its
+ * logging context is detached from the container thread and EXIT is logged when the async context completes, with the
+ * final status. Map it with <tt>asyncSupported</tt>; if it is also mapped for ASYNC dispatches, the context is
+ * installed for their duration.
+ */
+public class AsyncAuditLogServletFilter extends AuditLogServletFilter {
+    public static final String SUSPENSION_ATTRIBUTE = AsyncAuditLogServletFilter.class.getName() + ".suspension";
+
+    @Override
+    public void doFilter(final ServletRequest request, final ServletResponse response, final FilterChain filterChain)
+            throws IOException, ServletException {
+        if (!(request instanceof HttpServletRequest)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        Suspension suspension = (Suspension) httpRequest.getAttribute(SUSPENSION_ATTRIBUTE);
+        boolean dispatched = suspension != null && httpRequest.getDispatcherType() == DispatcherType.ASYNC;
+        try {
+            if (dispatched) {
+                resume(suspension);
+            } else {
+                pre(httpRequest);
+            }
+            filterChain.doFilter(request, response);
+        } finally {
+            if (httpRequest.isAsyncStarted()) {
+                if (!dispatched) {
+                    suspension = suspend();
+                    httpRequest.setAttribute(SUSPENSION_ATTRIBUTE, suspension);
+                    httpRequest.getAsyncContext()
+                            .addListener(new CompletionListener(suspension, (HttpServletResponse) response));
+                }
+                RequestLogContext.clear();
+            } else if (dispatched) {
+                complete(suspension, (HttpServletResponse) response);
+            } else {
+                post((HttpServletResponse) response);
+            }
+        }
+    }
+
+    private class CompletionListener implements AsyncListener {
+        private final Suspension suspension;
+        private final HttpServletResponse response;
+
+        CompletionListener(Suspension suspension, HttpServletResponse response) {
+            this.suspension = suspension;
+            this.response = response;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            complete(suspension, response);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            // onComplete follows, once the container has set the status
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            // onComplete follows, once the container has set the status
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // listeners are dropped when async is restarted by a dispatch
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,267 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * ONAP - Logging
+ * ================================================================================
+ * Copyright (C) 2021 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.filter.base;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
+
+/**
+ * Moves decoding, gunzipping, redaction and logging of captured payloads off the request thread. Captured bytes are
+ * queued on a bounded ring buffer together with an MDC snapshot, and a single daemon worker renders and logs them. When
+ * the buffer is full the configured drop policy applies and the drop is counted.
+ *
+ * Enabled for the payload logging filters with -DFILTER_PAYLOAD_ASYNC=true, and tuned with FILTER_PAYLOAD_QUEUE_SIZE,
+ * FILTER_PAYLOAD_DROP_POLICY and FILTER_PAYLOAD_REDACT_PATTERN.
+ */
+public class AsyncPayloadLogger {
+    public static final String ASYNC_PROPERTY = "FILTER_PAYLOAD_ASYNC";
+    public static final String QUEUE_SIZE_PROPERTY = "FILTER_PAYLOAD_QUEUE_SIZE";
+    public static final String DROP_POLICY_PROPERTY = "FILTER_PAYLOAD_DROP_POLICY";
+    public static final String REDACT_PATTERN_PROPERTY = "FILTER_PAYLOAD_REDACT_PATTERN";
+    protected static final int DEFAULT_QUEUE_SIZE = 1024;
+    private static final Logger logger = LoggerFactory.getLogger(AsyncPayloadLogger.class);
+    private static volatile AsyncPayloadLogger instance;
+
+    public enum DropPolicy {
+        /** Discard the payload being submitted. */
+        DROP_NEWEST,
+        /** Discard the oldest queued payload to make room. */
+        DROP_OLDEST,
+        /** Render and log on the submitting thread. */
+        CALLER_RUNS
+    }
+
+    private final BlockingQueue<PayloadEvent> queue;
+    private final DropPolicy dropPolicy;
+    private final Pattern redactPattern;
+    private final Thread worker;
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder logged = new LongAdder();
+    private volatile boolean running = true;
+
+    public AsyncPayloadLogger(int capacity, DropPolicy dropPolicy, Pattern redactPattern) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.dropPolicy = dropPolicy;
+        this.redactPattern = redactPattern;
+        this.worker = new Thread(this::drain, "payload-logger");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty(ASYNC_PROPERTY));
+    }
+
+    public static AsyncPayloadLogger getInstance() {
+        AsyncPayloadLogger result = instance;
+        if (result == null) {
+            synchronized (AsyncPayloadLogger.class) {
+                result = instance;
+                if (result == null) {
+                    result = fromProperties();
+                    instance = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    protected static AsyncPayloadLogger fromProperties() {
+        int capacity = DEFAULT_QUEUE_SIZE;
+        DropPolicy policy = DropPolicy.DROP_NEWEST;
+        Pattern pattern = null;
+        try {
+            String value = System.getProperty(QUEUE_SIZE_PROPERTY);
+            if (value != null) {
+                capacity = Integer.parseInt(value);
+            }
+            value = System.getProperty(DROP_POLICY_PROPERTY);
+            if (value != null) {
+                policy = DropPolicy.valueOf(value);
+            }
+            value = System.getProperty(REDACT_PATTERN_PROPERTY);
+            if (value != null) {
+                pattern = Pattern.compile(value);
+            }
+        } catch (Exception e) {
+            logger.warn("Invalid payload logging configuration, using defaults", e);
+        }
+        return new AsyncPayloadLogger(capacity, policy, pattern);
+    }
+
+    public void log(Logger target, Level level, String format, byte[] body, Charset charset) {
+        submit(new PayloadEvent(target, level, format, body, charset, -1));
+    }
+
+    /**
+     * Like log, but the body is (possibly truncated) gzip data, logged decompressed up to maxSize bytes.
+     */
+    public void logGzip(Logger target, Level level, String format, byte[] body, Charset charset, int maxSize) {
+        submit(new PayloadEvent(target, level, format, body, charset, maxSize));
+    }
+
+    protected void submit(PayloadEvent event) {
+        submitted.increment();
+        if (!running) {
+            dropped.increment();
+            return;
+        }
+        if (queue.offer(event)) {
+            return;
+        }
+        switch (dropPolicy) {
+            case DROP_OLDEST:
+                while (!queue.offer(event)) {
+                    if (queue.poll() != null) {
+                        dropped.increment();
+                    }
+                }
+                break;
+            case CALLER_RUNS:
+                write(event);
+                break;
+            default:
+                dropped.increment();
+        }
+    }
+
+    private void drain() {
+        while (running || !queue.isEmpty()) {
+            try {
+                PayloadEvent event = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (event != null) {
+                    write(event);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (Exception e) {
+                logger.warn("Failed to log payload", e);
+            }
+        }
+    }
+
+    protected void write(PayloadEvent event) {
+        MDCSnapshot previous = event.context.apply();
+        try {
+            String text = event.gzipMaxSize < 0 ? new String(event.body, event.charset)
+                    : gunzip(event.body, event.charset, event.gzipMaxSize);
+            text = redact(text);
+            switch (event.level) {
+                case ERROR:
+                    event.logger.error(event.format, text);
+                    break;
+                case WARN:
+                    event.logger.warn(event.format, text);
+                    break;
+                case INFO:
+                    event.logger.info(event.format, text);
+                    break;
+                case DEBUG:
+                    event.logger.debug(event.format, text);
+                    break;
+                default:
+                    event.logger.trace(event.format, text);
+            }
+            logged.increment();
+        } finally {
+            MDCSnapshot.restore(previous);
+        }
+    }
+
+    protected String redact(String text) {
+        return redactPattern == null ? text : redactPattern.matcher(text).replaceAll(Constants.REDACTED);
+    }
+
+    /**
+     * Decompresses as much of a possibly truncated gzip capture as can be decoded, up to maxSize bytes.
+     */
+    public static String gunzip(byte[] bytes, Charset charset, int maxSize) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            byte[] buf = new byte[8192];
+            int n;
+            while (out.size() < maxSize && (n = in.read(buf, 0, Math.min(buf.length, maxSize - out.size()))) > 0) {
+                out.write(buf, 0, n);
+            }
+        } catch (Exception e) {
+            logger.debug("Gzip payload truncated or invalid after {} bytes", out.size(), e);
+        }
+        return new String(out.toByteArray(), charset);
+    }
+
+    /**
+     * Stops accepting payloads and waits for the queued ones to be logged.
+     */
+    public void shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+        running = false;
+        worker.join(unit.toMillis(timeout));
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    public long getSubmittedCount() {
+        return submitted.sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public long getLoggedCount() {
+        return logged.sum();
+    }
+
+    protected static class PayloadEvent {
+        final Logger logger;
+        final Level level;
+        final String format;
+        final byte[] body;
+        final Charset charset;
+        final int gzipMaxSize;
+        final MDCSnapshot context;
+
+        PayloadEvent(Logger logger, Level level, String format, byte[] body, Charset charset, int gzipMaxSize) {
+            this.logger = logger;
+            this.level = level;
+            this.format = format;
+            this.body = body;
+            this.charset = charset;
+            this.gzipMaxSize = gzipMaxSize;
+            this.context = MDCSnapshot.capture();
+        }
+    }
+}
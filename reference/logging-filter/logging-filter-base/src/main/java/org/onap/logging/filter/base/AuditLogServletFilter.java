@@ -32,6 +32,7 @@ import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import org.onap.logging.ref.slf4j.ONAPLogConstants;
+import org.onap.logging.ref.slf4j.RequestLogContext;
 import org.slf4j.MDC;
 
 public class AuditLogServletFilter extends AbstractAuditLogFilter<HttpServletRequest, HttpServletResponse>
@@ -54,7 +55,7 @@ public class AuditLogServletFilter extends AbstractAuditLogFilter<HttpServletReq
             if (request != null && request instanceof HttpServletRequest) {
                 post((HttpServletRequest) request, (HttpServletResponse) response);
             }
-            MDC.clear();
+            RequestLogContext.clear();
         }
     }
 
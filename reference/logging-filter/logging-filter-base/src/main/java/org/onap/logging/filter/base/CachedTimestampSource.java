@@ -0,0 +1,120 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * ONAP - Logging
+ * ================================================================================
+ * Copyright (C) 2021 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.filter.base;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Same output as DateTimeFormatterBuilder.appendInstant(precision). The "yyyy-MM-ddTHH:mm:ss" prefix is cached per
+ * thread and only rewritten when the second changes.
+ */
+public class CachedTimestampSource implements TimestampSource {
+    protected static final int MAX_PRECISION = 9;
+    private static final int PREFIX_LENGTH = 19;
+    private static final int[] POWERS_OF_TEN =
+            {1, 10, 100, 1000, 10000, 100000, 1000000, 10000000, 100000000, 1000000000};
+
+    private final Clock clock;
+    private final int precision;
+    private final int length;
+    private final ThreadLocal<Buffer> buffers = ThreadLocal.withInitial(Buffer::new);
+
+    public CachedTimestampSource(int precision) {
+        this(precision, Clock.systemUTC());
+    }
+
+    public CachedTimestampSource(int precision, Clock clock) {
+        if (precision < 0 || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("precision must be between 0 and " + MAX_PRECISION + ": " + precision);
+        }
+        this.precision = precision;
+        this.clock = clock;
+        this.length = PREFIX_LENGTH + (precision > 0 ? precision + 1 : 0) + 1;
+    }
+
+    @Override
+    public String getCurrentTimeStamp() {
+        long epochSecond;
+        int nanos;
+        if (precision <= 3) {
+            long millis = clock.millis();
+            epochSecond = Math.floorDiv(millis, 1000L);
+            nanos = (int) Math.floorMod(millis, 1000L) * 1000000;
+        } else {
+            Instant now = clock.instant();
+            epochSecond = now.getEpochSecond();
+            nanos = now.getNano();
+        }
+        return format(epochSecond, nanos);
+    }
+
+    protected String format(long epochSecond, int nanos) {
+        Buffer buffer = buffers.get();
+        char[] chars = buffer.chars;
+        if (buffer.epochSecond != epochSecond) {
+            writePrefix(chars, epochSecond);
+            buffer.epochSecond = epochSecond;
+        }
+        int pos = PREFIX_LENGTH;
+        if (precision > 0) {
+            chars[pos++] = '.';
+            int fraction = nanos / POWERS_OF_TEN[MAX_PRECISION - precision];
+            for (int i = pos + precision - 1; i >= pos; i--) {
+                chars[i] = (char) ('0' + fraction % 10);
+                fraction /= 10;
+            }
+            pos += precision;
+        }
+        chars[pos] = 'Z';
+        return new String(chars, 0, length);
+    }
+
+    private static void writePrefix(char[] chars, long epochSecond) {
+        LocalDateTime time = LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+        writeDigits(chars, 0, time.getYear(), 4);
+        chars[4] = '-';
+        writeDigits(chars, 5, time.getMonthValue(), 2);
+        chars[7] = '-';
+        writeDigits(chars, 8, time.getDayOfMonth(), 2);
+        chars[10] = 'T';
+        writeDigits(chars, 11, time.getHour(), 2);
+        chars[13] = ':';
+        writeDigits(chars, 14, time.getMinute(), 2);
+        chars[16] = ':';
+        writeDigits(chars, 17, time.getSecond(), 2);
+    }
+
+    private static void writeDigits(char[] chars, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private static final class Buffer {
+        private final char[] chars = new char[PREFIX_LENGTH + MAX_PRECISION + 2];
+        private long epochSecond = Long.MIN_VALUE;
+    }
+}
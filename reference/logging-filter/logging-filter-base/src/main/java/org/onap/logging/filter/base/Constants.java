@@ -37,6 +37,7 @@ public class Constants {
         public static final String ONAP_REQUEST_ID = "X-ONAP-RequestID";
         public static final String INVOCATION_ID_HEADER = "X-InvocationID";
         public static final String TARGET_ENTITY_HEADER = "X-Target-Entity";
+        public static final String SAMPLED = "X-ONAP-Sampled";
     }
 
     public static final class Property {
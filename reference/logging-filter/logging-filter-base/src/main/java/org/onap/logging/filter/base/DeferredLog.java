@@ -0,0 +1,125 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * ONAP - Logging
+ * ================================================================================
+ * Copyright (C) 2021 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.logging.filter.base;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The log entries of a DEFERRED inbound request, held until it completes so that its ENTRY, the INVOKE and
+ * INVOKE-RETURN of every call it made and its EXIT are kept or dropped together. Open requests are keyed by
+ * ServerInvocationID, which travels with the MDC to whichever thread makes the calls. A request keeps at most
+ * {@link #MAX_CALLS} calls; later ones, and calls finishing after the request, are decided on their own.
+ */
+final class DeferredLog {
+    static final int MAX_CALLS = 256;
+    private static final Map<String, DeferredLog> open = new ConcurrentHashMap<>();
+
+    private final MDCSnapshot entry;
+    private final List<Call> calls = new ArrayList<>();
+    private boolean callKept;
+
+    private DeferredLog(MDCSnapshot entry) {
+        this.entry = entry;
+    }
+
+    /**
+     * Starts buffering for the request whose ENTRY was just captured.
+     */
+    static void open(String serverInvocationId, MDCSnapshot entry) {
+        if (serverInvocationId != null) {
+            open.put(serverInvocationId, new DeferredLog(entry));
+        }
+    }
+
+    static DeferredLog get(String serverInvocationId) {
+        return serverInvocationId == null ? null : open.get(serverInvocationId);
+    }
+
+    /**
+     * Stops buffering for a request, returning what was buffered.
+     */
+    static DeferredLog close(String serverInvocationId) {
+        return serverInvocationId == null ? null : open.remove(serverInvocationId);
+    }
+
+    /**
+     * Buffers a completed call.
+     *
+     * @param kept whether the call alone meets its tail policy, which keeps the whole request
+     * @return false if the request already holds {@link #MAX_CALLS} calls
+     */
+    synchronized boolean add(AbstractBaseMetricLogFilter<?, ?> filter, MDCSnapshot invoke, MDCSnapshot invokeReturn,
+            boolean kept) {
+        if (calls.size() >= MAX_CALLS) {
+            return false;
+        }
+        calls.add(new Call(filter, invoke, invokeReturn));
+        callKept |= kept;
+        return true;
+    }
+
+    synchronized boolean isCallKept() {
+        return callKept;
+    }
+
+    MDCSnapshot getEntry() {
+        return entry;
+    }
+
+    /**
+     * Logs the buffered calls in the order they completed, each with its own MDC, then restores this thread's.
+     */
+    synchronized void logCalls() {
+        if (calls.isEmpty()) {
+            return;
+        }
+        MDCSnapshot previous = MDCSnapshot.capture();
+        try {
+            for (Call call : calls) {
+                call.log();
+            }
+        } finally {
+            MDCSnapshot.restore(previous);
+        }
+    }
+
+    private static final class Call {
+        private final AbstractBaseMetricLogFilter<?, ?> filter;
+        private final MDCSnapshot invoke;
+        private final MDCSnapshot invokeReturn;
+
+        Call(AbstractBaseMetricLogFilter<?, ?> filter, MDCSnapshot invoke, MDCSnapshot invokeReturn) {
+            this.filter = filter;
+            this.invoke = invoke;
+            this.invokeReturn = invokeReturn;
+        }
+
+        void log() {
+            invoke.apply();
+            filter.logRequest();
+            invokeReturn.apply();
+            filter.logResponse();
+        }
+    }
+}
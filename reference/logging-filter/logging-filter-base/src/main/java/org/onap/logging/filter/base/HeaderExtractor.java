@@ -0,0 +1,169 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * ONAP - Logging
+ * ================================================================================
+ * Copyright (C) 2021 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.filter.base;
+
+import java.util.Enumeration;
+import java.util.Locale;
+import org.onap.logging.ref.slf4j.ONAPLogConstants;
+
+/**
+ * Resolves the RequestID, InvocationID, PartnerName and target entity headers in a single pass over the request's
+ * header names. Names are matched case-insensitively against an open-addressed table of interned lowercase names, so no
+ * String is allocated per header and the container is only asked for the values that are actually needed.
+ */
+public class HeaderExtractor {
+    private final String[] requestIdHeaders;
+    private final String[] partnerHeaders;
+    private final String[] names;
+    private final String[] table;
+    private final int[] positions;
+    private final int mask;
+    private final int invocationIdPosition;
+    private final int partnerPosition;
+    private final int targetEntityPosition;
+
+    public HeaderExtractor(String[] requestIdHeaders, String[] partnerHeaders) {
+        this.requestIdHeaders = requestIdHeaders;
+        this.partnerHeaders = partnerHeaders;
+        this.invocationIdPosition = requestIdHeaders.length;
+        this.partnerPosition = invocationIdPosition + 1;
+        this.targetEntityPosition = partnerPosition + partnerHeaders.length;
+        this.names = new String[targetEntityPosition + 1];
+        System.arraycopy(requestIdHeaders, 0, names, 0, requestIdHeaders.length);
+        names[invocationIdPosition] = ONAPLogConstants.Headers.INVOCATION_ID;
+        System.arraycopy(partnerHeaders, 0, names, partnerPosition, partnerHeaders.length);
+        names[targetEntityPosition] = Constants.HttpHeaders.TARGET_ENTITY_HEADER;
+
+        int size = Integer.highestOneBit(names.length * 4 - 1) << 1;
+        this.table = new String[size];
+        this.positions = new int[size];
+        this.mask = size - 1;
+        for (int position = 0; position < names.length; position++) {
+            String lowerCaseName = names[position].toLowerCase(Locale.ROOT).intern();
+            int i = hash(lowerCaseName) & mask;
+            while (table[i] != null && !table[i].equals(lowerCaseName)) {
+                i = (i + 1) & mask;
+            }
+            if (table[i] == null) {
+                // the same header listed twice keeps its highest priority
+                table[i] = lowerCaseName;
+                positions[i] = position;
+            }
+        }
+    }
+
+    boolean isFor(String[] requestIdHeaders, String[] partnerHeaders) {
+        return this.requestIdHeaders == requestIdHeaders && this.partnerHeaders == partnerHeaders;
+    }
+
+    public Headers extract(SimpleMap source) {
+        Enumeration<String> keys = source.keys();
+        if (keys == null) {
+            return new Headers(this, source, null);
+        }
+        String[] values = new String[names.length];
+        while (keys.hasMoreElements()) {
+            String name = keys.nextElement();
+            int position = positionOf(name);
+            if (position >= 0 && values[position] == null) {
+                values[position] = source.get(name);
+            }
+        }
+        return new Headers(this, null, values);
+    }
+
+    int positionOf(String name) {
+        if (name == null) {
+            return -1;
+        }
+        int i = hash(name) & mask;
+        for (String candidate = table[i]; candidate != null; candidate = table[i]) {
+            if (candidate == name || candidate.equalsIgnoreCase(name)) {
+                return positions[i];
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    private static int hash(String name) {
+        int h = 0;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            h = 31 * h + (c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c);
+        }
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * The header values of one request. When the source could not enumerate its names, each value is looked up by name
+     * on first use instead.
+     */
+    public static class Headers {
+        private final HeaderExtractor extractor;
+        private final SimpleMap source;
+        private final String[] values;
+
+        Headers(HeaderExtractor extractor, SimpleMap source, String[] values) {
+            this.extractor = extractor;
+            this.source = source;
+            this.values = values;
+        }
+
+        private String get(int position) {
+            return values != null ? values[position] : source.get(extractor.names[position]);
+        }
+
+        /**
+         * The first non-empty request ID header in priority order, or null.
+         */
+        public String getRequestId() {
+            for (int position = 0; position < extractor.invocationIdPosition; position++) {
+                String requestId = get(position);
+                if (requestId != null && !requestId.isEmpty()) {
+                    return requestId;
+                }
+            }
+            return null;
+        }
+
+        public String getInvocationId() {
+            return get(extractor.invocationIdPosition);
+        }
+
+        public int getPartnerHeaderCount() {
+            return extractor.partnerHeaders.length;
+        }
+
+        public String getPartnerHeaderName(int index) {
+            return extractor.partnerHeaders[index];
+        }
+
+        public String getPartnerHeader(int index) {
+            return get(extractor.partnerPosition + index);
+        }
+
+        public String getTargetEntity() {
+            return get(extractor.targetEntityPosition);
+        }
+    }
+}
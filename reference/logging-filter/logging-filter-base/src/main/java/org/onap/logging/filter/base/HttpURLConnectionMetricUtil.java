@@ -28,11 +28,24 @@ public class HttpURLConnectionMetricUtil
         extends AbstractMetricLogFilter<HttpURLConnection, HttpURLConnection, HttpURLConnection> {
     protected static final Logger logger = LoggerFactory.getLogger(HttpURLConnectionMetricUtil.class);
 
-    public void logBefore(HttpURLConnection request, ONAPComponentsList targetEntity) {
+    /**
+     * @return the call's state, to hand to {@link #logAfter(HttpURLConnection, OutboundSampling)}
+     */
+    public OutboundSampling logBefore(HttpURLConnection request, ONAPComponentsList targetEntity) {
         setTargetEntity(targetEntity);
-        pre(request, request);
+        return pre(request, request);
     }
 
+    public void logAfter(HttpURLConnection request, OutboundSampling sampling) {
+        post(request, request, sampling);
+    }
+
+    /**
+     * Logs the end of a call without its state, so it is logged whatever was sampled and no span is recorded.
+     *
+     * @deprecated use {@link #logAfter(HttpURLConnection, OutboundSampling)} with what logBefore returned
+     */
+    @Deprecated
     public void logAfter(HttpURLConnection request) {
         post(request, request);
     }
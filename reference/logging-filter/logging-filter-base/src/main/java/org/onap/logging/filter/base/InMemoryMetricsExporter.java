@@ -0,0 +1,38 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * ONAP - Logging
+ * ================================================================================
+ * Copyright (C) 2021 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.filter.base;
+
+/**
+ * Keeps the most recent snapshot, e.g. for tests or a JMX bean.
+ */
+public class InMemoryMetricsExporter implements MetricsExporter {
+    private volatile RedMetricsSnapshot lastSnapshot;
+
+    @Override
+    public void export(RedMetricsSnapshot snapshot) {
+        lastSnapshot = snapshot;
+    }
+
+    public RedMetricsSnapshot getLastSnapshot() {
+        return lastSnapshot;
+    }
+}
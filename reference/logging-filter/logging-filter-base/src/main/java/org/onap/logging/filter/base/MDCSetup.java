@@ -22,17 +22,20 @@ package org.onap.logging.filter.base;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
-import java.time.ZoneOffset;
+import java.nio.charset.StandardCharsets;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeFormatterBuilder;
 import java.time.temporal.ChronoUnit;
 import java.util.Base64;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import javax.servlet.http.HttpServletRequest;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
+import org.onap.logging.ref.slf4j.IDGenerators;
 import org.onap.logging.ref.slf4j.ONAPLogConstants;
+import org.onap.logging.ref.slf4j.RequestLogContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
@@ -44,12 +47,15 @@ public class MDCSetup {
     protected static final String serverIpAddressOverride = "SERVER_IP_ADDRESS_OVERRIDE";
     protected static final String serverFqdnOverride = "SERVER_FQDN_OVERRIDE";
     protected static final String INSTANT_PRECISION_OVERRIDE = "INSTANT_PRECISION_OVERRIDE";
+    private static final ThreadLocal<TimestampMarks> timestampMarks = ThreadLocal.withInitial(TimestampMarks::new);
     protected static final String checkHeaderLogPattern = "Checking {} header to determine the value of {}";
     protected String serverFqdn;
     protected String serverIpAddress;
     protected String[] prioritizedIdHeadersNames;
     protected String[] prioritizedPartnerHeadersNames;
     protected DateTimeFormatter iso8601Formatter;
+    protected TimestampSource timestampSource;
+    private volatile HeaderExtractor headerExtractor;
 
     public MDCSetup() {
         this.prioritizedIdHeadersNames =
@@ -59,10 +65,23 @@ public class MDCSetup {
                 new String[] {HttpHeaders.AUTHORIZATION, ONAPLogConstants.Headers.PARTNER_NAME, HttpHeaders.USER_AGENT};
         initServerFqdnandIp();
         this.iso8601Formatter = createFormatter();
+        this.timestampSource = createTimestampSource();
     }
 
     protected String getCurrentTimeStamp() {
-        return ZonedDateTime.now(ZoneOffset.UTC).format(iso8601Formatter);
+        return timestampSource.getCurrentTimeStamp();
+    }
+
+    protected TimestampSource createTimestampSource() {
+        try {
+            int instantPrecision = Integer.parseInt(System.getProperty(INSTANT_PRECISION_OVERRIDE, "3"));
+            if (instantPrecision >= 0 && instantPrecision <= CachedTimestampSource.MAX_PRECISION) {
+                return new CachedTimestampSource(instantPrecision);
+            }
+        } catch (NumberFormatException nfe) {
+            // createFormatter has already logged this
+        }
+        return new FormatterTimestampSource(iso8601Formatter);
     }
 
     protected DateTimeFormatter createFormatter() {
@@ -77,8 +96,21 @@ public class MDCSetup {
         return builder.toFormatter();
     }
 
+    /**
+     * @deprecated the audit filters fill the request's {@link RequestLogContext} through
+     *             {@link #setInstanceID(RequestLogContext)} instead, so overriding this no longer changes what they log
+     */
+    @Deprecated
     public void setInstanceID() {
-        MDC.put(ONAPLogConstants.MDCs.INSTANCE_UUID, INSTANCE_UUID);
+        MDC.put(ONAPLogConstants.MDCs.INSTANCE_UUID, getInstanceID());
+    }
+
+    protected void setInstanceID(RequestLogContext context) {
+        context.setInstanceUUID(getInstanceID());
+    }
+
+    protected String getInstanceID() {
+        return INSTANCE_UUID;
     }
 
     protected void initServerFqdnandIp() {
@@ -101,12 +133,34 @@ public class MDCSetup {
         }
     }
 
+    /**
+     * Sets the server's FQDN and IP address for the metric filters and aspects; the audit filters fill the request's
+     * {@link RequestLogContext} through {@link #setServerFQDN(RequestLogContext)} instead.
+     */
     public void setServerFQDN() {
         MDC.put(ONAPLogConstants.MDCs.SERVER_FQDN, serverFqdn);
         MDC.put(ONAPLogConstants.MDCs.SERVER_IP_ADDRESS, serverIpAddress);
     }
 
+    protected void setServerFQDN(RequestLogContext context) {
+        context.setServerFQDN(serverFqdn).setServerIPAddress(serverIpAddress);
+    }
+
+    /**
+     * @deprecated the audit filters fill the request's {@link RequestLogContext} through
+     *             {@link #setClientIPAddress(RequestLogContext, HttpServletRequest)} instead, so overriding this no
+     *             longer changes what they log
+     */
+    @Deprecated
     public void setClientIPAddress(HttpServletRequest httpServletRequest) {
+        MDC.put(ONAPLogConstants.MDCs.CLIENT_IP_ADDRESS, getClientIPAddress(httpServletRequest));
+    }
+
+    protected void setClientIPAddress(RequestLogContext context, HttpServletRequest httpServletRequest) {
+        context.setClientIPAddress(getClientIPAddress(httpServletRequest));
+    }
+
+    protected String getClientIPAddress(HttpServletRequest httpServletRequest) {
         String clientIpAddress = "";
         if (httpServletRequest != null) {
             // This logic is to avoid setting the client ip address to that of the load
@@ -118,47 +172,111 @@ public class MDCSetup {
                 clientIpAddress = httpServletRequest.getRemoteAddr();
             }
         }
-        MDC.put(ONAPLogConstants.MDCs.CLIENT_IP_ADDRESS, clientIpAddress);
+        return clientIpAddress;
     }
 
+    /**
+     * Sets the entry timestamp for the aspects; the audit filters fill the request's {@link RequestLogContext} through
+     * {@link #setEntryTimeStamp(RequestLogContext)} instead.
+     */
     public void setEntryTimeStamp() {
-        MDC.put(ONAPLogConstants.MDCs.ENTRY_TIMESTAMP, getCurrentTimeStamp());
+        MDC.put(ONAPLogConstants.MDCs.ENTRY_TIMESTAMP, markCurrentTimeStamp(TimestampMarks.ENTRY));
+    }
+
+    protected void setEntryTimeStamp(RequestLogContext context) {
+        context.setEntryTimestamp(markCurrentTimeStamp(TimestampMarks.ENTRY));
+    }
+
+    public void setInvokeTimeStamp() {
+        MDC.put(ONAPLogConstants.MDCs.INVOKE_TIMESTAMP, markCurrentTimeStamp(TimestampMarks.INVOKE));
+    }
+
+    /**
+     * Reads the request ID, invocation ID, partner name and target entity headers in one pass.
+     */
+    public HeaderExtractor.Headers extractHeaders(SimpleMap headers) {
+        return getHeaderExtractor().extract(headers);
+    }
+
+    protected HeaderExtractor getHeaderExtractor() {
+        HeaderExtractor extractor = headerExtractor;
+        // subclasses may replace the prioritized header names after construction
+        if (extractor == null || !extractor.isFor(prioritizedIdHeadersNames, prioritizedPartnerHeadersNames)) {
+            extractor = new HeaderExtractor(prioritizedIdHeadersNames, prioritizedPartnerHeadersNames);
+            headerExtractor = extractor;
+        }
+        return extractor;
     }
 
     public String getRequestId(SimpleMap headers) {
-        String requestId = null;
-        for (String headerName : this.prioritizedIdHeadersNames) {
-            logger.trace(checkHeaderLogPattern, headerName, ONAPLogConstants.Headers.REQUEST_ID);
-            requestId = headers.get(headerName);
-            if (requestId != null && !requestId.isEmpty()) {
-                return requestId;
-            }
+        return getRequestId(extractHeaders(headers));
+    }
+
+    public String getRequestId(HeaderExtractor.Headers headers) {
+        String requestId = headers.getRequestId();
+        if (requestId != null) {
+            return requestId;
         }
+        requestId = IDGenerators.nextID();
         logger.trace("No valid requestId headers. Generating requestId: {}", requestId);
-        return UUID.randomUUID().toString();
+        return requestId;
     }
 
+    /**
+     * @deprecated the audit filters fill the request's {@link RequestLogContext} through
+     *             {@link #setInvocationId(RequestLogContext, HeaderExtractor.Headers)} instead, so overriding this no
+     *             longer changes what they log
+     */
+    @Deprecated
     public void setInvocationId(SimpleMap headers) {
-        String invocationId = headers.get(ONAPLogConstants.Headers.INVOCATION_ID);
-        if (invocationId == null || invocationId.isEmpty())
-            invocationId = UUID.randomUUID().toString();
+        String invocationId = getInvocationId(headers);
         MDC.put(ONAPLogConstants.MDCs.SERVER_INVOCATION_ID, invocationId);
         MDC.put(ONAPLogConstants.MDCs.INVOCATION_ID, invocationId);
     }
 
+    protected void setInvocationId(RequestLogContext context, HeaderExtractor.Headers headers) {
+        String invocationId = getInvocationId(headers);
+        context.setServerInvocationID(invocationId).setInvocationID(invocationId);
+    }
+
+    protected String getInvocationId(SimpleMap headers) {
+        return getInvocationId(extractHeaders(headers));
+    }
+
+    protected String getInvocationId(HeaderExtractor.Headers headers) {
+        String invocationId = headers.getInvocationId();
+        if (invocationId == null || invocationId.isEmpty())
+            invocationId = IDGenerators.nextID();
+        return invocationId;
+    }
+
+    /**
+     * @deprecated the audit filters fill the request's {@link RequestLogContext} through
+     *             {@link #setMDCPartnerName(RequestLogContext, HeaderExtractor.Headers)} instead, so overriding this no
+     *             longer changes what they log
+     */
+    @Deprecated
     public void setMDCPartnerName(SimpleMap headers) {
         String partnerName = getMDCPartnerName(headers);
         MDC.put(ONAPLogConstants.MDCs.PARTNER_NAME, partnerName);
     }
 
+    protected void setMDCPartnerName(RequestLogContext context, HeaderExtractor.Headers headers) {
+        context.setPartnerName(getMDCPartnerName(headers));
+    }
+
     protected String getMDCPartnerName(SimpleMap headers) {
+        return getMDCPartnerName(extractHeaders(headers));
+    }
+
+    protected String getMDCPartnerName(HeaderExtractor.Headers headers) {
         String partnerName = null;
-        for (String headerName : prioritizedPartnerHeadersNames) {
-            logger.trace(checkHeaderLogPattern, headerName, ONAPLogConstants.MDCs.PARTNER_NAME);
+        for (int i = 0; i < headers.getPartnerHeaderCount(); i++) {
+            String headerName = headers.getPartnerHeaderName(i);
             if (headerName.equals(HttpHeaders.AUTHORIZATION)) {
-                partnerName = getBasicAuthUserName(headers);
+                partnerName = getBasicAuthUserName(headers.getPartnerHeader(i));
             } else {
-                partnerName = headers.get(headerName);
+                partnerName = headers.getPartnerHeader(i);
             }
             if (partnerName != null && !partnerName.isEmpty()) {
                 return partnerName;
@@ -171,39 +289,62 @@ public class MDCSetup {
     }
 
     public void setLogTimestamp() {
-        MDC.put(ONAPLogConstants.MDCs.LOG_TIMESTAMP, getCurrentTimeStamp());
+        MDC.put(ONAPLogConstants.MDCs.LOG_TIMESTAMP, markCurrentTimeStamp(TimestampMarks.LOG));
     }
 
-    public void setElapsedTime() {
-        try {
-            DateTimeFormatter timeFormatter = DateTimeFormatter.ISO_ZONED_DATE_TIME;
-            ZonedDateTime entryTimestamp =
-                    ZonedDateTime.parse(MDC.get(ONAPLogConstants.MDCs.ENTRY_TIMESTAMP), timeFormatter);
-            ZonedDateTime endTimestamp =
-                    ZonedDateTime.parse(MDC.get(ONAPLogConstants.MDCs.LOG_TIMESTAMP), timeFormatter);
+    protected String markCurrentTimeStamp(int slot) {
+        long nanos = System.nanoTime();
+        String timestamp = getCurrentTimeStamp();
+        timestampMarks.get().mark(slot, timestamp, nanos);
+        return timestamp;
+    }
 
-            MDC.put(ONAPLogConstants.MDCs.ELAPSED_TIME,
-                    Long.toString(ChronoUnit.MILLIS.between(entryTimestamp, endTimestamp)));
-        } catch (Exception e) {
-            logger.trace("Unable to calculate elapsed time due to error: {}", e.getMessage());
-        }
+    public void setElapsedTime() {
+        setElapsedTime(ONAPLogConstants.MDCs.ENTRY_TIMESTAMP);
     }
 
     public void setElapsedTimeInvokeTimestamp() {
+        setElapsedTime(ONAPLogConstants.MDCs.INVOKE_TIMESTAMP);
+    }
+
+    protected void setElapsedTime(String startTimestampKey) {
+        String startTimestamp = MDC.get(startTimestampKey);
+        String endTimestamp = MDC.get(ONAPLogConstants.MDCs.LOG_TIMESTAMP);
+        TimestampMarks marks = timestampMarks.get();
+        long startNanos = marks.getNanos(startTimestamp);
+        long endNanos = marks.getNanos(endTimestamp);
+        if (startNanos != TimestampMarks.NO_MARK && endNanos != TimestampMarks.NO_MARK) {
+            MDC.put(ONAPLogConstants.MDCs.ELAPSED_TIME,
+                    Long.toString(TimeUnit.NANOSECONDS.toMillis(endNanos - startNanos)));
+            return;
+        }
+        // the timestamps were not stamped on this thread (e.g. copied from another MDC), so fall back to parsing
         try {
             DateTimeFormatter timeFormatter = DateTimeFormatter.ISO_ZONED_DATE_TIME;
-            ZonedDateTime entryTimestamp =
-                    ZonedDateTime.parse(MDC.get(ONAPLogConstants.MDCs.INVOKE_TIMESTAMP), timeFormatter);
-            ZonedDateTime endTimestamp =
-                    ZonedDateTime.parse(MDC.get(ONAPLogConstants.MDCs.LOG_TIMESTAMP), timeFormatter);
+            ZonedDateTime startTime = ZonedDateTime.parse(startTimestamp, timeFormatter);
+            ZonedDateTime endTime = ZonedDateTime.parse(endTimestamp, timeFormatter);
 
-            MDC.put(ONAPLogConstants.MDCs.ELAPSED_TIME,
-                    Long.toString(ChronoUnit.MILLIS.between(entryTimestamp, endTimestamp)));
+            MDC.put(ONAPLogConstants.MDCs.ELAPSED_TIME, Long.toString(ChronoUnit.MILLIS.between(startTime, endTime)));
         } catch (Exception e) {
             logger.trace("Unable to calculate elapsed time due to error: {}", e.getMessage());
         }
     }
 
+    /**
+     * Feeds the RED metrics registry, when enabled, with the ElapsedTime in the MDC.
+     */
+    protected void recordMetrics(String kind, String name, int statusCode) {
+        RedMetricsRegistry metrics = RedMetricsRegistry.getInstance();
+        String elapsedTime = MDC.get(ONAPLogConstants.MDCs.ELAPSED_TIME);
+        if (metrics != null && elapsedTime != null) {
+            try {
+                metrics.record(kind, name, statusCode, Long.parseLong(elapsedTime));
+            } catch (NumberFormatException e) {
+                logger.trace("Unable to record metrics for elapsed time {}", elapsedTime);
+            }
+        }
+    }
+
     public void setResponseStatusCode(int code) {
         String statusCode;
         if (Response.Status.Family.familyOf(code).equals(Response.Status.Family.SUCCESSFUL)) {
@@ -268,17 +409,20 @@ public class MDCSetup {
     }
 
     protected String getBasicAuthUserName(SimpleMap headers) {
-        String encodedAuthorizationValue = headers.get(HttpHeaders.AUTHORIZATION);
-        if (encodedAuthorizationValue != null && encodedAuthorizationValue.startsWith("Basic")) {
+        return getBasicAuthUserName(headers.get(HttpHeaders.AUTHORIZATION));
+    }
+
+    protected String getBasicAuthUserName(String authorization) {
+        if (authorization != null && authorization.startsWith("Basic")) {
             try {
                 // This will strip the word Basic and single space
-                encodedAuthorizationValue = encodedAuthorizationValue.substring(6);
+                String encodedAuthorizationValue = authorization.length() > 6 ? authorization.substring(6) : "";
                 byte[] decodedBytes = Base64.getDecoder().decode(encodedAuthorizationValue);
-                String decodedString = new String(decodedBytes);
+                String decodedString = new String(decodedBytes, StandardCharsets.UTF_8);
                 int idx = decodedString.indexOf(':');
-                return decodedString.substring(0, idx);
+                return idx >= 0 ? decodedString.substring(0, idx) : null;
             } catch (IllegalArgumentException e) {
-                logger.error("could not decode basic auth value " + encodedAuthorizationValue, e);
+                logger.error("could not decode basic auth value " + authorization, e);
             }
         }
         return null;
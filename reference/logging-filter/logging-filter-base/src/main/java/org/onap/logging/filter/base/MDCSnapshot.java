@@ -0,0 +1,138 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * ONAP - Logging
+ * ================================================================================
+ * Copyright (C) 2021 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.filter.base;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.slf4j.MDC;
+
+/**
+ * Immutable capture of the MDC which can be applied to any number of tasks, on any thread (pooled, ForkJoinPool or
+ * virtual). Capture once and reuse it when fanning out, e.g. for StructuredTaskScope.fork(snapshot.wrap(callable)) or
+ * CompletableFuture.supplyAsync(snapshot.wrapSupplier(supplier)). Each task runs with the snapshot and the worker's
+ * previous MDC is restored afterwards, so caller-runs and work-stealing threads keep their own context.
+ */
+public final class MDCSnapshot {
+    public static final MDCSnapshot EMPTY = new MDCSnapshot(null);
+
+    // Never handed out, so it can be passed straight to MDC.setContextMap. Adapters which recognise their own copies
+    // (ONAPMDCAdapter) adopt it without copying.
+    private final Map<String, String> contextMap;
+
+    private MDCSnapshot(Map<String, String> contextMap) {
+        this.contextMap = contextMap;
+    }
+
+    public static MDCSnapshot capture() {
+        Map<String, String> contextMap = MDC.getCopyOfContextMap();
+        return contextMap == null || contextMap.isEmpty() ? EMPTY : new MDCSnapshot(contextMap);
+    }
+
+    public String get(String key) {
+        return contextMap == null ? null : contextMap.get(key);
+    }
+
+    public boolean isEmpty() {
+        return contextMap == null;
+    }
+
+    /**
+     * Installs this snapshot on the current thread.
+     *
+     * @return the MDC it replaced, to pass to {@link #restore(MDCSnapshot)}
+     */
+    public MDCSnapshot apply() {
+        MDCSnapshot previous = capture();
+        install(contextMap);
+        return previous;
+    }
+
+    public static void restore(MDCSnapshot previous) {
+        install(previous.contextMap);
+    }
+
+    private static void install(Map<String, String> contextMap) {
+        if (contextMap == null) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(contextMap);
+        }
+    }
+
+    public Runnable wrap(Runnable task) {
+        return () -> {
+            MDCSnapshot previous = apply();
+            try {
+                task.run();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    public <T> Callable<T> wrap(Callable<T> task) {
+        return () -> {
+            MDCSnapshot previous = apply();
+            try {
+                return task.call();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    public <T> Supplier<T> wrapSupplier(Supplier<T> task) {
+        return () -> {
+            MDCSnapshot previous = apply();
+            try {
+                return task.get();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    public <T, R> Function<T, R> wrapFunction(Function<T, R> task) {
+        return t -> {
+            MDCSnapshot previous = apply();
+            try {
+                return task.apply(t);
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    public <T> Consumer<T> wrapConsumer(Consumer<T> task) {
+        return t -> {
+            MDCSnapshot previous = apply();
+            try {
+                task.accept(t);
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+}
@@ -47,6 +47,21 @@ public class MetricLogClientFilter
         post(requestContext, responseContext);
     }
 
+    @Override
+    protected void setOutboundState(ClientRequestContext request, Object state) {
+        request.setProperty(OUTBOUND_STATE_PROPERTY_NAME, state);
+    }
+
+    @Override
+    protected Object getOutboundState(ClientRequestContext request) {
+        return request.getProperty(OUTBOUND_STATE_PROPERTY_NAME);
+    }
+
+    @Override
+    protected void removeOutboundState(ClientRequestContext request) {
+        request.removeProperty(OUTBOUND_STATE_PROPERTY_NAME);
+    }
+
     @Override
     protected void addHeader(MultivaluedMap<String, Object> requestHeaders, String headerName, String headerValue) {
         requestHeaders.add(headerName, headerValue);
@@ -28,6 +28,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.client.ClientRequestContext;
 import javax.ws.rs.client.ClientRequestFilter;
@@ -40,6 +41,7 @@ import javax.ws.rs.ext.WriterInterceptor;
 import javax.ws.rs.ext.WriterInterceptorContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
 
 public class PayloadLoggingClientFilter implements ClientRequestFilter, ClientResponseFilter, WriterInterceptor {
 
@@ -75,6 +77,20 @@ public class PayloadLoggingClientFilter implements ClientRequestFilter, ClientRe
         return stream;
     }
 
+    protected InputStream logInboundEntityAsync(InputStream stream, final Charset charset) throws IOException {
+        if (!stream.markSupported()) {
+            stream = new BufferedInputStream(stream);
+        }
+        stream.mark(maxEntitySize + 1);
+        final byte[] entity = new byte[maxEntitySize + 1];
+        final int entitySize = stream.read(entity);
+        final byte[] captured = Arrays.copyOf(entity, Math.max(0, Math.min(entitySize, maxEntitySize)));
+        AsyncPayloadLogger.getInstance().log(logger, Level.DEBUG,
+                entitySize > maxEntitySize ? "{}...more...\n" : "{}\n", captured, charset);
+        stream.reset();
+        return stream;
+    }
+
     @Override
     public void filter(ClientRequestContext requestContext) throws IOException {
         if (requestContext.hasEntity()) {
@@ -104,7 +120,12 @@ public class PayloadLoggingClientFilter implements ClientRequestFilter, ClientRe
         String method = formatMethod(requestContext);
         logger.debug("Response from method:{} performed on uri:{} has http status code:{} and response headers:{}",
                 method, requestContext.getUri(), responseContext.getStatus(), responseContext.getHeaders().toString());
-        if (responseContext.hasEntity()) {
+        if (responseContext.hasEntity() && AsyncPayloadLogger.isEnabled()) {
+            if (logger.isDebugEnabled()) {
+                responseContext
+                        .setEntityStream(logInboundEntityAsync(responseContext.getEntityStream(), DEFAULT_CHARSET));
+            }
+        } else if (responseContext.hasEntity()) {
             final StringBuilder sb = new StringBuilder();
             responseContext.setEntityStream(logInboundEntity(sb, responseContext.getEntityStream(), DEFAULT_CHARSET));
             logger.debug(sb.toString());
@@ -117,7 +138,12 @@ public class PayloadLoggingClientFilter implements ClientRequestFilter, ClientRe
     public void aroundWriteTo(WriterInterceptorContext context) throws IOException, WebApplicationException {
         final LoggingStream stream = (LoggingStream) context.getProperty(ENTITY_STREAM_PROPERTY);
         context.proceed();
-        if (stream != null) {
+        if (stream != null && AsyncPayloadLogger.isEnabled()) {
+            if (logger.isDebugEnabled()) {
+                AsyncPayloadLogger.getInstance().log(logger, Level.DEBUG,
+                        stream.isTruncated() ? "{}...more...\n" : "{}\n", stream.getEntity(), DEFAULT_CHARSET);
+            }
+        } else if (stream != null) {
             logger.debug(stream.getStringBuilder(DEFAULT_CHARSET).toString());
         }
     }
@@ -131,6 +157,15 @@ public class PayloadLoggingClientFilter implements ClientRequestFilter, ClientRe
             super(out);
         }
 
+        byte[] getEntity() {
+            final byte[] entity = baos.toByteArray();
+            return entity.length > maxEntitySize ? Arrays.copyOf(entity, maxEntitySize) : entity;
+        }
+
+        boolean isTruncated() {
+            return baos.size() > maxEntitySize;
+        }
+
         StringBuilder getStringBuilder(Charset charset) {
             // write entity to the builder
             final byte[] entity = baos.toByteArray();
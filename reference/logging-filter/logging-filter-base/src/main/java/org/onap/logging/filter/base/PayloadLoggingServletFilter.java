@@ -23,13 +23,14 @@
 package org.onap.logging.filter.base;
 
 import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
-import java.util.zip.GZIPInputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
 import javax.servlet.Filter;
 import javax.servlet.FilterChain;
 import javax.servlet.FilterConfig;
@@ -44,7 +45,15 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletRequestWrapper;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpServletResponseWrapper;
-
+import org.onap.logging.ref.slf4j.ONAPLogConstants;
+import org.slf4j.MDC;
+import org.slf4j.event.Level;
+
+/**
+ * Logs request and response headers and bodies. Bodies are streamed through unchanged while the first
+ * FILTER_MAX_REQUEST_SIZE/FILTER_MAX_RESPONSE_SIZE bytes are kept for logging, so memory use is bounded regardless of
+ * payload size. Request bodies are logged after the chain completes, once downstream has read them.
+ */
 public class PayloadLoggingServletFilter extends AbstractServletFilter implements Filter {
 
     private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(PayloadLoggingServletFilter.class);
@@ -52,6 +61,7 @@ public class PayloadLoggingServletFilter extends AbstractServletFilter implement
     private static Integer maxResponseSize;
     private static Integer maxRequestSize;
     protected static Boolean LOG_INVOKE;
+    private final MDCSetup mdcSetup = new MDCSetup();
 
     public PayloadLoggingServletFilter() {
         String maxRequestSizeOverride = System.getProperty("FILTER_MAX_REQUEST_SIZE");
@@ -69,143 +79,260 @@ public class PayloadLoggingServletFilter extends AbstractServletFilter implement
         }
     }
 
-    private static class ByteArrayServletStream extends ServletOutputStream {
-        ByteArrayOutputStream baos;
+    /**
+     * Keeps the first limit bytes written to it, growing on demand.
+     */
+    static class BoundedCapture {
+        private static final int INITIAL_SIZE = 1024;
+        private final int limit;
+        private byte[] buffer;
+        private int count;
+
+        BoundedCapture(int limit) {
+            this.limit = Math.max(limit, 0);
+            this.buffer = new byte[Math.min(this.limit, INITIAL_SIZE)];
+        }
 
-        ByteArrayServletStream(ByteArrayOutputStream baos) {
-            this.baos = baos;
+        void write(int b) {
+            if (count < limit) {
+                ensureCapacity(count + 1);
+                buffer[count++] = (byte) b;
+            }
         }
 
-        @Override
-        public void write(int param) throws IOException {
-            baos.write(param);
+        void write(byte[] b, int off, int len) {
+            int n = Math.min(len, limit - count);
+            if (n > 0) {
+                ensureCapacity(count + n);
+                System.arraycopy(b, off, buffer, count, n);
+                count += n;
+            }
         }
 
-        @Override
-        public boolean isReady() {
-            return true;
+        private void ensureCapacity(int capacity) {
+            if (capacity > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.min(limit, Math.max(capacity, buffer.length * 2)));
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, count);
+        }
+
+        int size() {
+            return count;
         }
 
         @Override
-        public void setWriteListener(WriteListener arg0) {
-            // this method does nothing
+        public String toString() {
+            return new String(buffer, 0, count);
         }
     }
 
+    static class CapturingServletInputStream extends ServletInputStream {
+        private final ServletInputStream delegate;
+        private final BoundedCapture capture;
 
-    private static class ByteArrayPrintWriter extends PrintWriter {
-        private ByteArrayOutputStream baos;
-        private int errorCode = -1;
-        private String errorMsg = "";
-        private boolean errored = false;
-
-        public ByteArrayPrintWriter(ByteArrayOutputStream out) {
-            super(out);
-            this.baos = out;
+        CapturingServletInputStream(ServletInputStream delegate, BoundedCapture capture) {
+            this.delegate = delegate;
+            this.capture = capture;
         }
 
-        public ServletOutputStream getStream() {
-            return new ByteArrayServletStream(baos);
+        @Override
+        public int read() throws IOException {
+            int b = delegate.read();
+            if (b >= 0) {
+                capture.write(b);
+            }
+            return b;
         }
 
-        public Boolean hasErrored() {
-            return errored;
+        @Override
+        public int read(byte[] buf, int off, int len) throws IOException {
+            int n = delegate.read(buf, off, len);
+            if (n > 0) {
+                capture.write(buf, off, n);
+            }
+            return n;
         }
 
-        public int getErrorCode() {
-            return errorCode;
+        @Override
+        public int available() throws IOException {
+            return delegate.available();
         }
 
-        public String getErrorMsg() {
-            return errorMsg;
+        @Override
+        public void close() throws IOException {
+            delegate.close();
         }
 
-        public void setError(int code) {
-            errorCode = code;
-            errored = true;
+        @Override
+        public boolean isFinished() {
+            return delegate.isFinished();
         }
 
-        public void setError(int code, String msg) {
-            errorMsg = msg;
-            errorCode = code;
-            errored = true;
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
         }
 
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            delegate.setReadListener(readListener);
+        }
     }
 
+    static class CapturingServletOutputStream extends ServletOutputStream {
+        private final ServletOutputStream delegate;
+        private final BoundedCapture capture;
 
-    private class BufferedServletInputStream extends ServletInputStream {
-        ByteArrayInputStream bais;
-
-        public BufferedServletInputStream(ByteArrayInputStream bais) {
-            this.bais = bais;
+        CapturingServletOutputStream(ServletOutputStream delegate, BoundedCapture capture) {
+            this.delegate = delegate;
+            this.capture = capture;
         }
 
         @Override
-        public int available() {
-            return bais.available();
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            capture.write(b);
         }
 
         @Override
-        public int read() {
-            return bais.read();
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+            capture.write(b, off, len);
         }
 
         @Override
-        public int read(byte[] buf, int off, int len) {
-            return bais.read(buf, off, len);
+        public void flush() throws IOException {
+            delegate.flush();
         }
 
         @Override
-        public boolean isFinished() {
-            return available() < 1;
+        public void close() throws IOException {
+            delegate.close();
         }
 
         @Override
         public boolean isReady() {
-            return true;
+            return delegate.isReady();
         }
 
         @Override
-        public void setReadListener(ReadListener arg0) {
-            // this method does nothing
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
         }
+    }
 
+    private static class CapturingRequestWrapper extends HttpServletRequestWrapper {
+        private final BoundedCapture capture;
+        private ServletInputStream inputStream;
+        private BufferedReader reader;
+
+        public CapturingRequestWrapper(HttpServletRequest request, int maxSize) {
+            super(request);
+            this.capture = new BoundedCapture(maxSize);
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (inputStream == null) {
+                inputStream = new CapturingServletInputStream(super.getInputStream(), capture);
+            }
+            return inputStream;
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            if (reader == null) {
+                reader = new BufferedReader(new InputStreamReader(getInputStream(), charset(getCharacterEncoding())));
+            }
+            return reader;
+        }
+
+        public BoundedCapture getCapture() {
+            return capture;
+        }
     }
 
+    private static class CapturingResponseWrapper extends HttpServletResponseWrapper {
+        private final BoundedCapture capture;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+        private int errorCode = -1;
+        private String errorMsg = "";
+        private boolean errored = false;
 
-    private class BufferedRequestWrapper extends HttpServletRequestWrapper {
-        ByteArrayInputStream bais;
-        ByteArrayOutputStream baos;
-        BufferedServletInputStream bsis;
-        byte[] buffer;
+        public CapturingResponseWrapper(HttpServletResponse response, int maxSize) {
+            super(response);
+            this.capture = new BoundedCapture(maxSize);
+        }
 
-        public BufferedRequestWrapper(HttpServletRequest req) throws IOException {
-            super(req);
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new CapturingServletOutputStream(super.getOutputStream(), capture);
+            }
+            return outputStream;
+        }
 
-            InputStream is = req.getInputStream();
-            baos = new ByteArrayOutputStream();
-            byte[] buf = new byte[1024];
-            int letti;
-            while ((letti = is.read(buf)) > 0) {
-                baos.write(buf, 0, letti);
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), charset(getCharacterEncoding())));
             }
-            buffer = baos.toByteArray();
+            return writer;
         }
 
         @Override
-        public ServletInputStream getInputStream() {
-            try {
-                bais = new ByteArrayInputStream(buffer);
-                bsis = new BufferedServletInputStream(bais);
-            } catch (Exception ex) {
-                log.error("Exception in getInputStream", ex);
+        public void flushBuffer() throws IOException {
+            flushWriter();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            super.sendError(sc);
+            errorCode = sc;
+            errored = true;
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            super.sendError(sc, msg);
+            errorMsg = msg;
+            errorCode = sc;
+            errored = true;
+        }
+
+        public void flushWriter() {
+            if (writer != null) {
+                writer.flush();
             }
-            return bsis;
         }
 
-        public byte[] getBuffer() {
-            return buffer;
+        public BoundedCapture getCapture() {
+            return capture;
+        }
+
+        public boolean hasErrored() {
+            return errored;
+        }
+
+        public int getErrorCode() {
+            return errorCode;
+        }
+
+        public String getErrorMsg() {
+            return errorMsg;
+        }
+    }
+
+    private static Charset charset(String encoding) {
+        try {
+            return encoding == null ? StandardCharsets.ISO_8859_1 : Charset.forName(encoding);
+        } catch (Exception e) {
+            return StandardCharsets.ISO_8859_1;
         }
     }
 
@@ -218,7 +345,13 @@ public class PayloadLoggingServletFilter extends AbstractServletFilter implement
     public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain filterChain)
             throws IOException, ServletException {
         final HttpServletRequest httpRequest = (HttpServletRequest) servletRequest;
-        BufferedRequestWrapper bufferedRequest = new BufferedRequestWrapper(httpRequest);
+        final SamplingDecision decision = getSamplingDecision(httpRequest);
+        if (decision == SamplingDecision.NOT_SAMPLED) {
+            filterChain.doFilter(servletRequest, servletResponse);
+            return;
+        }
+        final long start = System.nanoTime();
+        final CapturingRequestWrapper wrappedRequest = new CapturingRequestWrapper(httpRequest, maxRequestSize);
 
         StringBuilder requestHeaders = new StringBuilder("REQUEST|");
         requestHeaders.append(httpRequest.getMethod());
@@ -227,73 +360,43 @@ public class PayloadLoggingServletFilter extends AbstractServletFilter implement
         requestHeaders.append("|");
         requestHeaders.append(getSecureRequestHeaders(httpRequest));
 
-        log.info(requestHeaders.toString());
-
-        byte[] buffer = bufferedRequest.getBuffer();
-        if (buffer.length < maxRequestSize) {
-            log.info("REQUEST BODY|{}", new String(buffer));
-        } else {
-            log.info("REQUEST BODY|{}", new String(buffer, 0, maxRequestSize));
+        if (decision != SamplingDecision.DEFERRED) {
+            log.info(requestHeaders.toString());
         }
 
         final HttpServletResponse response = (HttpServletResponse) servletResponse;
-        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        final ByteArrayPrintWriter pw = new ByteArrayPrintWriter(baos);
-
-        HttpServletResponse wrappedResp = new HttpServletResponseWrapper(response) {
-            @Override
-            public PrintWriter getWriter() {
-                return pw;
-            }
-
-            @Override
-            public ServletOutputStream getOutputStream() {
-                return pw.getStream();
-            }
-
-            @Override
-            public void sendError(int sc) throws IOException {
-                super.sendError(sc);
-                pw.setError(sc);
-            }
-
-            @Override
-            public void sendError(int sc, String msg) throws IOException {
-                super.sendError(sc, msg);
-                pw.setError(sc, msg);
-            }
-        };
+        final CapturingResponseWrapper wrappedResp = new CapturingResponseWrapper(response, maxResponseSize);
 
         try {
-            filterChain.doFilter(bufferedRequest, wrappedResp);
+            filterChain.doFilter(wrappedRequest, wrappedResp);
         } catch (Exception e) {
             log.error("Chain Exception", e);
             throw e;
         } finally {
             try {
-                byte[] bytes = baos.toByteArray();
-                StringBuilder responseHeaders = new StringBuilder();
-                responseHeaders.append("RESPONSE HEADERS|").append(formatResponseHeaders(response));
-                responseHeaders.append("Status:").append(response.getStatus());
-                responseHeaders.append(";IsCommitted:").append(wrappedResp.isCommitted());
-
-                log.info(responseHeaders.toString());
-
-                if ("gzip".equals(response.getHeader("Content-Encoding"))) {
-                    log.info("UNGZIPED RESPONSE BODY|{}", decompressGZIPByteArray(bytes));
-                } else {
-                    if (bytes.length < maxResponseSize) {
-                        log.info("RESPONSE BODY|{}", new String(bytes));
+                wrappedResp.flushWriter();
+                if (decision != SamplingDecision.DEFERRED || keepDeferred(httpRequest, response, start)) {
+                    if (decision == SamplingDecision.DEFERRED) {
+                        log.info(requestHeaders.toString());
+                    }
+                    logBody("REQUEST BODY|{}", wrappedRequest.getCapture(), false);
+
+                    StringBuilder responseHeaders = new StringBuilder();
+                    responseHeaders.append("RESPONSE HEADERS|").append(formatResponseHeaders(response));
+                    responseHeaders.append("Status:").append(response.getStatus());
+                    responseHeaders.append(";IsCommitted:").append(wrappedResp.isCommitted());
+
+                    log.info(responseHeaders.toString());
+
+                    if ("gzip".equals(response.getHeader("Content-Encoding"))) {
+                        logBody("UNGZIPED RESPONSE BODY|{}", wrappedResp.getCapture(), true);
                     } else {
-                        log.info("RESPONSE BODY|{}", new String(bytes, 0, maxResponseSize));
+                        logBody("RESPONSE BODY|{}", wrappedResp.getCapture(), false);
                     }
-                }
 
-                if (pw.hasErrored()) {
-                    log.info("ERROR RESPONSE|{}:{}", pw.getErrorCode(), pw.getErrorMsg());
-                } else if (!wrappedResp.isCommitted()) {
-                    response.getOutputStream().write(bytes);
-                    response.getOutputStream().flush();
+                    if (wrappedResp.hasErrored()) {
+                        log.info("ERROR RESPONSE|{}:{}", wrappedResp.getErrorCode(), wrappedResp.getErrorMsg());
+                    }
                 }
             } catch (Exception e) {
                 log.error("Exception in response filter", e);
@@ -306,18 +409,60 @@ public class PayloadLoggingServletFilter extends AbstractServletFilter implement
         // this method does nothing
     }
 
-    private String decompressGZIPByteArray(byte[] bytes) {
-        StringBuilder str = new StringBuilder();
-        try (BufferedReader in =
-                new BufferedReader(new InputStreamReader(new GZIPInputStream(new ByteArrayInputStream(bytes))))) {
-            String content;
-            while ((content = in.readLine()) != null) {
-                str.append(content);
+    protected boolean keepDeferred(HttpServletRequest request, HttpServletResponse response, long start) {
+        SamplingPolicy policy = SamplingEngine.getInstance().getServicePolicy(getServiceName(request));
+        return policy.keep(response.getStatus(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Reuses the decision of an enclosing audit filter, otherwise decides from the request headers, taking the
+     * RequestID from the MDC or, like the audit filters, from the first of the request ID headers present.
+     */
+    protected SamplingDecision getSamplingDecision(HttpServletRequest request) {
+        SamplingDecision decision = SamplingEngine.current();
+        if (decision == null) {
+            SimpleMap headers = new SimpleServletHeadersMap(request);
+            String requestId = MDC.get(ONAPLogConstants.MDCs.REQUEST_ID);
+            if (requestId == null) {
+                requestId = mdcSetup.getRequestId(headers);
             }
-        } catch (Exception e) {
-            log.error("Failed get read GZIPInputStream", e);
+            decision = SamplingEngine.getInstance().decide(headers, requestId, getServiceName(request));
+        }
+        return decision;
+    }
+
+    /**
+     * The ServiceName the audit filters chose the policy by, or the request URI when there is no audit filter.
+     */
+    protected String getServiceName(HttpServletRequest request) {
+        String serviceName = MDC.get(ONAPLogConstants.MDCs.SERVICE_NAME);
+        return serviceName != null ? serviceName : request.getRequestURI();
+    }
+
+    /**
+     * Logs a captured body, on the payload logger worker when FILTER_PAYLOAD_ASYNC is set.
+     */
+    protected void logBody(String format, BoundedCapture capture, boolean gzip) {
+        if (!log.isInfoEnabled()) {
+            return;
         }
-        return str.toString();
+        if (AsyncPayloadLogger.isEnabled()) {
+            AsyncPayloadLogger payloadLogger = AsyncPayloadLogger.getInstance();
+            if (gzip) {
+                payloadLogger.logGzip(log, Level.INFO, format, capture.toByteArray(), Charset.defaultCharset(),
+                        maxResponseSize);
+            } else {
+                payloadLogger.log(log, Level.INFO, format, capture.toByteArray(), Charset.defaultCharset());
+            }
+        } else if (gzip) {
+            log.info(format, decompressGZIPByteArray(capture.toByteArray(), maxResponseSize));
+        } else {
+            log.info(format, capture);
+        }
+    }
+
+    static String decompressGZIPByteArray(byte[] bytes, int maxSize) {
+        return AsyncPayloadLogger.gunzip(bytes, Charset.defaultCharset(), maxSize);
     }
 
 }
@@ -0,0 +1,120 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * ONAP - Logging
+ * ================================================================================
+ * Copyright (C) 2021 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.filter.base;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+/**
+ * Renders snapshots in the Prometheus text exposition format (version 0.0.4): a requests counter per status code and a
+ * latency summary per series. The latest rendering is kept for a scrape endpoint to serve with {@link #getText()}, or
+ * call {@link #write(RedMetricsSnapshot, Appendable)} directly.
+ */
+public class PrometheusTextExporter implements MetricsExporter {
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4";
+    protected static final double[] QUANTILES = {0.5, 0.95, 0.99};
+    private final String prefix;
+    private volatile String text = "";
+
+    public PrometheusTextExporter() {
+        this("onap");
+    }
+
+    public PrometheusTextExporter(String prefix) {
+        this.prefix = prefix;
+    }
+
+    @Override
+    public void export(RedMetricsSnapshot snapshot) {
+        StringBuilder sb = new StringBuilder();
+        write(snapshot, sb);
+        text = sb.toString();
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void write(RedMetricsSnapshot snapshot, Appendable out) {
+        try {
+            String requests = prefix + "_requests_total";
+            out.append("# HELP ").append(requests).append(" Requests by status code.\n");
+            out.append("# TYPE ").append(requests).append(" counter\n");
+            for (RedMetricsSnapshot.Series series : snapshot.getSeries()) {
+                for (Map.Entry<Integer, Long> entry : series.getStatusCounts().entrySet()) {
+                    out.append(requests);
+                    labels(out, series, "status", String.valueOf(entry.getKey()));
+                    out.append(' ').append(String.valueOf(entry.getValue())).append('\n');
+                }
+            }
+
+            String duration = prefix + "_request_duration_milliseconds";
+            out.append("# HELP ").append(duration).append(" Request elapsed time.\n");
+            out.append("# TYPE ").append(duration).append(" summary\n");
+            for (RedMetricsSnapshot.Series series : snapshot.getSeries()) {
+                LatencyHistogram.Snapshot latency = series.getLatency();
+                for (double quantile : QUANTILES) {
+                    out.append(duration);
+                    labels(out, series, "quantile", String.valueOf(quantile));
+                    out.append(' ').append(String.valueOf(latency.getValueAtQuantile(quantile))).append('\n');
+                }
+                out.append(duration).append("_sum");
+                labels(out, series, null, null);
+                out.append(' ').append(String.valueOf(latency.getSum())).append('\n');
+                out.append(duration).append("_count");
+                labels(out, series, null, null);
+                out.append(' ').append(String.valueOf(latency.getCount())).append('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void labels(Appendable out, RedMetricsSnapshot.Series series, String name, String value)
+            throws IOException {
+        out.append("{kind=\"");
+        escape(out, series.getKind());
+        out.append("\",name=\"");
+        escape(out, series.getName());
+        out.append('"');
+        if (name != null) {
+            out.append(',').append(name).append("=\"");
+            escape(out, value);
+            out.append('"');
+        }
+        out.append('}');
+    }
+
+    private static void escape(Appendable out, String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '"') {
+                out.append('\\').append(c);
+            } else if (c == '\n') {
+                out.append("\\n");
+            } else {
+                out.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * ONAP - Logging
+ * ================================================================================
+ * Copyright (C) 2021 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.filter.base;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Rate, errors and duration per (kind, name): request counts per status code and a latency histogram, fed by the audit
+ * (kind "server", named by ServiceName) and metric (kind "client", named by TargetEntity) filters. Recording is
+ * lock-free. Series beyond the configured maximum are folded into the name "other" to bound memory when names carry
+ * ids.
+ *
+ * Disabled unless -DFILTER_METRICS_ENABLED=true or an instance is installed with {@link #setInstance}.
+ */
+public class RedMetricsRegistry {
+    public static final String ENABLED_PROPERTY = "FILTER_METRICS_ENABLED";
+    public static final String MAX_SERIES_PROPERTY = "FILTER_METRICS_MAX_SERIES";
+    public static final String KIND_SERVER = "server";
+    public static final String KIND_CLIENT = "client";
+    public static final String OVERFLOW_NAME = "other";
+    protected static final int DEFAULT_MAX_SERIES = 1000;
+    private static final Logger logger = LoggerFactory.getLogger(RedMetricsRegistry.class);
+    private static volatile RedMetricsRegistry instance;
+    private static volatile boolean initialized;
+
+    private final ConcurrentMap<String, ConcurrentMap<String, Series>> series = new ConcurrentHashMap<>();
+    private final List<MetricsExporter> exporters = new CopyOnWriteArrayList<>();
+    private final LongAdder seriesCount = new LongAdder();
+    private final int maxSeries;
+
+    public RedMetricsRegistry() {
+        this(DEFAULT_MAX_SERIES);
+    }
+
+    public RedMetricsRegistry(int maxSeries) {
+        this.maxSeries = maxSeries;
+    }
+
+    /**
+     * @return the registry the filters record into, or null if metrics are disabled
+     */
+    public static RedMetricsRegistry getInstance() {
+        if (!initialized) {
+            synchronized (RedMetricsRegistry.class) {
+                if (!initialized) {
+                    if (Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY))) {
+                        instance = fromProperties();
+                    }
+                    initialized = true;
+                }
+            }
+        }
+        return instance;
+    }
+
+    public static synchronized void setInstance(RedMetricsRegistry registry) {
+        instance = registry;
+        initialized = true;
+    }
+
+    protected static RedMetricsRegistry fromProperties() {
+        int maxSeries = DEFAULT_MAX_SERIES;
+        String value = System.getProperty(MAX_SERIES_PROPERTY);
+        if (value != null) {
+            try {
+                maxSeries = Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid {} {}, using {}", MAX_SERIES_PROPERTY, value, DEFAULT_MAX_SERIES);
+            }
+        }
+        RedMetricsRegistry registry = new RedMetricsRegistry(maxSeries);
+        for (MetricsExporter exporter : ServiceLoader.load(MetricsExporter.class)) {
+            registry.addExporter(exporter);
+        }
+        return registry;
+    }
+
+    public void record(String kind, String name, int statusCode, long elapsedMillis) {
+        Series s = getSeries(kind, name == null ? Constants.DefaultValues.UNKNOWN : name);
+        s.record(statusCode, elapsedMillis);
+    }
+
+    private Series getSeries(String kind, String name) {
+        ConcurrentMap<String, Series> byName = series.computeIfAbsent(kind, k -> new ConcurrentHashMap<>());
+        Series s = byName.get(name);
+        if (s == null) {
+            String seriesName = seriesCount.sum() < maxSeries ? name : OVERFLOW_NAME;
+            s = byName.computeIfAbsent(seriesName, n -> {
+                seriesCount.increment();
+                return new Series();
+            });
+        }
+        return s;
+    }
+
+    public RedMetricsSnapshot snapshot() {
+        List<RedMetricsSnapshot.Series> result = new ArrayList<>();
+        for (Map.Entry<String, ConcurrentMap<String, Series>> kind : series.entrySet()) {
+            for (Map.Entry<String, Series> entry : kind.getValue().entrySet()) {
+                Map<Integer, Long> statusCounts = new HashMap<>();
+                for (Map.Entry<Integer, LongAdder> count : entry.getValue().statusCounts.entrySet()) {
+                    statusCounts.put(count.getKey(), count.getValue().sum());
+                }
+                result.add(new RedMetricsSnapshot.Series(kind.getKey(), entry.getKey(), statusCounts,
+                        entry.getValue().latency.snapshot()));
+            }
+        }
+        return new RedMetricsSnapshot(System.currentTimeMillis(), result);
+    }
+
+    public void addExporter(MetricsExporter exporter) {
+        exporters.add(exporter);
+    }
+
+    public void removeExporter(MetricsExporter exporter) {
+        exporters.remove(exporter);
+    }
+
+    /**
+     * Takes a snapshot and hands it to every exporter; call on a schedule or from a scrape endpoint.
+     */
+    public RedMetricsSnapshot export() {
+        RedMetricsSnapshot snapshot = snapshot();
+        for (MetricsExporter exporter : exporters) {
+            try {
+                exporter.export(snapshot);
+            } catch (Exception e) {
+                logger.warn("Metrics exporter {} failed", exporter.getClass().getName(), e);
+            }
+        }
+        return snapshot;
+    }
+
+    private static class Series {
+        private final ConcurrentMap<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        void record(int statusCode, long elapsedMillis) {
+            LongAdder count = statusCounts.get(statusCode);
+            if (count == null) {
+                count = statusCounts.computeIfAbsent(statusCode, c -> new LongAdder());
+            }
+            count.increment();
+            latency.record(elapsedMillis);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * ONAP - Logging
+ * ================================================================================
+ * Copyright (C) 2021 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.filter.base;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Point-in-time copy of a {@link RedMetricsRegistry}.
+ */
+public class RedMetricsSnapshot {
+    private final long timestamp;
+    private final List<Series> series;
+
+    public RedMetricsSnapshot(long timestamp, List<Series> series) {
+        this.timestamp = timestamp;
+        this.series = Collections.unmodifiableList(series);
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public List<Series> getSeries() {
+        return series;
+    }
+
+    public Series getSeries(String kind, String name) {
+        for (Series s : series) {
+            if (s.getKind().equals(kind) && s.getName().equals(name)) {
+                return s;
+            }
+        }
+        return null;
+    }
+
+    public static class Series {
+        private final String kind;
+        private final String name;
+        private final Map<Integer, Long> statusCounts;
+        private final LatencyHistogram.Snapshot latency;
+
+        public Series(String kind, String name, Map<Integer, Long> statusCounts, LatencyHistogram.Snapshot latency) {
+            this.kind = kind;
+            this.name = name;
+            this.statusCounts = Collections.unmodifiableMap(statusCounts);
+            this.latency = latency;
+        }
+
+        public String getKind() {
+            return kind;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Request count per HTTP status code.
+         */
+        public Map<Integer, Long> getStatusCounts() {
+            return statusCounts;
+        }
+
+        public long getErrorCount() {
+            long errors = 0;
+            for (Map.Entry<Integer, Long> entry : statusCounts.entrySet()) {
+                if (entry.getKey() >= 400) {
+                    errors += entry.getValue();
+                }
+            }
+            return errors;
+        }
+
+        /**
+         * Elapsed time in milliseconds.
+         */
+        public LatencyHistogram.Snapshot getLatency() {
+            return latency;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * ONAP - Logging
+ * ================================================================================
+ * Copyright (C) 2021 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.filter.base;
+
+/**
+ * Whether a request's logs are written. Made once per RequestID and propagated downstream in the
+ * {@link Constants.HttpHeaders#SAMPLED} header.
+ */
+public enum SamplingDecision {
+    SAMPLED("1"),
+    NOT_SAMPLED("0"),
+    /** Buffered until the request completes, then kept only for errors or slow requests. */
+    DEFERRED("d");
+
+    private final String headerValue;
+
+    SamplingDecision(String headerValue) {
+        this.headerValue = headerValue;
+    }
+
+    public String getHeaderValue() {
+        return headerValue;
+    }
+
+    public static SamplingDecision fromHeaderValue(String value) {
+        if (value != null) {
+            for (SamplingDecision decision : values()) {
+                if (decision.headerValue.equals(value.trim())) {
+                    return decision;
+                }
+            }
+        }
+        return null;
+    }
+}
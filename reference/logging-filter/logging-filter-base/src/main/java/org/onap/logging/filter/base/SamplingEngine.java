@@ -0,0 +1,208 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * ONAP - Logging
+ * ================================================================================
+ * Copyright (C) 2021 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.filter.base;
+
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+/**
+ * Decides once per RequestID whether the audit, metric and payload filters log a request. Once a policy other than
+ * logging every request is configured, an inbound {@link Constants.HttpHeaders#SAMPLED} header is honoured, so the
+ * whole call chain follows the first service's decision; a received NOT_SAMPLED is treated as DEFERRED, so errors and
+ * slow requests are still kept. Otherwise the policy configured for the ServiceName (longest prefix) is used for
+ * inbound requests, and the policy for the TargetEntity for outbound calls made outside any inbound request. The
+ * decision is kept in the MDC for the rest of the request and sent on outbound calls. An unconfigured engine ignores
+ * the header, touches neither the MDC nor outbound headers, and logs every request exactly as before.
+ *
+ * The default instance is configured from system properties: SAMPLING_POLICY for the default policy,
+ * SAMPLING_POLICY.service.&lt;ServiceName prefix&gt; and SAMPLING_POLICY.target.&lt;TargetEntity&gt; for overrides,
+ * each a {@link SamplingPolicies#parse(String)} spec. Without any configuration every request is logged.
+ */
+public class SamplingEngine {
+    public static final String MDC_KEY = "Sampled";
+    public static final String POLICY_PROPERTY = "SAMPLING_POLICY";
+    public static final String SERVICE_POLICY_PREFIX = POLICY_PROPERTY + ".service.";
+    public static final String TARGET_POLICY_PREFIX = POLICY_PROPERTY + ".target.";
+    private static final Logger logger = LoggerFactory.getLogger(SamplingEngine.class);
+    private static volatile SamplingEngine instance;
+
+    private final SamplingPolicy defaultPolicy;
+    private final Map<String, SamplingPolicy> servicePolicies = new ConcurrentHashMap<>();
+    private final Map<String, SamplingPolicy> targetPolicies = new ConcurrentHashMap<>();
+
+    public SamplingEngine(SamplingPolicy defaultPolicy) {
+        this.defaultPolicy = defaultPolicy;
+    }
+
+    public static SamplingEngine getInstance() {
+        SamplingEngine result = instance;
+        if (result == null) {
+            synchronized (SamplingEngine.class) {
+                result = instance;
+                if (result == null) {
+                    result = fromProperties(System.getProperties());
+                    instance = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    public static void setInstance(SamplingEngine engine) {
+        instance = engine;
+    }
+
+    protected static SamplingEngine fromProperties(Properties properties) {
+        SamplingEngine engine = new SamplingEngine(parse(properties.getProperty(POLICY_PROPERTY)));
+        for (String name : properties.stringPropertyNames()) {
+            if (name.startsWith(SERVICE_POLICY_PREFIX)) {
+                engine.setServicePolicy(name.substring(SERVICE_POLICY_PREFIX.length()),
+                        parse(properties.getProperty(name)));
+            } else if (name.startsWith(TARGET_POLICY_PREFIX)) {
+                engine.setTargetPolicy(name.substring(TARGET_POLICY_PREFIX.length()),
+                        parse(properties.getProperty(name)));
+            }
+        }
+        return engine;
+    }
+
+    private static SamplingPolicy parse(String spec) {
+        if (spec == null) {
+            return SamplingPolicies.always();
+        }
+        try {
+            return SamplingPolicies.parse(spec);
+        } catch (Exception e) {
+            logger.warn("Invalid sampling policy {}, logging every request", spec, e);
+            return SamplingPolicies.always();
+        }
+    }
+
+    public SamplingEngine setServicePolicy(String serviceNamePrefix, SamplingPolicy policy) {
+        servicePolicies.put(serviceNamePrefix, policy);
+        return this;
+    }
+
+    public SamplingEngine setTargetPolicy(String targetEntity, SamplingPolicy policy) {
+        targetPolicies.put(targetEntity, policy);
+        return this;
+    }
+
+    /**
+     * Whether any policy other than logging every request is configured.
+     */
+    public boolean isConfigured() {
+        return defaultPolicy != SamplingPolicies.always() || !servicePolicies.isEmpty() || !targetPolicies.isEmpty();
+    }
+
+    public SamplingPolicy getServicePolicy(String serviceName) {
+        SamplingPolicy policy = defaultPolicy;
+        if (serviceName != null) {
+            int longest = -1;
+            for (Map.Entry<String, SamplingPolicy> entry : servicePolicies.entrySet()) {
+                if (serviceName.startsWith(entry.getKey()) && entry.getKey().length() > longest) {
+                    longest = entry.getKey().length();
+                    policy = entry.getValue();
+                }
+            }
+        }
+        return policy;
+    }
+
+    public SamplingPolicy getTargetPolicy(String targetEntity) {
+        SamplingPolicy policy = targetEntity == null ? null : targetPolicies.get(targetEntity);
+        return policy == null ? defaultPolicy : policy;
+    }
+
+    /**
+     * The decision for the request on this thread, or null if none was made.
+     */
+    public static SamplingDecision current() {
+        return SamplingDecision.fromHeaderValue(MDC.get(MDC_KEY));
+    }
+
+    /**
+     * Decides for an inbound request without touching the MDC.
+     */
+    public SamplingDecision decide(SimpleMap headers, String requestId, String serviceName) {
+        SamplingDecision decision = getReceivedDecision(headers);
+        return decision != null ? decision : getServicePolicy(serviceName).decide(requestId);
+    }
+
+    /**
+     * Decides for an inbound request and, if this engine is configured, records the decision in the MDC.
+     */
+    public SamplingDecision decideInbound(SimpleMap headers, String requestId, String serviceName) {
+        SamplingDecision decision = decide(headers, requestId, serviceName);
+        if (isConfigured()) {
+            MDC.put(MDC_KEY, decision.getHeaderValue());
+        }
+        return decision;
+    }
+
+    /**
+     * The caller's decision, or null if there is none or this engine is not configured: without sampling of its own a
+     * service must not let any client switch its logging off. NOT_SAMPLED becomes DEFERRED, so that errors and slow
+     * requests are kept whatever the caller decided.
+     */
+    private SamplingDecision getReceivedDecision(SimpleMap headers) {
+        if (!isConfigured()) {
+            return null;
+        }
+        SamplingDecision decision = SamplingDecision.fromHeaderValue(headers.get(Constants.HttpHeaders.SAMPLED));
+        return decision == SamplingDecision.NOT_SAMPLED ? SamplingDecision.DEFERRED : decision;
+    }
+
+    /**
+     * Decides for an outbound call, reusing the current request's decision when there is one.
+     */
+    public SamplingDecision decideOutbound(String requestId, String targetEntity) {
+        SamplingDecision decision = current();
+        return decision != null ? decision : getTargetPolicy(targetEntity).decide(requestId);
+    }
+
+    /**
+     * The policy which made, or will make, the decision for an outbound call.
+     */
+    public SamplingPolicy getOutboundPolicy(String serviceName, String targetEntity) {
+        return current() != null ? getServicePolicy(serviceName) : getTargetPolicy(targetEntity);
+    }
+
+    /**
+     * Final decision for a DEFERRED request, using ELAPSED_TIME from the MDC.
+     */
+    public static boolean keep(SamplingPolicy policy, int statusCode, String elapsedTime) {
+        long elapsedMillis = 0;
+        if (elapsedTime != null) {
+            try {
+                elapsedMillis = Long.parseLong(elapsedTime);
+            } catch (NumberFormatException e) {
+                logger.trace("Unable to parse elapsed time {}", elapsedTime, e);
+            }
+        }
+        return policy.keep(statusCode, elapsedMillis);
+    }
+}
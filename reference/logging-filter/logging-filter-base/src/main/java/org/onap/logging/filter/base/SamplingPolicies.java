@@ -0,0 +1,169 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * ONAP - Logging
+ * ================================================================================
+ * Copyright (C) 2021 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.filter.base;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Built-in sampling policies, also available by spec string:
+ * <ul>
+ * <li>always, never</li>
+ * <li>probabilistic:&lt;fraction&gt;, e.g. probabilistic:0.1, decided from a hash of the RequestID so every service
+ * makes the same choice for the same request</li>
+ * <li>rate:&lt;requests per second&gt;</li>
+ * <li>tail:&lt;slow millis&gt;:&lt;head spec&gt;, e.g. tail:2000:probabilistic:0.01, which keeps everything the head
+ * policy samples plus all errors and requests slower than the threshold</li>
+ * </ul>
+ */
+public final class SamplingPolicies {
+    private static final SamplingPolicy ALWAYS = requestId -> SamplingDecision.SAMPLED;
+    private static final SamplingPolicy NEVER = requestId -> SamplingDecision.NOT_SAMPLED;
+
+    private SamplingPolicies() {}
+
+    public static SamplingPolicy always() {
+        return ALWAYS;
+    }
+
+    public static SamplingPolicy never() {
+        return NEVER;
+    }
+
+    public static SamplingPolicy probabilistic(double fraction) {
+        return new ProbabilisticPolicy(fraction);
+    }
+
+    public static SamplingPolicy rateLimited(double perSecond) {
+        return new RateLimitedPolicy(perSecond);
+    }
+
+    public static SamplingPolicy tail(SamplingPolicy head, long slowMillis) {
+        return new TailPolicy(head, slowMillis);
+    }
+
+    public static SamplingPolicy parse(String spec) {
+        String trimmed = spec.trim();
+        int colon = trimmed.indexOf(':');
+        String name = colon < 0 ? trimmed : trimmed.substring(0, colon);
+        String argument = colon < 0 ? null : trimmed.substring(colon + 1);
+        switch (name) {
+            case "always":
+                return always();
+            case "never":
+                return never();
+            case "probabilistic":
+                return probabilistic(Double.parseDouble(requireArgument(spec, argument)));
+            case "rate":
+                return rateLimited(Double.parseDouble(requireArgument(spec, argument)));
+            case "tail":
+                String tailArgument = requireArgument(spec, argument);
+                int split = tailArgument.indexOf(':');
+                String head = split < 0 ? "never" : tailArgument.substring(split + 1);
+                long slowMillis = Long.parseLong(split < 0 ? tailArgument : tailArgument.substring(0, split));
+                return tail(parse(head), slowMillis);
+            default:
+                throw new IllegalArgumentException("Unknown sampling policy: " + spec);
+        }
+    }
+
+    private static String requireArgument(String spec, String argument) {
+        if (argument == null || argument.isEmpty()) {
+            throw new IllegalArgumentException("Sampling policy requires an argument: " + spec);
+        }
+        return argument;
+    }
+
+    static class ProbabilisticPolicy implements SamplingPolicy {
+        private final double fraction;
+
+        ProbabilisticPolicy(double fraction) {
+            if (fraction < 0 || fraction > 1) {
+                throw new IllegalArgumentException("fraction must be between 0 and 1: " + fraction);
+            }
+            this.fraction = fraction;
+        }
+
+        @Override
+        public SamplingDecision decide(String requestId) {
+            double sample = requestId == null ? ThreadLocalRandom.current().nextDouble() : hash(requestId);
+            return sample < fraction ? SamplingDecision.SAMPLED : SamplingDecision.NOT_SAMPLED;
+        }
+
+        /**
+         * Uniform in [0, 1) for a given RequestID.
+         */
+        static double hash(String requestId) {
+            long h = requestId.hashCode() * 0x9E3779B97F4A7C15L;
+            h ^= h >>> 32;
+            h *= 0xD6E8FEB86659FD93L;
+            h ^= h >>> 32;
+            return (h >>> 11) * 0x1.0p-53;
+        }
+    }
+
+    static class RateLimitedPolicy implements SamplingPolicy {
+        private final double perNano;
+        private final double capacity;
+        private double tokens;
+        private long last;
+
+        RateLimitedPolicy(double perSecond) {
+            this.perNano = perSecond / 1_000_000_000d;
+            this.capacity = Math.max(1, perSecond);
+            this.tokens = capacity;
+            this.last = System.nanoTime();
+        }
+
+        @Override
+        public synchronized SamplingDecision decide(String requestId) {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - last) * perNano);
+            last = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return SamplingDecision.SAMPLED;
+            }
+            return SamplingDecision.NOT_SAMPLED;
+        }
+    }
+
+    static class TailPolicy implements SamplingPolicy {
+        private final SamplingPolicy head;
+        private final long slowMillis;
+
+        TailPolicy(SamplingPolicy head, long slowMillis) {
+            this.head = head;
+            this.slowMillis = slowMillis;
+        }
+
+        @Override
+        public SamplingDecision decide(String requestId) {
+            SamplingDecision decision = head.decide(requestId);
+            return decision == SamplingDecision.SAMPLED ? decision : SamplingDecision.DEFERRED;
+        }
+
+        @Override
+        public boolean keep(int statusCode, long elapsedMillis) {
+            return statusCode >= 400 || elapsedMillis >= slowMillis;
+        }
+    }
+}
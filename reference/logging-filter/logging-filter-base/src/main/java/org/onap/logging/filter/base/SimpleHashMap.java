@@ -20,6 +20,8 @@
 
 package org.onap.logging.filter.base;
 
+import java.util.Collections;
+import java.util.Enumeration;
 import java.util.HashMap;
 
 public class SimpleHashMap implements SimpleMap {
@@ -34,4 +36,9 @@ public class SimpleHashMap implements SimpleMap {
         return map.get(key);
     }
 
+    @Override
+    public Enumeration<String> keys() {
+        return Collections.enumeration(map.keySet());
+    }
+
 }
@@ -20,6 +20,8 @@
 
 package org.onap.logging.filter.base;
 
+import java.util.Collections;
+import java.util.Enumeration;
 import javax.ws.rs.core.MultivaluedMap;
 
 public class SimpleJaxrsHeadersMap implements SimpleMap {
@@ -34,4 +36,9 @@ public class SimpleJaxrsHeadersMap implements SimpleMap {
         return map.getFirst(key);
     }
 
+    @Override
+    public Enumeration<String> keys() {
+        return Collections.enumeration(map.keySet());
+    }
+
 }
@@ -20,6 +20,15 @@
 
 package org.onap.logging.filter.base;
 
+import java.util.Enumeration;
+
 public interface SimpleMap {
     String get(String key);
+
+    /**
+     * The keys present, or null when they cannot be enumerated.
+     */
+    default Enumeration<String> keys() {
+        return null;
+    }
 }
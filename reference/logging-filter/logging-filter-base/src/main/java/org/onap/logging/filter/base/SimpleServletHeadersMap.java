@@ -20,6 +20,7 @@
 
 package org.onap.logging.filter.base;
 
+import java.util.Enumeration;
 import javax.servlet.http.HttpServletRequest;
 
 public class SimpleServletHeadersMap implements SimpleMap {
@@ -34,4 +35,9 @@ public class SimpleServletHeadersMap implements SimpleMap {
         return request.getHeader(key);
     }
 
+    @Override
+    public Enumeration<String> keys() {
+        return request.getHeaderNames();
+    }
+
 }
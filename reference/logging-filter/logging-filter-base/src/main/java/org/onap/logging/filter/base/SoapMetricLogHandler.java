@@ -53,6 +53,22 @@ public class SoapMetricLogHandler extends AbstractBaseMetricLogFilter<SOAPMessag
         return svc.getLocalPart() + ":" + op.getLocalPart();
     }
 
+    @Override
+    protected void setOutboundState(SOAPMessageContext ctx, Object state) {
+        ctx.put(OUTBOUND_STATE_PROPERTY_NAME, state);
+        ctx.setScope(OUTBOUND_STATE_PROPERTY_NAME, MessageContext.Scope.HANDLER);
+    }
+
+    @Override
+    protected Object getOutboundState(SOAPMessageContext ctx) {
+        return ctx.get(OUTBOUND_STATE_PROPERTY_NAME);
+    }
+
+    @Override
+    protected void removeOutboundState(SOAPMessageContext ctx) {
+        ctx.remove(OUTBOUND_STATE_PROPERTY_NAME);
+    }
+
     @Override
     public void close(MessageContext context) {
         // pass
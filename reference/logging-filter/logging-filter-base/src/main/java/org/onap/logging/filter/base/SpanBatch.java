@@ -0,0 +1,154 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * ONAP - Logging
+ * ================================================================================
+ * Copyright (C) 2021 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.filter.base;
+
+import java.util.Arrays;
+
+/**
+ * A fixed number of outbound call spans stored column-wise: three longs and an int per span, plus references to the
+ * target and ID strings already held by the MDC, so recording a span copies no text and allocates nothing.
+ */
+public final class SpanBatch {
+    private final long[] startMillis;
+    private final long[] startNanos;
+    private final long[] durationNanos;
+    private final int[] statusCodes;
+    private final String[] targetEntities;
+    private final String[] targetServiceNames;
+    private final String[] requestIds;
+    private final String[] invocationIds;
+    private final String[] parentInvocationIds;
+    private int size;
+    private long firstRecordNanos;
+
+    public SpanBatch(int capacity) {
+        startMillis = new long[capacity];
+        startNanos = new long[capacity];
+        durationNanos = new long[capacity];
+        statusCodes = new int[capacity];
+        targetEntities = new String[capacity];
+        targetServiceNames = new String[capacity];
+        requestIds = new String[capacity];
+        invocationIds = new String[capacity];
+        parentInvocationIds = new String[capacity];
+    }
+
+    /**
+     * @return false if the batch is full
+     */
+    boolean add(long startMillis, long startNanos, long durationNanos, int statusCode, String targetEntity,
+            String targetServiceName, String requestId, String invocationId, String parentInvocationId) {
+        if (size == statusCodes.length) {
+            return false;
+        }
+        if (size == 0) {
+            firstRecordNanos = System.nanoTime();
+        }
+        this.startMillis[size] = startMillis;
+        this.startNanos[size] = startNanos;
+        this.durationNanos[size] = durationNanos;
+        this.statusCodes[size] = statusCode;
+        this.targetEntities[size] = targetEntity;
+        this.targetServiceNames[size] = targetServiceName;
+        this.requestIds[size] = requestId;
+        this.invocationIds[size] = invocationId;
+        this.parentInvocationIds[size] = parentInvocationId;
+        size++;
+        return true;
+    }
+
+    void clear() {
+        Arrays.fill(targetEntities, 0, size, null);
+        Arrays.fill(targetServiceNames, 0, size, null);
+        Arrays.fill(requestIds, 0, size, null);
+        Arrays.fill(invocationIds, 0, size, null);
+        Arrays.fill(parentInvocationIds, 0, size, null);
+        size = 0;
+    }
+
+    boolean isFull() {
+        return size == statusCodes.length;
+    }
+
+    /**
+     * When the oldest span in the batch was recorded, by {@link System#nanoTime()}.
+     */
+    long getFirstRecordNanos() {
+        return firstRecordNanos;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return statusCodes.length;
+    }
+
+    /**
+     * Wall-clock start of the call, in epoch milliseconds.
+     */
+    public long getStartMillis(int index) {
+        return startMillis[index];
+    }
+
+    /**
+     * Start of the call by {@link System#nanoTime()}, for ordering and subtracting spans from the same JVM.
+     */
+    public long getStartNanos(int index) {
+        return startNanos[index];
+    }
+
+    public long getDurationNanos(int index) {
+        return durationNanos[index];
+    }
+
+    public int getStatusCode(int index) {
+        return statusCodes[index];
+    }
+
+    public String getTargetEntity(int index) {
+        return targetEntities[index];
+    }
+
+    public String getTargetServiceName(int index) {
+        return targetServiceNames[index];
+    }
+
+    public String getRequestId(int index) {
+        return requestIds[index];
+    }
+
+    /**
+     * The client invocation ID sent to the target as X-InvocationID.
+     */
+    public String getInvocationId(int index) {
+        return invocationIds[index];
+    }
+
+    /**
+     * The server invocation ID of the request this call was made on behalf of, if any.
+     */
+    public String getParentInvocationId(int index) {
+        return parentInvocationIds[index];
+    }
+}
@@ -0,0 +1,281 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * ONAP - Logging
+ * ================================================================================
+ * Copyright (C) 2021 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.filter.base;
+
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Records each outbound call made through the metric filters as a compact span (start, duration, target, status and
+ * IDs) in a per-thread {@link SpanBatch}, and hands full batches, or batches older than the flush interval, to every
+ * {@link SpanSink} on a background thread. That gives per-dependency latency at full fidelity for far less than the
+ * INVOKE and InvokeReturn log lines, which can be turned off entirely with -DFILTER_SPANS_REPLACE_LOGS=true.
+ *
+ * Batches the sinks cannot keep up with are dropped and counted rather than queued without bound.
+ *
+ * Disabled unless -DFILTER_SPANS_ENABLED=true or an instance is installed with {@link #setInstance}.
+ */
+public class SpanRecorder {
+    public static final String ENABLED_PROPERTY = "FILTER_SPANS_ENABLED";
+    public static final String BATCH_SIZE_PROPERTY = "FILTER_SPANS_BATCH_SIZE";
+    public static final String FLUSH_MILLIS_PROPERTY = "FILTER_SPANS_FLUSH_MILLIS";
+    public static final String REPLACE_LOGS_PROPERTY = "FILTER_SPANS_REPLACE_LOGS";
+    protected static final int DEFAULT_BATCH_SIZE = 256;
+    protected static final long DEFAULT_FLUSH_MILLIS = 1000;
+    protected static final int MAX_PENDING_BATCHES = 64;
+    private static final Logger logger = LoggerFactory.getLogger(SpanRecorder.class);
+    private static volatile SpanRecorder instance;
+    private static volatile boolean initialized;
+
+    private final int batchSize;
+    private final long flushNanos;
+    private final boolean replaceLogs;
+    private final List<SpanSink> sinks = new CopyOnWriteArrayList<>();
+    private final List<ThreadBuffer> buffers = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<ThreadBuffer> threadBuffer = ThreadLocal.withInitial(this::register);
+    private final BlockingQueue<SpanBatch> pending = new ArrayBlockingQueue<>(MAX_PENDING_BATCHES);
+    private final ConcurrentLinkedQueue<SpanBatch> pool = new ConcurrentLinkedQueue<>();
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    public SpanRecorder() {
+        this(DEFAULT_BATCH_SIZE, DEFAULT_FLUSH_MILLIS, false);
+    }
+
+    public SpanRecorder(int batchSize, long flushMillis, boolean replaceLogs) {
+        this.batchSize = batchSize;
+        this.flushNanos = TimeUnit.MILLISECONDS.toNanos(flushMillis);
+        this.replaceLogs = replaceLogs;
+        flusher = new Thread(this::run, "SpanRecorder");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * @return the recorder the metric filters record into, or null if spans are disabled
+     */
+    public static SpanRecorder getInstance() {
+        if (!initialized) {
+            synchronized (SpanRecorder.class) {
+                if (!initialized) {
+                    if (Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY))) {
+                        instance = fromProperties();
+                    }
+                    initialized = true;
+                }
+            }
+        }
+        return instance;
+    }
+
+    public static synchronized void setInstance(SpanRecorder recorder) {
+        instance = recorder;
+        initialized = true;
+    }
+
+    protected static SpanRecorder fromProperties() {
+        SpanRecorder recorder = new SpanRecorder((int) longProperty(BATCH_SIZE_PROPERTY, DEFAULT_BATCH_SIZE),
+                longProperty(FLUSH_MILLIS_PROPERTY, DEFAULT_FLUSH_MILLIS),
+                Boolean.parseBoolean(System.getProperty(REPLACE_LOGS_PROPERTY)));
+        for (SpanSink sink : ServiceLoader.load(SpanSink.class)) {
+            recorder.addSink(sink);
+        }
+        return recorder;
+    }
+
+    private static long longProperty(String name, long defaultValue) {
+        String value = System.getProperty(name);
+        if (value != null) {
+            try {
+                return Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid {} {}, using {}", name, value, defaultValue);
+            }
+        }
+        return defaultValue;
+    }
+
+    public void record(long startMillis, long startNanos, long durationNanos, int statusCode, String targetEntity,
+            String targetServiceName, String requestId, String invocationId, String parentInvocationId) {
+        ThreadBuffer buffer = threadBuffer.get();
+        synchronized (buffer) {
+            buffer.batch.add(startMillis, startNanos, durationNanos, statusCode, targetEntity, targetServiceName,
+                    requestId, invocationId, parentInvocationId);
+            if (buffer.batch.isFull()) {
+                buffer.batch = submit(buffer.batch);
+            }
+        }
+        recorded.increment();
+    }
+
+    public void addSink(SpanSink sink) {
+        sinks.add(sink);
+    }
+
+    public void removeSink(SpanSink sink) {
+        sinks.remove(sink);
+    }
+
+    /**
+     * Whether the metric filters should skip their INVOKE and InvokeReturn log lines.
+     */
+    public boolean isReplacingLogs() {
+        return replaceLogs;
+    }
+
+    public long getRecorded() {
+        return recorded.sum();
+    }
+
+    /**
+     * Spans lost because the sinks fell behind.
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Hands every thread's partial batch to the sinks and waits until they have been delivered.
+     */
+    public void flush() {
+        for (ThreadBuffer buffer : buffers) {
+            synchronized (buffer) {
+                if (buffer.batch.size() > 0) {
+                    buffer.batch = submit(buffer.batch);
+                }
+            }
+        }
+        long target = submitted.sum();
+        while (delivered.sum() < target && flusher.isAlive()) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    /**
+     * Stops the background thread after delivering what has been recorded.
+     */
+    public void shutdown() {
+        flush();
+        running = false;
+        flusher.interrupt();
+    }
+
+    private ThreadBuffer register() {
+        ThreadBuffer buffer = new ThreadBuffer(Thread.currentThread(), newBatch());
+        buffers.add(buffer);
+        return buffer;
+    }
+
+    private SpanBatch newBatch() {
+        SpanBatch batch = pool.poll();
+        return batch != null ? batch : new SpanBatch(batchSize);
+    }
+
+    /**
+     * Queues a batch for delivery and returns an empty one to record into next.
+     */
+    private SpanBatch submit(SpanBatch batch) {
+        if (!pending.offer(batch)) {
+            dropped.add(batch.size());
+            batch.clear();
+            return batch;
+        }
+        submitted.increment();
+        return newBatch();
+    }
+
+    private void run() {
+        long pollNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(10), flushNanos / 2);
+        while (running) {
+            try {
+                SpanBatch batch = pending.poll(pollNanos, TimeUnit.NANOSECONDS);
+                if (batch != null) {
+                    deliver(batch);
+                }
+                flushStale();
+            } catch (InterruptedException e) {
+                if (running) {
+                    continue;
+                }
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void deliver(SpanBatch batch) {
+        for (SpanSink sink : sinks) {
+            try {
+                sink.accept(batch);
+            } catch (Exception e) {
+                logger.warn("Span sink {} failed", sink.getClass().getName(), e);
+            }
+        }
+        batch.clear();
+        pool.offer(batch);
+        delivered.increment();
+    }
+
+    /**
+     * Submits partial batches that have waited longer than the flush interval, and forgets threads that have died.
+     */
+    private void flushStale() {
+        long now = System.nanoTime();
+        for (ThreadBuffer buffer : buffers) {
+            synchronized (buffer) {
+                if (buffer.batch.size() > 0 && now - buffer.batch.getFirstRecordNanos() >= flushNanos) {
+                    buffer.batch = submit(buffer.batch);
+                }
+                if (buffer.owner.get() == null || !buffer.owner.get().isAlive()) {
+                    if (buffer.batch.size() > 0) {
+                        submit(buffer.batch);
+                    }
+                    buffers.remove(buffer);
+                }
+            }
+        }
+    }
+
+    private static class ThreadBuffer {
+        private final WeakReference<Thread> owner;
+        private SpanBatch batch;
+
+        ThreadBuffer(Thread owner, SpanBatch batch) {
+            this.owner = new WeakReference<>(owner);
+            this.batch = batch;
+        }
+    }
+}
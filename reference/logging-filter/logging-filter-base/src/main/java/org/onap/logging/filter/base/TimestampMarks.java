@@ -0,0 +1,53 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * ONAP - Logging
+ * ================================================================================
+ * Copyright (C) 2021 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.filter.base;
+
+/**
+ * Monotonic System.nanoTime() marks recorded alongside the timestamp strings put in the MDC. A mark is only trusted
+ * while the MDC still holds the very same String instance, so marks left behind by an earlier request on a pooled
+ * thread are never used.
+ */
+final class TimestampMarks {
+    static final long NO_MARK = Long.MIN_VALUE;
+    static final int ENTRY = 0;
+    static final int INVOKE = 1;
+    static final int LOG = 2;
+
+    private final String[] timestamps = new String[3];
+    private final long[] nanos = new long[3];
+
+    void mark(int slot, String timestamp, long nanoTime) {
+        timestamps[slot] = timestamp;
+        nanos[slot] = nanoTime;
+    }
+
+    long getNanos(String timestamp) {
+        if (timestamp != null) {
+            for (int i = 0; i < timestamps.length; i++) {
+                if (timestamps[i] == timestamp) {
+                    return nanos[i];
+                }
+            }
+        }
+        return NO_MARK;
+    }
+}
@@ -0,0 +1,159 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * ONAP - Logging
+ * ================================================================================
+ * Copyright (C) 2021 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.filter.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.UriInfo;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.onap.logging.ref.slf4j.ONAPLogConstants;
+import org.slf4j.MDC;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AsyncAuditLogContainerFilterTest {
+
+    @Mock
+    private ContainerRequestContext containerRequest;
+
+    @Mock
+    private ContainerResponseContext containerResponse;
+
+    @Mock
+    private UriInfo uriInfo;
+
+    @Mock
+    private ResourceInfo resourceInfo;
+
+    @Spy
+    @InjectMocks
+    private AsyncAuditLogContainerFilter filter;
+
+    private final Map<String, Object> properties = new HashMap<>();
+
+    private final List<String> exits = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        MultivaluedMap<String, String> headerMap = new MultivaluedHashMap<>();
+        headerMap.putSingle(ONAPLogConstants.Headers.REQUEST_ID, "e3b08fa3-535f-4c1b-8228-91318d2bb4ee");
+        when(containerRequest.getHeaders()).thenReturn(headerMap);
+        when(uriInfo.getPath()).thenReturn("onap/so/serviceInstances");
+        when(containerRequest.getUriInfo()).thenReturn(uriInfo);
+        doAnswer(invocation -> properties.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(containerRequest).setProperty(any(), any());
+        when(containerRequest.getProperty(eq(AsyncAuditLogContainerFilter.SUSPENSION_PROPERTY)))
+                .thenAnswer(invocation -> properties.get(invocation.getArgument(0)));
+        when(containerResponse.getStatus()).thenReturn(200);
+        doAnswer(invocation -> exits
+                .add(MDC.get(ONAPLogConstants.MDCs.REQUEST_ID) + " " + MDC.get(ONAPLogConstants.MDCs.SERVICE_NAME)))
+                        .when(filter).logExiting();
+    }
+
+    @After
+    public void tearDown() {
+        MDC.clear();
+    }
+
+    @Test
+    public void resumedOnAnotherThread() throws Exception {
+        filter.filter(containerRequest);
+
+        Thread resumer = new Thread(() -> {
+            try {
+                filter.filter(containerRequest, containerResponse);
+                exits.add(String.valueOf(MDC.get(ONAPLogConstants.MDCs.REQUEST_ID)));
+            } catch (Exception e) {
+                exits.add(e.toString());
+            }
+        });
+        resumer.start();
+        resumer.join();
+
+        verify(filter, times(1)).logExiting();
+        assertEquals("e3b08fa3-535f-4c1b-8228-91318d2bb4ee onap/so/serviceInstances", exits.get(0));
+        assertEquals("null", exits.get(1));
+    }
+
+    @Test
+    public void suspendedLeavesContainerThreadClean() throws Exception {
+        when(resourceInfo.getResourceMethod()).thenReturn(getClass().getMethod("get", AsyncResponse.class));
+        filter.filter(containerRequest);
+        assertNull(MDC.get(ONAPLogConstants.MDCs.REQUEST_ID));
+
+        // work handed off by the resource method runs with the request's context
+        AbstractAuditLogFilter.Suspension suspension =
+                (AbstractAuditLogFilter.Suspension) properties.get(AsyncAuditLogContainerFilter.SUSPENSION_PROPERTY);
+        Thread worker = new Thread(suspension.wrap(() -> {
+            exits.add(MDC.get(ONAPLogConstants.MDCs.REQUEST_ID));
+            try {
+                filter.filter(containerRequest, containerResponse);
+            } catch (Exception e) {
+                exits.add(e.toString());
+            }
+        }));
+        worker.start();
+        worker.join();
+
+        verify(filter, times(1)).logExiting();
+        assertEquals("e3b08fa3-535f-4c1b-8228-91318d2bb4ee", exits.get(0));
+        assertEquals("e3b08fa3-535f-4c1b-8228-91318d2bb4ee onap/so/serviceInstances", exits.get(1));
+        assertNull(MDC.get(ONAPLogConstants.MDCs.REQUEST_ID));
+    }
+
+    public void get(@Suspended AsyncResponse response) {
+        // a suspended resource method, for resourceInfo
+    }
+
+    @Test
+    public void completedOnRequestThread() throws Exception {
+        filter.filter(containerRequest);
+        MDC.put(ONAPLogConstants.MDCs.SERVICE_NAME, "renamed by resource");
+        filter.filter(containerRequest, containerResponse);
+
+        verify(filter, times(1)).logExiting();
+        assertEquals("e3b08fa3-535f-4c1b-8228-91318d2bb4ee renamed by resource", exits.get(0));
+    }
+}
@@ -0,0 +1,128 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * ONAP - Logging
+ * ================================================================================
+ * Copyright (C) 2021 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.filter.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.util.ArrayList;
+import java.util.List;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.onap.logging.ref.slf4j.ONAPLogConstants;
+import org.onap.logging.ref.slf4j.RequestLogContext;
+import org.slf4j.MDC;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AsyncAuditLogServletFilterTest {
+
+    @Mock
+    private HttpServletRequest servletRequest;
+
+    @Mock
+    private HttpServletResponse servletResponse;
+
+    @Mock
+    private FilterChain filterChain;
+
+    @Mock
+    private AsyncContext asyncContext;
+
+    @Spy
+    @InjectMocks
+    private AsyncAuditLogServletFilter filter;
+
+    @After
+    public void tearDown() {
+        RequestLogContext.clear();
+    }
+
+    @Test
+    public void exitOnAsyncCompletion() throws Exception {
+        when(servletRequest.getRequestURI()).thenReturn("onap/so/serviceInstances");
+        when(servletRequest.getHeader(ONAPLogConstants.Headers.REQUEST_ID))
+                .thenReturn("e3b08fa3-535f-4c1b-8228-91318d2bb4ee");
+        when(servletRequest.isAsyncStarted()).thenReturn(true);
+        when(servletRequest.getAsyncContext()).thenReturn(asyncContext);
+        when(servletResponse.getStatus()).thenReturn(202);
+        List<String> exits = new ArrayList<>();
+        doAnswer(invocation -> exits
+                .add(MDC.get(ONAPLogConstants.MDCs.REQUEST_ID) + " " + MDC.get(ONAPLogConstants.MDCs.RESPONSE_CODE)))
+                        .when(filter).logExiting();
+
+        filter.doFilter(servletRequest, servletResponse, filterChain);
+
+        // detached from the container thread, without logging EXIT
+        assertNull(MDC.get(ONAPLogConstants.MDCs.REQUEST_ID));
+        verify(filter, never()).logExiting();
+        verify(servletRequest).setAttribute(eq(AsyncAuditLogServletFilter.SUSPENSION_ATTRIBUTE), any());
+        ArgumentCaptor<AsyncListener> listener = ArgumentCaptor.forClass(AsyncListener.class);
+        verify(asyncContext).addListener(listener.capture());
+
+        // completed on another thread, which has its own MDC
+        Thread completion = new Thread(() -> {
+            try {
+                MDC.put("unrelated", "kept");
+                listener.getValue().onComplete(null);
+                listener.getValue().onComplete(null);
+                exits.add(MDC.get("unrelated"));
+            } catch (Exception e) {
+                exits.add(e.toString());
+            }
+        });
+        completion.start();
+        completion.join();
+
+        verify(filter, times(1)).logExiting();
+        assertEquals("e3b08fa3-535f-4c1b-8228-91318d2bb4ee 202", exits.get(0));
+        assertEquals("kept", exits.get(1));
+    }
+
+    @Test
+    public void exitOnSyncCompletion() throws Exception {
+        when(servletRequest.getRequestURI()).thenReturn("onap/so/serviceInstances");
+        when(servletResponse.getStatus()).thenReturn(200);
+
+        filter.doFilter(servletRequest, servletResponse, filterChain);
+
+        verify(filter, times(1)).logExiting();
+        verify(servletRequest, never()).getAsyncContext();
+        assertNull(MDC.get(ONAPLogConstants.MDCs.REQUEST_ID));
+    }
+}
@@ -0,0 +1,137 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * ONAP - Logging
+ * ================================================================================
+ * Copyright (C) 2021 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.filter.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.onap.logging.ref.slf4j.ONAPLogConstants;
+import org.slf4j.Logger;
+import org.slf4j.MDC;
+import org.slf4j.event.Level;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AsyncPayloadLoggerTest {
+
+    @Mock
+    private Logger target;
+
+    private AsyncPayloadLogger payloadLogger;
+
+    @After
+    public void tearDown() throws InterruptedException {
+        MDC.clear();
+        if (payloadLogger != null) {
+            payloadLogger.shutdown(1, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void logsOffThreadWithContextTest() throws Exception {
+        payloadLogger = new AsyncPayloadLogger(16, AsyncPayloadLogger.DropPolicy.DROP_NEWEST,
+                Pattern.compile("\"password\":\"[^\"]*\""));
+        String[] requestId = new String[1];
+        doAnswer(invocation -> requestId[0] = MDC.get(ONAPLogConstants.MDCs.REQUEST_ID)).when(target).info(anyString(),
+                anyString());
+
+        MDC.put(ONAPLogConstants.MDCs.REQUEST_ID, "requestId");
+        payloadLogger.log(target, Level.INFO, "REQUEST BODY|{}",
+                "{\"user\":\"a\",\"password\":\"secret\"}".getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+        MDC.clear();
+
+        verify(target, timeout(1000)).info("REQUEST BODY|{}", "{\"user\":\"a\"," + Constants.REDACTED + "}");
+        assertEquals("requestId", requestId[0]);
+        assertEquals(1, payloadLogger.getSubmittedCount());
+        assertEquals(0, payloadLogger.getDroppedCount());
+    }
+
+    @Test
+    public void gzipTest() throws IOException {
+        payloadLogger = new AsyncPayloadLogger(16, AsyncPayloadLogger.DropPolicy.DROP_NEWEST, null);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write("hello world".getBytes(StandardCharsets.UTF_8));
+        }
+        payloadLogger.logGzip(target, Level.DEBUG, "BODY|{}", compressed.toByteArray(), StandardCharsets.UTF_8, 5);
+        verify(target, timeout(1000)).debug("BODY|{}", "hello");
+    }
+
+    @Test
+    public void dropPolicyTest() throws Exception {
+        payloadLogger = new AsyncPayloadLogger(1, AsyncPayloadLogger.DropPolicy.DROP_NEWEST, null);
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            blocked.countDown();
+            release.await();
+            return null;
+        }).when(target).info(eq("first|{}"), anyString());
+
+        byte[] body = "body".getBytes(StandardCharsets.UTF_8);
+        payloadLogger.log(target, Level.INFO, "first|{}", body, StandardCharsets.UTF_8);
+        blocked.await(1, TimeUnit.SECONDS);
+        payloadLogger.log(target, Level.INFO, "queued|{}", body, StandardCharsets.UTF_8);
+        payloadLogger.log(target, Level.INFO, "dropped|{}", body, StandardCharsets.UTF_8);
+        assertEquals(1, payloadLogger.getDroppedCount());
+        release.countDown();
+
+        verify(target, timeout(1000)).info("queued|{}", "body");
+        assertEquals(3, payloadLogger.getSubmittedCount());
+    }
+
+    @Test
+    public void callerRunsTest() throws Exception {
+        payloadLogger = new AsyncPayloadLogger(1, AsyncPayloadLogger.DropPolicy.CALLER_RUNS, null);
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            blocked.countDown();
+            release.await();
+            return null;
+        }).when(target).info(eq("first|{}"), anyString());
+
+        byte[] body = "body".getBytes(StandardCharsets.UTF_8);
+        payloadLogger.log(target, Level.INFO, "first|{}", body, StandardCharsets.UTF_8);
+        blocked.await(1, TimeUnit.SECONDS);
+        payloadLogger.log(target, Level.INFO, "queued|{}", body, StandardCharsets.UTF_8);
+        payloadLogger.log(target, Level.INFO, "caller|{}", body, StandardCharsets.UTF_8);
+        verify(target).info("caller|{}", "body");
+        release.countDown();
+
+        assertEquals(0, payloadLogger.getDroppedCount());
+    }
+}
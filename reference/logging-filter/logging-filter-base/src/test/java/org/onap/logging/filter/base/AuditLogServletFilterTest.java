@@ -35,6 +35,7 @@ import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.onap.logging.ref.slf4j.ONAPLogConstants;
+import org.onap.logging.ref.slf4j.RequestLogContext;
 import org.slf4j.MDC;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -58,7 +59,7 @@ public class AuditLogServletFilterTest {
 
     @After
     public void tearDown() {
-        MDC.clear();
+        RequestLogContext.clear();
     }
 
     @Test
@@ -69,6 +70,25 @@ public class AuditLogServletFilterTest {
         assertNotNull(MDC.get(ONAPLogConstants.MDCs.REQUEST_ID));
         assertEquals("onap/so/serviceInstances", MDC.get(ONAPLogConstants.MDCs.SERVICE_NAME));
         assertEquals("INPROGRESS", MDC.get(ONAPLogConstants.MDCs.RESPONSE_STATUS_CODE));
+        assertNotNull(MDC.get(ONAPLogConstants.MDCs.ELAPSED_TIME));
+
+        RequestLogContext context = RequestLogContext.current();
+        assertNotNull(context);
+        assertEquals(MDC.get(ONAPLogConstants.MDCs.REQUEST_ID), context.getRequestID());
+        assertEquals(context.getInvocationID(), context.getServerInvocationID());
+    }
+
+    @Test
+    public void contextHookOverrideTest() {
+        AuditLogServletFilter filter = new AuditLogServletFilter() {
+            @Override
+            protected void setMDCPartnerName(RequestLogContext context, HeaderExtractor.Headers headers) {
+                context.setPartnerName("overridden");
+            }
+        };
+        filter.pre(servletRequest);
+
+        assertEquals("overridden", MDC.get(ONAPLogConstants.MDCs.PARTNER_NAME));
     }
 
     @Test
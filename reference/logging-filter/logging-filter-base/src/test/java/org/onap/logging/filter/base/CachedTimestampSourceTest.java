@@ -0,0 +1,71 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * ONAP - Logging
+ * ================================================================================
+ * Copyright (C) 2021 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.filter.base;
+
+import static org.junit.Assert.assertEquals;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import org.junit.Test;
+
+public class CachedTimestampSourceTest {
+
+    private String expected(Instant instant, int precision) {
+        DateTimeFormatter formatter = new DateTimeFormatterBuilder().appendInstant(precision).toFormatter();
+        return formatter.format(instant);
+    }
+
+    @Test
+    public void matchesFormatterTest() {
+        Instant[] instants = {Instant.parse("2019-06-18T02:09:06.024Z"), Instant.parse("2019-06-18T02:09:06.000Z"),
+                Instant.parse("2000-02-29T23:59:59.999999999Z"), Instant.parse("1970-01-01T00:00:00Z"),
+                Instant.parse("2038-01-19T03:14:08.123456789Z")};
+        for (Instant instant : instants) {
+            for (int precision = 0; precision <= 9; precision++) {
+                CachedTimestampSource source =
+                        new CachedTimestampSource(precision, Clock.fixed(instant, ZoneOffset.UTC));
+                assertEquals(expected(instant, precision), source.getCurrentTimeStamp());
+            }
+        }
+    }
+
+    @Test
+    public void secondRolloverTest() {
+        CachedTimestampSource source = new CachedTimestampSource(3);
+        assertEquals("2019-06-18T02:09:06.999Z", source.format(1560823746L, 999000000));
+        assertEquals("2019-06-18T02:09:07.000Z", source.format(1560823747L, 0));
+        assertEquals("2019-06-18T02:09:07.001Z", source.format(1560823747L, 1000000));
+    }
+
+    @Test
+    public void defaultPrecisionLengthTest() {
+        assertEquals(24, new CachedTimestampSource(3).getCurrentTimeStamp().length());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidPrecisionTest() {
+        new CachedTimestampSource(10);
+    }
+
+}
@@ -0,0 +1,119 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * ONAP - Logging
+ * ================================================================================
+ * Copyright (C) 2021 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.filter.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.onap.logging.ref.slf4j.ONAPLogConstants;
+
+@RunWith(MockitoJUnitRunner.class)
+public class HeaderExtractorTest {
+
+    @Mock
+    private HttpServletRequest httpServletRequest;
+
+    private final MDCSetup mdcSetup = new MDCSetup();
+
+    @Test
+    public void extractServletHeadersTest() {
+        when(httpServletRequest.getHeaderNames()).thenReturn(Collections.enumeration(Arrays.asList("accept",
+                "x-transactionid", "X-ECOMP-RequestID", "x-invocationid", "Authorization", "x-target-entity")));
+        when(httpServletRequest.getHeader("x-transactionid")).thenReturn("transaction");
+        when(httpServletRequest.getHeader("X-ECOMP-RequestID")).thenReturn("ecomp");
+        when(httpServletRequest.getHeader("x-invocationid")).thenReturn("invocation");
+        when(httpServletRequest.getHeader("Authorization")).thenReturn("Bearer some-complex-token");
+        when(httpServletRequest.getHeader("x-target-entity")).thenReturn("SO");
+
+        HeaderExtractor.Headers headers = mdcSetup.extractHeaders(new SimpleServletHeadersMap(httpServletRequest));
+
+        assertEquals("transaction", mdcSetup.getRequestId(headers));
+        assertEquals("invocation", mdcSetup.getInvocationId(headers));
+        assertEquals(Constants.DefaultValues.UNKNOWN, mdcSetup.getMDCPartnerName(headers));
+        assertEquals("SO", headers.getTargetEntity());
+        verify(httpServletRequest, never()).getHeader("accept");
+    }
+
+    @Test
+    public void emptyRequestIdFallsThroughTest() {
+        MultivaluedMap<String, String> headerMap = new MultivaluedHashMap<>();
+        headerMap.putSingle(ONAPLogConstants.Headers.REQUEST_ID, "");
+        headerMap.putSingle("x-requestid", "legacy");
+        headerMap.putSingle("user-agent", "curl/7.64.0");
+
+        HeaderExtractor.Headers headers = mdcSetup.extractHeaders(new SimpleJaxrsHeadersMap(headerMap));
+
+        assertEquals("legacy", mdcSetup.getRequestId(headers));
+        assertEquals("curl/7.64.0", mdcSetup.getMDCPartnerName(headers));
+        assertNull(headers.getTargetEntity());
+    }
+
+    @Test
+    public void notEnumerableHeadersTest() {
+        HashMap<String, String> headerMap = new HashMap<>();
+        headerMap.put(HttpHeaders.AUTHORIZATION, "Basic dXNlcjpwYXNz");
+        headerMap.put(ONAPLogConstants.Headers.INVOCATION_ID, "invocation");
+        SimpleMap headers = headerMap::get;
+
+        assertEquals("user", mdcSetup.getMDCPartnerName(headers));
+        assertEquals("invocation", mdcSetup.getInvocationId(headers));
+    }
+
+    @Test
+    public void replacedHeaderNamesTest() {
+        when(httpServletRequest.getHeaderNames())
+                .thenAnswer(invocation -> Collections.enumeration(Arrays.asList("X-Custom-Partner", "X-Custom-Id")));
+        when(httpServletRequest.getHeader(anyString())).thenReturn("custom");
+        MDCSetup custom = new MDCSetup();
+        custom.prioritizedIdHeadersNames = new String[] {"X-Custom-Id"};
+        custom.prioritizedPartnerHeadersNames = new String[] {"X-Custom-Partner"};
+
+        SimpleMap headers = new SimpleServletHeadersMap(httpServletRequest);
+        assertEquals("custom", custom.getRequestId(headers));
+        assertEquals("custom", custom.getMDCPartnerName(headers));
+    }
+
+    @Test
+    public void basicAuthUserNameTest() {
+        MDCSetup mdcSetup = new MDCSetup();
+
+        assertEquals("user", mdcSetup.getBasicAuthUserName("Basic dXNlcjpwYXNz"));
+        assertEquals("admin", mdcSetup.getBasicAuthUserName("Basic YWRtaW46c2VjcmV0"));
+        assertNull(mdcSetup.getBasicAuthUserName("Bearer some-complex-token"));
+        assertNull(mdcSetup.getBasicAuthUserName("Basic bm9jb2xvbg=="));
+        assertNull(mdcSetup.getBasicAuthUserName("Basic"));
+    }
+}
@@ -23,6 +23,7 @@ package org.onap.logging.filter.base;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.when;
 
 import java.time.ZoneOffset;
@@ -75,6 +76,39 @@ public class MDCSetupTest extends MDCSetup {
         assertEquals(expected, MDC.get(ONAPLogConstants.MDCs.ELAPSED_TIME));
     }
 
+    @Test
+    public void setElapsedTimeMonotonicTest() throws InterruptedException {
+        setEntryTimeStamp();
+        Thread.sleep(25);
+        setLogTimestamp();
+
+        setElapsedTime();
+        long elapsed = Long.parseLong(MDC.get(ONAPLogConstants.MDCs.ELAPSED_TIME));
+        assertTrue(elapsed >= 25);
+    }
+
+    @Test
+    public void setElapsedTimeInvokeTimestampMonotonicTest() throws InterruptedException {
+        setInvokeTimeStamp();
+        Thread.sleep(25);
+        setLogTimestamp();
+
+        setElapsedTimeInvokeTimestamp();
+        long elapsed = Long.parseLong(MDC.get(ONAPLogConstants.MDCs.ELAPSED_TIME));
+        assertTrue(elapsed >= 25);
+    }
+
+    @Test
+    public void setElapsedTimeIgnoresStaleMarksTest() {
+        setEntryTimeStamp();
+        setLogTimestamp();
+        MDC.put(ONAPLogConstants.MDCs.ENTRY_TIMESTAMP, "2019-06-18T02:09:06.024Z");
+        MDC.put(ONAPLogConstants.MDCs.LOG_TIMESTAMP, "2019-06-18T02:09:07.024Z");
+
+        setElapsedTime();
+        assertEquals("1000", MDC.get(ONAPLogConstants.MDCs.ELAPSED_TIME));
+    }
+
     @Test
     public void setRequestIdTest() {
         HashMap<String, String> headers = new HashMap<>();
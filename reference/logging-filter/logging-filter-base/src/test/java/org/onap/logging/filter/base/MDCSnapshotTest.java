@@ -0,0 +1,119 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * ONAP - Logging
+ * ================================================================================
+ * Copyright (C) 2021 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.filter.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+import org.onap.logging.ref.slf4j.ONAPLogConstants;
+import org.slf4j.MDC;
+
+public class MDCSnapshotTest {
+
+    @After
+    public void tearDown() {
+        MDC.clear();
+    }
+
+    @Test
+    public void captureEmptyTest() {
+        assertSame(MDCSnapshot.EMPTY, MDCSnapshot.capture());
+        MDC.put(ONAPLogConstants.MDCs.REQUEST_ID, "requestId");
+        assertEquals("requestId", MDCSnapshot.capture().get(ONAPLogConstants.MDCs.REQUEST_ID));
+    }
+
+    @Test
+    public void snapshotIsImmutableTest() {
+        MDC.put(ONAPLogConstants.MDCs.REQUEST_ID, "requestId");
+        MDCSnapshot snapshot = MDCSnapshot.capture();
+        MDC.put(ONAPLogConstants.MDCs.REQUEST_ID, "otherRequestId");
+        assertEquals("requestId", snapshot.get(ONAPLogConstants.MDCs.REQUEST_ID));
+    }
+
+    @Test
+    public void wrapRestoresPreviousTest() throws Exception {
+        MDC.put(ONAPLogConstants.MDCs.REQUEST_ID, "requestId");
+        MDCSnapshot snapshot = MDCSnapshot.capture();
+        MDC.put(ONAPLogConstants.MDCs.REQUEST_ID, "callerRequestId");
+
+        String seen = snapshot.wrap((Callable<String>) () -> MDC.get(ONAPLogConstants.MDCs.REQUEST_ID)).call();
+        assertEquals("requestId", seen);
+        assertEquals("callerRequestId", MDC.get(ONAPLogConstants.MDCs.REQUEST_ID));
+
+        MDC.clear();
+        MDCSnapshot.EMPTY.wrap(() -> assertNull(MDC.get(ONAPLogConstants.MDCs.REQUEST_ID))).run();
+        snapshot.wrap(() -> {
+        }).run();
+        assertNull(MDC.get(ONAPLogConstants.MDCs.REQUEST_ID));
+    }
+
+    @Test
+    public void executorServiceTest() throws Exception {
+        ExecutorService executor = new MDCPropagatingExecutorService(Executors.newSingleThreadExecutor());
+        try {
+            executor.submit(() -> MDC.put("leftover", "value")).get();
+            MDC.put(ONAPLogConstants.MDCs.REQUEST_ID, "requestId");
+            Future<String> future = executor.submit(() -> MDC.get(ONAPLogConstants.MDCs.REQUEST_ID));
+            assertEquals("requestId", future.get());
+
+            List<Future<String>> futures = executor.invokeAll(
+                    Arrays.asList(() -> MDC.get(ONAPLogConstants.MDCs.REQUEST_ID), () -> MDC.get("leftover")));
+            assertEquals("requestId", futures.get(0).get());
+            assertNull(futures.get(1).get());
+
+            MDC.clear();
+            Boolean[] ran = new Boolean[1];
+            executor.submit(() -> ran[0] = MDC.get(ONAPLogConstants.MDCs.REQUEST_ID) == null).get();
+            assertTrue(ran[0]);
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void completableFutureTest() throws Exception {
+        MDC.put(ONAPLogConstants.MDCs.REQUEST_ID, "requestId");
+        ExecutorService pool = new MDCPropagatingExecutorService(ForkJoinPool.commonPool());
+        String seen = CompletableFuture.supplyAsync(() -> MDC.get(ONAPLogConstants.MDCs.REQUEST_ID), pool)
+                .thenApplyAsync(id -> id + ":" + MDC.get(ONAPLogConstants.MDCs.REQUEST_ID), pool).get();
+        assertEquals("requestId:requestId", seen);
+
+        MDCSnapshot snapshot = MDCSnapshot.capture();
+        MDC.clear();
+        seen = CompletableFuture.supplyAsync(snapshot.wrapSupplier(() -> MDC.get(ONAPLogConstants.MDCs.REQUEST_ID)))
+                .get();
+        assertEquals("requestId", seen);
+    }
+}
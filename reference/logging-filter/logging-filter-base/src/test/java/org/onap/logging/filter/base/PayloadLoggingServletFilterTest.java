@@ -0,0 +1,231 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * ONAP - Logging
+ * ================================================================================
+ * Copyright (C) 2021 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.filter.base;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.onap.logging.ref.slf4j.ONAPLogConstants;
+import org.slf4j.MDC;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PayloadLoggingServletFilterTest {
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Mock
+    private HttpServletResponse response;
+
+    @After
+    public void tearDown() {
+        System.clearProperty("FILTER_MAX_REQUEST_SIZE");
+        System.clearProperty("FILTER_MAX_RESPONSE_SIZE");
+        SamplingEngine.setInstance(null);
+        MDC.clear();
+    }
+
+    @Test
+    public void samplingRequestIdTest() {
+        List<String> requestIds = new ArrayList<>();
+        SamplingEngine.setInstance(new SamplingEngine(SamplingPolicies.always()) {
+            @Override
+            public SamplingDecision decide(SimpleMap headers, String requestId, String serviceName) {
+                requestIds.add(requestId);
+                return super.decide(headers, requestId, serviceName);
+            }
+        });
+        Map<String, String> headers = new HashMap<>();
+        headers.put(Constants.HttpHeaders.TRANSACTION_ID, "legacy-request-id");
+        lenient().when(request.getHeader(anyString())).thenAnswer(invocation -> headers.get(invocation.getArgument(0)));
+        lenient().when(request.getHeaderNames()).thenAnswer(invocation -> Collections.enumeration(headers.keySet()));
+        PayloadLoggingServletFilter filter = new PayloadLoggingServletFilter();
+
+        filter.getSamplingDecision(request);
+        MDC.put(ONAPLogConstants.MDCs.REQUEST_ID, "mdc-request-id");
+        filter.getSamplingDecision(request);
+
+        assertEquals(Arrays.asList("legacy-request-id", "mdc-request-id"), requestIds);
+    }
+
+    @Test
+    public void samplingPolicyByServiceNameTest() {
+        SamplingEngine.setInstance(new SamplingEngine(SamplingPolicies.always()).setServicePolicy("onap/so",
+                SamplingPolicies.tail(SamplingPolicies.never(), 60_000)));
+        MDC.put(ONAPLogConstants.MDCs.SERVICE_NAME, "onap/so/serviceInstances");
+        PayloadLoggingServletFilter filter = new PayloadLoggingServletFilter();
+
+        // the audit filter's ServiceName picks the policy, whatever the request URI
+        assertEquals(SamplingDecision.DEFERRED, filter.getSamplingDecision(request));
+        when(response.getStatus()).thenReturn(200, 503);
+        assertFalse(filter.keepDeferred(request, response, System.nanoTime()));
+        assertTrue(filter.keepDeferred(request, response, System.nanoTime()));
+
+        // and an audit filter's decision is reused as is
+        MDC.put(SamplingEngine.MDC_KEY, SamplingDecision.SAMPLED.getHeaderValue());
+        assertEquals(SamplingDecision.SAMPLED, filter.getSamplingDecision(request));
+    }
+
+    @Test
+    public void boundedCaptureTest() {
+        PayloadLoggingServletFilter.BoundedCapture capture = new PayloadLoggingServletFilter.BoundedCapture(5);
+        capture.write('a');
+        capture.write("bcdefgh".getBytes(StandardCharsets.UTF_8), 0, 7);
+        capture.write('i');
+        assertEquals(5, capture.size());
+        assertEquals("abcde", capture.toString());
+
+        assertEquals("", new PayloadLoggingServletFilter.BoundedCapture(0).toString());
+    }
+
+    @Test
+    public void streamsFullBodiesAndCapturesPrefixTest() throws Exception {
+        System.setProperty("FILTER_MAX_REQUEST_SIZE", "10");
+        System.setProperty("FILTER_MAX_RESPONSE_SIZE", "10");
+        PayloadLoggingServletFilter filter = new PayloadLoggingServletFilter();
+
+        byte[] body = new byte[100000];
+        Arrays.fill(body, (byte) 'x');
+        ByteArrayOutputStream downstream = new ByteArrayOutputStream();
+        when(request.getInputStream()).thenReturn(new TestServletInputStream(new ByteArrayInputStream(body)));
+        when(request.getMethod()).thenReturn("POST");
+        when(request.getRequestURL()).thenReturn(new StringBuffer("http://localhost/upload"));
+        when(request.getHeaderNames()).thenReturn(Collections.emptyEnumeration());
+        when(response.getOutputStream()).thenReturn(new TestServletOutputStream(downstream));
+
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        FilterChain chain = (req, resp) -> {
+            byte[] buf = new byte[4096];
+            int n;
+            while ((n = req.getInputStream().read(buf)) > 0) {
+                received.write(buf, 0, n);
+            }
+            resp.getWriter().print("echo:");
+            resp.getWriter().flush();
+            resp.getOutputStream().write(received.toByteArray());
+        };
+        filter.doFilter(request, response, chain);
+
+        assertArrayEquals(body, received.toByteArray());
+        assertEquals(body.length + 5, downstream.size());
+        assertEquals("echo:xxxxx", new String(downstream.toByteArray(), 0, 10, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void decompressTruncatedGzipTest() throws IOException {
+        byte[] text = new byte[10000];
+        Arrays.fill(text, (byte) 'y');
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(text);
+        }
+        byte[] bytes = compressed.toByteArray();
+
+        assertEquals(100, PayloadLoggingServletFilter.decompressGZIPByteArray(bytes, 100).length());
+        assertEquals(10000, PayloadLoggingServletFilter.decompressGZIPByteArray(bytes, 100000).length());
+        assertEquals("", PayloadLoggingServletFilter.decompressGZIPByteArray(Arrays.copyOf(bytes, 5), 100));
+    }
+
+    private static class TestServletInputStream extends ServletInputStream {
+        private final InputStream in;
+
+        TestServletInputStream(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return in.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return in.read(b, off, len);
+        }
+
+        @Override
+        public boolean isFinished() {
+            return false;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            // not used
+        }
+    }
+
+    private static class TestServletOutputStream extends ServletOutputStream {
+        private final ByteArrayOutputStream out;
+
+        TestServletOutputStream(ByteArrayOutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) {
+            out.write(b);
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            // not used
+        }
+    }
+}
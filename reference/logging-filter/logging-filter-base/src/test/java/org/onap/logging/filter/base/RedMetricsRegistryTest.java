@@ -0,0 +1,114 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * ONAP - Logging
+ * ================================================================================
+ * Copyright (C) 2021 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.filter.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Test;
+import org.onap.logging.ref.slf4j.ONAPLogConstants;
+import org.slf4j.MDC;
+
+public class RedMetricsRegistryTest {
+
+    @After
+    public void tearDown() {
+        MDC.clear();
+        RedMetricsRegistry.setInstance(null);
+    }
+
+    @Test
+    public void histogramBucketsTest() {
+        for (long value : new long[] {0, 1, 15, 16, 17, 31, 32, 33, 1000, 123456789L, 1L << 40}) {
+            int index = LatencyHistogram.index(value);
+            assertTrue(value + " >= lower", value >= LatencyHistogram.lowerBound(index));
+            assertTrue(value + " <= upper", value <= LatencyHistogram.upperBound(index));
+            assertTrue(value + " error", LatencyHistogram.upperBound(index) - value <= value / 16);
+        }
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.index(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void histogramQuantilesTest() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(500500, snapshot.getSum());
+        assertEquals(1000, snapshot.getMax());
+        assertEquals(500, snapshot.getValueAtQuantile(0.5), 500 / 16);
+        assertEquals(990, snapshot.getValueAtQuantile(0.99), 990 / 16);
+        assertEquals(1000, snapshot.getValueAtQuantile(1));
+        assertEquals(0, new LatencyHistogram().snapshot().getValueAtQuantile(0.5));
+    }
+
+    @Test
+    public void recordAndExportTest() {
+        RedMetricsRegistry registry = new RedMetricsRegistry(2);
+        InMemoryMetricsExporter memory = new InMemoryMetricsExporter();
+        PrometheusTextExporter prometheus = new PrometheusTextExporter();
+        registry.addExporter(memory);
+        registry.addExporter(prometheus);
+
+        registry.record(RedMetricsRegistry.KIND_SERVER, "/orders", 200, 10);
+        registry.record(RedMetricsRegistry.KIND_SERVER, "/orders", 500, 30);
+        registry.record(RedMetricsRegistry.KIND_CLIENT, "AAI", 200, 5);
+        registry.record(RedMetricsRegistry.KIND_CLIENT, "SDNC", 404, 7);
+        RedMetricsSnapshot snapshot = registry.export();
+
+        assertSame(snapshot, memory.getLastSnapshot());
+        RedMetricsSnapshot.Series orders = snapshot.getSeries(RedMetricsRegistry.KIND_SERVER, "/orders");
+        assertEquals(Long.valueOf(1), orders.getStatusCounts().get(200));
+        assertEquals(1, orders.getErrorCount());
+        assertEquals(2, orders.getLatency().getCount());
+        assertEquals(30, orders.getLatency().getMax());
+        assertNull(snapshot.getSeries(RedMetricsRegistry.KIND_CLIENT, "SDNC"));
+        assertNotNull(snapshot.getSeries(RedMetricsRegistry.KIND_CLIENT, RedMetricsRegistry.OVERFLOW_NAME));
+
+        String text = prometheus.getText();
+        assertTrue(text, text.contains("# TYPE onap_requests_total counter\n"));
+        assertTrue(text, text.contains("onap_requests_total{kind=\"server\",name=\"/orders\",status=\"500\"} 1\n"));
+        assertTrue(text, text
+                .contains("onap_request_duration_milliseconds{kind=\"client\",name=\"AAI\",quantile=\"0.99\"} 5\n"));
+        assertTrue(text,
+                text.contains("onap_request_duration_milliseconds_count{kind=\"server\",name=\"/orders\"} 2\n"));
+    }
+
+    @Test
+    public void recordMetricsFromMDCTest() {
+        RedMetricsRegistry registry = new RedMetricsRegistry();
+        RedMetricsRegistry.setInstance(registry);
+        MDC.put(ONAPLogConstants.MDCs.ELAPSED_TIME, "42");
+        new MDCSetup().recordMetrics(RedMetricsRegistry.KIND_SERVER, "/orders", 200);
+        MDC.put(ONAPLogConstants.MDCs.ELAPSED_TIME, "not a number");
+        new MDCSetup().recordMetrics(RedMetricsRegistry.KIND_SERVER, "/orders", 200);
+
+        RedMetricsSnapshot.Series orders = registry.snapshot().getSeries(RedMetricsRegistry.KIND_SERVER, "/orders");
+        assertEquals(1, orders.getLatency().getCount());
+        assertEquals(42, orders.getLatency().getSum());
+    }
+}
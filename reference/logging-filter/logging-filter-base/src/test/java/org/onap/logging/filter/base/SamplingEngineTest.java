@@ -0,0 +1,268 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * ONAP - Logging
+ * ================================================================================
+ * Copyright (C) 2021 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.filter.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientResponseContext;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.UriInfo;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.onap.logging.ref.slf4j.ONAPLogConstants;
+import org.slf4j.MDC;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SamplingEngineTest {
+
+    @Mock
+    private ClientRequestContext clientRequest;
+
+    @Mock
+    private ClientResponseContext clientResponse;
+
+    @Mock
+    private ContainerRequestContext containerRequest;
+
+    @Mock
+    private ContainerResponseContext containerResponse;
+
+    @Mock
+    private UriInfo uriInfo;
+
+    @After
+    public void tearDown() {
+        MDC.clear();
+        SamplingEngine.setInstance(null);
+    }
+
+    @Test
+    public void parseTest() {
+        assertEquals(SamplingDecision.SAMPLED, SamplingPolicies.parse("always").decide("id"));
+        assertEquals(SamplingDecision.NOT_SAMPLED, SamplingPolicies.parse("never").decide("id"));
+        assertEquals(SamplingDecision.NOT_SAMPLED, SamplingPolicies.parse("probabilistic:0").decide("id"));
+        assertEquals(SamplingDecision.SAMPLED, SamplingPolicies.parse("probabilistic:1").decide("id"));
+        assertEquals(SamplingDecision.DEFERRED, SamplingPolicies.parse("tail:2000").decide("id"));
+        assertEquals(SamplingDecision.SAMPLED, SamplingPolicies.parse("tail:2000:always").decide("id"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parseInvalidTest() {
+        SamplingPolicies.parse("sometimes");
+    }
+
+    @Test
+    public void probabilisticIsConsistentPerRequestIdTest() {
+        SamplingPolicy policy = SamplingPolicies.probabilistic(0.3);
+        int sampled = 0;
+        for (int i = 0; i < 10000; i++) {
+            String requestId = "request-" + i;
+            SamplingDecision decision = policy.decide(requestId);
+            assertEquals(decision, SamplingPolicies.probabilistic(0.3).decide(requestId));
+            if (decision == SamplingDecision.SAMPLED) {
+                sampled++;
+            }
+        }
+        assertTrue(String.valueOf(sampled), sampled > 2700 && sampled < 3300);
+    }
+
+    @Test
+    public void rateLimitedTest() {
+        SamplingPolicy policy = SamplingPolicies.rateLimited(2);
+        assertEquals(SamplingDecision.SAMPLED, policy.decide(null));
+        assertEquals(SamplingDecision.SAMPLED, policy.decide(null));
+        assertEquals(SamplingDecision.NOT_SAMPLED, policy.decide(null));
+    }
+
+    @Test
+    public void tailKeepsErrorsAndSlowRequestsTest() {
+        SamplingPolicy policy = SamplingPolicies.tail(SamplingPolicies.never(), 1000);
+        assertFalse(policy.keep(200, 999));
+        assertTrue(policy.keep(200, 1000));
+        assertTrue(policy.keep(500, 1));
+        assertTrue(SamplingEngine.keep(policy, 404, "bad"));
+    }
+
+    @Test
+    public void headerAndServicePolicyTest() {
+        Properties properties = new Properties();
+        properties.setProperty(SamplingEngine.POLICY_PROPERTY, "never");
+        properties.setProperty(SamplingEngine.SERVICE_POLICY_PREFIX + "/onap/so", "always");
+        properties.setProperty(SamplingEngine.SERVICE_POLICY_PREFIX + "/onap/so/infra", "tail:100");
+        properties.setProperty(SamplingEngine.TARGET_POLICY_PREFIX + "AAI", "always");
+        SamplingEngine engine = SamplingEngine.fromProperties(properties);
+
+        Map<String, String> headers = new HashMap<>();
+        SimpleMap headersMap = headers::get;
+        assertEquals(SamplingDecision.NOT_SAMPLED, engine.decide(headersMap, "id", "/onap/sdc"));
+        assertEquals(SamplingDecision.SAMPLED, engine.decide(headersMap, "id", "/onap/so/orchestration"));
+        assertEquals(SamplingDecision.DEFERRED, engine.decide(headersMap, "id", "/onap/so/infra/requests"));
+        assertEquals(SamplingDecision.SAMPLED, engine.decideOutbound("id", "AAI"));
+        assertEquals(SamplingDecision.NOT_SAMPLED, engine.decideOutbound("id", "SDNC"));
+
+        headers.put(Constants.HttpHeaders.SAMPLED, "1");
+        assertNull(SamplingEngine.current());
+        assertEquals(SamplingDecision.SAMPLED, engine.decideInbound(headersMap, "id", "/onap/sdc"));
+        assertEquals(SamplingDecision.SAMPLED, SamplingEngine.current());
+        assertEquals(SamplingDecision.SAMPLED, engine.decideOutbound("id", "SDNC"));
+    }
+
+    @Test
+    public void unconfiguredEngineLeavesRequestsAloneTest() throws Exception {
+        SamplingEngine engine = SamplingEngine.fromProperties(new Properties());
+        assertFalse(engine.isConfigured());
+        Map<String, String> received = new HashMap<>();
+        assertEquals(SamplingDecision.SAMPLED, engine.decideInbound(received::get, "id", "/onap/so"));
+        assertNull(MDC.get(SamplingEngine.MDC_KEY));
+
+        SamplingEngine.setInstance(engine);
+        MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+        when(clientRequest.getUri()).thenReturn(new URI("http://localhost:8080/test"));
+        when(clientRequest.getHeaders()).thenReturn(headers);
+        new MetricLogClientFilter().filter(clientRequest);
+        assertFalse(headers.containsKey(Constants.HttpHeaders.SAMPLED));
+
+        // nor can a client switch logging off
+        received.put(Constants.HttpHeaders.SAMPLED, "0");
+        assertEquals(SamplingDecision.SAMPLED, engine.decideInbound(received::get, "id", "/onap/so"));
+        assertNull(MDC.get(SamplingEngine.MDC_KEY));
+        new MetricLogClientFilter().filter(clientRequest);
+        assertFalse(headers.containsKey(Constants.HttpHeaders.SAMPLED));
+    }
+
+    @Test
+    public void receivedNotSampledStillKeepsErrorsTest() {
+        SamplingEngine engine = new SamplingEngine(SamplingPolicies.tail(SamplingPolicies.always(), 1000));
+        Map<String, String> received = new HashMap<>();
+        received.put(Constants.HttpHeaders.SAMPLED, "0");
+        assertEquals(SamplingDecision.DEFERRED, engine.decideInbound(received::get, "id", "/onap/so"));
+        assertEquals(SamplingDecision.DEFERRED, SamplingEngine.current());
+        assertTrue(SamplingEngine.keep(engine.getServicePolicy("/onap/so"), 500, "1"));
+        assertTrue(SamplingEngine.keep(engine.getServicePolicy("/onap/so"), 200, "1000"));
+        assertFalse(SamplingEngine.keep(engine.getServicePolicy("/onap/so"), 200, "1"));
+    }
+
+    @Test
+    public void deferredCallCompletedOnAnotherThreadTest() throws Exception {
+        SamplingEngine.setInstance(new SamplingEngine(SamplingPolicies.tail(SamplingPolicies.never(), 60_000)));
+        storeProperties(clientRequest);
+        when(clientRequest.getUri()).thenReturn(new URI("http://localhost:8080/test"));
+        when(clientRequest.getHeaders()).thenReturn(new MultivaluedHashMap<>());
+        when(clientResponse.getStatus()).thenReturn(500);
+        MetricLogClientFilter filter = spy(new MetricLogClientFilter());
+
+        filter.filter(clientRequest);
+        MDCSnapshot snapshot = MDCSnapshot.capture();
+        // the response filter of an asynchronous client runs on one of its own threads
+        Thread responseThread = new Thread(snapshot.wrap(() -> filter.filter(clientRequest, clientResponse)));
+        responseThread.start();
+        responseThread.join();
+
+        verify(filter).logRequest();
+        verify(filter).logResponse();
+        assertNull(clientRequest.getProperty(AbstractBaseMetricLogFilter.OUTBOUND_STATE_PROPERTY_NAME));
+    }
+
+    @Test
+    public void deferredRequestDecidedWhenItCompletesTest() throws Exception {
+        SamplingEngine.setInstance(new SamplingEngine(SamplingPolicies.tail(SamplingPolicies.never(), 60_000)));
+        storeProperties(clientRequest);
+        when(containerRequest.getHeaders()).thenReturn(new MultivaluedHashMap<>());
+        when(containerRequest.getUriInfo()).thenReturn(uriInfo);
+        when(uriInfo.getPath()).thenReturn("onap/so/serviceInstances");
+        when(containerResponse.getStatus()).thenReturn(200);
+        when(clientRequest.getUri()).thenReturn(new URI("http://localhost:8080/test"));
+        when(clientRequest.getHeaders()).thenReturn(new MultivaluedHashMap<>());
+        when(clientResponse.getStatus()).thenReturn(200, 503);
+        AuditLogContainerFilter audit = spy(new AuditLogContainerFilter());
+        MetricLogClientFilter client = spy(new MetricLogClientFilter());
+
+        // a request whose calls all succeed quickly is dropped whole
+        audit.filter(containerRequest);
+        client.filter(clientRequest);
+        client.filter(clientRequest, clientResponse);
+        audit.filter(containerRequest, containerResponse);
+        verify(audit, never()).logEntering();
+        verify(client, never()).logRequest();
+
+        // a failed call keeps the whole request, logged in order once it completes
+        audit.filter(containerRequest);
+        client.filter(clientRequest);
+        client.filter(clientRequest, clientResponse);
+        verify(client, never()).logRequest();
+        audit.filter(containerRequest, containerResponse);
+        InOrder order = inOrder(audit, client);
+        order.verify(audit).logEntering();
+        order.verify(client).logRequest();
+        order.verify(client).logResponse();
+        order.verify(audit).logExiting();
+    }
+
+    @Test
+    public void metricFilterPropagatesDecisionTest() throws Exception {
+        SamplingEngine.setInstance(new SamplingEngine(SamplingPolicies.never()));
+        MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+        when(clientRequest.getUri()).thenReturn(new URI("http://localhost:8080/test"));
+        when(clientRequest.getHeaders()).thenReturn(headers);
+
+        new MetricLogClientFilter().filter(clientRequest);
+        assertEquals("0", headers.getFirst(Constants.HttpHeaders.SAMPLED));
+
+        headers.clear();
+        MDC.put(SamplingEngine.MDC_KEY, SamplingDecision.DEFERRED.getHeaderValue());
+        new MetricLogClientFilter().filter(clientRequest);
+        assertEquals("d", headers.getFirst(Constants.HttpHeaders.SAMPLED));
+    }
+
+    /**
+     * Makes a mocked request keep its properties, as a real one does.
+     */
+    static void storeProperties(ClientRequestContext request) {
+        Map<String, Object> properties = new HashMap<>();
+        doAnswer(invocation -> properties.put(invocation.getArgument(0), invocation.getArgument(1))).when(request)
+                .setProperty(anyString(), any());
+        when(request.getProperty(anyString())).thenAnswer(invocation -> properties.get(invocation.getArgument(0)));
+        doAnswer(invocation -> properties.remove(invocation.getArgument(0))).when(request).removeProperty(anyString());
+    }
+}
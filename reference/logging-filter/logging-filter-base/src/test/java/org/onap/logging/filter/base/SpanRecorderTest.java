@@ -0,0 +1,133 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * ONAP - Logging
+ * ================================================================================
+ * Copyright (C) 2021 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.filter.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientResponseContext;
+import javax.ws.rs.core.MultivaluedHashMap;
+import org.junit.After;
+import org.junit.Test;
+import org.onap.logging.ref.slf4j.ONAPLogConstants;
+import org.slf4j.MDC;
+
+public class SpanRecorderTest {
+    private final CopyOnWriteArrayList<String> spans = new CopyOnWriteArrayList<>();
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+    private final SpanSink sink = batch -> {
+        batchSizes.add(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            spans.add(batch.getTargetEntity(i) + " " + batch.getStatusCode(i) + " " + batch.getDurationNanos(i) + " "
+                    + batch.getInvocationId(i) + " " + batch.getParentInvocationId(i));
+        }
+    };
+
+    @After
+    public void tearDown() {
+        MDC.clear();
+        SpanRecorder.setInstance(null);
+    }
+
+    @Test
+    public void batchTest() throws Exception {
+        SpanRecorder recorder = new SpanRecorder(4, 60_000, false);
+        recorder.addSink(sink);
+        for (int i = 0; i < 10; i++) {
+            recorder.record(0, i, 1000 + i, 200, "AAI", "/aai/v19", "request", "invocation-" + i, "parent");
+        }
+        waitFor(() -> spans.size() == 8);
+        assertEquals(8, spans.size());
+
+        recorder.flush();
+        assertEquals(10, spans.size());
+        assertEquals("[4, 4, 2]", batchSizes.toString());
+        assertEquals("AAI 200 1000 invocation-0 parent", spans.get(0));
+        assertEquals("AAI 200 1009 invocation-9 parent", spans.get(9));
+        assertEquals(10, recorder.getRecorded());
+        assertEquals(0, recorder.getDropped());
+        recorder.shutdown();
+    }
+
+    @Test
+    public void staleBatchTest() throws Exception {
+        SpanRecorder recorder = new SpanRecorder(256, 20, false);
+        recorder.addSink(sink);
+        Thread caller = new Thread(() -> recorder.record(0, 0, 5, 503, "SDNC", "/restconf", "r", "i", null));
+        caller.start();
+        caller.join();
+
+        waitFor(() -> spans.size() == 1);
+        assertEquals("[SDNC 503 5 i null]", spans.toString());
+        recorder.shutdown();
+    }
+
+    @Test
+    public void metricFilterTest() throws Exception {
+        SpanRecorder recorder = new SpanRecorder(256, 60_000, true);
+        recorder.addSink(sink);
+        SpanRecorder.setInstance(recorder);
+        ClientRequestContext request = mock(ClientRequestContext.class);
+        ClientResponseContext response = mock(ClientResponseContext.class);
+        when(request.getHeaders()).thenReturn(new MultivaluedHashMap<>());
+        when(request.getUri()).thenReturn(new URI("http://aai/aai/v19/cloud-infrastructure"));
+        when(response.getStatus()).thenReturn(404);
+        SamplingEngineTest.storeProperties(request);
+        MDC.put(ONAPLogConstants.MDCs.SERVER_INVOCATION_ID, "server-invocation");
+        MetricLogClientFilter filter = spy(new MetricLogClientFilter());
+
+        filter.filter(request);
+        String invocationId = MDC.get(ONAPLogConstants.MDCs.CLIENT_INVOCATION_ID);
+        // the start time travels with the request, not the thread
+        Thread responseThread = new Thread(MDCSnapshot.capture().wrap(() -> filter.filter(request, response)));
+        responseThread.start();
+        responseThread.join();
+        recorder.flush();
+
+        assertEquals(1, spans.size());
+        String[] span = spans.get(0).split(" ");
+        assertEquals(Constants.DefaultValues.UNKNOWN_TARGET_ENTITY, span[0]);
+        assertEquals("404", span[1]);
+        assertTrue(Long.parseLong(span[2]) > 0);
+        assertEquals(invocationId, span[3]);
+        assertEquals("server-invocation", span[4]);
+        verify(filter, never()).logRequest();
+        verify(filter, never()).logResponse();
+        recorder.shutdown();
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
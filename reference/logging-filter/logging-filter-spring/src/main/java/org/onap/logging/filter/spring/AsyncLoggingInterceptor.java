@@ -0,0 +1,54 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * ONAP - Logging
+ * ================================================================================
+ * Copyright (C) 2021 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.filter.spring;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * {@link LoggingInterceptor} for handlers which return <tt>Callable</tt>, <tt>DeferredResult</tt> and the like. When
+ * the handler goes async, the logging context is detached from the request thread and stored in a request attribute;
+ * the async dispatch picks it back up, and EXIT is logged when that dispatch completes. Register it in place of
+ * {@link LoggingInterceptor}.
+ */
+public class AsyncLoggingInterceptor extends LoggingInterceptor implements AsyncHandlerInterceptor {
+    public static final String SUSPENSION_ATTRIBUTE = AsyncLoggingInterceptor.class.getName() + ".suspension";
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws Exception {
+        Object suspension = request.getAttribute(SUSPENSION_ATTRIBUTE);
+        if (request.getDispatcherType() == DispatcherType.ASYNC && suspension instanceof Suspension) {
+            resume((Suspension) suspension);
+            return true;
+        }
+        return super.preHandle(request, response, handler);
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws Exception {
+        request.setAttribute(SUSPENSION_ATTRIBUTE, suspend());
+    }
+}
@@ -20,24 +20,13 @@
 
 package org.onap.logging.filter.spring;
 
-import java.util.Map;
-import org.slf4j.MDC;
+import org.onap.logging.filter.base.MDCSnapshot;
 import org.springframework.core.task.TaskDecorator;
 
 public class MDCTaskDecorator implements TaskDecorator {
 
     @Override
     public Runnable decorate(Runnable runnable) {
-        Map<String, String> contextMap = MDC.getCopyOfContextMap();
-        return () -> {
-            try {
-                if (contextMap != null) {
-                    MDC.setContextMap(contextMap);
-                    runnable.run();
-                }
-            } finally {
-                MDC.clear();
-            }
-        };
+        return MDCSnapshot.capture().wrap(runnable);
     }
 }
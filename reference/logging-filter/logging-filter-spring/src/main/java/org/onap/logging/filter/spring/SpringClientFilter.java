@@ -42,9 +42,9 @@ public class SpringClientFilter extends AbstractMetricLogFilter<HttpRequest, Cli
     @Override
     public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
             throws IOException {
-        pre(request, request.getHeaders());
+        OutboundSampling sampling = pre(request, request.getHeaders());
         ClientHttpResponse response = execution.execute(request, body);
-        post(request, response);
+        post(request, response, sampling);
         return response;
     }
 
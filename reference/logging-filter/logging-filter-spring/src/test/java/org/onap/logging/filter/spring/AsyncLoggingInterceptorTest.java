@@ -0,0 +1,99 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * ONAP - Logging
+ * ================================================================================
+ * Copyright (C) 2021 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.filter.spring;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+import java.util.HashMap;
+import java.util.Map;
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.onap.logging.ref.slf4j.ONAPLogConstants;
+import org.slf4j.MDC;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AsyncLoggingInterceptorTest {
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Mock
+    private HttpServletResponse response;
+
+    @Mock
+    private Object handler;
+
+    private int entries;
+
+    private int exits;
+
+    private final AsyncLoggingInterceptor interceptor = new AsyncLoggingInterceptor() {
+        @Override
+        protected void logEntering() {
+            entries++;
+        }
+
+        @Override
+        protected void logExiting() {
+            exits++;
+        }
+    };
+
+    @After
+    public void tearDown() {
+        MDC.clear();
+    }
+
+    @Test
+    public void asyncDispatchResumesContext() throws Exception {
+        Map<String, Object> attributes = new HashMap<>();
+        doAnswer(invocation -> attributes.put(invocation.getArgument(0), invocation.getArgument(1))).when(request)
+                .setAttribute(any(), any());
+        when(request.getAttribute(eq(AsyncLoggingInterceptor.SUSPENSION_ATTRIBUTE)))
+                .thenAnswer(invocation -> attributes.get(invocation.getArgument(0)));
+        when(request.getDispatcherType()).thenReturn(DispatcherType.REQUEST, DispatcherType.ASYNC);
+
+        interceptor.preHandle(request, response, handler);
+        String requestId = MDC.get(ONAPLogConstants.MDCs.REQUEST_ID);
+        interceptor.afterConcurrentHandlingStarted(request, response, handler);
+        assertNull(MDC.get(ONAPLogConstants.MDCs.REQUEST_ID));
+
+        interceptor.preHandle(request, response, handler);
+        assertEquals(requestId, MDC.get(ONAPLogConstants.MDCs.REQUEST_ID));
+        assertEquals(0, exits);
+
+        interceptor.postHandle(request, response, handler, null);
+        assertEquals(1, entries);
+        assertEquals(1, exits);
+        assertNull(MDC.get(ONAPLogConstants.MDCs.REQUEST_ID));
+    }
+}
@@ -0,0 +1,58 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * ONAP - Logging
+ * ================================================================================
+ * Copyright (C) 2021 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.filter.spring;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Test;
+import org.onap.logging.ref.slf4j.ONAPLogConstants;
+import org.slf4j.MDC;
+
+public class MDCTaskDecoratorTest {
+
+    private final MDCTaskDecorator decorator = new MDCTaskDecorator();
+
+    @After
+    public void tearDown() {
+        MDC.clear();
+    }
+
+    @Test
+    public void runsWithoutContextTest() {
+        boolean[] ran = new boolean[1];
+        decorator.decorate(() -> ran[0] = true).run();
+        assertTrue(ran[0]);
+    }
+
+    @Test
+    public void propagatesContextTest() {
+        MDC.put(ONAPLogConstants.MDCs.REQUEST_ID, "requestId");
+        String[] seen = new String[1];
+        Runnable task = decorator.decorate(() -> seen[0] = MDC.get(ONAPLogConstants.MDCs.REQUEST_ID));
+        MDC.clear();
+        task.run();
+        assertEquals("requestId", seen[0]);
+        assertNull(MDC.get(ONAPLogConstants.MDCs.REQUEST_ID));
+    }
+}
@@ -0,0 +1,260 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.library.appender;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Context;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.onap.logging.ref.slf4j.ONAPLogConstants;
+import org.slf4j.Marker;
+
+/**
+ * The queue and consumer thread that every {@link SharedAsyncAppender} in a logger context shares, with its metrics.
+ *
+ * <p>
+ * When the queue fills up, events are shed by priority rather than in arrival order:
+ * </p>
+ * <ul>
+ * <li>TRACE and DEBUG are dropped once fewer than {@link #getDiscardingThreshold()} slots are free;</li>
+ * <li>other events are dropped only when there are no free slots at all;</li>
+ * <li>ENTRY and EXIT are never dropped: the logging thread waits for a free slot instead, because an audit trail with
+ * missing halves is worse than a slow one.</li>
+ * </ul>
+ */
+public final class AsyncDispatcher {
+
+    static final String CONTEXT_KEY = AsyncDispatcher.class.getName();
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final EventRing ring;
+    private final int discardingThreshold;
+    private final Thread consumer;
+    private volatile boolean running = true;
+    private volatile boolean idle;
+    private int references;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder droppedDebug = new LongAdder();
+    private final LongAdder droppedOther = new LongAdder();
+    private final LongAdder blocked = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    AsyncDispatcher(String name, int queueSize, int discardingThreshold) {
+        this.ring = new EventRing(queueSize);
+        this.discardingThreshold = Math.max(0,
+                Math.min(discardingThreshold < 0 ? ring.capacity() / 5 : discardingThreshold, ring.capacity() - 1));
+        this.consumer = new Thread(this::run, name);
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    /**
+     * The context's dispatcher, created by the first appender to start; later appenders share it whatever queue size
+     * they were configured with.
+     */
+    static AsyncDispatcher acquire(Context context, int queueSize, int discardingThreshold) {
+        synchronized (context) {
+            AsyncDispatcher dispatcher = (AsyncDispatcher) context.getObject(CONTEXT_KEY);
+            if (dispatcher == null) {
+                String name = "AsyncDispatcher-" + (context.getName() == null ? "default" : context.getName());
+                dispatcher = new AsyncDispatcher(name, queueSize, discardingThreshold);
+                context.putObject(CONTEXT_KEY, dispatcher);
+            }
+            dispatcher.references++;
+            return dispatcher;
+        }
+    }
+
+    /**
+     * Drops an appender's reference, stopping the consumer thread after the last one has flushed.
+     */
+    static void release(Context context, AsyncDispatcher dispatcher, long maxFlushMillis) {
+        synchronized (context) {
+            if (--dispatcher.references > 0) {
+                return;
+            }
+            if (context.getObject(CONTEXT_KEY) == dispatcher) {
+                context.putObject(CONTEXT_KEY, null);
+            }
+        }
+        dispatcher.stop(maxFlushMillis);
+    }
+
+    /**
+     * Queues an event for the owner's appenders, applying the drop policy.
+     *
+     * @return false if the event was dropped
+     */
+    boolean enqueue(SharedAsyncAppender owner, ILoggingEvent event) {
+        if (isDebug(event) && ring.capacity() - ring.size() < discardingThreshold) {
+            droppedDebug.increment();
+            return false;
+        }
+        if (!ring.offer(owner, event)) {
+            if (!isEntryOrExit(event)) {
+                if (isDebug(event)) {
+                    droppedDebug.increment();
+                } else {
+                    droppedOther.increment();
+                }
+                return false;
+            }
+            blocked.increment();
+            do {
+                if (!running) {
+                    droppedOther.increment();
+                    return false;
+                }
+                LockSupport.parkNanos(this, FULL_PARK_NANOS);
+            } while (!ring.offer(owner, event));
+        }
+        enqueued.increment();
+        if (idle) {
+            LockSupport.unpark(consumer);
+        }
+        return true;
+    }
+
+    /**
+     * Waits until everything queued before the call has been handed to its appenders.
+     *
+     * @return false if that took longer than maxMillis
+     */
+    boolean flush(long maxMillis) {
+        long target = ring.tail();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxMillis);
+        while (ring.head() < target) {
+            if (!consumer.isAlive() || System.nanoTime() - deadline > 0) {
+                return false;
+            }
+            LockSupport.unpark(consumer);
+            LockSupport.parkNanos(this, FULL_PARK_NANOS);
+        }
+        return true;
+    }
+
+    private void stop(long maxFlushMillis) {
+        running = false;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join(maxFlushMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        EventRing.Sink sink = this::dispatch;
+        while (running) {
+            if (ring.drain(sink) == 0) {
+                idle = true;
+                if (ring.drain(sink) == 0 && running) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                idle = false;
+            }
+        }
+        ring.drain(sink);
+    }
+
+    private void dispatch(SharedAsyncAppender owner, ILoggingEvent event) {
+        try {
+            owner.dispatch(event);
+        } catch (RuntimeException e) {
+            failed.increment();
+        }
+    }
+
+    private static boolean isDebug(ILoggingEvent event) {
+        return event.getLevel().toInt() <= Level.DEBUG_INT;
+    }
+
+    private static boolean isEntryOrExit(ILoggingEvent event) {
+        Marker marker = event.getMarker();
+        return marker != null && (marker.contains(ONAPLogConstants.Markers.ENTRY.getName())
+                || marker.contains(ONAPLogConstants.Markers.EXIT.getName()));
+    }
+
+    public int getCapacity() {
+        return ring.capacity();
+    }
+
+    public int getDiscardingThreshold() {
+        return discardingThreshold;
+    }
+
+    /**
+     * Events queued and not yet handed to an appender.
+     */
+    public int getQueueDepth() {
+        return ring.size();
+    }
+
+    public long getEnqueued() {
+        return enqueued.sum();
+    }
+
+    /**
+     * TRACE and DEBUG events dropped.
+     */
+    public long getDroppedDebug() {
+        return droppedDebug.sum();
+    }
+
+    /**
+     * INFO, WARN and ERROR events dropped because the queue was full.
+     */
+    public long getDroppedOther() {
+        return droppedOther.sum();
+    }
+
+    public long getDropped() {
+        return getDroppedDebug() + getDroppedOther();
+    }
+
+    /**
+     * Times an ENTRY or EXIT event found the queue full and its thread had to wait.
+     */
+    public long getBlocked() {
+        return blocked.sum();
+    }
+
+    /**
+     * Events an attached appender threw on.
+     */
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    @Override
+    public String toString() {
+        return consumer.getName() + "[depth=" + getQueueDepth() + "/" + getCapacity() + ", enqueued=" + getEnqueued()
+                + ", droppedDebug=" + getDroppedDebug() + ", droppedOther=" + getDroppedOther() + ", blocked="
+                + getBlocked() + ", failed=" + getFailed() + "]";
+    }
+}
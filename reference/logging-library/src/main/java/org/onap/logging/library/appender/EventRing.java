@@ -0,0 +1,131 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.library.appender;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free ring of (appender, event) pairs with any number of producers and a single consumer. Each slot
+ * carries a sequence number, so a producer claims a slot with one compare-and-set on the tail and publishes it with an
+ * ordered write of the sequence; the consumer never contends with producers.
+ */
+final class EventRing {
+
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final SharedAsyncAppender[] owners;
+    private final ILoggingEvent[] events;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * @param capacity slots, rounded up to a power of two
+     */
+    EventRing(int capacity) {
+        int size = capacity <= 1 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.sequences = new AtomicLongArray(size);
+        this.owners = new SharedAsyncAppender[size];
+        this.events = new ILoggingEvent[size];
+        for (int i = 0; i < size; i++) {
+            sequences.lazySet(i, i);
+        }
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Slots in use; approximate while producers or the consumer are active.
+     */
+    int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    /**
+     * The sequence number the next offer will claim.
+     */
+    long tail() {
+        return tail.get();
+    }
+
+    /**
+     * The sequence number the consumer will take next.
+     */
+    long head() {
+        return head.get();
+    }
+
+    /**
+     * Adds a pair, or returns false at once if the ring is full.
+     */
+    boolean offer(SharedAsyncAppender owner, ILoggingEvent event) {
+        while (true) {
+            long t = tail.get();
+            int index = (int) t & mask;
+            long distance = sequences.get(index) - t;
+            if (distance == 0) {
+                if (tail.compareAndSet(t, t + 1)) {
+                    owners[index] = owner;
+                    events[index] = event;
+                    sequences.lazySet(index, t + 1);
+                    return true;
+                }
+            } else if (distance < 0) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Hands every published pair to the sink, in order. Only the consumer thread may call this.
+     *
+     * @return the number of pairs handed over
+     */
+    int drain(Sink sink) {
+        long h = head.get();
+        int count = 0;
+        while (true) {
+            int index = (int) h & mask;
+            if (sequences.get(index) != h + 1) {
+                return count;
+            }
+            SharedAsyncAppender owner = owners[index];
+            ILoggingEvent event = events[index];
+            owners[index] = null;
+            events[index] = null;
+            sequences.lazySet(index, h + mask + 1);
+            head.lazySet(++h);
+            count++;
+            sink.accept(owner, event);
+        }
+    }
+
+    interface Sink {
+        void accept(SharedAsyncAppender owner, ILoggingEvent event);
+    }
+}
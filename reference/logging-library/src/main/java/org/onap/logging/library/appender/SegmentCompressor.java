@@ -0,0 +1,511 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.library.appender;
+
+import ch.qos.logback.core.spi.ContextAwareBase;
+import ch.qos.logback.core.spi.LifeCycle;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses the segments a {@link SegmentFileAppender} rolls, on a bounded pool of low-priority background threads, so
+ * rollover never waits for compression, e.g.
+ *
+ * <pre>
+ * &lt;appender name="Beats" class="org.onap.logging.library.appender.SegmentFileAppender"&gt;
+ *     ...
+ *     &lt;compressor class="org.onap.logging.library.appender.SegmentCompressor"&gt;
+ *         &lt;codec&gt;gzip&lt;/codec&gt;
+ *         &lt;level&gt;6&lt;/level&gt;
+ *         &lt;threads&gt;2&lt;/threads&gt;
+ *     &lt;/compressor&gt;
+ * &lt;/appender&gt;
+ * </pre>
+ *
+ * <p>
+ * The gzip codec compresses a segment in <code>chunkSize</code> pieces on all threads at once and concatenates them as
+ * gzip members, as pigz does, which gunzip, zcat and <code>GZIPInputStream</code> read as one file. The zstd codec uses
+ * zstd's own worker threads and needs zstd-jni on the classpath.
+ * </p>
+ *
+ * <p>
+ * Every segment that is final, compressed or not, is appended to a manifest next to the live file (e.g.
+ * <code>audit.log.manifest</code>) as a tab-separated line of file name, size, original size and codec, the original
+ * size being -1 in the rare case that it could not be recovered after a crash. Shippers should only pick up segments
+ * listed there, and should tolerate files pruned by <code>maxHistory</code>. When more than <code>maxPending</code>
+ * segments are waiting, new ones are listed uncompressed rather than queued.
+ * </p>
+ */
+public class SegmentCompressor extends ContextAwareBase implements LifeCycle {
+
+    public static final String GZIP = "gzip";
+    public static final String ZSTD = "zstd";
+    public static final String NONE = "none";
+    public static final String MANIFEST_SUFFIX = ".manifest";
+    public static final String TEMP_SUFFIX = ".tmp";
+
+    private static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+
+    private String codec = GZIP;
+    private int level = -1;
+    private int threads = 2;
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    private int maxPending = 4;
+    private long maxShutdownWait = 30_000;
+
+    private Path manifest;
+    private ThreadPoolExecutor segments;
+    private ExecutorService chunks;
+    private volatile boolean started;
+
+    private final LongAdder compressed = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+
+    @Override
+    public void start() {
+        if (started) {
+            return;
+        }
+        if (manifest == null) {
+            addError("No live file set; attach the compressor to a SegmentFileAppender");
+            return;
+        }
+        if (!GZIP.equals(codec) && !ZSTD.equals(codec) && !NONE.equals(codec)) {
+            addError("Unknown codec [" + codec + "]");
+            return;
+        }
+        if (ZSTD.equals(codec) && !ZstdSupport.isAvailable()) {
+            addError("zstd-jni is not on the classpath");
+            return;
+        }
+        segments = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, maxPending)), threadFactory("SegmentCompressor"));
+        if (GZIP.equals(codec) && threads > 1) {
+            chunks = Executors.newFixedThreadPool(threads, threadFactory("SegmentCompressor-chunk"));
+        }
+        started = true;
+    }
+
+    @Override
+    public void stop() {
+        if (!started) {
+            return;
+        }
+        started = false;
+        segments.shutdown();
+        try {
+            if (!segments.awaitTermination(maxShutdownWait, TimeUnit.MILLISECONDS)) {
+                addWarn("Gave up waiting for compression; remaining segments stay uncompressed");
+                segments.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (chunks != null) {
+            chunks.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isStarted() {
+        return started;
+    }
+
+    /**
+     * Called by the appender before starting the compressor.
+     */
+    void setLiveFile(Path liveFile) {
+        this.manifest = liveFile.resolveSibling(liveFile.getFileName() + MANIFEST_SUFFIX);
+    }
+
+    /**
+     * Queues a rolled segment for compression, or lists it in the manifest as it is if the queue is full.
+     *
+     * @return false if the segment was not queued
+     */
+    public boolean submit(Path segment) {
+        if (!started || NONE.equals(codec)) {
+            finishUncompressed(segment);
+            return false;
+        }
+        try {
+            segments.execute(() -> compress(segment));
+            return true;
+        } catch (RejectedExecutionException e) {
+            skipped.increment();
+            addWarn("Compression queue full; leaving " + segment + " uncompressed");
+            finishUncompressed(segment);
+            return false;
+        }
+    }
+
+    /**
+     * Submits the segments that are neither compressor output nor already listed in the manifest, e.g. those a previous
+     * run rolled but stopped before finishing. Segments listed uncompressed stay that way, since shippers may already
+     * have taken them. Compressor output missing from the manifest, because a previous run stopped between deleting the
+     * segment and listing its output, is listed now.
+     */
+    void submitUnfinished(List<Path> rolled) {
+        Set<String> finished = readManifest();
+        Set<String> names = new HashSet<>();
+        for (Path segment : rolled) {
+            names.add(segment.getFileName().toString());
+        }
+        for (Path segment : rolled) {
+            String name = segment.getFileName().toString();
+            if (finished.contains(name) || name.endsWith(TEMP_SUFFIX)) {
+                continue;
+            }
+            if (!isOutput(segment)) {
+                submit(segment);
+            } else if (!names.contains(name.substring(0, name.lastIndexOf('.')))) {
+                // the segment itself is gone; if it were still there, compressing it again replaces this output
+                submitCompressed(segment);
+            }
+        }
+    }
+
+    /**
+     * Queues the listing of compressor output left unlisted by a previous run, behind the segments queued before it so
+     * that the manifest stays in order.
+     */
+    private void submitCompressed(Path output) {
+        if (started) {
+            try {
+                segments.execute(() -> finishCompressed(output));
+                return;
+            } catch (RejectedExecutionException e) {
+                // list it now
+            }
+        }
+        finishCompressed(output);
+    }
+
+    private void finishCompressed(Path output) {
+        String outputCodec = output.getFileName().toString().endsWith(".zst") ? ZSTD : GZIP;
+        long originalSize = -1;
+        try (InputStream in = ZSTD.equals(outputCodec) ? ZstdSupport.newInputStream(output)
+                : new GZIPInputStream(Files.newInputStream(output))) {
+            originalSize = count(in);
+        } catch (NoSuchFileException e) {
+            // pruned by maxHistory before its turn came
+            return;
+        } catch (IOException | RuntimeException | LinkageError e) {
+            addWarn("Failed to read " + output + "; listing it with an original size of -1", e);
+        }
+        finish(output, originalSize, outputCodec);
+    }
+
+    private static long count(InputStream in) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long count = 0;
+        for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+            count += n;
+        }
+        return count;
+    }
+
+    /**
+     * The file names the manifest lists as final.
+     */
+    private Set<String> readManifest() {
+        Set<String> names = new HashSet<>();
+        if (!Files.exists(manifest)) {
+            return names;
+        }
+        try {
+            for (String line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+                int tab = line.indexOf('\t');
+                if (tab > 0) {
+                    names.add(line.substring(0, tab));
+                }
+            }
+        } catch (IOException e) {
+            addError("Failed to read " + manifest, e);
+        }
+        return names;
+    }
+
+    /**
+     * Whether a file is one this compressor produced, or is in the middle of producing.
+     */
+    public static boolean isOutput(Path file) {
+        String name = file.getFileName().toString();
+        return name.endsWith(".gz") || name.endsWith(".zst") || name.endsWith(TEMP_SUFFIX);
+    }
+
+    private void compress(Path segment) {
+        Path target = segment.resolveSibling(segment.getFileName() + (ZSTD.equals(codec) ? ".zst" : ".gz"));
+        Path temp = target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+        try {
+            long size = Files.size(segment);
+            if (ZSTD.equals(codec)) {
+                ZstdSupport.compress(segment, temp, level < 0 ? 3 : level, threads);
+            } else {
+                gzip(segment, temp);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            Files.delete(segment);
+            compressed.increment();
+            bytesIn.add(size);
+            bytesOut.add(Files.size(target));
+            finish(target, size, codec);
+        } catch (NoSuchFileException e) {
+            // pruned by maxHistory before its turn came
+            deleteQuietly(temp);
+        } catch (IOException | RuntimeException | LinkageError e) {
+            // a LinkageError is zstd-jni failing to load; the segment is still listed, uncompressed
+            failed.increment();
+            addError("Failed to compress " + segment, e);
+            deleteQuietly(temp);
+            if (Files.exists(segment)) {
+                finishUncompressed(segment);
+            }
+        }
+    }
+
+    private void gzip(Path source, Path target) throws IOException {
+        int gzipLevel = level < 0 ? 6 : level;
+        try (InputStream in = Files.newInputStream(source); OutputStream out = Files.newOutputStream(target)) {
+            byte[] chunk = read(in);
+            if (chunk.length == 0) {
+                // an empty file is not valid gzip; an empty member is
+                out.write(gzipChunk(chunk, gzipLevel));
+                return;
+            }
+            if (chunks == null) {
+                for (; chunk.length > 0; chunk = read(in)) {
+                    out.write(gzipChunk(chunk, gzipLevel));
+                }
+                return;
+            }
+            Deque<Future<byte[]>> window = new ArrayDeque<>();
+            for (; chunk.length > 0; chunk = read(in)) {
+                byte[] input = chunk;
+                window.add(chunks.submit(() -> gzipChunk(input, gzipLevel)));
+                if (window.size() >= threads * 2) {
+                    out.write(await(window.poll()));
+                }
+            }
+            while (!window.isEmpty()) {
+                out.write(await(window.poll()));
+            }
+        }
+    }
+
+    private byte[] read(InputStream in) throws IOException {
+        ByteArrayOutputStream chunk = new ByteArrayOutputStream(Math.min(chunkSize, 64 * 1024));
+        byte[] buffer = new byte[64 * 1024];
+        while (chunk.size() < chunkSize) {
+            int n = in.read(buffer, 0, Math.min(buffer.length, chunkSize - chunk.size()));
+            if (n < 0) {
+                break;
+            }
+            chunk.write(buffer, 0, n);
+        }
+        return chunk.toByteArray();
+    }
+
+    private static byte[] await(Future<byte[]> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * One self-contained gzip member.
+     */
+    static byte[] gzipChunk(byte[] input, int level) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(input.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes) {
+            {
+                def.setLevel(level);
+            }
+        }) {
+            gzip.write(input);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Appends a final segment to the manifest, from either the compression thread or the appender's writer thread when
+     * compression is skipped.
+     */
+    private synchronized void finish(Path file, long originalSize, String fileCodec) {
+        try {
+            String line = file.getFileName() + "\t" + Files.size(file) + "\t" + originalSize + "\t" + fileCodec + "\n";
+            try (FileChannel channel = FileChannel.open(manifest, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND)) {
+                channel.write(ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8)));
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            addError("Failed to update " + manifest, e);
+        }
+    }
+
+    private void finishUncompressed(Path segment) {
+        try {
+            finish(segment, Files.size(segment), NONE);
+        } catch (IOException e) {
+            addError("Failed to read " + segment, e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // best effort
+        }
+    }
+
+    private static ThreadFactory threadFactory(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        };
+    }
+
+    public long getCompressed() {
+        return compressed.sum();
+    }
+
+    /**
+     * Segments left uncompressed because too many were already waiting.
+     */
+    public long getSkipped() {
+        return skipped.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    public long getBytesIn() {
+        return bytesIn.sum();
+    }
+
+    public long getBytesOut() {
+        return bytesOut.sum();
+    }
+
+    public String getCodec() {
+        return codec;
+    }
+
+    /**
+     * gzip (the default), zstd, or none to only maintain the manifest.
+     */
+    public void setCodec(String codec) {
+        this.codec = codec;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * Compression level, 1-9 for gzip and 1-22 for zstd; defaults to 6 and 3 respectively.
+     */
+    public void setLevel(int level) {
+        this.level = level;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Bytes compressed per gzip member and per task; smaller chunks compress slightly worse.
+     */
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public int getMaxPending() {
+        return maxPending;
+    }
+
+    public void setMaxPending(int maxPending) {
+        this.maxPending = maxPending;
+    }
+
+    public long getMaxShutdownWait() {
+        return maxShutdownWait;
+    }
+
+    /**
+     * Milliseconds to wait on stop for queued segments to be compressed.
+     */
+    public void setMaxShutdownWait(long maxShutdownWait) {
+        this.maxShutdownWait = maxShutdownWait;
+    }
+}
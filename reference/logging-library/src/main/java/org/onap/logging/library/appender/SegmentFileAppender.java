@@ -0,0 +1,568 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.library.appender;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.encoder.Encoder;
+import ch.qos.logback.core.util.Duration;
+import ch.qos.logback.core.util.FileSize;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * File appender that batches events into large direct buffers and writes each full buffer with one
+ * <code>FileChannel</code> call from a background thread, in place of a <code>RollingFileAppender</code> that writes
+ * and flushes an output stream per event, e.g.
+ *
+ * <pre>
+ * &lt;appender name="Beats" class="org.onap.logging.library.appender.SegmentFileAppender"&gt;
+ *     &lt;file&gt;${beatsLogDirectory}/${beatsLogFilename}.log&lt;/file&gt;
+ *     &lt;maxFileSize&gt;${maxFileSize}&lt;/maxFileSize&gt;
+ *     &lt;maxHistory&gt;${maxHistory}&lt;/maxHistory&gt;
+ *     &lt;encoder class="org.onap.logging.library.encoder.BeatsRecordEncoder"/&gt;
+ * &lt;/appender&gt;
+ * </pre>
+ *
+ * <p>
+ * A buffer is committed when it reaches <code>commitSize</code> or has waited <code>maxCommitDelay</code> milliseconds,
+ * whichever comes first. Rolling over to a new segment, and pruning old ones, also happen on the background thread, so
+ * logging threads keep filling the next buffer meanwhile; they only wait when every buffer is queued for writing.
+ * Rolled segments are named after the live file plus their UTC roll time, e.g.
+ * <code>audit.log.20191018T120000.123Z</code>, and a nested {@link SegmentCompressor} compresses them off the writer
+ * thread.
+ * </p>
+ *
+ * <p>
+ * A segment rolls once it reaches <code>maxFileSize</code> or, if <code>rollInterval</code> is set, once its first
+ * event was written that long ago; without an interval a quiet service keeps appending to the same file until it fills.
+ * A non-empty live file left by a previous run counts as started when this appender reopens it. Each new or empty
+ * segment starts with the encoder's header and each rolled one ends with its footer, so segments written by e.g. a
+ * {@link org.onap.logging.library.encoder.BinaryRecordEncoder} can each be read on their own.
+ * </p>
+ */
+public class SegmentFileAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+
+    public static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+    public static final int DEFAULT_BUFFER_COUNT = 4;
+    public static final long DEFAULT_MAX_COMMIT_DELAY = 200;
+    public static final long DEFAULT_MAX_FILE_SIZE = 100L * 1024 * 1024;
+
+    private static final DateTimeFormatter ROLL_SUFFIX =
+            DateTimeFormatter.ofPattern("'.'yyyyMMdd'T'HHmmss.SSS'Z'").withZone(ZoneOffset.UTC);
+
+    private String file;
+    private Encoder<ILoggingEvent> encoder;
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+    private int bufferCount = DEFAULT_BUFFER_COUNT;
+    private int commitSize = -1;
+    private long maxCommitDelay = DEFAULT_MAX_COMMIT_DELAY;
+    private FileSize maxFileSize = new FileSize(DEFAULT_MAX_FILE_SIZE);
+    private Duration rollInterval;
+    private int maxHistory;
+    private boolean force;
+    private SegmentCompressor compressor;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private BlockingQueue<ByteBuffer> free;
+    private BlockingQueue<ByteBuffer> full;
+    private ByteBuffer active;
+    private Path path;
+    private FileChannel channel;
+    private long fileSize;
+    private long segmentStarted;
+    private boolean segmentHasEvents;
+    private Thread writer;
+    private volatile boolean running;
+    private boolean stopping;
+
+    private final LongAdder commits = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder rolls = new LongAdder();
+    private final LongAdder waits = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        if (file == null) {
+            addError("No file set for [" + name + "]");
+            return;
+        }
+        if (encoder == null) {
+            addError("No encoder set for [" + name + "]");
+            return;
+        }
+        if (bufferSize < 1 || bufferCount < 2) {
+            addError("Need at least two buffers of at least one byte");
+            return;
+        }
+        path = Paths.get(file).toAbsolutePath();
+        try {
+            Files.createDirectories(path.getParent());
+            openChannel();
+        } catch (IOException e) {
+            addError("Failed to open " + path, e);
+            return;
+        }
+        free = new ArrayBlockingQueue<>(bufferCount);
+        full = new ArrayBlockingQueue<>(bufferCount);
+        for (int i = 1; i < bufferCount; i++) {
+            free.add(ByteBuffer.allocateDirect(bufferSize));
+        }
+        active = ByteBuffer.allocateDirect(bufferSize);
+        stopping = false;
+        if (compressor != null) {
+            startCompressor();
+        }
+        running = true;
+        writer = new Thread(this::run, "SegmentFileAppender-" + name);
+        writer.setDaemon(true);
+        writer.start();
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        lock.lock();
+        try {
+            // appends still racing stop() see the flag under this lock, so none are left behind in active
+            stopping = true;
+            commit(true);
+        } finally {
+            lock.unlock();
+        }
+        // not interrupted, which would close the channel mid-write; it notices within maxCommitDelay
+        running = false;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writeFooter();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            addError("Failed to close " + path, e);
+        }
+        if (compressor != null) {
+            compressor.stop();
+        }
+    }
+
+    /**
+     * Starts the compressor and hands it any segments a previous run rolled but never finished.
+     */
+    private void startCompressor() {
+        compressor.setContext(getContext());
+        compressor.setLiveFile(path);
+        compressor.start();
+        compressor.submitUnfinished(getRolledSegments());
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        byte[] bytes = encoder.encode(event);
+        if (bytes == null || bytes.length == 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (stopping) {
+                return;
+            }
+            if (bytes.length > active.remaining()) {
+                commit(true);
+            }
+            if (bytes.length > active.remaining()) {
+                // larger than a whole buffer: queue it on its own
+                ByteBuffer oversize = ByteBuffer.wrap(bytes);
+                oversize.position(bytes.length);
+                enqueue(oversize);
+                return;
+            }
+            active.put(bytes);
+            if (active.position() >= getEffectiveCommitSize()) {
+                commit(true);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Queues the active buffer for writing and takes a free one. Called with the lock held.
+     *
+     * @param wait whether to wait for a free buffer, or give up if there is none
+     */
+    private void commit(boolean wait) {
+        if (active.position() == 0) {
+            return;
+        }
+        ByteBuffer next = free.poll();
+        if (next == null) {
+            if (!wait) {
+                return;
+            }
+            waits.increment();
+            while (next == null) {
+                try {
+                    next = free.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    failures.increment();
+                    active.clear();
+                    return;
+                }
+            }
+        }
+        enqueue(active);
+        active = next;
+    }
+
+    private void enqueue(ByteBuffer buffer) {
+        buffer.flip();
+        boolean interrupted = false;
+        while (true) {
+            try {
+                full.put(buffer);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        while (running || !full.isEmpty()) {
+            ByteBuffer buffer;
+            try {
+                buffer = full.poll(maxCommitDelay, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (buffer == null) {
+                if (lock.tryLock()) {
+                    try {
+                        commit(false);
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            } else {
+                write(buffer);
+                if (buffer.isDirect()) {
+                    buffer.clear();
+                    free.add(buffer);
+                }
+            }
+            if (fileSize >= maxFileSize.getSize() || isRollDue()) {
+                roll();
+            }
+        }
+    }
+
+    private void write(ByteBuffer buffer) {
+        int length = buffer.remaining();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (force) {
+                channel.force(false);
+            }
+            fileSize += length;
+            if (!segmentHasEvents) {
+                segmentHasEvents = true;
+                segmentStarted = System.currentTimeMillis();
+            }
+            bytesWritten.add(length);
+            commits.increment();
+        } catch (IOException e) {
+            failures.increment();
+            addError("Failed to write to " + path, e);
+        }
+    }
+
+    private boolean isRollDue() {
+        return rollInterval != null && segmentHasEvents
+                && System.currentTimeMillis() - segmentStarted >= rollInterval.getMilliseconds();
+    }
+
+    private void roll() {
+        writeFooter();
+        String name = path.getFileName() + ROLL_SUFFIX.format(Instant.now());
+        Path rolled = path.resolveSibling(name);
+        for (int i = 1; Files.exists(rolled); i++) {
+            rolled = path.resolveSibling(name + "-" + i);
+        }
+        try {
+            channel.close();
+            Files.move(path, rolled, StandardCopyOption.ATOMIC_MOVE);
+            rolls.increment();
+        } catch (IOException e) {
+            failures.increment();
+            addError("Failed to roll " + path + " to " + rolled, e);
+            rolled = null;
+        }
+        try {
+            openChannel();
+        } catch (IOException e) {
+            addError("Failed to reopen " + path, e);
+        }
+        if (rolled != null && compressor != null) {
+            compressor.submit(rolled);
+        }
+        if (maxHistory > 0) {
+            prune();
+        }
+    }
+
+    private void prune() {
+        List<Path> segments = getRolledSegments();
+        for (int i = 0; i < segments.size() - maxHistory; i++) {
+            try {
+                Files.deleteIfExists(segments.get(i));
+            } catch (IOException e) {
+                addWarn("Failed to delete " + segments.get(i), e);
+            }
+        }
+    }
+
+    private void openChannel() throws IOException {
+        channel =
+                FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        fileSize = channel.size();
+        segmentStarted = System.currentTimeMillis();
+        segmentHasEvents = fileSize > 0;
+        if (fileSize == 0) {
+            writeFully(encoder.headerBytes());
+        }
+    }
+
+    private void writeFooter() {
+        try {
+            writeFully(encoder.footerBytes());
+        } catch (IOException e) {
+            failures.increment();
+            addError("Failed to write footer to " + path, e);
+        }
+    }
+
+    /**
+     * Writes an encoder header or footer straight to the channel, from the writer thread or before it starts or after
+     * it ends.
+     */
+    private void writeFully(byte[] bytes) throws IOException {
+        if (bytes == null || bytes.length == 0) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        fileSize += bytes.length;
+    }
+
+    /**
+     * Rolled segments of the live file, oldest first.
+     */
+    public List<Path> getRolledSegments() {
+        List<Path> segments = new ArrayList<>();
+        String prefix = path.getFileName() + ".";
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(path.getParent(), prefix + "*")) {
+            for (Path segment : stream) {
+                String suffix = segment.getFileName().toString().substring(prefix.length());
+                if (suffix.length() > 0 && Character.isDigit(suffix.charAt(0))
+                        && !suffix.endsWith(SegmentCompressor.TEMP_SUFFIX)) {
+                    segments.add(segment);
+                }
+            }
+        } catch (IOException e) {
+            addWarn("Failed to list " + path.getParent(), e);
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    private int getEffectiveCommitSize() {
+        return commitSize > 0 && commitSize < bufferSize ? commitSize : bufferSize;
+    }
+
+    public long getCommits() {
+        return commits.sum();
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    public long getRolls() {
+        return rolls.sum();
+    }
+
+    /**
+     * Times a logging thread found every buffer queued for writing and had to wait.
+     */
+    public long getWaits() {
+        return waits.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public void setFile(String file) {
+        this.file = file;
+    }
+
+    public Encoder<ILoggingEvent> getEncoder() {
+        return encoder;
+    }
+
+    public void setEncoder(Encoder<ILoggingEvent> encoder) {
+        this.encoder = encoder;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public int getBufferCount() {
+        return bufferCount;
+    }
+
+    public void setBufferCount(int bufferCount) {
+        this.bufferCount = bufferCount;
+    }
+
+    public int getCommitSize() {
+        return commitSize;
+    }
+
+    /**
+     * Bytes after which a buffer is written without waiting for it to fill; defaults to the buffer size.
+     */
+    public void setCommitSize(int commitSize) {
+        this.commitSize = commitSize;
+    }
+
+    public long getMaxCommitDelay() {
+        return maxCommitDelay;
+    }
+
+    /**
+     * Milliseconds an event may wait in a buffer before being written.
+     */
+    public void setMaxCommitDelay(long maxCommitDelay) {
+        this.maxCommitDelay = maxCommitDelay;
+    }
+
+    public FileSize getMaxFileSize() {
+        return maxFileSize;
+    }
+
+    public void setMaxFileSize(FileSize maxFileSize) {
+        this.maxFileSize = maxFileSize;
+    }
+
+    public Duration getRollInterval() {
+        return rollInterval;
+    }
+
+    /**
+     * How long after its first event a segment rolls, e.g. <code>1 hour</code>; unset rolls on size only.
+     */
+    public void setRollInterval(Duration rollInterval) {
+        this.rollInterval = rollInterval;
+    }
+
+    public int getMaxHistory() {
+        return maxHistory;
+    }
+
+    /**
+     * Rolled segments to keep, oldest deleted first; zero keeps them all.
+     */
+    public void setMaxHistory(int maxHistory) {
+        this.maxHistory = maxHistory;
+    }
+
+    public SegmentCompressor getCompressor() {
+        return compressor;
+    }
+
+    /**
+     * Compresses rolled segments in the background; without one they are left as they are.
+     */
+    public void setCompressor(SegmentCompressor compressor) {
+        this.compressor = compressor;
+    }
+
+    public boolean isForce() {
+        return force;
+    }
+
+    /**
+     * Whether to fsync after every commit.
+     */
+    public void setForce(boolean force) {
+        this.force = force;
+    }
+}
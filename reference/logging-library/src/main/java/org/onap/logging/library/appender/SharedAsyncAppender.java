@@ -0,0 +1,192 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.library.appender;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+import java.util.Iterator;
+
+/**
+ * Drop-in replacement for logback's <code>AsyncAppender</code> where every instance in a logger context shares one
+ * lock-free queue and one consumer thread, instead of each owning a blocking queue and a thread, e.g.
+ *
+ * <pre>
+ * &lt;appender name="EELFAuditAsync" class="org.onap.logging.library.appender.SharedAsyncAppender"&gt;
+ *     &lt;queueSize&gt;${queueSize}&lt;/queueSize&gt;
+ *     &lt;appender-ref ref="EELFAudit"/&gt;
+ * &lt;/appender&gt;
+ * &lt;appender name="BeatsAsync" class="org.onap.logging.library.appender.SharedAsyncAppender"&gt;
+ *     &lt;appender-ref ref="Beats"/&gt;
+ * &lt;/appender&gt;
+ * </pre>
+ *
+ * Loggers keep referring to the same appenders as before, so routing is unchanged: the consumer thread hands each event
+ * to the appenders of the instance it was logged through, and each event's MDC and message are prepared once however
+ * many encoders it reaches. See {@link AsyncDispatcher} for the drop policy and metrics.
+ */
+public class SharedAsyncAppender extends UnsynchronizedAppenderBase<ILoggingEvent>
+        implements AppenderAttachable<ILoggingEvent> {
+
+    public static final int DEFAULT_QUEUE_SIZE = 8192;
+    public static final int DEFAULT_MAX_FLUSH_TIME = 1000;
+
+    private final AppenderAttachableImpl<ILoggingEvent> appenders = new AppenderAttachableImpl<>();
+    private int queueSize = DEFAULT_QUEUE_SIZE;
+    private int discardingThreshold = -1;
+    private int maxFlushTime = DEFAULT_MAX_FLUSH_TIME;
+    private boolean includeCallerData;
+    private AsyncDispatcher dispatcher;
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        if (queueSize < 1) {
+            addError("Invalid queue size [" + queueSize + "]");
+            return;
+        }
+        if (!appenders.iteratorForAppenders().hasNext()) {
+            addWarn("No attached appenders found for [" + name + "]");
+        }
+        dispatcher = AsyncDispatcher.acquire(getContext(), queueSize, discardingThreshold);
+        if (dispatcher.getCapacity() < queueSize) {
+            addInfo("Sharing a queue of " + dispatcher.getCapacity() + " events, not " + queueSize);
+        }
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        if (!dispatcher.flush(maxFlushTime)) {
+            addWarn("Max flush time of " + maxFlushTime + "ms exceeded; queued events may be lost");
+        }
+        addInfo("Stopping " + dispatcher);
+        AsyncDispatcher.release(getContext(), dispatcher, maxFlushTime);
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        event.prepareForDeferredProcessing();
+        if (includeCallerData) {
+            event.getCallerData();
+        }
+        dispatcher.enqueue(this, event);
+    }
+
+    /**
+     * Called on the consumer thread.
+     */
+    void dispatch(ILoggingEvent event) {
+        appenders.appendLoopOnAppenders(event);
+    }
+
+    /**
+     * The dispatcher shared with every other instance in the context, for its metrics; null until started.
+     */
+    public AsyncDispatcher getDispatcher() {
+        return dispatcher;
+    }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    /**
+     * Only honoured by the first instance to start, which creates the shared queue.
+     */
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    public int getDiscardingThreshold() {
+        return discardingThreshold;
+    }
+
+    /**
+     * Free slots below which TRACE and DEBUG are dropped; defaults to a fifth of the queue. Only honoured by the first
+     * instance to start.
+     */
+    public void setDiscardingThreshold(int discardingThreshold) {
+        this.discardingThreshold = discardingThreshold;
+    }
+
+    public int getMaxFlushTime() {
+        return maxFlushTime;
+    }
+
+    public void setMaxFlushTime(int maxFlushTime) {
+        this.maxFlushTime = maxFlushTime;
+    }
+
+    public boolean isIncludeCallerData() {
+        return includeCallerData;
+    }
+
+    public void setIncludeCallerData(boolean includeCallerData) {
+        this.includeCallerData = includeCallerData;
+    }
+
+    @Override
+    public void addAppender(Appender<ILoggingEvent> newAppender) {
+        appenders.addAppender(newAppender);
+    }
+
+    @Override
+    public Iterator<Appender<ILoggingEvent>> iteratorForAppenders() {
+        return appenders.iteratorForAppenders();
+    }
+
+    @Override
+    public Appender<ILoggingEvent> getAppender(String name) {
+        return appenders.getAppender(name);
+    }
+
+    @Override
+    public boolean isAttached(Appender<ILoggingEvent> appender) {
+        return appenders.isAttached(appender);
+    }
+
+    @Override
+    public void detachAndStopAllAppenders() {
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    public boolean detachAppender(Appender<ILoggingEvent> appender) {
+        return appenders.detachAppender(appender);
+    }
+
+    @Override
+    public boolean detachAppender(String name) {
+        return appenders.detachAppender(name);
+    }
+}
@@ -0,0 +1,89 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.library.appender;
+
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+import com.github.luben.zstd.util.Native;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Zstandard compression, kept apart so that zstd-jni is only loaded when configured.
+ */
+final class ZstdSupport {
+
+    private static final int COPY_BUFFER_SIZE = 1024 * 1024;
+
+    private ZstdSupport() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Whether zstd-jni is on the classpath and its native library loads on this platform.
+     */
+    static boolean isAvailable() {
+        try {
+            Native.load();
+            return true;
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Compresses a file with zstd's own worker threads.
+     */
+    static void compress(Path source, Path target, int level, int workers) throws IOException {
+        try (InputStream in = Files.newInputStream(source);
+                ZstdOutputStream out = new ZstdOutputStream(Files.newOutputStream(target), level)) {
+            if (workers > 1) {
+                out.setWorkers(workers);
+            }
+            copy(in, out);
+        }
+    }
+
+    /**
+     * Opens a zstd file for reading.
+     */
+    static InputStream newInputStream(Path source) throws IOException {
+        InputStream in = Files.newInputStream(source);
+        try {
+            return new ZstdInputStream(in);
+        } catch (IOException | RuntimeException | LinkageError e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    private static void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+            out.write(buffer, 0, n);
+        }
+    }
+}
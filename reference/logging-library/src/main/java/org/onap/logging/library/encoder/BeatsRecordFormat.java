@@ -0,0 +1,117 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.library.encoder;
+
+/**
+ * Writes an {@link OnapRecord} as one tab-delimited Beats line, byte-for-byte what the <code>beatsPattern</code> in the
+ * reference logback.xml produces: timestamp, thread, level, logger, MDC, message, exception and marker, with tabs and
+ * newlines inside the MDC, message, exception and marker escaped. The pattern's replacement strings leave two
+ * backslashes in the output, so a tab becomes <code>\\t</code> and a newline <code>\\n</code>, and that is kept here.
+ *
+ * <p>
+ * The MDC column lists ONAP fields in schema order and then any others, rather than in whatever order the MDC map
+ * iterates; Logstash parses it as key=value pairs, so the order carries no meaning. Likewise the exception column holds
+ * the stack trace outermost exception first, as <code>%exception</code> prints it, not root cause first.
+ * </p>
+ */
+public final class BeatsRecordFormat {
+
+    private BeatsRecordFormat() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Appends the record as one line.
+     */
+    public static void writeRecord(OnapRecord record, RecordBuffer buffer) {
+        JsonRecordFormat.writeTimestamp(buffer, record.getTimestamp());
+        buffer.write('\t');
+        writeRaw(buffer, record.get(OnapRecord.THREAD));
+        buffer.write('\t');
+        buffer.writeAscii(OnapRecord.getLevelName(record.getLevel()));
+        buffer.write('\t');
+        writeRaw(buffer, record.get(OnapRecord.LOGGER));
+        buffer.write('\t');
+        writeMdc(buffer, record);
+        buffer.write('\t');
+        writeEscaped(buffer, record.get(OnapRecord.MESSAGE));
+        buffer.write('\t');
+        writeEscaped(buffer, record.get(OnapRecord.THROWABLE));
+        buffer.write('\t');
+        writeEscaped(buffer, record.get(OnapRecord.MARKER));
+        buffer.write('\t');
+        buffer.write('\n');
+    }
+
+    private static void writeMdc(RecordBuffer buffer, OnapRecord record) {
+        boolean first = true;
+        for (int column = OnapRecord.FIRST_MDC; column < OnapRecord.getColumnCount(); column++) {
+            CharSequence value = record.get(column);
+            if (value != null) {
+                first = writeEntry(buffer, first, OnapRecord.getColumnName(column), value);
+            }
+        }
+        for (int i = 0; i < record.getExtraCount(); i++) {
+            first = writeEntry(buffer, first, record.getExtraKey(i), record.getExtraValue(i));
+        }
+    }
+
+    private static boolean writeEntry(RecordBuffer buffer, boolean first, String key, CharSequence value) {
+        if (!first) {
+            buffer.write(',');
+            buffer.write(' ');
+        }
+        writeEscaped(buffer, key);
+        buffer.write('=');
+        writeEscaped(buffer, value);
+        return false;
+    }
+
+    static void writeRaw(RecordBuffer buffer, CharSequence value) {
+        if (value != null) {
+            buffer.writeUtf8(value);
+        }
+    }
+
+    /**
+     * Writes text with tabs and newlines replaced by double-backslash escapes, as the pattern's nested %replace did.
+     */
+    static void writeEscaped(RecordBuffer buffer, CharSequence value) {
+        if (value == null) {
+            return;
+        }
+        int len = value.length();
+        int start = 0;
+        for (int i = 0; i < len; i++) {
+            char c = value.charAt(i);
+            if (c == '\t' || c == '\n') {
+                buffer.writeUtf8(value, start, i);
+                buffer.write('\\');
+                buffer.write('\\');
+                buffer.write(c == '\t' ? 't' : 'n');
+                start = i + 1;
+            }
+        }
+        buffer.writeUtf8(value, start, len);
+    }
+}
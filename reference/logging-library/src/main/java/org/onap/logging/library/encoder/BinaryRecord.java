@@ -0,0 +1,105 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.library.encoder;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One record read back by {@link BinaryRecordReader}.
+ */
+public class BinaryRecord {
+
+    private final long timestamp;
+    private final int level;
+    private final String[] values;
+    private final List<String> extras;
+
+    BinaryRecord(long timestamp, int level, String[] values, List<String> extras) {
+        this.timestamp = timestamp;
+        this.level = level;
+        this.values = values;
+        this.extras = extras;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getLevel() {
+        return OnapRecord.getLevelName(level);
+    }
+
+    public String getLogger() {
+        return values[OnapRecord.LOGGER];
+    }
+
+    public String getThread() {
+        return values[OnapRecord.THREAD];
+    }
+
+    public String getMarker() {
+        return values[OnapRecord.MARKER];
+    }
+
+    public String getMessage() {
+        return values[OnapRecord.MESSAGE];
+    }
+
+    public String getThrowable() {
+        return values[OnapRecord.THROWABLE];
+    }
+
+    /**
+     * An MDC value, whether an ONAP field or an extra.
+     */
+    public String getMdc(String key) {
+        int column = OnapRecord.getMdcColumn(key);
+        if (column >= 0) {
+            return values[column];
+        }
+        for (int i = 0; i < extras.size(); i += 2) {
+            if (extras.get(i).equals(key)) {
+                return extras.get(i + 1);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * All MDC entries, ONAP fields first.
+     */
+    public Map<String, String> getMdcMap() {
+        Map<String, String> mdc = new LinkedHashMap<>();
+        for (int column = OnapRecord.FIRST_MDC; column < values.length; column++) {
+            if (values[column] != null) {
+                mdc.put(OnapRecord.getColumnName(column), values[column]);
+            }
+        }
+        for (int i = 0; i < extras.size(); i += 2) {
+            mdc.put(extras.get(i), extras.get(i + 1));
+        }
+        return mdc;
+    }
+}
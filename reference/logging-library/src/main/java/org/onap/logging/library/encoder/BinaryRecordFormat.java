@@ -0,0 +1,149 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.library.encoder;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compact length-prefixed binary encoding of {@link OnapRecord}s, written by {@link BinaryRecordEncoder} and
+ * {@link BinaryRecordLayout} and read back by {@link BinaryRecordReader}.
+ *
+ * <p>
+ * A stream (typically one log file) starts with a header: the {@link #MAGIC} bytes, the format {@link #VERSION}, then
+ * the column names so that a reader can cope with columns added later. Each record is then:
+ * </p>
+ *
+ * <pre>
+ * int     length of the rest of the record, big-endian
+ * long    timestamp in epoch milliseconds, big-endian
+ * byte    level code
+ * varint  bitmask of the columns present
+ * value   for each present column, in column order
+ * varint  number of extra MDC entries, followed by key and value for each
+ * </pre>
+ *
+ * <p>
+ * A value is a varint tag followed by its bytes: an even tag {@code n << 1} introduces {@code n} bytes of UTF-8, while
+ * the tag {@code 1} introduces a canonical lowercase UUID stored as 16 bytes. Nothing is escaped.
+ * </p>
+ */
+public final class BinaryRecordFormat {
+
+    public static final byte[] MAGIC = "ONAPLOG".getBytes(StandardCharsets.US_ASCII);
+    public static final int VERSION = 1;
+    static final int UUID_TAG = 1;
+    static final int MAX_RECORD_LENGTH = 64 * 1024 * 1024;
+
+    private static final byte[] HEADER;
+
+    static {
+        RecordBuffer buffer = new RecordBuffer(1024);
+        buffer.write(MAGIC);
+        buffer.write(VERSION);
+        buffer.writeVarint(OnapRecord.getColumnCount());
+        for (int column = 0; column < OnapRecord.getColumnCount(); column++) {
+            writeValue(buffer, OnapRecord.getColumnName(column));
+        }
+        HEADER = buffer.toByteArray();
+    }
+
+    private BinaryRecordFormat() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * The bytes that start every stream.
+     */
+    public static byte[] header() {
+        return HEADER.clone();
+    }
+
+    /**
+     * Appends one record to the buffer.
+     */
+    public static void writeRecord(OnapRecord record, RecordBuffer buffer) {
+        int start = buffer.size();
+        buffer.writeInt(0);
+        buffer.writeLong(record.getTimestamp());
+        buffer.write(record.getLevel());
+        long present = 0;
+        for (int column = 0; column < OnapRecord.getColumnCount(); column++) {
+            if (record.get(column) != null) {
+                present |= 1L << column;
+            }
+        }
+        buffer.writeVarint(present);
+        for (int column = 0; column < OnapRecord.getColumnCount(); column++) {
+            CharSequence value = record.get(column);
+            if (value != null) {
+                writeValue(buffer, value);
+            }
+        }
+        buffer.writeVarint(record.getExtraCount());
+        for (int i = 0; i < record.getExtraCount(); i++) {
+            writeValue(buffer, record.getExtraKey(i));
+            writeValue(buffer, record.getExtraValue(i));
+        }
+        buffer.putInt(start, buffer.size() - start - 4);
+    }
+
+    static void writeValue(RecordBuffer buffer, CharSequence value) {
+        if (isCanonicalUuid(value)) {
+            buffer.writeVarint(UUID_TAG);
+            buffer.writeLong(parseHex(value, 0, 8) << 32 | parseHex(value, 9, 13) << 16 | parseHex(value, 14, 18));
+            buffer.writeLong(parseHex(value, 19, 23) << 48 | parseHex(value, 24, 36));
+        } else {
+            buffer.writeVarint((long) RecordBuffer.utf8Length(value) << 1);
+            buffer.writeUtf8(value);
+        }
+    }
+
+    /**
+     * True for the 36 character lowercase form that {@link java.util.UUID#toString()} produces, which is the only form
+     * that survives the round trip through 16 bytes unchanged.
+     */
+    static boolean isCanonicalUuid(CharSequence value) {
+        if (value.length() != 36) {
+            return false;
+        }
+        for (int i = 0; i < 36; i++) {
+            char c = value.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return false;
+                }
+            } else if (!(c >= '0' && c <= '9' || c >= 'a' && c <= 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long parseHex(CharSequence value, int start, int end) {
+        long result = 0;
+        for (int i = start; i < end; i++) {
+            result = result << 4 | Character.digit(value.charAt(i), 16);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,79 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.library.encoder;
+
+import org.apache.logging.log4j.core.Layout;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.config.Configuration;
+import org.apache.logging.log4j.core.config.Node;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.config.plugins.PluginConfiguration;
+import org.apache.logging.log4j.core.config.plugins.PluginFactory;
+import org.apache.logging.log4j.core.layout.AbstractLayout;
+import org.apache.logging.log4j.core.layout.ByteBufferDestination;
+
+/**
+ * Log4j2 layout writing {@link BinaryRecordFormat} records, configured as {@code <OnapBinaryLayout/>}. Events are
+ * encoded straight into the appender's buffer.
+ */
+@Plugin(name = "OnapBinaryLayout", category = Node.CATEGORY, elementType = Layout.ELEMENT_TYPE, printObject = true)
+public class BinaryRecordLayout extends AbstractLayout<byte[]> {
+
+    protected BinaryRecordLayout(Configuration configuration) {
+        super(configuration, BinaryRecordFormat.header(), null);
+    }
+
+    @PluginFactory
+    public static BinaryRecordLayout createLayout(@PluginConfiguration Configuration configuration) {
+        return new BinaryRecordLayout(configuration);
+    }
+
+    @Override
+    public byte[] toByteArray(LogEvent event) {
+        return write(event).toByteArray();
+    }
+
+    @Override
+    public byte[] toSerializable(LogEvent event) {
+        return toByteArray(event);
+    }
+
+    @Override
+    public void encode(LogEvent event, ByteBufferDestination destination) {
+        RecordBuffer buffer = write(event);
+        destination.writeBytes(buffer.array(), 0, buffer.size());
+    }
+
+    @Override
+    public String getContentType() {
+        return "application/octet-stream";
+    }
+
+    private RecordBuffer write(LogEvent event) {
+        markEvent();
+        EncodingContext context = EncodingContext.get();
+        Log4j2RecordMapper.fill(context.record, event);
+        BinaryRecordFormat.writeRecord(context.record, context.buffer);
+        return context.buffer;
+    }
+}
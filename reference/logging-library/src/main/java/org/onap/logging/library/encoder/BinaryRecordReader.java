@@ -0,0 +1,203 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.library.encoder;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reads the records written in {@link BinaryRecordFormat}. Streams that are the concatenation of several files, each
+ * with its own header, are read through.
+ */
+public class BinaryRecordReader implements Closeable {
+
+    private static final int MAGIC_PREFIX =
+            (BinaryRecordFormat.MAGIC[0] & 0xFF) << 24 | (BinaryRecordFormat.MAGIC[1] & 0xFF) << 16
+                    | (BinaryRecordFormat.MAGIC[2] & 0xFF) << 8 | (BinaryRecordFormat.MAGIC[3] & 0xFF);
+
+    private final DataInputStream in;
+    private List<String> columns;
+    private int[] columnMapping;
+    private byte[] record = new byte[4096];
+    private int position;
+    private int limit;
+
+    public BinaryRecordReader(InputStream in) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(in, 65536));
+        if (this.in.readInt() != MAGIC_PREFIX) {
+            throw new IOException("Not an ONAP binary log stream");
+        }
+        readHeader();
+    }
+
+    /**
+     * The column names declared by the most recent stream header.
+     */
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    /**
+     * The next record, or null at the end of the stream.
+     */
+    public BinaryRecord next() throws IOException {
+        int length;
+        try {
+            length = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        if (length == MAGIC_PREFIX) {
+            readHeader();
+            return next();
+        }
+        if (length < 0 || length > BinaryRecordFormat.MAX_RECORD_LENGTH) {
+            throw new IOException("Corrupt record length " + length);
+        }
+        if (record.length < length) {
+            record = new byte[Math.max(length, record.length * 2)];
+        }
+        in.readFully(record, 0, length);
+        position = 0;
+        limit = length;
+
+        long timestamp = readLong();
+        int level = readByte();
+        long present = readVarint();
+        String[] values = new String[OnapRecord.getColumnCount()];
+        List<String> extras = Collections.emptyList();
+        for (int column = 0; column < columnMapping.length; column++) {
+            if ((present & (1L << column)) != 0) {
+                String value = readValue();
+                int mapped = columnMapping[column];
+                if (mapped >= 0) {
+                    values[mapped] = value;
+                } else {
+                    // a column this reader does not know about yet; keep it as an extra
+                    extras = extras.isEmpty() ? new ArrayList<>() : extras;
+                    extras.add(columns.get(column));
+                    extras.add(value);
+                }
+            }
+        }
+        long extraCount = readVarint();
+        for (long i = 0; i < extraCount; i++) {
+            extras = extras.isEmpty() ? new ArrayList<>() : extras;
+            extras.add(readValue());
+            extras.add(readValue());
+        }
+        return new BinaryRecord(timestamp, level, values, extras);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void readHeader() throws IOException {
+        byte[] rest = new byte[BinaryRecordFormat.MAGIC.length - 4];
+        in.readFully(rest);
+        if (!Arrays.equals(rest, Arrays.copyOfRange(BinaryRecordFormat.MAGIC, 4, BinaryRecordFormat.MAGIC.length))) {
+            throw new IOException("Corrupt stream header");
+        }
+        int version = in.readUnsignedByte();
+        if (version > BinaryRecordFormat.VERSION) {
+            throw new IOException("Unsupported format version " + version);
+        }
+        int count = (int) readStreamVarint();
+        List<String> names = new ArrayList<>(count);
+        int[] mapping = new int[count];
+        for (int i = 0; i < count; i++) {
+            int tag = (int) readStreamVarint();
+            byte[] name = new byte[tag >>> 1];
+            in.readFully(name);
+            names.add(new String(name, StandardCharsets.UTF_8));
+            mapping[i] = OnapRecord.getColumns().indexOf(names.get(i));
+        }
+        this.columns = Collections.unmodifiableList(names);
+        this.columnMapping = mapping;
+    }
+
+    private long readStreamVarint() throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Corrupt varint");
+    }
+
+    private int readByte() throws IOException {
+        if (position >= limit) {
+            throw new IOException("Truncated record");
+        }
+        return record[position++] & 0xFF;
+    }
+
+    private long readLong() throws IOException {
+        long result = 0;
+        for (int i = 0; i < 8; i++) {
+            result = result << 8 | readByte();
+        }
+        return result;
+    }
+
+    private long readVarint() throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Corrupt varint");
+    }
+
+    private String readValue() throws IOException {
+        long tag = readVarint();
+        if (tag == BinaryRecordFormat.UUID_TAG) {
+            return new UUID(readLong(), readLong()).toString();
+        }
+        int length = (int) (tag >>> 1);
+        if (length > limit - position) {
+            throw new IOException("Truncated record");
+        }
+        String value = new String(record, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+}
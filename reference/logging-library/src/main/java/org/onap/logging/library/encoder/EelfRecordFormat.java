@@ -0,0 +1,156 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.library.encoder;
+
+import java.util.TimeZone;
+
+/**
+ * Writes an {@link OnapRecord} as one pipe-delimited EELF line. A format is the legacy logback pattern with each
+ * <code>%X{key}</code> reduced to its key, e.g. <code>%d|RequestId|%thread|%msg</code>; the other fields are:
+ *
+ * <ul>
+ * <li><code>%d</code>, the event time in the default time zone, or <code>%d{UTC}</code>;</li>
+ * <li><code>%thread</code>, <code>%level</code>, <code>%logger</code> and <code>%msg</code>;</li>
+ * <li>an empty field, which stays empty.</li>
+ * </ul>
+ *
+ * The predefined formats match the audit, metrics, error and debug patterns of the reference logback.xml. Values are
+ * written as they are, without escaping, as the patterns did.
+ */
+public final class EelfRecordFormat {
+
+    public static final EelfRecordFormat AUDIT = new EelfRecordFormat(
+            "BeginTimestamp|EndTimestamp|RequestId|ServiceInstanceId|%thread||ServiceName|PartnerName|StatusCode"
+                    + "|ResponseCode|ResponseDesc|InstanceUUID|%level|AlertSeverity|ServerIPAddress|Timer|ServerFQDN"
+                    + "|RemoteHost|%logger|||||||%msg");
+
+    public static final EelfRecordFormat METRICS = new EelfRecordFormat(
+            "BeginTimestamp|EndTimestamp|RequestId|ServiceInstanceId|%thread||ServiceName|PartnerName|TargetEntity"
+                    + "|TargetServiceName|StatusCode|ResponseCode|ResponseDesc|InstanceUUID|%level|AlertSeverity"
+                    + "|ServerIPAddress|Timer|ServerFQDN|RemoteHost|%logger|||TargetVirtualEntity|||||%msg");
+
+    public static final EelfRecordFormat ERROR = new EelfRecordFormat(
+            "%d|RequestId|%thread|ServiceName|PartnerName|TargetEntity|TargetServiceName|%level|ErrorCode|ErrorDesc"
+                    + "|%msg");
+
+    public static final EelfRecordFormat DEBUG = new EelfRecordFormat("%d{UTC}|RequestId|%msg");
+
+    private static final int TIMESTAMP = -1;
+    private static final int TIMESTAMP_UTC = -2;
+    private static final int LEVEL = -3;
+    private static final int EMPTY = -4;
+    private static final int MDC_EXTRA = -5;
+
+    /** Per field, an {@link OnapRecord} column or one of the negative codes above. */
+    private final int[] columns;
+
+    /** Per field, the MDC key of an extra. */
+    private final String[] keys;
+
+    public EelfRecordFormat(String fields) {
+        String[] names = fields.split("\\|", -1);
+        this.columns = new int[names.length];
+        this.keys = new String[names.length];
+        for (int i = 0; i < names.length; i++) {
+            columns[i] = column(names[i]);
+            if (columns[i] == MDC_EXTRA) {
+                keys[i] = names[i];
+            }
+        }
+    }
+
+    /**
+     * One of the predefined formats by name: audit, metrics, error, application (the same as error) or debug.
+     */
+    public static EelfRecordFormat forName(String name) {
+        switch (name.toLowerCase()) {
+            case "audit":
+                return AUDIT;
+            case "metrics":
+                return METRICS;
+            case "error":
+            case "application":
+                return ERROR;
+            case "debug":
+                return DEBUG;
+            default:
+                throw new IllegalArgumentException("Unknown EELF format: " + name);
+        }
+    }
+
+    private static int column(String name) {
+        switch (name) {
+            case "%d":
+                return TIMESTAMP;
+            case "%d{UTC}":
+                return TIMESTAMP_UTC;
+            case "%level":
+                return LEVEL;
+            case "%thread":
+                return OnapRecord.THREAD;
+            case "%logger":
+                return OnapRecord.LOGGER;
+            case "%msg":
+                return OnapRecord.MESSAGE;
+            case "":
+                return EMPTY;
+            default:
+                int column = OnapRecord.getMdcColumn(name);
+                return column >= 0 ? column : MDC_EXTRA;
+        }
+    }
+
+    /**
+     * Appends the record as one line.
+     *
+     * @param timeZone the zone for <code>%d</code> fields
+     */
+    public void writeRecord(OnapRecord record, RecordBuffer buffer, TimeZone timeZone) {
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                buffer.write('|');
+            }
+            int column = columns[i];
+            switch (column) {
+                case TIMESTAMP:
+                    JsonRecordFormat.writeTimestamp(buffer, record.getTimestamp(),
+                            timeZone.getOffset(record.getTimestamp()));
+                    break;
+                case TIMESTAMP_UTC:
+                    JsonRecordFormat.writeTimestamp(buffer, record.getTimestamp());
+                    break;
+                case LEVEL:
+                    buffer.writeAscii(OnapRecord.getLevelName(record.getLevel()));
+                    break;
+                case EMPTY:
+                    break;
+                case MDC_EXTRA:
+                    BeatsRecordFormat.writeRaw(buffer, record.getMdc(keys[i]));
+                    break;
+                default:
+                    BeatsRecordFormat.writeRaw(buffer, record.get(column));
+            }
+        }
+        buffer.write('\n');
+    }
+}
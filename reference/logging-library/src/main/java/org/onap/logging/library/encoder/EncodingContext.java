@@ -0,0 +1,81 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.library.encoder;
+
+/**
+ * The {@link OnapRecord} and {@link RecordBuffer} an encoding thread reuses for every event.
+ */
+final class EncodingContext {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+    private static final ThreadLocal<EncodingContext> CONTEXT = ThreadLocal.withInitial(EncodingContext::new);
+
+    final OnapRecord record = new OnapRecord();
+    final RecordBuffer buffer = new RecordBuffer(INITIAL_CAPACITY);
+
+    /**
+     * The event the record was last filled from. Holding it until the thread's next event is the price of letting every
+     * encoder of one event share the record.
+     */
+    private Object source;
+
+    private EncodingContext() {}
+
+    /**
+     * The calling thread's context, cleared and ready for the next event.
+     */
+    static EncodingContext get() {
+        EncodingContext context = CONTEXT.get();
+        context.record.clear();
+        context.source = null;
+        context.buffer.reset(MAX_RETAINED_CAPACITY);
+        return context;
+    }
+
+    /**
+     * The calling thread's context with its buffer cleared, keeping the record when it already holds this event, as it
+     * does when one event passes through several encoders on the same thread. Only for frameworks that never reuse
+     * event objects, which rules out log4j2's mutable events.
+     */
+    static EncodingContext get(Object event) {
+        EncodingContext context = CONTEXT.get();
+        if (context.source != event) {
+            context.record.clear();
+            context.source = null;
+        }
+        context.buffer.reset(MAX_RETAINED_CAPACITY);
+        return context;
+    }
+
+    /**
+     * Whether the record was filled from this event and can be encoded as it is.
+     */
+    boolean isFilledFrom(Object event) {
+        return source == event;
+    }
+
+    void setFilledFrom(Object event) {
+        source = event;
+    }
+}
@@ -0,0 +1,59 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.library.encoder;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.encoder.EncoderBase;
+
+/**
+ * Logback encoder writing {@link JsonRecordFormat} lines, e.g.
+ *
+ * <pre>
+ * &lt;appender name="Json" class="ch.qos.logback.core.rolling.RollingFileAppender"&gt;
+ *     &lt;file&gt;${logDirectory}/audit.json&lt;/file&gt;
+ *     &lt;encoder class="org.onap.logging.library.encoder.JsonRecordEncoder"/&gt;
+ *     ...
+ * &lt;/appender&gt;
+ * </pre>
+ *
+ * Each event is one line, so Filebeat and Logstash can read it with the json codec.
+ */
+public class JsonRecordEncoder extends EncoderBase<ILoggingEvent> {
+
+    @Override
+    public byte[] headerBytes() {
+        return null;
+    }
+
+    @Override
+    public byte[] encode(ILoggingEvent event) {
+        EncodingContext context = LogbackRecordMapper.context(event);
+        JsonRecordFormat.writeRecord(context.record, context.buffer);
+        return context.buffer.toByteArray();
+    }
+
+    @Override
+    public byte[] footerBytes() {
+        return null;
+    }
+}
@@ -0,0 +1,193 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.library.encoder;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes an {@link OnapRecord} as one line of JSON, escaping by hand straight into a {@link RecordBuffer}: no
+ * String.format, no Map and no JSON tree. The field names match what the Logstash pipeline already produces for log4j
+ * XML events (Timestamp, loglevel, Logger, Thread, message, exceptionmessage), and every MDC entry is a top-level
+ * field, so the plain json codec or filter is all that is needed downstream.
+ */
+public final class JsonRecordFormat {
+
+    private static final String[] EVENT_FIELDS = {"Logger", "Thread", "Marker", "message", "exceptionmessage"};
+    private static final byte[][] FIELD_PREFIXES = new byte[OnapRecord.getColumnCount()][];
+    private static final byte[] TIMESTAMP_PREFIX = "{\"Timestamp\":\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] LEVEL_PREFIX = "\",\"loglevel\":\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    static {
+        for (int column = 0; column < FIELD_PREFIXES.length; column++) {
+            String name = column < OnapRecord.FIRST_MDC ? EVENT_FIELDS[column] : OnapRecord.getColumnName(column);
+            FIELD_PREFIXES[column] = (",\"" + name + "\":").getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private JsonRecordFormat() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Appends the record as a JSON object followed by a newline.
+     */
+    public static void writeRecord(OnapRecord record, RecordBuffer buffer) {
+        buffer.write(TIMESTAMP_PREFIX);
+        writeTimestamp(buffer, record.getTimestamp());
+        buffer.write(LEVEL_PREFIX);
+        buffer.writeAscii(OnapRecord.getLevelName(record.getLevel()));
+        buffer.write('"');
+        for (int column = 0; column < OnapRecord.getColumnCount(); column++) {
+            CharSequence value = record.get(column);
+            if (value != null) {
+                buffer.write(FIELD_PREFIXES[column]);
+                writeString(buffer, value);
+            }
+        }
+        for (int i = 0; i < record.getExtraCount(); i++) {
+            buffer.write(',');
+            writeString(buffer, record.getExtraKey(i));
+            buffer.write(':');
+            writeString(buffer, record.getExtraValue(i));
+        }
+        buffer.write('}');
+        buffer.write('\n');
+    }
+
+    /**
+     * Writes a quoted, escaped JSON string.
+     */
+    public static void writeString(RecordBuffer buffer, CharSequence value) {
+        buffer.write('"');
+        int len = value.length();
+        int start = 0;
+        for (int i = 0; i < len; i++) {
+            char c = value.charAt(i);
+            if (c < 0x20 || c == '"' || c == '\\') {
+                buffer.writeUtf8(value, start, i);
+                writeEscape(buffer, c);
+                start = i + 1;
+            }
+        }
+        buffer.writeUtf8(value, start, len);
+        buffer.write('"');
+    }
+
+    private static void writeEscape(RecordBuffer buffer, char c) {
+        buffer.write('\\');
+        switch (c) {
+            case '"':
+            case '\\':
+                buffer.write(c);
+                break;
+            case '\n':
+                buffer.write('n');
+                break;
+            case '\r':
+                buffer.write('r');
+                break;
+            case '\t':
+                buffer.write('t');
+                break;
+            case '\b':
+                buffer.write('b');
+                break;
+            case '\f':
+                buffer.write('f');
+                break;
+            default:
+                buffer.write('u');
+                buffer.write('0');
+                buffer.write('0');
+                buffer.write(HEX[c >> 4]);
+                buffer.write(HEX[c & 0xF]);
+        }
+    }
+
+    /**
+     * Writes epoch milliseconds as an ISO-8601 UTC timestamp with millisecond precision, e.g. 2019-06-18T02:09:06.024Z,
+     * without going through java.time.
+     */
+    public static void writeTimestamp(RecordBuffer buffer, long epochMillis) {
+        writeTimestamp(buffer, epochMillis, 0);
+    }
+
+    /**
+     * Writes epoch milliseconds as an ISO-8601 timestamp at a fixed UTC offset, e.g. 2019-06-17T22:09:06.024-04:00, or
+     * with a Z suffix when the offset is zero.
+     */
+    public static void writeTimestamp(RecordBuffer buffer, long epochMillis, int offsetMillis) {
+        long localMillis = epochMillis + offsetMillis;
+        long days = Math.floorDiv(localMillis, 86_400_000L);
+        int millisOfDay = (int) Math.floorMod(localMillis, 86_400_000L);
+
+        // civil date from days since 1970-01-01, see http://howardhinnant.github.io/date_algorithms.html
+        long z = days + 719_468;
+        long era = Math.floorDiv(z, 146_097);
+        long dayOfEra = z - era * 146_097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long mp = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * mp + 2) / 5 + 1);
+        int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+        writeDigits(buffer, (int) year, 4);
+        buffer.write('-');
+        writeDigits(buffer, month, 2);
+        buffer.write('-');
+        writeDigits(buffer, day, 2);
+        buffer.write('T');
+        writeDigits(buffer, millisOfDay / 3_600_000, 2);
+        buffer.write(':');
+        writeDigits(buffer, millisOfDay / 60_000 % 60, 2);
+        buffer.write(':');
+        writeDigits(buffer, millisOfDay / 1000 % 60, 2);
+        buffer.write('.');
+        writeDigits(buffer, millisOfDay % 1000, 3);
+        if (offsetMillis == 0) {
+            buffer.write('Z');
+            return;
+        }
+        int offsetMinutes = Math.abs(offsetMillis) / 60_000;
+        buffer.write(offsetMillis < 0 ? '-' : '+');
+        writeDigits(buffer, offsetMinutes / 60, 2);
+        buffer.write(':');
+        writeDigits(buffer, offsetMinutes % 60, 2);
+    }
+
+    private static void writeDigits(RecordBuffer buffer, int value, int width) {
+        for (int divisor = pow10(width - 1); divisor > 0; divisor /= 10) {
+            buffer.write('0' + value / divisor % 10);
+        }
+    }
+
+    private static int pow10(int exponent) {
+        int result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= 10;
+        }
+        return result;
+    }
+}
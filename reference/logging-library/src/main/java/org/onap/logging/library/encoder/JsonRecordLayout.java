@@ -0,0 +1,82 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.library.encoder;
+
+import java.nio.charset.StandardCharsets;
+import org.apache.logging.log4j.core.Layout;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.config.Configuration;
+import org.apache.logging.log4j.core.config.Node;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.config.plugins.PluginConfiguration;
+import org.apache.logging.log4j.core.config.plugins.PluginFactory;
+import org.apache.logging.log4j.core.layout.AbstractLayout;
+import org.apache.logging.log4j.core.layout.ByteBufferDestination;
+
+/**
+ * Log4j2 layout writing {@link JsonRecordFormat} lines, configured as {@code <OnapJsonLayout/>}. With a garbage-free
+ * message and context map the steady state allocates nothing: the event is encoded into a reused per-thread buffer and
+ * copied straight into the appender's buffer.
+ */
+@Plugin(name = "OnapJsonLayout", category = Node.CATEGORY, elementType = Layout.ELEMENT_TYPE, printObject = true)
+public class JsonRecordLayout extends AbstractLayout<String> {
+
+    protected JsonRecordLayout(Configuration configuration) {
+        super(configuration, null, null);
+    }
+
+    @PluginFactory
+    public static JsonRecordLayout createLayout(@PluginConfiguration Configuration configuration) {
+        return new JsonRecordLayout(configuration);
+    }
+
+    @Override
+    public byte[] toByteArray(LogEvent event) {
+        return write(event).toByteArray();
+    }
+
+    @Override
+    public String toSerializable(LogEvent event) {
+        RecordBuffer buffer = write(event);
+        return new String(buffer.array(), 0, buffer.size(), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void encode(LogEvent event, ByteBufferDestination destination) {
+        RecordBuffer buffer = write(event);
+        destination.writeBytes(buffer.array(), 0, buffer.size());
+    }
+
+    @Override
+    public String getContentType() {
+        return "application/json; charset=UTF-8";
+    }
+
+    private RecordBuffer write(LogEvent event) {
+        markEvent();
+        EncodingContext context = EncodingContext.get();
+        Log4j2RecordMapper.fill(context.record, event);
+        JsonRecordFormat.writeRecord(context.record, context.buffer);
+        return context.buffer;
+    }
+}
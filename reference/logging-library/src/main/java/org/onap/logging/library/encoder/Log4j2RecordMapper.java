@@ -0,0 +1,68 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.library.encoder;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.message.Message;
+import org.apache.logging.log4j.util.StringBuilderFormattable;
+import org.apache.logging.log4j.util.TriConsumer;
+
+/**
+ * Fills an {@link OnapRecord} from a log4j2 event. Messages that can format themselves into a StringBuilder do so into
+ * the record's builder, which keeps the common path free of garbage.
+ */
+public final class Log4j2RecordMapper {
+
+    private static final TriConsumer<String, Object, OnapRecord> PUT_MDC =
+            (key, value, record) -> record.putMdc(key, value == null ? null : value.toString());
+
+    private Log4j2RecordMapper() {
+        throw new UnsupportedOperationException();
+    }
+
+    public static void fill(OnapRecord record, LogEvent event) {
+        record.setTimestamp(event.getTimeMillis());
+        record.setLevel(OnapRecord.getLevelCode(event.getLevel().getStandardLevel().name()));
+        record.set(OnapRecord.LOGGER, event.getLoggerName());
+        record.set(OnapRecord.THREAD, event.getThreadName());
+        if (event.getMarker() != null) {
+            record.set(OnapRecord.MARKER, event.getMarker().getName());
+        }
+        Message message = event.getMessage();
+        if (message instanceof StringBuilderFormattable) {
+            StringBuilder builder = record.getMessageBuilder();
+            ((StringBuilderFormattable) message).formatTo(builder);
+            record.set(OnapRecord.MESSAGE, builder);
+        } else {
+            record.set(OnapRecord.MESSAGE, message.getFormattedMessage());
+        }
+        if (event.getThrown() != null) {
+            StringWriter stackTrace = new StringWriter();
+            event.getThrown().printStackTrace(new PrintWriter(stackTrace));
+            record.set(OnapRecord.THROWABLE, stackTrace.toString());
+        }
+        event.getContextData().forEach(PUT_MDC, record);
+    }
+}
@@ -0,0 +1,88 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.library.encoder;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.ThrowableProxyUtil;
+import java.util.Map;
+
+/**
+ * Fills an {@link OnapRecord} from a logback event.
+ */
+public final class LogbackRecordMapper {
+
+    private LogbackRecordMapper() {
+        throw new UnsupportedOperationException();
+    }
+
+    public static void fill(OnapRecord record, ILoggingEvent event) {
+        record.setTimestamp(event.getTimeStamp());
+        record.setLevel(levelCode(event.getLevel()));
+        record.set(OnapRecord.LOGGER, event.getLoggerName());
+        record.set(OnapRecord.THREAD, event.getThreadName());
+        if (event.getMarker() != null) {
+            record.set(OnapRecord.MARKER, event.getMarker().toString());
+        }
+        record.set(OnapRecord.MESSAGE, event.getFormattedMessage());
+        IThrowableProxy throwable = event.getThrowableProxy();
+        if (throwable != null) {
+            record.set(OnapRecord.THROWABLE, ThrowableProxyUtil.asString(throwable));
+        }
+        Map<String, String> mdc = event.getMDCPropertyMap();
+        if (mdc != null) {
+            for (Map.Entry<String, String> entry : mdc.entrySet()) {
+                record.putMdc(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * The calling thread's context holding this event's fields, extracting them only if no other encoder has done so
+     * already.
+     */
+    static EncodingContext context(ILoggingEvent event) {
+        EncodingContext context = EncodingContext.get(event);
+        if (!context.isFilledFrom(event)) {
+            fill(context.record, event);
+            context.setFilledFrom(event);
+        }
+        return context;
+    }
+
+    static int levelCode(Level level) {
+        switch (level.toInt()) {
+            case Level.TRACE_INT:
+                return 0;
+            case Level.DEBUG_INT:
+                return 1;
+            case Level.WARN_INT:
+                return 3;
+            case Level.ERROR_INT:
+                return 4;
+            default:
+                return 2;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.library.encoder;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.onap.logging.ref.slf4j.ONAPLogConstants;
+
+/**
+ * The fields of one ONAP log event, extracted once from the logging framework's event and then handed to any number of
+ * encoders. Instances are reused: an encoder keeps one per thread and {@link #clear()}s it before each event.
+ *
+ * <p>
+ * The columns are the event attributes followed by the {@link ONAPLogConstants.MDCs} fields, in a fixed order that is
+ * part of the binary format. MDC entries outside the ONAP schema are kept as extras.
+ * </p>
+ */
+public class OnapRecord {
+
+    public static final int LOGGER = 0;
+    public static final int THREAD = 1;
+    public static final int MARKER = 2;
+    public static final int MESSAGE = 3;
+    public static final int THROWABLE = 4;
+    public static final int FIRST_MDC = 5;
+
+    /** Column names; never reorder, only append. */
+    private static final String[] COLUMNS = {"Logger", "Thread", "Marker", "Message", "Throwable",
+            ONAPLogConstants.MDCs.REQUEST_ID, ONAPLogConstants.MDCs.INVOCATION_ID,
+            ONAPLogConstants.MDCs.SERVER_INVOCATION_ID, ONAPLogConstants.MDCs.CLIENT_INVOCATION_ID,
+            ONAPLogConstants.MDCs.PARTNER_NAME, ONAPLogConstants.MDCs.SERVICE_NAME,
+            ONAPLogConstants.MDCs.TARGET_SERVICE_NAME, ONAPLogConstants.MDCs.TARGET_ENTITY,
+            ONAPLogConstants.MDCs.TARGET_ELEMENT, ONAPLogConstants.MDCs.SERVICE_INSTANCE_ID,
+            ONAPLogConstants.MDCs.INSTANCE_UUID, ONAPLogConstants.MDCs.CLIENT_IP_ADDRESS,
+            ONAPLogConstants.MDCs.SERVER_IP_ADDRESS, ONAPLogConstants.MDCs.SERVER_FQDN,
+            ONAPLogConstants.MDCs.VIRTUAL_SERVER_NAME, ONAPLogConstants.MDCs.CONTEXT_NAME,
+            ONAPLogConstants.MDCs.ENTRY_TIMESTAMP, ONAPLogConstants.MDCs.INVOKE_TIMESTAMP,
+            ONAPLogConstants.MDCs.ELAPSED_TIME, ONAPLogConstants.MDCs.LOG_TIMESTAMP,
+            ONAPLogConstants.MDCs.RESPONSE_CODE, ONAPLogConstants.MDCs.RESPONSE_DESCRIPTION,
+            ONAPLogConstants.MDCs.RESPONSE_SEVERITY, ONAPLogConstants.MDCs.RESPONSE_STATUS_CODE,
+            ONAPLogConstants.MDCs.ERROR_CODE, ONAPLogConstants.MDCs.ERROR_DESC};
+
+    private static final Map<String, Integer> MDC_COLUMNS = new HashMap<>();
+
+    static {
+        for (int i = FIRST_MDC; i < COLUMNS.length; i++) {
+            MDC_COLUMNS.put(COLUMNS[i], i);
+        }
+    }
+
+    /** Level codes, in order of severity. */
+    private static final String[] LEVELS = {"TRACE", "DEBUG", "INFO", "WARN", "ERROR", "FATAL"};
+
+    private static final int MAX_RETAINED_MESSAGE = 64 * 1024;
+
+    private final CharSequence[] values = new CharSequence[COLUMNS.length];
+    private StringBuilder messageBuilder = new StringBuilder(256);
+    private String[] extraKeys = new String[8];
+    private String[] extraValues = new String[8];
+    private int extraCount;
+    private long timestamp;
+    private int level;
+
+    public static List<String> getColumns() {
+        return Collections.unmodifiableList(Arrays.asList(COLUMNS));
+    }
+
+    public static int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    public static String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    /**
+     * The column holding an MDC key, or -1 when the key is not part of the ONAP schema.
+     */
+    public static int getMdcColumn(String key) {
+        Integer column = MDC_COLUMNS.get(key);
+        return column == null ? -1 : column;
+    }
+
+    public static String getLevelName(int level) {
+        return level >= 0 && level < LEVELS.length ? LEVELS[level] : "UNKNOWN";
+    }
+
+    /**
+     * The level code for a level name, with anything unrecognised treated as INFO.
+     */
+    public static int getLevelCode(String name) {
+        for (int i = 0; i < LEVELS.length; i++) {
+            if (LEVELS[i].equals(name)) {
+                return i;
+            }
+        }
+        return 2;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        Arrays.fill(extraKeys, 0, extraCount, null);
+        Arrays.fill(extraValues, 0, extraCount, null);
+        extraCount = 0;
+        timestamp = 0;
+        level = 2;
+        if (messageBuilder.capacity() > MAX_RETAINED_MESSAGE) {
+            messageBuilder = new StringBuilder(256);
+        }
+        messageBuilder.setLength(0);
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public void setLevel(int level) {
+        this.level = level;
+    }
+
+    public CharSequence get(int column) {
+        return values[column];
+    }
+
+    public void set(int column, CharSequence value) {
+        values[column] = value;
+    }
+
+    /**
+     * An empty builder owned by this record, for frameworks that can format a message without creating a String.
+     */
+    public StringBuilder getMessageBuilder() {
+        return messageBuilder;
+    }
+
+    /**
+     * Stores an MDC entry in its column, or as an extra when it is not an ONAP field.
+     */
+    public void putMdc(String key, String value) {
+        int column = getMdcColumn(key);
+        if (column >= 0) {
+            values[column] = value;
+            return;
+        }
+        if (value == null) {
+            return;
+        }
+        if (extraCount == extraKeys.length) {
+            extraKeys = Arrays.copyOf(extraKeys, extraCount * 2);
+            extraValues = Arrays.copyOf(extraValues, extraCount * 2);
+        }
+        extraKeys[extraCount] = key;
+        extraValues[extraCount] = value;
+        extraCount++;
+    }
+
+    /**
+     * The value of an MDC entry, whether in its column or an extra, or null.
+     */
+    public CharSequence getMdc(String key) {
+        int column = getMdcColumn(key);
+        if (column >= 0) {
+            return values[column];
+        }
+        for (int i = 0; i < extraCount; i++) {
+            if (extraKeys[i].equals(key)) {
+                return extraValues[i];
+            }
+        }
+        return null;
+    }
+
+    public int getExtraCount() {
+        return extraCount;
+    }
+
+    public String getExtraKey(int index) {
+        return extraKeys[index];
+    }
+
+    public String getExtraValue(int index) {
+        return extraValues[index];
+    }
+}
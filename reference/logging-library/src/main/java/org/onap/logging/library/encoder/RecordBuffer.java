@@ -0,0 +1,199 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.library.encoder;
+
+import java.util.Arrays;
+
+/**
+ * Growable byte buffer that encoders reuse from one event to the next. Text is encoded to UTF-8 by hand so that writing
+ * a String never allocates.
+ */
+public class RecordBuffer {
+
+    private byte[] bytes;
+    private int size;
+
+    public RecordBuffer(int initialCapacity) {
+        this.bytes = new byte[initialCapacity];
+    }
+
+    public void reset() {
+        size = 0;
+    }
+
+    /**
+     * Empties the buffer, dropping the backing array if an unusually large event grew it past maxCapacity.
+     */
+    public void reset(int maxCapacity) {
+        size = 0;
+        if (bytes.length > maxCapacity) {
+            bytes = new byte[maxCapacity];
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The backing array; only the first {@link #size()} bytes are meaningful.
+     */
+    public byte[] array() {
+        return bytes;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(bytes, size);
+    }
+
+    public void write(int b) {
+        ensureCapacity(1);
+        bytes[size++] = (byte) b;
+    }
+
+    public void write(byte[] b) {
+        write(b, 0, b.length);
+    }
+
+    public void write(byte[] b, int off, int len) {
+        ensureCapacity(len);
+        System.arraycopy(b, off, bytes, size, len);
+        size += len;
+    }
+
+    public void writeInt(int v) {
+        ensureCapacity(4);
+        putInt(size, v);
+        size += 4;
+    }
+
+    /**
+     * Overwrites four bytes already written, e.g. a length prefix reserved before the record was encoded.
+     */
+    public void putInt(int position, int v) {
+        bytes[position] = (byte) (v >>> 24);
+        bytes[position + 1] = (byte) (v >>> 16);
+        bytes[position + 2] = (byte) (v >>> 8);
+        bytes[position + 3] = (byte) v;
+    }
+
+    public void writeLong(long v) {
+        ensureCapacity(8);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            bytes[size++] = (byte) (v >>> shift);
+        }
+    }
+
+    /**
+     * Unsigned LEB128 varint.
+     */
+    public void writeVarint(long v) {
+        ensureCapacity(10);
+        while ((v & ~0x7FL) != 0) {
+            bytes[size++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        bytes[size++] = (byte) v;
+    }
+
+    /**
+     * Writes ASCII text such as numbers and field names.
+     */
+    public void writeAscii(String s) {
+        int len = s.length();
+        ensureCapacity(len);
+        for (int i = 0; i < len; i++) {
+            bytes[size++] = (byte) s.charAt(i);
+        }
+    }
+
+    public void writeUtf8(CharSequence s) {
+        writeUtf8(s, 0, s.length());
+    }
+
+    public void writeUtf8(CharSequence s, int start, int end) {
+        ensureCapacity((end - start) * 3);
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                bytes[size++] = (byte) c;
+            } else {
+                writeUtf8Char(s, i, end, c);
+                if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    i++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Encodes the non-ASCII char at index, combining it with the next char when they form a surrogate pair.
+     */
+    void writeUtf8Char(CharSequence s, int index, int end, char c) {
+        if (c < 0x800) {
+            bytes[size++] = (byte) (0xC0 | (c >> 6));
+            bytes[size++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c) && index + 1 < end && Character.isLowSurrogate(s.charAt(index + 1))) {
+            int cp = Character.toCodePoint(c, s.charAt(index + 1));
+            // the surrogate pair took two chars of the reserved capacity, so four bytes fit
+            bytes[size++] = (byte) (0xF0 | (cp >> 18));
+            bytes[size++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+            bytes[size++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+            bytes[size++] = (byte) (0x80 | (cp & 0x3F));
+        } else if (Character.isSurrogate(c)) {
+            bytes[size++] = (byte) '?';
+        } else {
+            bytes[size++] = (byte) (0xE0 | (c >> 12));
+            bytes[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            bytes[size++] = (byte) (0x80 | (c & 0x3F));
+        }
+    }
+
+    /**
+     * The number of bytes {@link #writeUtf8(CharSequence)} will produce.
+     */
+    public static int utf8Length(CharSequence s) {
+        int len = s.length();
+        int bytes = len;
+        for (int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            if (c >= 0x80) {
+                if (c < 0x800) {
+                    bytes += 1;
+                } else if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    bytes += 2;
+                    i++;
+                } else if (!Character.isSurrogate(c)) {
+                    bytes += 2;
+                }
+            }
+        }
+        return bytes;
+    }
+
+    public void ensureCapacity(int extra) {
+        if (size + extra > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+        }
+    }
+}
@@ -0,0 +1,239 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.library.appender;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.util.FileSize;
+import com.github.luben.zstd.ZstdInputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SegmentCompressorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final LoggerContext loggerContext = new LoggerContext();
+
+    @Test
+    public void parallelGzipTest() throws Exception {
+        SegmentCompressor compressor = new SegmentCompressor();
+        compressor.setThreads(3);
+        compressor.setChunkSize(1000);
+        compressor.setLevel(9);
+        File file = log(compressor, 2000);
+
+        List<String[]> manifest = manifest(file);
+        assertTrue(manifest.size() > 3);
+        for (String[] entry : manifest) {
+            assertTrue(entry[0], entry[0].endsWith(".gz"));
+            assertEquals("gzip", entry[3]);
+            assertTrue(Long.parseLong(entry[1]) < Long.parseLong(entry[2]));
+        }
+        assertEquals(manifest.size(), compressor.getCompressed());
+        assertEquals(0, compressor.getFailed());
+        assertLines(file, manifest, 2000);
+    }
+
+    @Test
+    public void singleThreadGzipTest() throws Exception {
+        SegmentCompressor compressor = new SegmentCompressor();
+        compressor.setThreads(1);
+        compressor.setChunkSize(1000);
+        File file = log(compressor, 2000);
+
+        List<String[]> manifest = manifest(file);
+        assertTrue(manifest.size() > 3);
+        for (String[] entry : manifest) {
+            assertTrue(entry[0], entry[0].endsWith(".gz"));
+            assertTrue(Long.parseLong(entry[2]) > 1000);
+        }
+        assertLines(file, manifest, 2000);
+    }
+
+    @Test
+    public void zstdTest() throws Exception {
+        SegmentCompressor compressor = new SegmentCompressor();
+        compressor.setCodec("zstd");
+        File file = log(compressor, 1000);
+
+        List<String[]> manifest = manifest(file);
+        assertTrue(manifest.size() > 1);
+        assertTrue(manifest.get(0)[0].endsWith(".zst"));
+        assertEquals("zstd", manifest.get(0)[3]);
+        assertLines(file, manifest, 1000);
+    }
+
+    @Test
+    public void uncompressedTest() throws Exception {
+        SegmentCompressor compressor = new SegmentCompressor();
+        compressor.setCodec("none");
+        File file = log(compressor, 1500);
+
+        List<String[]> manifest = manifest(file);
+        assertTrue(manifest.size() > 1);
+        assertEquals("none", manifest.get(0)[3]);
+        assertEquals(manifest.get(0)[1], manifest.get(0)[2]);
+        assertLines(file, manifest, 1500);
+    }
+
+    @Test
+    public void restartTest() throws Exception {
+        SegmentCompressor none = new SegmentCompressor();
+        none.setCodec("none");
+        File file = log(none, 1500);
+        List<String> before = Files.readAllLines(manifestPath(file));
+        assertTrue(before.size() > 1);
+
+        // segments already listed as final, here uncompressed, are neither listed again nor compressed
+        SegmentCompressor gzip = new SegmentCompressor();
+        log(gzip, 0);
+        assertEquals(before, Files.readAllLines(manifestPath(file)));
+        assertEquals(0, gzip.getCompressed());
+
+        // a segment rolled but never finished is picked up
+        Path pending = file.toPath().resolveSibling(file.getName() + ".20191018T120000.000Z");
+        Files.write(pending, "pending\n".getBytes(StandardCharsets.UTF_8));
+        SegmentCompressor again = new SegmentCompressor();
+        log(again, 0);
+        List<String> after = Files.readAllLines(manifestPath(file));
+        assertEquals(before.size() + 1, after.size());
+        assertTrue(after.get(after.size() - 1),
+                after.get(after.size() - 1).startsWith(pending.getFileName() + ".gz\t"));
+        assertEquals(1, again.getCompressed());
+    }
+
+    @Test
+    public void unlistedOutputTest() throws Exception {
+        File file = log(new SegmentCompressor(), 1500);
+        List<String> before = Files.readAllLines(manifestPath(file));
+
+        // a run stopped after deleting a segment but before listing its output
+        Path orphan = file.toPath().resolveSibling(file.getName() + ".20191018T120000.000Z.gz");
+        Files.write(orphan, SegmentCompressor.gzipChunk("orphan\n".getBytes(StandardCharsets.UTF_8), 6));
+        SegmentCompressor again = new SegmentCompressor();
+        log(again, 0);
+        List<String> after = Files.readAllLines(manifestPath(file));
+        assertEquals(before.size() + 1, after.size());
+        assertEquals(orphan.getFileName() + "\t" + Files.size(orphan) + "\t7\tgzip", after.get(after.size() - 1));
+        assertEquals(0, again.getCompressed());
+    }
+
+    @Test
+    public void gzipChunksConcatenateTest() throws Exception {
+        byte[] first = SegmentCompressor.gzipChunk("one\n".getBytes(StandardCharsets.UTF_8), 1);
+        byte[] second = SegmentCompressor.gzipChunk("two\n".getBytes(StandardCharsets.UTF_8), 9);
+        Path file = folder.newFile("chunks.gz").toPath();
+        Files.write(file, first);
+        Files.write(file, second, StandardOpenOption.APPEND);
+        assertEquals("[one, two]", read(new GZIPInputStream(Files.newInputStream(file))).toString());
+    }
+
+    private File log(SegmentCompressor compressor, int lines) {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(loggerContext);
+        encoder.setPattern("%msg%n");
+        encoder.start();
+        File file = new File(folder.getRoot(), "audit.log");
+        SegmentFileAppender appender = new SegmentFileAppender();
+        appender.setContext(loggerContext);
+        appender.setName("test");
+        appender.setFile(file.getPath());
+        appender.setEncoder(encoder);
+        appender.setBufferSize(512);
+        appender.setMaxFileSize(new FileSize(4096));
+        appender.setCompressor(compressor);
+        appender.start();
+        assertTrue(compressor.isStarted());
+        for (int i = 0; i < lines; i++) {
+            appender.doAppend(new LoggingEvent(getClass().getName(), loggerContext.getLogger("test"), Level.INFO,
+                    "line " + i, null, null));
+        }
+        appender.stop();
+        return file;
+    }
+
+    private List<String[]> manifest(File file) throws IOException {
+        List<String[]> entries = new ArrayList<>();
+        for (String line : Files.readAllLines(manifestPath(file))) {
+            entries.add(line.split("\t"));
+        }
+        return entries;
+    }
+
+    private static Path manifestPath(File file) {
+        return new File(file.getPath() + SegmentCompressor.MANIFEST_SUFFIX).toPath();
+    }
+
+    private void assertLines(File file, List<String[]> manifest, int count) throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (String[] entry : manifest) {
+            InputStream in = Files.newInputStream(file.toPath().resolveSibling(entry[0]));
+            if (entry[0].endsWith(".gz")) {
+                in = new GZIPInputStream(in);
+            } else if (entry[0].endsWith(".zst")) {
+                in = new ZstdInputStream(in);
+            }
+            List<String> segment = read(in);
+            long size = 0;
+            for (String line : segment) {
+                size += line.length() + 1;
+            }
+            assertEquals(entry[0], Long.parseLong(entry[2]), size);
+            lines.addAll(segment);
+        }
+        lines.addAll(Files.readAllLines(file.toPath()));
+        assertEquals(count, lines.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals("line " + i, lines.get(i));
+        }
+    }
+
+    private static List<String> read(InputStream in) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,182 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.library.appender;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.util.Duration;
+import ch.qos.logback.core.util.FileSize;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.onap.logging.library.encoder.BinaryRecord;
+import org.onap.logging.library.encoder.BinaryRecordEncoder;
+import org.onap.logging.library.encoder.BinaryRecordReader;
+
+public class SegmentFileAppenderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final String OVERSIZE = new String(new char[600]).replace('\0', 'x');
+
+    private final LoggerContext loggerContext = new LoggerContext();
+
+    @Test
+    public void commitAfterDelayTest() throws Exception {
+        File file = new File(folder.getRoot(), "audit.log");
+        SegmentFileAppender appender = appender(file, 4096, 50);
+        appender.start();
+        appender.doAppend(event("first"));
+        appender.doAppend(event("second"));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (file.length() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals("first\nsecond\n", new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+        assertEquals(1, appender.getCommits());
+        appender.stop();
+    }
+
+    @Test
+    public void rollTest() throws Exception {
+        File file = new File(folder.getRoot(), "beats/beats.log");
+        SegmentFileAppender appender = appender(file, 256, 1000);
+        appender.setBufferCount(2);
+        appender.setMaxFileSize(new FileSize(1024));
+        appender.setMaxHistory(3);
+        appender.start();
+        for (int i = 0; i < 500; i++) {
+            appender.doAppend(event("line " + i));
+        }
+        appender.doAppend(event(OVERSIZE));
+        appender.stop();
+
+        List<Path> segments = appender.getRolledSegments();
+        assertEquals(3, segments.size());
+        assertTrue(appender.getRolls() > 3);
+        segments.add(file.toPath());
+        List<String> lines = new ArrayList<>();
+        for (Path segment : segments) {
+            lines.addAll(Files.readAllLines(segment));
+        }
+        assertEquals(OVERSIZE, lines.get(lines.size() - 1));
+        int last = Integer.parseInt(lines.get(lines.size() - 2).substring("line ".length()));
+        assertEquals(499, last);
+        for (int i = 0; i < lines.size() - 1; i++) {
+            assertEquals("line " + (last - (lines.size() - 2) + i), lines.get(i));
+        }
+        assertEquals(0, appender.getFailures());
+    }
+
+    @Test
+    public void headerPerSegmentTest() throws Exception {
+        File file = new File(folder.getRoot(), "audit.bin");
+        BinaryRecordEncoder encoder = new BinaryRecordEncoder();
+        encoder.setContext(loggerContext);
+        encoder.start();
+        SegmentFileAppender appender = appender(file, 512, 1000);
+        appender.setEncoder(encoder);
+        appender.setMaxFileSize(new FileSize(2048));
+        appender.start();
+        for (int i = 0; i < 200; i++) {
+            appender.doAppend(event("line " + i));
+        }
+        appender.stop();
+        // reopening a non-empty live file must not write a second header into it
+        appender.start();
+        appender.doAppend(event("line 200"));
+        appender.stop();
+
+        List<Path> segments = appender.getRolledSegments();
+        assertTrue(segments.size() > 1);
+        segments.add(file.toPath());
+        int next = 0;
+        for (Path segment : segments) {
+            // every segment reads on its own, which needs it to start with the header
+            try (InputStream in = Files.newInputStream(segment);
+                    BinaryRecordReader reader = new BinaryRecordReader(in)) {
+                for (BinaryRecord record = reader.next(); record != null; record = reader.next()) {
+                    assertEquals("line " + next++, record.getMessage());
+                }
+            }
+        }
+        assertEquals(201, next);
+        assertEquals(0, appender.getFailures());
+    }
+
+    @Test
+    public void rollIntervalTest() throws Exception {
+        File file = new File(folder.getRoot(), "audit.log");
+        SegmentFileAppender appender = appender(file, 4096, 20);
+        appender.setRollInterval(Duration.buildByMilliseconds(100));
+        appender.start();
+        appender.doAppend(event("first"));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (appender.getRolls() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, appender.getRolls());
+        // an idle, empty segment is not rolled again
+        Thread.sleep(300);
+        assertEquals(1, appender.getRolls());
+        appender.doAppend(event("second"));
+        appender.stop();
+
+        List<Path> segments = appender.getRolledSegments();
+        assertEquals(1, segments.size());
+        assertEquals("first\n", new String(Files.readAllBytes(segments.get(0)), StandardCharsets.UTF_8));
+        assertEquals("second\n", new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+    }
+
+    private SegmentFileAppender appender(File file, int bufferSize, long maxCommitDelay) {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(loggerContext);
+        encoder.setPattern("%msg%n");
+        encoder.start();
+        SegmentFileAppender appender = new SegmentFileAppender();
+        appender.setContext(loggerContext);
+        appender.setName("test");
+        appender.setFile(file.getPath());
+        appender.setEncoder(encoder);
+        appender.setBufferSize(bufferSize);
+        appender.setMaxCommitDelay(maxCommitDelay);
+        return appender;
+    }
+
+    private LoggingEvent event(String message) {
+        return new LoggingEvent(getClass().getName(), loggerContext.getLogger("test"), Level.INFO, message, null, null);
+    }
+}
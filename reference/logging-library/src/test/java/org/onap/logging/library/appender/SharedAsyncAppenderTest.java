@@ -0,0 +1,166 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.library.appender;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.onap.logging.ref.slf4j.ONAPLogConstants;
+import org.slf4j.Marker;
+
+public class SharedAsyncAppenderTest {
+
+    private final LoggerContext loggerContext = new LoggerContext();
+
+    @Test
+    public void sharedQueueTest() {
+        RecordingAppender audit = new RecordingAppender(null);
+        RecordingAppender debug = new RecordingAppender(null);
+        SharedAsyncAppender auditAsync = start("EELFAuditAsync", audit, 64, -1);
+        SharedAsyncAppender debugAsync = start("EELFDebugAsync", debug, 64, -1);
+        assertSame(auditAsync.getDispatcher(), debugAsync.getDispatcher());
+
+        for (int i = 0; i < 10; i++) {
+            auditAsync.doAppend(event(Level.INFO, ONAPLogConstants.Markers.ENTRY, "audit " + i));
+            debugAsync.doAppend(event(Level.DEBUG, null, "debug " + i));
+        }
+        AsyncDispatcher dispatcher = auditAsync.getDispatcher();
+        auditAsync.stop();
+        assertTrue(dispatcher.flush(1000));
+        debugAsync.stop();
+
+        assertEquals(10, audit.events.size());
+        assertEquals(10, debug.events.size());
+        assertEquals("audit 9", audit.events.get(9).getFormattedMessage());
+        assertEquals("debug 0", debug.events.get(0).getFormattedMessage());
+        assertEquals(1, audit.threads.stream().distinct().count());
+        assertEquals(audit.threads.get(0), debug.threads.get(0));
+        assertEquals(20, dispatcher.getEnqueued());
+        assertEquals(0, dispatcher.getQueueDepth());
+        assertNull(loggerContext.getObject(AsyncDispatcher.CONTEXT_KEY));
+        assertTrue(!audit.isStarted() && !debug.isStarted());
+    }
+
+    @Test
+    public void dropPolicyTest() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingAppender target = new RecordingAppender(release);
+        SharedAsyncAppender async = start("BeatsAsync", target, 8, 4);
+        AsyncDispatcher dispatcher = async.getDispatcher();
+        assertEquals(8, dispatcher.getCapacity());
+
+        // the consumer takes the first event and stalls on it, leaving the queue to fill
+        async.doAppend(event(Level.INFO, null, "stalled"));
+        assertTrue(target.entered.await(5, TimeUnit.SECONDS));
+
+        for (int i = 0; i < 4; i++) {
+            async.doAppend(event(Level.INFO, null, "info " + i));
+        }
+        async.doAppend(event(Level.DEBUG, null, "kept debug"));
+        async.doAppend(event(Level.DEBUG, null, "dropped debug"));
+        for (int i = 4; i < 7; i++) {
+            async.doAppend(event(Level.WARN, null, "warn " + i));
+        }
+        async.doAppend(event(Level.ERROR, null, "dropped error"));
+        assertEquals(8, dispatcher.getQueueDepth());
+        assertEquals(1, dispatcher.getDroppedDebug());
+        assertEquals(1, dispatcher.getDroppedOther());
+
+        Thread exit = new Thread(() -> async.doAppend(event(Level.INFO, ONAPLogConstants.Markers.EXIT, "exit")));
+        exit.start();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (dispatcher.getBlocked() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(1, dispatcher.getBlocked());
+
+        release.countDown();
+        exit.join(5000);
+        assertTrue(dispatcher.flush(1000));
+        async.stop();
+
+        assertEquals(10, target.events.size());
+        assertEquals("kept debug", target.events.get(5).getFormattedMessage());
+        assertEquals("exit", target.events.get(9).getFormattedMessage());
+        assertEquals(2, dispatcher.getDropped());
+        assertNotNull(dispatcher.toString());
+    }
+
+    private SharedAsyncAppender start(String name, RecordingAppender target, int queueSize, int threshold) {
+        target.setContext(loggerContext);
+        target.start();
+        SharedAsyncAppender async = new SharedAsyncAppender();
+        async.setContext(loggerContext);
+        async.setName(name);
+        async.setQueueSize(queueSize);
+        async.setDiscardingThreshold(threshold);
+        async.addAppender(target);
+        async.start();
+        return async;
+    }
+
+    private ILoggingEvent event(Level level, Marker marker, String message) {
+        LoggingEvent event =
+                new LoggingEvent(getClass().getName(), loggerContext.getLogger("test"), level, message, null, null);
+        event.setMarker(marker);
+        return event;
+    }
+
+    private static class RecordingAppender extends AppenderBase<ILoggingEvent> {
+
+        final List<ILoggingEvent> events = new CopyOnWriteArrayList<>();
+        final List<String> threads = new CopyOnWriteArrayList<>();
+        final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch release;
+
+        RecordingAppender(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            events.add(event);
+            threads.add(Thread.currentThread().getName());
+            entered.countDown();
+            if (release != null) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.library.encoder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import org.apache.logging.log4j.MarkerManager;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.core.layout.ByteBufferDestination;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.apache.logging.log4j.util.SortedArrayStringMap;
+import org.junit.After;
+import org.junit.Test;
+import org.onap.logging.ref.slf4j.ONAPLogConstants;
+import org.slf4j.MDC;
+
+public class BinaryRecordEncoderTest {
+
+    private final LoggerContext loggerContext = new LoggerContext();
+
+    @After
+    public void tearDown() {
+        MDC.clear();
+    }
+
+    @Test
+    public void logbackRoundTripTest() throws IOException {
+        String requestId = UUID.randomUUID().toString();
+        MDC.put(ONAPLogConstants.MDCs.REQUEST_ID, requestId);
+        MDC.put(ONAPLogConstants.MDCs.PARTNER_NAME, "So\tme|\"partner\"\n");
+        MDC.put(ONAPLogConstants.MDCs.SERVICE_NAME, "café 😀");
+        MDC.put("custom", "value");
+        LoggingEvent event = new LoggingEvent(getClass().getName(), loggerContext.getLogger("audit"), Level.WARN,
+                "Exiting {}", new IllegalStateException("boom"), new Object[] {"now"});
+        event.setMarker(ONAPLogConstants.Markers.EXIT);
+
+        BinaryRecordEncoder encoder = new BinaryRecordEncoder();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(encoder.headerBytes());
+        out.write(encoder.encode(event));
+        // a rolled file appended to the first still reads through
+        out.write(encoder.headerBytes());
+        out.write(encoder.encode(event));
+
+        try (BinaryRecordReader reader = new BinaryRecordReader(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals(OnapRecord.getColumns(), reader.getColumns());
+            for (int i = 0; i < 2; i++) {
+                BinaryRecord read = reader.next();
+                assertEquals(event.getTimeStamp(), read.getTimestamp());
+                assertEquals("WARN", read.getLevel());
+                assertEquals("audit", read.getLogger());
+                assertEquals("EXIT", read.getMarker());
+                assertEquals("Exiting now", read.getMessage());
+                assertTrue(read.getThrowable().startsWith("java.lang.IllegalStateException: boom"));
+                assertEquals(requestId, read.getMdc(ONAPLogConstants.MDCs.REQUEST_ID));
+                assertEquals("So\tme|\"partner\"\n", read.getMdc(ONAPLogConstants.MDCs.PARTNER_NAME));
+                assertEquals("café 😀", read.getMdc(ONAPLogConstants.MDCs.SERVICE_NAME));
+                assertEquals("value", read.getMdc("custom"));
+                assertNull(read.getMdc(ONAPLogConstants.MDCs.TARGET_ENTITY));
+                assertEquals(4, read.getMdcMap().size());
+            }
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    public void uuidEncodingTest() {
+        RecordBuffer buffer = new RecordBuffer(16);
+        BinaryRecordFormat.writeValue(buffer, "4d31fe02-4918-4975-942f-fe51a44e6a9b");
+        // tag and 16 bytes instead of 36 characters
+        assertEquals(17, buffer.size());
+
+        buffer.reset();
+        BinaryRecordFormat.writeValue(buffer, "4D31FE02-4918-4975-942F-FE51A44E6A9B");
+        assertEquals(37, buffer.size());
+    }
+
+    @Test
+    public void log4j2RoundTripTest() throws IOException {
+        SortedArrayStringMap contextData = new SortedArrayStringMap();
+        contextData.putValue(ONAPLogConstants.MDCs.INVOCATION_ID, "invocation");
+        contextData.putValue("custom", 42);
+        Log4jLogEvent event = Log4jLogEvent.newBuilder().setLoggerName("metric").setThreadName("main")
+                .setLevel(org.apache.logging.log4j.Level.ERROR).setTimeMillis(1234567890123L)
+                .setMarker(MarkerManager.getMarker("INVOKE")).setMessage(new SimpleMessage("Invoking"))
+                .setContextData(contextData).build();
+        BinaryRecordLayout layout = BinaryRecordLayout.createLayout(null);
+        CapturingDestination destination = new CapturingDestination();
+        destination.writeBytes(layout.getHeader(), 0, layout.getHeader().length);
+        layout.encode(event, destination);
+
+        try (BinaryRecordReader reader = new BinaryRecordReader(new ByteArrayInputStream(destination.toByteArray()))) {
+            BinaryRecord read = reader.next();
+            assertEquals(1234567890123L, read.getTimestamp());
+            assertEquals("ERROR", read.getLevel());
+            assertEquals("metric", read.getLogger());
+            assertEquals("main", read.getThread());
+            assertEquals("INVOKE", read.getMarker());
+            assertEquals("Invoking", read.getMessage());
+            assertNull(read.getThrowable());
+            assertEquals("invocation", read.getMdc(ONAPLogConstants.MDCs.INVOCATION_ID));
+            assertEquals("42", read.getMdc("custom"));
+            assertNull(reader.next());
+        }
+    }
+
+    static class CapturingDestination implements ByteBufferDestination {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private final ByteBuffer buffer = ByteBuffer.allocate(0);
+
+        @Override
+        public ByteBuffer getByteBuffer() {
+            return buffer;
+        }
+
+        @Override
+        public ByteBuffer drain(ByteBuffer buf) {
+            return buf;
+        }
+
+        @Override
+        public void writeBytes(ByteBuffer data) {
+            while (data.hasRemaining()) {
+                out.write(data.get());
+            }
+        }
+
+        @Override
+        public void writeBytes(byte[] data, int offset, int length) {
+            out.write(data, offset, length);
+        }
+
+        byte[] toByteArray() {
+            return out.toByteArray();
+        }
+    }
+}
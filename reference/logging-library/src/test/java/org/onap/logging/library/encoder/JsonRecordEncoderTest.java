@@ -0,0 +1,111 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.library.encoder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.apache.logging.log4j.util.SortedArrayStringMap;
+import org.junit.After;
+import org.junit.Test;
+import org.onap.logging.ref.slf4j.ONAPLogConstants;
+import org.slf4j.MDC;
+
+public class JsonRecordEncoderTest {
+
+    private final LoggerContext loggerContext = new LoggerContext();
+
+    @After
+    public void tearDown() {
+        MDC.clear();
+    }
+
+    @Test
+    public void logbackEncodeTest() {
+        MDC.put(ONAPLogConstants.MDCs.REQUEST_ID, "4d31fe02-4918-4975-942f-fe51a44e6a9b");
+        MDC.put(ONAPLogConstants.MDCs.PARTNER_NAME, "So\tme|\"partner\"\\\n\u0001");
+        MDC.put("custom", "café 😀");
+        LoggingEvent event = new LoggingEvent(getClass().getName(), loggerContext.getLogger("audit"), Level.INFO,
+                "Entering", null, null);
+        event.setTimeStamp(1560823746024L);
+        event.setThreadName("main");
+        event.setMarker(ONAPLogConstants.Markers.ENTRY);
+
+        JsonRecordEncoder encoder = new JsonRecordEncoder();
+        assertNull(encoder.headerBytes());
+        String json = new String(encoder.encode(event), StandardCharsets.UTF_8);
+
+        assertEquals("{\"Timestamp\":\"2019-06-18T02:09:06.024Z\",\"loglevel\":\"INFO\",\"Logger\":\"audit\","
+                + "\"Thread\":\"main\",\"Marker\":\"ENTRY\",\"message\":\"Entering\","
+                + "\"RequestID\":\"4d31fe02-4918-4975-942f-fe51a44e6a9b\","
+                + "\"PartnerName\":\"So\\tme|\\\"partner\\\"\\\\\\n\\u0001\",\"custom\":\"café 😀\"}\n", json);
+    }
+
+    @Test
+    public void log4j2EncodeTest() {
+        SortedArrayStringMap contextData = new SortedArrayStringMap();
+        contextData.putValue(ONAPLogConstants.MDCs.RESPONSE_CODE, "200");
+        Log4jLogEvent event = Log4jLogEvent.newBuilder().setLoggerName("metric").setThreadName("worker-1")
+                .setLevel(org.apache.logging.log4j.Level.WARN).setTimeMillis(0)
+                .setMessage(new ParameterizedMessage("Invoked {} in {}ms", "SO", 12))
+                .setThrown(new IllegalStateException("boom")).setContextData(contextData).build();
+
+        String json = JsonRecordLayout.createLayout(null).toSerializable(event);
+
+        assertTrue(json,
+                json.startsWith("{\"Timestamp\":\"1970-01-01T00:00:00.000Z\",\"loglevel\":\"WARN\","
+                        + "\"Logger\":\"metric\",\"Thread\":\"worker-1\",\"message\":\"Invoked SO in 12ms\","
+                        + "\"exceptionmessage\":\"java.lang.IllegalStateException: boom\\n\\tat "));
+        assertTrue(json, json.endsWith("\",\"ResponseCode\":\"200\"}\n"));
+    }
+
+    @Test
+    public void timestampTest() {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+        Random random = new Random(42);
+        long[] samples = new long[1000];
+        samples[0] = 951782400000L; // 2000-02-29
+        samples[1] = -1L;
+        for (int i = 2; i < samples.length; i++) {
+            samples[i] = (long) (random.nextDouble() * 4_000_000_000_000L);
+        }
+        RecordBuffer buffer = new RecordBuffer(32);
+        for (long millis : samples) {
+            buffer.reset();
+            JsonRecordFormat.writeTimestamp(buffer, millis);
+            assertEquals(formatter.format(ZonedDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC)),
+                    new String(buffer.toByteArray(), StandardCharsets.US_ASCII));
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.library.encoder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import java.nio.charset.StandardCharsets;
+import java.util.TimeZone;
+import org.junit.After;
+import org.junit.Test;
+import org.onap.logging.ref.slf4j.ONAPLogConstants;
+import org.slf4j.MDC;
+
+public class TextRecordEncoderTest {
+
+    private static final String P_TIM = "%d{\"yyyy-MM-dd'T'HH:mm:ss.SSSXXX\", UTC}";
+    private static final String P_MDC = "%replace(%replace(%mdc){'\\t','\\\\\\\\t'}){'\\n', '\\\\\\\\n'}";
+    private static final String P_MSG = "%replace(%replace(%msg){'\\t', '\\\\\\\\t'}){'\\n','\\\\\\\\n'}";
+    private static final String P_MAK = "%replace(%replace(%marker){'\\t', '\\\\\\\\t'}){'\\n','\\\\\\\\n'}";
+    private static final String BEATS_PATTERN =
+            "%nopexception" + P_TIM + "\t%thread\t%level\t%logger\t" + P_MDC + "\t" + P_MSG + "\t\t" + P_MAK + "\t%n";
+    private static final String AUDIT_PATTERN = "%X{BeginTimestamp}|%X{EndTimestamp}|%X{RequestId}"
+            + "|%X{ServiceInstanceId}|%thread||%X{ServiceName}|%X{PartnerName}|%X{StatusCode}|%X{ResponseCode}"
+            + "|%X{ResponseDesc}|%X{InstanceUUID}|%.-5level|%X{AlertSeverity}|%X{ServerIPAddress}|%X{Timer}"
+            + "|%X{ServerFQDN}|%X{RemoteHost}|%logger|||||||%msg%n";
+    private static final String ERROR_PATTERN = "%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX, America/New_York}|%X{RequestId}"
+            + "|%thread|%X{ServiceName}|%X{PartnerName}|%X{TargetEntity}|%X{TargetServiceName}|%.-5level"
+            + "|%X{ErrorCode}|%X{ErrorDesc}|%msg%n";
+
+    private final LoggerContext loggerContext = new LoggerContext();
+
+    @After
+    public void tearDown() {
+        MDC.clear();
+    }
+
+    @Test
+    public void beatsMatchesPatternTest() {
+        MDC.put(ONAPLogConstants.MDCs.PARTNER_NAME, "So\tme\npartner");
+        ILoggingEvent event = event("Line one\nline\ttwo");
+
+        assertEquals(pattern(BEATS_PATTERN, event), encode(new BeatsRecordEncoder(), event));
+    }
+
+    @Test
+    public void beatsMdcTest() {
+        MDC.put("custom", "value");
+        MDC.put(ONAPLogConstants.MDCs.SERVICE_NAME, "onap/so");
+        MDC.put(ONAPLogConstants.MDCs.REQUEST_ID, "4d31fe02-4918-4975-942f-fe51a44e6a9b");
+        ILoggingEvent event = event("Entering");
+
+        assertEquals("2019-06-18T02:09:06.024Z\tmain\tINFO\taudit\t"
+                + "RequestID=4d31fe02-4918-4975-942f-fe51a44e6a9b, ServiceName=onap/so, custom=value\tEntering\t\t"
+                + "ENTRY\t\n", encode(new BeatsRecordEncoder(), event));
+    }
+
+    @Test
+    public void eelfMatchesPatternTest() {
+        MDC.put("BeginTimestamp", "2019-06-18T02:09:06.000Z");
+        MDC.put("RequestId", "4d31fe02-4918-4975-942f-fe51a44e6a9b");
+        MDC.put("ServiceName", "onap/so");
+        MDC.put("ErrorCode", "500");
+        MDC.put("RemoteHost", "10.0.0.1");
+        MDC.put("Timer", "24");
+        ILoggingEvent event = event("Entering | with pipes");
+
+        EelfRecordEncoder audit = new EelfRecordEncoder();
+        audit.start();
+        assertEquals(pattern(AUDIT_PATTERN, event), encode(audit, event));
+
+        EelfRecordEncoder error = new EelfRecordEncoder();
+        error.setFormat("error");
+        error.setTimeZone("America/New_York");
+        error.start();
+        assertEquals(pattern(ERROR_PATTERN, event), encode(error, event));
+        assertTrue(encode(error, event).startsWith("2019-06-17T22:09:06.024-04:00|"));
+    }
+
+    @Test
+    public void customFieldsTest() {
+        MDC.put("RequestId", "r1");
+        EelfRecordEncoder encoder = new EelfRecordEncoder();
+        encoder.setFields("%d{UTC}|RequestId|Missing||%level|%msg");
+        encoder.start();
+
+        assertEquals("2019-06-18T02:09:06.024Z|r1|||INFO|Entering\n", encode(encoder, event("Entering")));
+
+        EelfRecordEncoder unknown = new EelfRecordEncoder();
+        unknown.setContext(loggerContext);
+        unknown.setFormat("nonesuch");
+        unknown.start();
+        assertTrue(!unknown.isStarted());
+    }
+
+    @Test
+    public void sharedExtractionTest() {
+        MDC.put(ONAPLogConstants.MDCs.REQUEST_ID, "4d31fe02-4918-4975-942f-fe51a44e6a9b");
+        ILoggingEvent event = event("Entering");
+        ILoggingEvent other = event("Exiting");
+
+        encode(new BeatsRecordEncoder(), event);
+        EncodingContext context = EncodingContext.get(event);
+        assertTrue(context.isFilledFrom(event));
+        assertEquals("Entering", context.record.get(OnapRecord.MESSAGE));
+
+        assertTrue(encode(new JsonRecordEncoder(), other).contains("\"message\":\"Exiting\""));
+        context = EncodingContext.get(event);
+        assertTrue(!context.isFilledFrom(event));
+        assertEquals(null, context.record.get(OnapRecord.MESSAGE));
+    }
+
+    private ILoggingEvent event(String message) {
+        LoggingEvent event = new LoggingEvent(getClass().getName(), loggerContext.getLogger("audit"), Level.INFO,
+                message, null, null);
+        event.setTimeStamp(1560823746024L);
+        event.setThreadName("main");
+        event.setMarker(ONAPLogConstants.Markers.ENTRY);
+        event.prepareForDeferredProcessing();
+        return event;
+    }
+
+    private String pattern(String pattern, ILoggingEvent event) {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(loggerContext);
+        encoder.setPattern(pattern);
+        encoder.start();
+        return new String(encoder.encode(event), StandardCharsets.UTF_8);
+    }
+
+    private static String encode(ch.qos.logback.core.encoder.Encoder<ILoggingEvent> encoder, ILoggingEvent event) {
+        return new String(encoder.encode(event), StandardCharsets.UTF_8);
+    }
+}
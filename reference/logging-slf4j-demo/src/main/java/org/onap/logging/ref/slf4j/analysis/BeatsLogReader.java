@@ -0,0 +1,186 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.ref.slf4j.analysis;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Reads beats-format logfiles through memory-mapped regions, without
+ * copying or decoding lines up front. Each {@link LogEntry} refers to
+ * the bytes of its region, and decodes its fields only when asked.
+ *
+ * <p>Not thread-safe; use one reader per thread.</p>
+ */
+public class BeatsLogReader {
+
+    /** Default size of each mapped region. */
+    public static final int DEFAULT_REGION_SIZE = 256 * 1024 * 1024;
+
+    /** Size of each mapped region, which bounds the length of a line. */
+    private final int mRegionSize;
+
+    /** Lines parsed. */
+    private long mLines;
+
+    /** Lines that couldn't be parsed. */
+    private long mSkipped;
+
+    /**
+     * Construct reader with the default region size.
+     */
+    public BeatsLogReader() {
+        this(DEFAULT_REGION_SIZE);
+    }
+
+    /**
+     * Construct reader.
+     * @param regionSize size of each mapped region.
+     */
+    public BeatsLogReader(final int regionSize) {
+        this.mRegionSize = regionSize;
+    }
+
+    /**
+     * Read a whole file.
+     * @param file logfile.
+     * @param consumer receiving each entry, in file order.
+     * @throws IOException on read failure.
+     */
+    public void read(final Path file, final Consumer<LogEntry> consumer) throws IOException {
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            this.read(channel, 0, Long.MAX_VALUE, consumer);
+        }
+    }
+
+    /**
+     * Read the lines that start within a byte range, so that a file can be
+     * split into ranges without any line being read twice or not at all.
+     * @param channel open logfile.
+     * @param start first byte of the range.
+     * @param end end of the range, exclusive.
+     * @param consumer receiving each entry, in file order.
+     * @throws IOException on read failure.
+     */
+    public void read(final FileChannel channel, final long start, final long end,
+            final Consumer<LogEntry> consumer) throws IOException {
+
+        final long size = channel.size();
+        final long limit = Math.min(end, size);
+        long position = start;
+        boolean partial = start > 0 && !this.isLineStart(channel, start);
+
+        while (position < limit) {
+
+            final int regionLength = (int) Math.min(this.mRegionSize, size - position);
+            final MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position, regionLength);
+            final boolean last = position + regionLength == size;
+
+            int lineStart = 0;
+            for (int i = 0; i < regionLength; i++) {
+                if (region.get(i) == '\n') {
+                    if (partial) {
+                        partial = false;
+                    }
+                    else if (position + lineStart < limit) {
+                        this.emit(region, lineStart, i - lineStart, position + lineStart, consumer);
+                    }
+                    else {
+                        return;
+                    }
+                    lineStart = i + 1;
+                }
+            }
+
+            if (last) {
+                if (!partial && lineStart < regionLength && position + lineStart < limit) {
+                    this.emit(region, lineStart, regionLength - lineStart, position + lineStart, consumer);
+                }
+                return;
+            }
+            if (lineStart == 0 && !partial) {
+                throw new IOException("Line at offset " + position + " is longer than " + this.mRegionSize + " bytes");
+            }
+            position += partial ? regionLength : lineStart;
+        }
+    }
+
+    /**
+     * Getter.
+     * @return number of lines parsed so far.
+     */
+    public long getLines() {
+        return this.mLines;
+    }
+
+    /**
+     * Getter.
+     * @return number of lines so far that couldn't be parsed, and were ignored.
+     */
+    public long getSkipped() {
+        return this.mSkipped;
+    }
+
+    /**
+     * Check whether a line starts at the specified offset.
+     * @param channel logfile.
+     * @param offset file offset.
+     * @return true if the preceding byte is a newline.
+     * @throws IOException on read failure.
+     */
+    private boolean isLineStart(final FileChannel channel, final long offset) throws IOException {
+        final ByteBuffer previous = ByteBuffer.allocate(1);
+        return channel.read(previous, offset - 1) == 1 && previous.get(0) == '\n';
+    }
+
+    /**
+     * Parse and deliver a line.
+     * @param region mapped region.
+     * @param offset line start within the region.
+     * @param length line length, excluding the newline.
+     * @param fileOffset line start within the file.
+     * @param consumer receiving the entry.
+     */
+    private void emit(final ByteBuffer region, final int offset, final int length,
+            final long fileOffset, final Consumer<LogEntry> consumer) {
+
+        if (length == 0 || length == 1 && region.get(offset) == '\r') {
+            return;
+        }
+        final LogEntry entry;
+        try {
+            entry = new LogEntry(region, offset, length, fileOffset);
+        }
+        catch (final IllegalArgumentException e) {
+            this.mSkipped++;
+            return;
+        }
+        this.mLines++;
+        consumer.accept(entry);
+    }
+}
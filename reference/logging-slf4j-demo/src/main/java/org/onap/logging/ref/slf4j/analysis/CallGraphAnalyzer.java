@@ -0,0 +1,251 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.ref.slf4j.analysis;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Analyzer for log messages, to build a simple representation of the
+ * call graph.
+ *
+ * <p>Entries are indexed by InvocationID, RequestID and InvokingID as
+ * they're added, so that walking a graph is a series of hash lookups
+ * rather than a scan of every entry per hop.</p>
+ */
+public class CallGraphAnalyzer {
+
+    /** Messages of interest. */
+    private final List<LogEntry> mEntries = new ArrayList<>();
+
+    /** Entries by InvocationID. */
+    private final Map<String, List<LogEntry>> mByInvocationID = new HashMap<>();
+
+    /** Entries by RequestID. */
+    private final Map<String, List<LogEntry>> mByRequestID = new HashMap<>();
+
+    /** INVOKE entries by the InvocationID they pass on. */
+    private final Map<String, List<LogEntry>> mByInvokingID = new HashMap<>();
+
+    /** INVOKE entries by the InvocationID of the invoker. */
+    private final Map<String, List<LogEntry>> mInvokesByInvocationID = new HashMap<>();
+
+    /** ENTRY entries by InvocationID. */
+    private final Map<String, LogEntry> mEntryByInvocationID = new LinkedHashMap<>();
+
+    /**
+     * Capture entry if it's interesting.
+     * @param entry candidate.
+     * @return this.
+     */
+    public CallGraphAnalyzer add(final LogEntry entry) {
+
+        final String markers = entry.getMarkers();
+        if (StringUtils.isBlank(markers)) {
+            return this;
+        }
+
+        if (entry.getLogger().contains("ONAPLogAdapterTest")) {
+            return this;
+        }
+
+        this.mEntries.add(entry);
+
+        final String invocationID = entry.getInvocationID();
+        index(this.mByInvocationID, invocationID, entry);
+        index(this.mByRequestID, entry.getRequestID(), entry);
+
+        final String invokingID = entry.getInvokingID();
+        if (StringUtils.isNotBlank(invokingID)) {
+            index(this.mByInvokingID, invokingID, entry);
+            index(this.mInvokesByInvocationID, invocationID, entry);
+        }
+
+        if ("ENTRY".equals(markers) && invocationID != null) {
+            this.mEntryByInvocationID.putIfAbsent(invocationID, entry);
+        }
+
+        return this;
+    }
+
+    /**
+     * Read and capture every interesting entry in a logfile.
+     * @param file beats-format logfile.
+     * @return this.
+     * @throws IOException on read failure.
+     */
+    public CallGraphAnalyzer addAll(final Path file) throws IOException {
+        new BeatsLogReader().read(file, this::add);
+        return this;
+    }
+
+    /**
+     * Append another analyzer's entries, as if they'd been added to this one
+     * after its own.
+     * @param other analyzer, e.g. over a later part of the same logs.
+     * @return this.
+     */
+    public CallGraphAnalyzer merge(final CallGraphAnalyzer other) {
+        this.mEntries.addAll(other.mEntries);
+        merge(this.mByInvocationID, other.mByInvocationID);
+        merge(this.mByRequestID, other.mByRequestID);
+        merge(this.mByInvokingID, other.mByInvokingID);
+        merge(this.mInvokesByInvocationID, other.mInvokesByInvocationID);
+        other.mEntryByInvocationID.forEach(this.mEntryByInvocationID::putIfAbsent);
+        return this;
+    }
+
+    /**
+     * Get all captured entries, for diagnostics only.
+     * @return entries.
+     */
+    public List<LogEntry> getEntries() {
+        return this.mEntries;
+    }
+
+    /**
+     * Find the entry point into the call graph through the various components.
+     * @return entry point or (failure) null.
+     */
+    public LogEntry findEntryPoint() {
+        for (final LogEntry e : this.mEntries) {
+            if (e.getLogger().endsWith("ComponentAlpha")) {
+                if ("ENTRY".equals(e.getMarkers())) {
+                    if (StringUtils.isBlank(e.getPartnerName())) {
+                        return e;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Find the roots of all call graphs: ENTRY records whose invocation
+     * wasn't reported by any INVOKE.
+     * @return roots, in file order.
+     */
+    public List<LogEntry> findEntryPoints() {
+        final List<LogEntry> roots = new ArrayList<>();
+        for (final LogEntry e : this.mEntryByInvocationID.values()) {
+            if (!this.mByInvokingID.containsKey(e.getInvocationID())) {
+                roots.add(e);
+            }
+        }
+        return roots;
+    }
+
+    /**
+     * Find entries for where a component invokes others.
+     * @param parent parent ENTRY (not actually the entry where it's doing the invoking).
+     * @return components invoked by this one.
+     */
+    public List<LogEntry> findInvokes(final LogEntry parent) {
+        return lookup(this.mInvokesByInvocationID, parent.getInvocationID());
+    }
+
+    /**
+     * Find a specific invocation.
+     * @param invoke invocation record.
+     * @return invocation ENTRY, or (failure) null if not found.
+     */
+    public LogEntry findInvocation(final LogEntry invoke) {
+        final String invokingID = invoke.getInvokingID();
+        return invokingID == null ? null : this.mEntryByInvocationID.get(invokingID);
+    }
+
+    /**
+     * Find every entry for an invocation.
+     * @param invocationID InvocationID.
+     * @return entries, in the order they were added.
+     */
+    public List<LogEntry> findByInvocationID(final String invocationID) {
+        return lookup(this.mByInvocationID, invocationID);
+    }
+
+    /**
+     * Find every entry for a request.
+     * @param requestID RequestID.
+     * @return entries, in the order they were added.
+     */
+    public List<LogEntry> findByRequestID(final String requestID) {
+        return lookup(this.mByRequestID, requestID);
+    }
+
+    /**
+     * Find the INVOKE entries which passed on an InvocationID.
+     * @param invokingID InvocationID of the invoked component.
+     * @return entries, in the order they were added.
+     */
+    public List<LogEntry> findByInvokingID(final String invokingID) {
+        return lookup(this.mByInvokingID, invokingID);
+    }
+
+    /**
+     * Add to an index.
+     * @param index index.
+     * @param key key, ignored if blank.
+     * @param entry indexed entry.
+     */
+    private static void index(final Map<String, List<LogEntry>> index, final String key, final LogEntry entry) {
+        if (StringUtils.isNotBlank(key)) {
+            index.computeIfAbsent(key, k -> new ArrayList<>(2)).add(entry);
+        }
+    }
+
+    /**
+     * Append one index to another.
+     * @param index index.
+     * @param other index whose entries come after.
+     */
+    private static void merge(final Map<String, List<LogEntry>> index, final Map<String, List<LogEntry>> other) {
+        for (final Map.Entry<String, List<LogEntry>> e : other.entrySet()) {
+            final List<LogEntry> entries = index.get(e.getKey());
+            if (entries == null) {
+                index.put(e.getKey(), new ArrayList<>(e.getValue()));
+            }
+            else {
+                entries.addAll(e.getValue());
+            }
+        }
+    }
+
+    /**
+     * Look up in an index.
+     * @param index index.
+     * @param key key.
+     * @return matches, possibly empty.
+     */
+    private static List<LogEntry> lookup(final Map<String, List<LogEntry>> index, final String key) {
+        final List<LogEntry> entries = key == null ? null : index.get(key);
+        return entries == null ? Collections.emptyList() : Collections.unmodifiableList(entries);
+    }
+}
@@ -0,0 +1,488 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.logging.ref.slf4j.analysis;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * A simple, recursive text-only report writer for the call graph.
+ *
+ * <p>As well as the tree, it attributes latency to each hop: ENTRY is paired
+ * with EXIT for the time spent in a component, INVOKE with INVOKE_RETURN for
+ * the time the caller waited, and the difference between a hop's duration and
+ * the time covered by its calls is its self time. The critical path is the
+ * chain of hops which determined the root's duration.</p>
+ */
+public class CallGraphReportWriter {
+
+    /** The analyzer which does the work. */
+    final CallGraphAnalyzer mAnalyzer;
+
+    /** Short report, for validation. */
+    final StringBuilder mShortReport = new StringBuilder();
+
+    /** Longer report, for human eyes. */
+    final StringBuilder mLongReport = new StringBuilder();
+
+    /** Root of the timed graph. */
+    final Hop mRoot;
+
+    /** Hops on the critical path, from the root. */
+    final List<Hop> mCriticalPath = new ArrayList<>();
+
+    /**
+     * Construct writer for the demo's call graph, which is entered
+     * through <tt>ComponentAlpha</tt>.
+     * @param analyzer initialized analyzer.
+     */
+    public CallGraphReportWriter(final CallGraphAnalyzer analyzer) {
+        this(analyzer, requireEntryPoint(analyzer));
+    }
+
+    /**
+     * Construct writer.
+     * @param analyzer initialized analyzer.
+     * @param e0 root of the graph, e.g. one of {@link CallGraphAnalyzer#findEntryPoints()}.
+     */
+    public CallGraphReportWriter(final CallGraphAnalyzer analyzer, final LogEntry e0) {
+
+        this.mAnalyzer = analyzer;
+        this.mRoot = new Hop(null, null, e0, this.findExit(e0));
+
+        this.mLongReport.append(e0.toShortString()).append("\n");
+        this.mShortReport.append(StringUtils.substringAfter(e0.getLogger(), ".Component")).append("\n");
+
+        this.report(e0, 1, this.mRoot);
+
+        criticalPath(this.mRoot, this.mCriticalPath);
+        for (final Hop hop : this.mCriticalPath) {
+            hop.mCritical = true;
+        }
+    }
+
+    /**
+     * Recursively analyze.
+     * @param invoker entry point.
+     * @param depth recursive depth, for handbrake.
+     * @param hop timings for the invoker.
+     */
+    private void report(final LogEntry invoker, final int depth, final Hop hop) {
+
+        if (depth > 100) {
+            throw new IllegalStateException("Recursion ad infinitum");
+        }
+
+        final List<LogEntry> invokes0 = this.mAnalyzer.findInvokes(invoker);
+        final List<LogEntry> returns0 = new ArrayList<>();
+        for (final LogEntry e : this.mAnalyzer.findByInvocationID(invoker.getInvocationID())) {
+            if (e.isInvokeReturn()) {
+                returns0.add(e);
+            }
+        }
+        final Set<String> invokingIDs0 = new HashSet<>();
+        for (final LogEntry invoke0 : invokes0) {
+            invokingIDs0.add(invoke0.getInvokingID());
+        }
+
+        for (final LogEntry invoke0 : invokes0) {
+
+            final LogEntry invoked0 = this.mAnalyzer.findInvocation(invoke0);
+            final Hop child = new Hop(invoke0, pairReturn(invoke0, returns0, invokingIDs0),
+                    invoked0, invoked0 == null ? null : this.findExit(invoked0));
+            hop.mChildren.add(child);
+
+            final String indent = StringUtils.repeat(' ', depth * 4);
+
+            if (invoked0 == null) {
+                // Invoked component's logs weren't among those analyzed.
+                this.mLongReport.append(indent).append("?? <- ").append(invoke0.toShortString()).append('\n');
+                this.mShortReport.append(indent).append("??").append('\n');
+                continue;
+            }
+
+            this.mLongReport.append(indent).append(invoked0.toShortString()).append('\n');
+            this.mShortReport.append(indent).append(StringUtils.substringAfter(invoked0.getLogger(), ".Component")).append('\n');
+
+            report(invoked0, depth + 1, child);
+        }
+    }
+
+    /**
+     * Find the EXIT for an ENTRY.
+     * @param entry ENTRY record.
+     * @return EXIT record, or null if it wasn't logged.
+     */
+    private LogEntry findExit(final LogEntry entry) {
+        for (final LogEntry e : this.mAnalyzer.findByInvocationID(entry.getInvocationID())) {
+            if ("EXIT".equals(e.getMarkers())) {
+                return e;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Claim the INVOKE_RETURN for an INVOKE: the one which names the same
+     * invoked InvocationID if there is one, otherwise the next in order
+     * which names none of the invocation's INVOKEs, and so can't belong
+     * to another.
+     * @param invoke INVOKE record.
+     * @param returns unclaimed INVOKE_RETURN records from the same invocation.
+     * @param invokingIDs invoked InvocationIDs of all the invocation's INVOKEs.
+     * @return INVOKE_RETURN record, or null.
+     */
+    private static LogEntry pairReturn(final LogEntry invoke, final List<LogEntry> returns,
+            final Set<String> invokingIDs) {
+        final String invokingID = invoke.getInvokingID();
+        for (int i = 0; i < returns.size(); i++) {
+            if (StringUtils.equals(invokingID, returns.get(i).getMessage())) {
+                return returns.remove(i);
+            }
+        }
+        for (int i = 0; i < returns.size(); i++) {
+            if (!invokingIDs.contains(returns.get(i).getMessage())) {
+                return returns.remove(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Find the critical path through a hop, by walking back from its end:
+     * the last call to finish is on the path, then whichever finished last
+     * before that one started, and so on.
+     * @param hop hop.
+     * @param path receiving the hops on the path, in order.
+     */
+    private static void criticalPath(final Hop hop, final List<Hop> path) {
+
+        path.add(hop);
+
+        final List<Hop> calls = new ArrayList<>();
+        for (final Hop child : hop.mChildren) {
+            if (child.getCallStart() >= 0 && child.getCallEnd() >= 0) {
+                calls.add(child);
+            }
+        }
+        calls.sort(Comparator.comparingLong(Hop::getCallEnd).reversed());
+
+        final List<Hop> onPath = new ArrayList<>();
+        long limit = Long.MAX_VALUE;
+        for (final Hop call : calls) {
+            if (call.getCallEnd() <= limit) {
+                onPath.add(call);
+                limit = call.getCallStart();
+            }
+        }
+        Collections.reverse(onPath);
+        for (final Hop call : onPath) {
+            criticalPath(call, path);
+        }
+    }
+
+    /**
+     * Find the demo's entry point.
+     * @param analyzer initialized analyzer.
+     * @return entry point.
+     */
+    private static LogEntry requireEntryPoint(final CallGraphAnalyzer analyzer) {
+        if (analyzer.getEntries().isEmpty()) {
+            throw new IllegalArgumentException("No entries");
+        }
+        final LogEntry e0 = analyzer.findEntryPoint();
+        if (e0 == null) {
+            throw new IllegalArgumentException("No entry point");
+        }
+        return e0;
+    }
+
+    /**
+     * Get report.
+     * @return short report, for validation.
+     */
+    public String getShortReport() {
+        return this.mShortReport.toString();
+    }
+
+    /**
+     * Get report.
+     * @return long report, for printing out.
+     */
+    public String getLongReport() {
+        return this.mLongReport.toString();
+    }
+
+    /**
+     * Get report of the time spent in each hop, in milliseconds, with hops
+     * on the critical path marked <tt>*</tt>.
+     * @return latency report, for printing out.
+     */
+    public String getLatencyReport() {
+        final StringBuilder buf = new StringBuilder();
+        appendLatency(buf, this.mRoot, 0);
+        return buf.toString();
+    }
+
+    /**
+     * Getter.
+     * @return root of the timed graph.
+     */
+    public Hop getRoot() {
+        return this.mRoot;
+    }
+
+    /**
+     * Getter.
+     * @return hops on the critical path, from the root.
+     */
+    public List<Hop> getCriticalPath() {
+        return Collections.unmodifiableList(this.mCriticalPath);
+    }
+
+    /**
+     * Recursively render latencies.
+     * @param buf target.
+     * @param hop hop.
+     * @param depth indent.
+     */
+    private static void appendLatency(final StringBuilder buf, final Hop hop, final int depth) {
+        buf.append(StringUtils.repeat(' ', depth * 4)).append(hop.getName())
+                .append(" total=").append(millis(hop.getDuration()))
+                .append(" self=").append(millis(hop.getSelf()))
+                .append(" downstream=").append(millis(hop.getDownstream()));
+        if (hop.mInvoke != null) {
+            buf.append(" call=").append(millis(hop.getCallDuration()));
+        }
+        if (hop.mCritical) {
+            buf.append(" *");
+        }
+        buf.append('\n');
+        for (final Hop child : hop.mChildren) {
+            appendLatency(buf, child, depth + 1);
+        }
+    }
+
+    /**
+     * Format a duration.
+     * @param millis duration, negative if unknown.
+     * @return formatted.
+     */
+    private static String millis(final long millis) {
+        return millis < 0 ? "?" : millis + "ms";
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return this.getLongReport();
+    }
+
+    /**
+     * Timings for one invocation of one component. Times are epoch
+     * milliseconds from the log records, or -1 where the record wasn't found.
+     */
+    public static final class Hop {
+
+        /** INVOKE record in the caller, null for the root. */
+        final LogEntry mInvoke;
+
+        /** INVOKE_RETURN record in the caller. */
+        final LogEntry mInvokeReturn;
+
+        /** ENTRY record in the callee, null if its logs weren't analyzed. */
+        final LogEntry mEntry;
+
+        /** EXIT record in the callee. */
+        final LogEntry mExit;
+
+        /** Calls made by the callee. */
+        final List<Hop> mChildren = new ArrayList<>(2);
+
+        /** Whether this hop is on the critical path. */
+        boolean mCritical;
+
+        /**
+         * Construct hop.
+         * @param invoke INVOKE record.
+         * @param invokeReturn INVOKE_RETURN record.
+         * @param entry ENTRY record.
+         * @param exit EXIT record.
+         */
+        Hop(final LogEntry invoke, final LogEntry invokeReturn, final LogEntry entry, final LogEntry exit) {
+            this.mInvoke = invoke;
+            this.mInvokeReturn = invokeReturn;
+            this.mEntry = entry;
+            this.mExit = exit;
+        }
+
+        /**
+         * Getter.
+         * @return simple name of the callee's logger, or <tt>??</tt> if unknown.
+         */
+        public String getName() {
+            return this.mEntry == null ? "??" : StringUtils.substringAfterLast("." + this.mEntry.getLogger(), ".");
+        }
+
+        /**
+         * Getter.
+         * @return calls made by the callee.
+         */
+        public List<Hop> getChildren() {
+            return Collections.unmodifiableList(this.mChildren);
+        }
+
+        /**
+         * Getter.
+         * @return true if this hop is on the critical path.
+         */
+        public boolean isCritical() {
+            return this.mCritical;
+        }
+
+        /**
+         * Getter.
+         * @return when the callee started, or failing that when it was invoked.
+         */
+        public long getStart() {
+            return this.mEntry != null ? time(this.mEntry) : time(this.mInvoke);
+        }
+
+        /**
+         * Getter.
+         * @return when the callee finished, or failing that when the call returned.
+         */
+        public long getEnd() {
+            return this.mExit != null ? time(this.mExit) : time(this.mInvokeReturn);
+        }
+
+        /**
+         * Getter.
+         * @return when the caller invoked the callee, or failing that {@link #getStart()}.
+         */
+        public long getCallStart() {
+            return this.mInvoke != null && this.mInvokeReturn != null ? time(this.mInvoke) : this.getStart();
+        }
+
+        /**
+         * Getter.
+         * @return when the call returned to the caller, or failing that {@link #getEnd()}.
+         */
+        public long getCallEnd() {
+            return this.mInvoke != null && this.mInvokeReturn != null ? time(this.mInvokeReturn) : this.getEnd();
+        }
+
+        /**
+         * Getter.
+         * @return time in the callee, or -1.
+         */
+        public long getDuration() {
+            return span(this.getStart(), this.getEnd());
+        }
+
+        /**
+         * Getter.
+         * @return time the caller waited, or -1.
+         */
+        public long getCallDuration() {
+            return span(this.getCallStart(), this.getCallEnd());
+        }
+
+        /**
+         * Get time covered by calls to other components. Concurrent calls
+         * are counted once.
+         * @return downstream time, or -1.
+         */
+        public long getDownstream() {
+
+            final long start = this.getStart();
+            final long end = this.getEnd();
+            if (span(start, end) < 0) {
+                return -1;
+            }
+
+            final List<long[]> intervals = new ArrayList<>();
+            for (final Hop child : this.mChildren) {
+                final long from = Math.max(start, child.getCallStart());
+                final long to = Math.min(end, child.getCallEnd());
+                if (child.getCallStart() >= 0 && child.getCallEnd() >= 0 && to > from) {
+                    intervals.add(new long[] {from, to});
+                }
+            }
+            intervals.sort(Comparator.comparingLong(i -> i[0]));
+
+            long covered = 0;
+            long reached = start;
+            for (final long[] interval : intervals) {
+                if (interval[1] > reached) {
+                    covered += interval[1] - Math.max(reached, interval[0]);
+                    reached = interval[1];
+                }
+            }
+            return covered;
+        }
+
+        /**
+         * Getter.
+         * @return time in the callee not covered by its calls, or -1.
+         */
+        public long getSelf() {
+            final long duration = this.getDuration();
+            return duration < 0 ? -1 : duration - this.getDownstream();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+            return this.getName() + "(total=" + millis(this.getDuration()) + ", self=" + millis(this.getSelf()) + ")";
+        }
+
+        /**
+         * Get a record's time.
+         * @param entry record, possibly null.
+         * @return epoch milliseconds, or -1.
+         */
+        private static long time(final LogEntry entry) {
+            return entry == null ? -1 : entry.getTimestamp().getTime();
+        }
+
+        /**
+         * Get an elapsed time.
+         * @param start start, or -1.
+         * @param end end, or -1.
+         * @return elapsed time, or -1 if either is unknown.
+         */
+        private static long span(final long start, final long end) {
+            return start < 0 || end < 0 ? -1 : Math.max(0, end - start);
+        }
+    }
+}
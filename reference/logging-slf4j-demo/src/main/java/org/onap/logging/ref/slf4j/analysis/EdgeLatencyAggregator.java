@@ -0,0 +1,183 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.logging.ref.slf4j.analysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Aggregates call latencies per (caller, callee) edge across many
+ * transactions, e.g. every graph from a {@link ParallelLogIngester}, to show
+ * which component adds latency.
+ *
+ * <p>Every sample is kept, so that percentiles are exact.</p>
+ */
+public class EdgeLatencyAggregator {
+
+    /** Edges by "caller -&gt; callee". */
+    private final Map<String, Edge> mEdges = new TreeMap<>();
+
+    /**
+     * Add the calls in one transaction.
+     * @param writer report over the transaction.
+     * @return this.
+     */
+    public EdgeLatencyAggregator add(final CallGraphReportWriter writer) {
+        return this.add(writer.getRoot());
+    }
+
+    /**
+     * Add the calls made by a hop and its descendants.
+     * @param caller hop.
+     * @return this.
+     */
+    public EdgeLatencyAggregator add(final CallGraphReportWriter.Hop caller) {
+        for (final CallGraphReportWriter.Hop callee : caller.getChildren()) {
+            final long duration = callee.getCallDuration();
+            if (duration >= 0) {
+                this.mEdges.computeIfAbsent(caller.getName() + " -> " + callee.getName(),
+                        k -> new Edge(caller.getName(), callee.getName())).add(duration);
+            }
+            this.add(callee);
+        }
+        return this;
+    }
+
+    /**
+     * Getter.
+     * @return edges, by caller and then callee.
+     */
+    public List<Edge> getEdges() {
+        return new ArrayList<>(this.mEdges.values());
+    }
+
+    /**
+     * Get report of every edge, slowest p99 first.
+     * @return report, for printing out.
+     */
+    public String getReport() {
+        final List<Edge> edges = this.getEdges();
+        edges.sort(Comparator.comparingLong((Edge e) -> e.getPercentile(99)).reversed());
+        final StringBuilder buf = new StringBuilder();
+        for (final Edge edge : edges) {
+            buf.append(edge).append('\n');
+        }
+        return buf.toString();
+    }
+
+    /**
+     * Call latencies between two components.
+     */
+    public static final class Edge {
+
+        /** Caller. */
+        private final String mCaller;
+
+        /** Callee. */
+        private final String mCallee;
+
+        /** Samples, in milliseconds. */
+        private long[] mSamples = new long[16];
+
+        /** Number of samples. */
+        private int mCount;
+
+        /** Whether the samples are sorted. */
+        private boolean mSorted = true;
+
+        /**
+         * Construct edge.
+         * @param caller caller.
+         * @param callee callee.
+         */
+        Edge(final String caller, final String callee) {
+            this.mCaller = caller;
+            this.mCallee = callee;
+        }
+
+        /**
+         * Add a sample.
+         * @param millis call duration.
+         */
+        void add(final long millis) {
+            if (this.mCount == this.mSamples.length) {
+                this.mSamples = Arrays.copyOf(this.mSamples, this.mCount * 2);
+            }
+            this.mSamples[this.mCount++] = millis;
+            this.mSorted = false;
+        }
+
+        /**
+         * Getter.
+         * @return caller.
+         */
+        public String getCaller() {
+            return this.mCaller;
+        }
+
+        /**
+         * Getter.
+         * @return callee.
+         */
+        public String getCallee() {
+            return this.mCallee;
+        }
+
+        /**
+         * Getter.
+         * @return number of calls.
+         */
+        public int getCount() {
+            return this.mCount;
+        }
+
+        /**
+         * Get a percentile, by nearest rank.
+         * @param percentile e.g. 50, 95 or 99.
+         * @return call duration in milliseconds.
+         */
+        public long getPercentile(final double percentile) {
+            if (!this.mSorted) {
+                Arrays.sort(this.mSamples, 0, this.mCount);
+                this.mSorted = true;
+            }
+            final int rank = (int) Math.ceil(percentile / 100.0 * this.mCount);
+            return this.mSamples[Math.min(this.mCount - 1, Math.max(0, rank - 1))];
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+            return this.mCaller + " -> " + this.mCallee
+                    + " count=" + this.mCount
+                    + " p50=" + this.getPercentile(50) + "ms"
+                    + " p95=" + this.getPercentile(95) + "ms"
+                    + " p99=" + this.getPercentile(99) + "ms";
+        }
+    }
+}
@@ -0,0 +1,291 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.logging.ref.slf4j.analysis;
+
+/**
+ * Multimap from IDs to longs (typically file offsets), held off-heap.
+ *
+ * <p>Each ID is stored as two longs: UUIDs by value, and anything else as
+ * a 128-bit hash, so callers must check what they find against the ID they
+ * asked for. Keys live in an open-addressing table of (high, low, last
+ * value) triples; values are chained backwards from the last one added.
+ * That's around 48 bytes per distinct ID and 16 bytes per value, against
+ * several hundred for a <tt>String</tt> key in a <tt>HashMap</tt>.</p>
+ *
+ * <p>Not thread-safe.</p>
+ */
+public class IdOffsetIndex {
+
+    /** Longs per table slot. */
+    private static final int SLOT = 3;
+
+    /** Longs per value. */
+    private static final int LINK = 2;
+
+    /** Keys: high, low, and 1 + the index of the key's last value, 0 if the slot's empty. */
+    private LongPages mTable;
+
+    /** Slots in the table, a power of two. */
+    private long mCapacity;
+
+    /** Values: the value, and 1 + the index of the previous value for the same key, or 0. */
+    private final LongPages mValues = new LongPages(0);
+
+    /** Distinct keys. */
+    private long mKeys;
+
+    /** Values. */
+    private long mSize;
+
+    /**
+     * Construct index.
+     */
+    public IdOffsetIndex() {
+        this(1024);
+    }
+
+    /**
+     * Construct index.
+     * @param expectedKeys expected number of distinct IDs.
+     */
+    public IdOffsetIndex(final long expectedKeys) {
+        this.mCapacity = Math.max(16L, Long.highestOneBit(Math.max(1L, expectedKeys) * 2 - 1) << 1);
+        this.mTable = new LongPages(this.mCapacity * SLOT);
+    }
+
+    /**
+     * Add a value.
+     * @param id ID, e.g. a RequestID.
+     * @param value value, e.g. a file offset.
+     */
+    public void add(final CharSequence id, final long value) {
+        this.add(high(id), low(id), value);
+    }
+
+    /**
+     * Add a value.
+     * @param high high bits of the ID.
+     * @param low low bits of the ID.
+     * @param value value.
+     */
+    public void add(final long high, final long low, final long value) {
+
+        if (this.mKeys * 2 >= this.mCapacity) {
+            this.resize();
+        }
+
+        final long valueIndex = this.mSize++;
+        this.mValues.ensure(this.mSize * LINK);
+        this.mValues.set(valueIndex * LINK, value);
+
+        final long slot = this.find(this.mTable, this.mCapacity, high, low);
+        final long base = slot * SLOT;
+        final long last = this.mTable.get(base + 2);
+        if (last == 0) {
+            this.mTable.set(base, high);
+            this.mTable.set(base + 1, low);
+            this.mKeys++;
+        }
+        this.mValues.set(valueIndex * LINK + 1, last);
+        this.mTable.set(base + 2, valueIndex + 1);
+    }
+
+    /**
+     * Get values.
+     * @param id ID.
+     * @return values, in the order they were added, possibly including
+     *     those for other IDs with the same hash.
+     */
+    public long[] get(final CharSequence id) {
+        return this.get(high(id), low(id));
+    }
+
+    /**
+     * Get values.
+     * @param high high bits of the ID.
+     * @param low low bits of the ID.
+     * @return values, in the order they were added.
+     */
+    public long[] get(final long high, final long low) {
+
+        long link = this.mTable.get(this.find(this.mTable, this.mCapacity, high, low) * SLOT + 2);
+
+        int count = 0;
+        for (long i = link; i != 0; i = this.mValues.get((i - 1) * LINK + 1)) {
+            count++;
+        }
+        final long[] values = new long[count];
+        while (link != 0) {
+            values[--count] = this.mValues.get((link - 1) * LINK);
+            link = this.mValues.get((link - 1) * LINK + 1);
+        }
+        return values;
+    }
+
+    /**
+     * Getter.
+     * @return number of distinct IDs.
+     */
+    public long getKeys() {
+        return this.mKeys;
+    }
+
+    /**
+     * Getter.
+     * @return number of values.
+     */
+    public long size() {
+        return this.mSize;
+    }
+
+    /**
+     * Getter.
+     * @return off-heap bytes allocated.
+     */
+    public long getBytes() {
+        return this.mTable.getBytes() + this.mValues.getBytes();
+    }
+
+    /**
+     * Find a key's slot, or the empty slot where it would go.
+     * @param table table.
+     * @param capacity slots in the table.
+     * @param high high bits.
+     * @param low low bits.
+     * @return slot.
+     */
+    private long find(final LongPages table, final long capacity, final long high, final long low) {
+        final long mask = capacity - 1;
+        long slot = mix(high ^ Long.rotateLeft(low, 32)) & mask;
+        while (true) {
+            final long base = slot * SLOT;
+            if (table.get(base + 2) == 0 || table.get(base) == high && table.get(base + 1) == low) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Double the table.
+     */
+    private void resize() {
+        final long capacity = this.mCapacity * 2;
+        final LongPages table = new LongPages(capacity * SLOT);
+        for (long slot = 0; slot < this.mCapacity; slot++) {
+            final long base = slot * SLOT;
+            final long last = this.mTable.get(base + 2);
+            if (last != 0) {
+                final long high = this.mTable.get(base);
+                final long low = this.mTable.get(base + 1);
+                final long target = this.find(table, capacity, high, low) * SLOT;
+                table.set(target, high);
+                table.set(target + 1, low);
+                table.set(target + 2, last);
+            }
+        }
+        this.mTable = table;
+        this.mCapacity = capacity;
+    }
+
+    /**
+     * Get the high bits of an ID.
+     * @param id ID.
+     * @return most significant bits of a UUID, or a hash.
+     */
+    static long high(final CharSequence id) {
+        return isUUID(id) ? hex(id, 0, 8) << 32 | hex(id, 9, 13) << 16 | hex(id, 14, 18) : hash(id, 0xcbf29ce484222325L);
+    }
+
+    /**
+     * Get the low bits of an ID.
+     * @param id ID.
+     * @return least significant bits of a UUID, or a hash.
+     */
+    static long low(final CharSequence id) {
+        return isUUID(id) ? hex(id, 19, 23) << 48 | hex(id, 24, 36) : hash(id, 0x84222325cbf29ce4L);
+    }
+
+    /**
+     * Check for a canonical UUID.
+     * @param id ID.
+     * @return true if the ID has the form xxxxxxxx-xxxx-xxxx-xxxx-xxxxxxxxxxxx.
+     */
+    private static boolean isUUID(final CharSequence id) {
+        if (id.length() != 36) {
+            return false;
+        }
+        for (int i = 0; i < 36; i++) {
+            final char c = id.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return false;
+                }
+            }
+            else if (Character.digit(c, 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parse hex digits, already validated.
+     * @param id ID.
+     * @param start first digit.
+     * @param end end, exclusive.
+     * @return value.
+     */
+    private static long hex(final CharSequence id, final int start, final int end) {
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            value = value << 4 | Character.digit(id.charAt(i), 16);
+        }
+        return value;
+    }
+
+    /**
+     * Hash an ID which isn't a UUID.
+     * @param id ID.
+     * @param seed seed.
+     * @return hash.
+     */
+    private static long hash(final CharSequence id, final long seed) {
+        long h = seed;
+        for (int i = 0; i < id.length(); i++) {
+            h = (h ^ id.charAt(i)) * 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    /**
+     * Finalize a hash, per MurmurHash3's fmix64.
+     * @param h hash.
+     * @return mixed hash.
+     */
+    private static long mix(final long h) {
+        long k = h;
+        k = (k ^ (k >>> 33)) * 0xff51afd7ed558ccdL;
+        k = (k ^ (k >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return k ^ (k >>> 33);
+    }
+}
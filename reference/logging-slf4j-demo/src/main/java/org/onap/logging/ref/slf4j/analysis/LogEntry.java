@@ -0,0 +1,650 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.ref.slf4j.analysis;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.slf4j.event.Level;
+
+/**
+ * One line of a beats-format log, as written by the reference logback
+ * configuration:
+ *
+ * <pre>
+ * timestamp \t thread \t level \t logger \t MDCs \t message \t exception \t markers \t
+ * </pre>
+ *
+ * <p>Only the field boundaries are found up front. Each field is decoded
+ * the first time it's asked for, so that entries read from a
+ * memory-mapped file cost little more than their offsets until
+ * they're actually used. The MDC lookups behind {@link #getRequestID()}
+ * and {@link #getInvocationID()} don't build the MDC map. The timestamp
+ * and level are checked, without decoding, when the entry is
+ * constructed, so that their getters don't fail later.</p>
+ */
+public class LogEntry {
+
+    /** Number of tab-separated fields. */
+    private static final int FIELDS = 8;
+
+    /** Field index. */
+    private static final int TIMESTAMP = 0;
+
+    /** Field index. */
+    private static final int THREAD = 1;
+
+    /** Field index. */
+    private static final int LEVEL = 2;
+
+    /** Field index. */
+    private static final int LOGGER = 3;
+
+    /** Field index. */
+    private static final int MDCS = 4;
+
+    /** Field index. */
+    private static final int MESSAGE = 5;
+
+    /** Field index. */
+    private static final int EXCEPTION = 6;
+
+    /** Field index. */
+    private static final int MARKERS = 7;
+
+    /** Values of the level field. */
+    private static final String[] LEVELS = {"ERROR", "WARN", "INFO", "DEBUG", "TRACE"};
+
+    /** Line bytes; shared with every other entry read from the same region. */
+    private final ByteBuffer mBuffer;
+
+    /** Offset of each field in {@link #mBuffer}, plus the end of the last. */
+    private final int[] mFields;
+
+    /** Offset of the line in its file, or -1 when not read from a file. */
+    private final long mFileOffset;
+
+    /** Lazily-decoded property. */
+    private Date mTimestamp;
+
+    /** Lazily-decoded property. */
+    private String mThread;
+
+    /** Lazily-decoded property. */
+    private Level mLevel;
+
+    /** Lazily-decoded property. */
+    private String mLogger;
+
+    /** Lazily-decoded property. */
+    private String mMessage;
+
+    /** Lazily-decoded property. */
+    private String mException;
+
+    /** Lazily-decoded property. */
+    private Map<String, String> mMDCs;
+
+    /** Lazily-decoded property. */
+    private String mMarkers;
+
+    /** Lazily-decoded property. */
+    private String mRequestID;
+
+    /** Lazily-decoded property. */
+    private String mInvocationID;
+
+    /**
+     * Construct from log line.
+     * @param line to be parsed.
+     */
+    public LogEntry(final String line) {
+        this(ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Construct from a buffer holding exactly one line.
+     * @param line to be parsed.
+     */
+    private LogEntry(final ByteBuffer line) {
+        this(line, 0, line.limit(), -1);
+    }
+
+    /**
+     * Construct from a line within a buffer, typically a mapped region
+     * of a logfile.
+     * @param buffer containing the line; not modified.
+     * @param offset of the line within the buffer.
+     * @param length of the line, excluding its line terminator.
+     * @param fileOffset of the line within its file, or -1.
+     */
+    public LogEntry(final ByteBuffer buffer, final int offset, final int length, final long fileOffset) {
+
+        this.mBuffer = buffer;
+        this.mFileOffset = fileOffset;
+        this.mFields = new int[FIELDS + 1];
+
+        int field = 0;
+        final int end = offset + length;
+        this.mFields[field++] = offset;
+        for (int i = offset; i < end && field <= FIELDS; i++) {
+            if (buffer.get(i) == '\t') {
+                this.mFields[field++] = i + 1;
+            }
+        }
+
+        if (field < FIELDS) {
+            throw new IllegalArgumentException("Unsupported line (expected 8+ tokens, got "
+                    + field + "): " + decode(buffer, offset, end));
+        }
+        if (field == FIELDS) {
+            // no trailing tab; the markers run to the end of the line
+            this.mFields[FIELDS] = trimLineEnd(buffer, offset, end) + 2;
+        }
+        if (!isTimestamp(buffer, this.mFields[TIMESTAMP], this.mFields[TIMESTAMP + 1] - 1)
+                || !isLevel(buffer, this.mFields[LEVEL], this.mFields[LEVEL + 1] - 1)) {
+            throw new IllegalArgumentException("Unsupported line (bad timestamp or level): "
+                    + decode(buffer, offset, end));
+        }
+    }
+
+    /**
+     * Parse serialized MDCs.
+     * @param mdc serialized DMC map.
+     * @return parsed.
+     */
+    static Map<String, String> parseMDCs(final String mdc) {
+
+        final Map<String, String> mdcs = new HashMap<>();
+        for (final String token : mdc.split(",")) {
+            final String[] mdcTokens = token.split("=");
+            if (mdcTokens.length == 2) {
+                mdcs.put(StringUtils.trim(mdcTokens[0]), StringUtils.trim(mdcTokens[1]));
+            }
+        }
+        return Collections.unmodifiableMap(mdcs);
+    }
+
+    /**
+     * Parse a beats timestamp, which is ISO8601 with or without an offset.
+     * @param timestamp serialized timestamp.
+     * @return parsed.
+     */
+    static Date parseTimestamp(final String timestamp) {
+        try {
+            return Date.from(OffsetDateTime.parse(timestamp).toInstant());
+        }
+        catch (final DateTimeParseException e) {
+            return Date.from(LocalDateTime.parse(timestamp).toInstant(ZoneOffset.UTC));
+        }
+    }
+
+    /**
+     * Getter.
+     * @return offset of this line within its file, or -1 if it wasn't read from a file.
+     */
+    public long getFileOffset() {
+        return this.mFileOffset;
+    }
+
+    /**
+     * Getter.
+     * @return property.
+     */
+    public Date getTimestamp() {
+        if (this.mTimestamp == null) {
+            this.mTimestamp = parseTimestamp(this.field(TIMESTAMP));
+        }
+        return this.mTimestamp;
+    }
+
+    /**
+     * Getter.
+     * @return property.
+     */
+    public String getThread() {
+        if (this.mThread == null) {
+            this.mThread = this.field(THREAD);
+        }
+        return this.mThread;
+    }
+
+    /**
+     * Getter.
+     * @return property.
+     */
+    public Level getLevel() {
+        if (this.mLevel == null) {
+            this.mLevel = Level.valueOf(this.field(LEVEL).trim());
+        }
+        return this.mLevel;
+    }
+
+    /**
+     * Getter.
+     * @return property.
+     */
+    public String getLogger() {
+        if (this.mLogger == null) {
+            this.mLogger = this.field(LOGGER);
+        }
+        return this.mLogger;
+    }
+
+    /**
+     * Getter.
+     * @return property.
+     */
+    public String getMessage() {
+        if (this.mMessage == null) {
+            this.mMessage = this.field(MESSAGE);
+        }
+        return this.mMessage;
+    }
+
+    /**
+     * Getter.
+     * @return property.
+     */
+    public String getException() {
+        if (this.mException == null) {
+            this.mException = this.field(EXCEPTION);
+        }
+        return this.mException;
+    }
+
+    /**
+     * Getter.
+     * @return property.
+     */
+    public Map<String, String> getMDCs() {
+        if (this.mMDCs == null) {
+            this.mMDCs = parseMDCs(this.field(MDCS));
+        }
+        return this.mMDCs;
+    }
+
+    /**
+     * Get a single MDC value, without parsing the others.
+     * @param key MDC key.
+     * @return value, or null if absent.
+     */
+    public String getMDC(final String key) {
+
+        if (this.mMDCs != null) {
+            return this.mMDCs.get(key);
+        }
+
+        // Same semantics as parseMDCs: comma-separated, exactly one '=', trimmed.
+
+        final int end = this.mFields[MDCS + 1] - 1;
+        int tokenStart = this.mFields[MDCS];
+        while (tokenStart <= end) {
+            int tokenEnd = tokenStart;
+            int equals = -1;
+            int equalsCount = 0;
+            while (tokenEnd < end && this.mBuffer.get(tokenEnd) != ',') {
+                if (this.mBuffer.get(tokenEnd) == '=') {
+                    equals = tokenEnd;
+                    equalsCount++;
+                }
+                tokenEnd++;
+            }
+            if (equalsCount == 1 && this.matches(key, tokenStart, equals)) {
+                final String value = decode(this.mBuffer, equals + 1, tokenEnd).trim();
+                return value.isEmpty() && equals + 1 == tokenEnd ? null : value;
+            }
+            tokenStart = tokenEnd + 1;
+        }
+        return null;
+    }
+
+    /**
+     * Getter.
+     * @return property.
+     */
+    public String getMarkers() {
+        if (this.mMarkers == null) {
+            this.mMarkers = this.field(MARKERS);
+        }
+        return this.mMarkers;
+    }
+
+    /**
+     * Getter.
+     * @return property.
+     */
+    public String getRequestID() {
+        if (this.mRequestID == null) {
+            this.mRequestID = this.getMDC("RequestID");
+        }
+        return this.mRequestID;
+    }
+
+    /**
+     * Getter.
+     * @return property.
+     */
+    public String getInvocationID() {
+        if (this.mInvocationID == null) {
+            this.mInvocationID = this.getMDC("InvocationID");
+        }
+        return this.mInvocationID;
+    }
+
+    /**
+     * Getter.
+     * @return property.
+     */
+    public String getPartnerName() {
+        return this.getMDC("PartnerName");
+    }
+
+    /**
+     * Getter.
+     * @return property.
+     */
+    public String getInvokingID() {
+        if (StringUtils.defaultString(this.getMarkers()).startsWith("INVOKE") && !this.isInvokeReturn()) {
+            return this.getMessage();
+        }
+        return null;
+    }
+
+    /**
+     * Check for an INVOKE_RETURN record, or the filters' INVOKE-RETURN.
+     * @return true if this records the return from an invocation.
+     */
+    public boolean isInvokeReturn() {
+        final String markers = StringUtils.defaultString(this.getMarkers());
+        return markers.startsWith("INVOKE_RETURN") || markers.startsWith("INVOKE-RETURN");
+    }
+
+    /**
+     * Getter.
+     * @return property.
+     */
+    public String toShortString() {
+        final StringBuilder buf = new StringBuilder();
+        buf.append("LogEntry(markers=").append(StringUtils.defaultString(this.getMarkers()));
+        buf.append(", logger=").append(this.getLogger().substring(1 + this.getLogger().lastIndexOf(".")));
+        if (StringUtils.isNotBlank(this.getRequestID())) {
+            buf.append(", requestID=[...]").append(StringUtils.right(this.getRequestID(), 8));
+        }
+        if (StringUtils.isNotBlank(this.getInvocationID())) {
+            buf.append(", invocationID=[...]").append(StringUtils.right(this.getInvocationID(), 8));
+        }
+        if (StringUtils.isNotBlank(this.getInvokingID())) {
+            buf.append(", invokingID=[...]").append(StringUtils.right(this.getInvokingID(), 8));
+        }
+
+        final Instant timestamp = this.getTimestamp().toInstant();
+        buf.append(", timestamp=").append(OffsetDateTime.ofInstant(timestamp, ZoneId.systemDefault()));
+        return buf.append(")").toString();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("timestamp", this.getTimestamp())
+                .append("thread", this.getThread())
+                .append("level", this.getLevel())
+                .append("logger", this.getLogger())
+                .append("MDCs", this.getMDCs())
+                .append("message", this.getMessage())
+                .append("exception", this.getException())
+                .append("markers", this.getMarkers())
+                .toString();
+    }
+
+    /**
+     * Decode a field.
+     * @param field index.
+     * @return field value.
+     */
+    private String field(final int field) {
+        return decode(this.mBuffer, this.mFields[field], this.mFields[field + 1] - 1);
+    }
+
+    /**
+     * Check whether a (trimmed) ASCII key is in the buffer at the specified range.
+     * @param key MDC key.
+     * @param from start of the range.
+     * @param to end of the range, exclusive.
+     * @return true if they match.
+     */
+    private boolean matches(final String key, final int from, final int to) {
+        int start = from;
+        int end = to;
+        while (start < end && this.mBuffer.get(start) <= ' ') {
+            start++;
+        }
+        while (end > start && this.mBuffer.get(end - 1) <= ' ') {
+            end--;
+        }
+        if (end - start != key.length()) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (this.mBuffer.get(start + i) != key.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check, without decoding, that {@link #parseTimestamp(String)} can parse
+     * a field: <tt>yyyy-MM-ddTHH:mm[:ss[.fraction]]</tt>, then <tt>Z</tt>,
+     * <tt>&#177;HH:MM[:ss]</tt> or nothing.
+     * @param buffer line buffer.
+     * @param from field start.
+     * @param to field end, exclusive.
+     * @return true if the timestamp is valid.
+     */
+    static boolean isTimestamp(final ByteBuffer buffer, final int from, final int to) {
+
+        if (to - from < 16 || buffer.get(from + 4) != '-' || buffer.get(from + 7) != '-'
+                || buffer.get(from + 10) != 'T' || buffer.get(from + 13) != ':') {
+            return false;
+        }
+        final int year = digits(buffer, from, 4);
+        final int month = digits(buffer, from + 5, 2);
+        final int day = digits(buffer, from + 8, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)
+                || !inRange(digits(buffer, from + 11, 2), 23) || !inRange(digits(buffer, from + 14, 2), 59)) {
+            return false;
+        }
+
+        int i = from + 16;
+        if (i < to && buffer.get(i) == ':') {
+            if (i + 3 > to || !inRange(digits(buffer, i + 1, 2), 59)) {
+                return false;
+            }
+            i += 3;
+            if (i < to && buffer.get(i) == '.') {
+                final int fraction = ++i;
+                while (i < to && i - fraction < 9 && isDigit(buffer.get(i))) {
+                    i++;
+                }
+            }
+        }
+
+        if (i == to || buffer.get(i) == 'Z' && i + 1 == to) {
+            return true;
+        }
+        if (buffer.get(i) != '+' && buffer.get(i) != '-' || i + 6 > to || buffer.get(i + 3) != ':') {
+            return false;
+        }
+        final int hours = digits(buffer, i + 1, 2);
+        final int minutes = digits(buffer, i + 4, 2);
+        int seconds = 0;
+        if (i + 6 < to) {
+            if (i + 9 != to || buffer.get(i + 6) != ':') {
+                return false;
+            }
+            seconds = digits(buffer, i + 7, 2);
+        }
+        return inRange(hours, 18) && inRange(minutes, 59) && inRange(seconds, 59)
+                && (hours < 18 || minutes == 0 && seconds == 0);
+    }
+
+    /**
+     * Check, without decoding, that {@link #getLevel()} can parse a field.
+     * @param buffer line buffer.
+     * @param from field start.
+     * @param to field end, exclusive.
+     * @return true if the (trimmed) field names a level.
+     */
+    static boolean isLevel(final ByteBuffer buffer, final int from, final int to) {
+        int start = from;
+        int end = to;
+        while (start < end && buffer.get(start) <= ' ') {
+            start++;
+        }
+        while (end > start && buffer.get(end - 1) <= ' ') {
+            end--;
+        }
+        for (final String level : LEVELS) {
+            if (end - start == level.length()) {
+                int i = 0;
+                while (i < level.length() && buffer.get(start + i) == level.charAt(i)) {
+                    i++;
+                }
+                if (i == level.length()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Read decimal digits.
+     * @param buffer source.
+     * @param from start offset.
+     * @param count number of digits.
+     * @return value, or -1 if they aren't all digits.
+     */
+    private static int digits(final ByteBuffer buffer, final int from, final int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            final byte b = buffer.get(i);
+            if (!isDigit(b)) {
+                return -1;
+            }
+            value = value * 10 + b - '0';
+        }
+        return value;
+    }
+
+    /**
+     * Check for an ASCII digit.
+     * @param b byte.
+     * @return true if it's a digit.
+     */
+    private static boolean isDigit(final byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    /**
+     * Check a parsed value.
+     * @param value from {@link #digits(ByteBuffer, int, int)}.
+     * @param max largest valid value.
+     * @return true if it's between 0 and max.
+     */
+    private static boolean inRange(final int value, final int max) {
+        return value >= 0 && value <= max;
+    }
+
+    /**
+     * Length of a month.
+     * @param year year.
+     * @param month 1-12.
+     * @return number of days.
+     */
+    private static int daysInMonth(final int year, final int month) {
+        switch (month) {
+            case 2:
+                return year % 4 == 0 && (year % 100 != 0 || year % 400 == 0) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * Find the end of a line's content, ignoring any CR.
+     * @param buffer line buffer.
+     * @param offset line start.
+     * @param end line end, exclusive.
+     * @return offset of the last content byte.
+     */
+    private static int trimLineEnd(final ByteBuffer buffer, final int offset, final int end) {
+        int last = end - 1;
+        while (last >= offset && (buffer.get(last) == '\r' || buffer.get(last) == '\n')) {
+            last--;
+        }
+        return last;
+    }
+
+    /**
+     * Decode UTF-8 bytes.
+     * @param buffer source.
+     * @param from start offset.
+     * @param to end offset, exclusive.
+     * @return decoded.
+     */
+    private static String decode(final ByteBuffer buffer, final int from, final int to) {
+        if (to <= from) {
+            return "";
+        }
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + from, to - from, StandardCharsets.UTF_8);
+        }
+        final byte[] bytes = new byte[to - from];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(from + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
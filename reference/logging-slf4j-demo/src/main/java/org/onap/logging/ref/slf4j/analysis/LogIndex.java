@@ -0,0 +1,215 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.logging.ref.slf4j.analysis;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Index of RequestIDs and InvocationIDs over any number of logfiles,
+ * for analysis of more logs than would fit in memory as {@link LogEntry}
+ * objects.
+ *
+ * <p>Only IDs and file offsets are retained, off-heap, in
+ * {@link IdOffsetIndex}es. Lookups re-read the matching lines from disk,
+ * so a request's call graph can be rebuilt with {@link #analyze(String)}
+ * from a week of logs.</p>
+ *
+ * <p>Not thread-safe.</p>
+ */
+public class LogIndex {
+
+    /** Bits of each reference which hold the file offset; the rest hold the file's position. */
+    private static final int OFFSET_BITS = 40;
+
+    /** Initial read size, when re-reading a line. */
+    private static final int LINE_BUFFER_SIZE = 4096;
+
+    /** Indexed files, in order. */
+    private final List<Path> mFiles = new ArrayList<>();
+
+    /** Line references by RequestID. */
+    private final IdOffsetIndex mByRequestID = new IdOffsetIndex();
+
+    /** Line references by InvocationID. */
+    private final IdOffsetIndex mByInvocationID = new IdOffsetIndex();
+
+    /** Lines read while indexing. */
+    private long mLines;
+
+    /**
+     * Index a logfile.
+     * @param file beats-format logfile, smaller than 1TB.
+     * @return this.
+     * @throws IOException on read failure.
+     */
+    public LogIndex add(final Path file) throws IOException {
+
+        if (this.mFiles.size() >= 1 << (Long.SIZE - 1 - OFFSET_BITS)) {
+            throw new IllegalStateException("Too many files");
+        }
+
+        final long fileBits = (long) this.mFiles.size() << OFFSET_BITS;
+        this.mFiles.add(file);
+
+        final BeatsLogReader reader = new BeatsLogReader();
+        reader.read(file, entry -> {
+            final long ref = fileBits | entry.getFileOffset();
+            final String requestID = entry.getRequestID();
+            if (StringUtils.isNotBlank(requestID)) {
+                this.mByRequestID.add(requestID, ref);
+            }
+            final String invocationID = entry.getInvocationID();
+            if (StringUtils.isNotBlank(invocationID)) {
+                this.mByInvocationID.add(invocationID, ref);
+            }
+        });
+        this.mLines += reader.getLines();
+        return this;
+    }
+
+    /**
+     * Find every entry for a request.
+     * @param requestID RequestID.
+     * @return entries, in file order.
+     * @throws IOException on read failure.
+     */
+    public List<LogEntry> findByRequestID(final String requestID) throws IOException {
+        return this.load(this.mByRequestID.get(requestID), requestID, LogEntry::getRequestID);
+    }
+
+    /**
+     * Find every entry for an invocation.
+     * @param invocationID InvocationID.
+     * @return entries, in file order.
+     * @throws IOException on read failure.
+     */
+    public List<LogEntry> findByInvocationID(final String invocationID) throws IOException {
+        return this.load(this.mByInvocationID.get(invocationID), invocationID, LogEntry::getInvocationID);
+    }
+
+    /**
+     * Build the call graph of a request.
+     * @param requestID RequestID.
+     * @return analyzer over the request's entries.
+     * @throws IOException on read failure.
+     */
+    public CallGraphAnalyzer analyze(final String requestID) throws IOException {
+        final CallGraphAnalyzer analyzer = new CallGraphAnalyzer();
+        for (final LogEntry entry : this.findByRequestID(requestID)) {
+            analyzer.add(entry);
+        }
+        return analyzer;
+    }
+
+    /**
+     * Getter.
+     * @return number of lines indexed.
+     */
+    public long getLines() {
+        return this.mLines;
+    }
+
+    /**
+     * Getter.
+     * @return off-heap bytes allocated for the indexes.
+     */
+    public long getBytes() {
+        return this.mByRequestID.getBytes() + this.mByInvocationID.getBytes();
+    }
+
+    /**
+     * Re-read lines, discarding those whose ID only shares a hash.
+     * @param refs line references.
+     * @param id expected ID.
+     * @param getter ID getter.
+     * @return entries.
+     * @throws IOException on read failure.
+     */
+    private List<LogEntry> load(final long[] refs, final String id,
+            final Function<LogEntry, String> getter) throws IOException {
+
+        final List<LogEntry> entries = new ArrayList<>(refs.length);
+        FileChannel channel = null;
+        int open = -1;
+        try {
+            for (final long ref : refs) {
+                final int file = (int) (ref >>> OFFSET_BITS);
+                if (file != open) {
+                    if (channel != null) {
+                        channel.close();
+                    }
+                    channel = FileChannel.open(this.mFiles.get(file), StandardOpenOption.READ);
+                    open = file;
+                }
+                final LogEntry entry = readLine(channel, ref & ((1L << OFFSET_BITS) - 1));
+                if (id.equals(getter.apply(entry))) {
+                    entries.add(entry);
+                }
+            }
+        }
+        finally {
+            if (channel != null) {
+                channel.close();
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Read the line at an offset.
+     * @param channel logfile.
+     * @param offset line start.
+     * @return entry, holding its own copy of the line.
+     * @throws IOException on read failure.
+     */
+    private static LogEntry readLine(final FileChannel channel, final long offset) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(LINE_BUFFER_SIZE);
+        int scanned = 0;
+        while (true) {
+            final int read = channel.read(buffer, offset + buffer.position());
+            for (int i = scanned; i < buffer.position(); i++) {
+                if (buffer.get(i) == '\n') {
+                    return new LogEntry(buffer, 0, i, offset);
+                }
+            }
+            scanned = buffer.position();
+            if (read < 0) {
+                return new LogEntry(buffer, 0, scanned, offset);
+            }
+            if (!buffer.hasRemaining()) {
+                final ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+                buffer.flip();
+                larger.put(buffer);
+                buffer = larger;
+            }
+        }
+    }
+}
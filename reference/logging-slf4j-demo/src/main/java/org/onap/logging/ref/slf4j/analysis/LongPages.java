@@ -0,0 +1,96 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.logging.ref.slf4j.analysis;
+
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+/**
+ * A long-indexed array of longs, held off-heap in fixed-size pages so that
+ * it can grow past the limits of a single array or buffer without copying.
+ * New elements are zero.
+ */
+final class LongPages {
+
+    /** Log2 of the longs per page: 1MB pages. */
+    private static final int PAGE_SHIFT = 17;
+
+    /** Longs per page. */
+    private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+
+    /** Index mask within a page. */
+    private static final long PAGE_MASK = PAGE_SIZE - 1;
+
+    /** Pages. */
+    private LongBuffer[] mPages = new LongBuffer[16];
+
+    /** Pages allocated. */
+    private int mPageCount;
+
+    /**
+     * Construct array.
+     * @param size initial capacity, in longs.
+     */
+    LongPages(final long size) {
+        this.ensure(size);
+    }
+
+    /**
+     * Grow to at least the specified capacity.
+     * @param size capacity, in longs.
+     */
+    void ensure(final long size) {
+        while ((long) this.mPageCount << PAGE_SHIFT < size) {
+            if (this.mPageCount == this.mPages.length) {
+                this.mPages = Arrays.copyOf(this.mPages, this.mPageCount * 2);
+            }
+            this.mPages[this.mPageCount++] = ByteBuffer.allocateDirect(PAGE_SIZE * Long.BYTES).asLongBuffer();
+        }
+    }
+
+    /**
+     * Get an element.
+     * @param index index.
+     * @return value.
+     */
+    long get(final long index) {
+        return this.mPages[(int) (index >>> PAGE_SHIFT)].get((int) (index & PAGE_MASK));
+    }
+
+    /**
+     * Set an element.
+     * @param index index, within capacity.
+     * @param value value.
+     */
+    void set(final long index, final long value) {
+        this.mPages[(int) (index >>> PAGE_SHIFT)].put((int) (index & PAGE_MASK), value);
+    }
+
+    /**
+     * Getter.
+     * @return off-heap bytes allocated.
+     */
+    long getBytes() {
+        return ((long) this.mPageCount << PAGE_SHIFT) * Long.BYTES;
+    }
+}
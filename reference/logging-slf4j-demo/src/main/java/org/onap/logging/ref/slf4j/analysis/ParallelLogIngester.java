@@ -0,0 +1,236 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.logging.ref.slf4j.analysis;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Builds call graphs from many logfiles at once, e.g. the per-component
+ * beats logs which together hold an ONAP transaction.
+ *
+ * <p>Files are split into byte ranges, which are parsed in parallel by a
+ * {@link ForkJoinPool}. Each range yields a partial graph per RequestID,
+ * and partial graphs are merged pairwise as the tasks join, so that every
+ * RequestID ends up with one {@link CallGraphAnalyzer} over all of its
+ * entries, in the order of the files and then of their offsets.</p>
+ *
+ * <p>Entries without a RequestID can't be attributed to a graph, and are
+ * dropped.</p>
+ */
+public class ParallelLogIngester {
+
+    /** Default byte range per task. */
+    public static final long DEFAULT_CHUNK_SIZE = 32L * 1024L * 1024L;
+
+    /** Pool. */
+    private final ForkJoinPool mPool;
+
+    /** Byte range per task. */
+    private final long mChunkSize;
+
+    /** Lines parsed. */
+    private final LongAdder mLines = new LongAdder();
+
+    /** Lines that couldn't be parsed. */
+    private final LongAdder mSkipped = new LongAdder();
+
+    /**
+     * Construct ingester on the common pool, with the default chunk size.
+     */
+    public ParallelLogIngester() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Construct ingester.
+     * @param pool pool.
+     * @param chunkSize byte range per task.
+     */
+    public ParallelLogIngester(final ForkJoinPool pool, final long chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.mPool = pool;
+        this.mChunkSize = chunkSize;
+    }
+
+    /**
+     * Read and analyze logfiles.
+     * @param files beats-format logfiles.
+     * @return graphs by RequestID.
+     * @throws IOException on read failure.
+     */
+    public Map<String, CallGraphAnalyzer> ingest(final List<Path> files) throws IOException {
+
+        final List<Chunk> chunks = new ArrayList<>();
+        for (final Path file : files) {
+            final long size = Files.size(file);
+            for (long start = 0; start < size; start += this.mChunkSize) {
+                chunks.add(new Chunk(file, start, Math.min(size, start + this.mChunkSize)));
+            }
+        }
+        if (chunks.isEmpty()) {
+            return new HashMap<>();
+        }
+
+        try {
+            return this.mPool.invoke(new IngestTask(chunks, 0, chunks.size()));
+        }
+        catch (final UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Getter.
+     * @return number of lines parsed so far.
+     */
+    public long getLines() {
+        return this.mLines.sum();
+    }
+
+    /**
+     * Getter.
+     * @return number of lines so far that couldn't be parsed, and were ignored.
+     */
+    public long getSkipped() {
+        return this.mSkipped.sum();
+    }
+
+    /**
+     * Read one byte range.
+     * @param chunk range.
+     * @return partial graphs by RequestID.
+     * @throws IOException on read failure.
+     */
+    private Map<String, CallGraphAnalyzer> read(final Chunk chunk) throws IOException {
+        final Map<String, CallGraphAnalyzer> graphs = new HashMap<>();
+        final BeatsLogReader reader = new BeatsLogReader();
+        try (final FileChannel channel = FileChannel.open(chunk.mFile, StandardOpenOption.READ)) {
+            reader.read(channel, chunk.mStart, chunk.mEnd, entry -> {
+                final String requestID = entry.getRequestID();
+                if (StringUtils.isNotBlank(requestID)) {
+                    graphs.computeIfAbsent(requestID, k -> new CallGraphAnalyzer()).add(entry);
+                }
+            });
+        }
+        this.mLines.add(reader.getLines());
+        this.mSkipped.add(reader.getSkipped());
+        return graphs;
+    }
+
+    /**
+     * Byte range of one file.
+     */
+    private static final class Chunk {
+
+        /** File. */
+        private final Path mFile;
+
+        /** First byte. */
+        private final long mStart;
+
+        /** End, exclusive. */
+        private final long mEnd;
+
+        /**
+         * Construct range.
+         * @param file file.
+         * @param start first byte.
+         * @param end end, exclusive.
+         */
+        Chunk(final Path file, final long start, final long end) {
+            this.mFile = file;
+            this.mStart = start;
+            this.mEnd = end;
+        }
+    }
+
+    /**
+     * Reads a run of chunks, splitting it in half until there's one each.
+     */
+    private final class IngestTask extends RecursiveTask<Map<String, CallGraphAnalyzer>> {
+
+        /** Serialization. */
+        private static final long serialVersionUID = 1L;
+
+        /** All chunks. */
+        private final List<Chunk> mChunks;
+
+        /** First chunk. */
+        private final int mFrom;
+
+        /** End, exclusive. */
+        private final int mTo;
+
+        /**
+         * Construct task.
+         * @param chunks all chunks.
+         * @param from first chunk.
+         * @param to end, exclusive.
+         */
+        IngestTask(final List<Chunk> chunks, final int from, final int to) {
+            this.mChunks = chunks;
+            this.mFrom = from;
+            this.mTo = to;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected Map<String, CallGraphAnalyzer> compute() {
+
+            if (this.mTo - this.mFrom == 1) {
+                try {
+                    return ParallelLogIngester.this.read(this.mChunks.get(this.mFrom));
+                }
+                catch (final IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            final int middle = (this.mFrom + this.mTo) >>> 1;
+            final IngestTask right = new IngestTask(this.mChunks, middle, this.mTo);
+            right.fork();
+            final Map<String, CallGraphAnalyzer> graphs = new IngestTask(this.mChunks, this.mFrom, middle).compute();
+            for (final Map.Entry<String, CallGraphAnalyzer> e : right.join().entrySet()) {
+                graphs.merge(e.getKey(), e.getValue(), CallGraphAnalyzer::merge);
+            }
+            return graphs;
+        }
+    }
+}
@@ -0,0 +1,493 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.logging.ref.slf4j.analysis;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Incremental counterpart to {@link CallGraphAnalyzer}, for logs which are
+ * still being written.
+ *
+ * <p>ENTRY, INVOKE and EXIT records are linked into spans as they arrive,
+ * and a transaction's tree is handed on as soon as its root's EXIT is seen.
+ * Nothing else is retained: completed trees are forgotten, and trees which
+ * go quiet for longer than the timeout, or which push the number of
+ * retained spans over the limit, are evicted least recently active first.</p>
+ *
+ * <p>Time is taken from the log records, not the clock, so that replaying
+ * an old logfile evicts the same trees as tailing it would have. Call
+ * {@link #expire(long)} during quiet periods, and {@link #flush()} at the
+ * end of input.</p>
+ *
+ * <p>Not thread-safe.</p>
+ */
+public class StreamingCallGraphBuilder implements Consumer<LogEntry> {
+
+    /** Default timeout, in milliseconds. */
+    public static final long DEFAULT_TIMEOUT_MILLIS = 5L * 60L * 1000L;
+
+    /** Default limit on retained spans. */
+    public static final int DEFAULT_MAX_SPANS = 100_000;
+
+    /** Receives completed trees. */
+    private final Consumer<Span> mCompleted;
+
+    /** Receives evicted, incomplete trees. */
+    private final Consumer<Span> mEvicted;
+
+    /** Timeout, in milliseconds. */
+    private final long mTimeoutMillis;
+
+    /** Limit on retained spans. */
+    private final int mMaxSpans;
+
+    /** Roots of incomplete trees by InvocationID, least recently active first. */
+    private final LinkedHashMap<String, Span> mTrees = new LinkedHashMap<>(64, 0.75f, true);
+
+    /** Every span in an incomplete tree, by InvocationID. */
+    private final Map<String, Span> mSpans = new HashMap<>();
+
+    /** Spans which have invoked an InvocationID whose ENTRY hasn't been seen, by that ID. */
+    private final Map<String, Span> mPending = new HashMap<>();
+
+    /** Latest record timestamp seen. */
+    private long mNow = Long.MIN_VALUE;
+
+    /** Count of trees completed. */
+    private long mCompletedCount;
+
+    /** Count of trees evicted. */
+    private long mEvictedCount;
+
+    /** Count of records which couldn't be linked. */
+    private long mUnmatchedCount;
+
+    /**
+     * Construct builder with default limits, discarding evicted trees.
+     * @param completed receives completed trees.
+     */
+    public StreamingCallGraphBuilder(final Consumer<Span> completed) {
+        this(completed, t -> { }, DEFAULT_TIMEOUT_MILLIS, DEFAULT_MAX_SPANS);
+    }
+
+    /**
+     * Construct builder.
+     * @param completed receives completed trees.
+     * @param evicted receives incomplete trees as they're evicted.
+     * @param timeoutMillis how long a tree may go without activity.
+     * @param maxSpans limit on spans retained across all incomplete trees.
+     */
+    public StreamingCallGraphBuilder(final Consumer<Span> completed,
+                                     final Consumer<Span> evicted,
+                                     final long timeoutMillis,
+                                     final int maxSpans) {
+        if (timeoutMillis <= 0 || maxSpans <= 0) {
+            throw new IllegalArgumentException("Limits must be positive");
+        }
+        this.mCompleted = completed;
+        this.mEvicted = evicted;
+        this.mTimeoutMillis = timeoutMillis;
+        this.mMaxSpans = maxSpans;
+    }
+
+    /**
+     * Consume the next record.
+     * @param entry record, ignored if it has no markers or InvocationID.
+     */
+    @Override
+    public void accept(final LogEntry entry) {
+
+        final String markers = entry.getMarkers();
+        final String invocationID = entry.getInvocationID();
+        if (StringUtils.isBlank(markers) || StringUtils.isBlank(invocationID)) {
+            return;
+        }
+
+        final long timestamp = entry.getTimestamp().getTime();
+        this.mNow = Math.max(this.mNow, timestamp);
+
+        if ("ENTRY".equals(markers)) {
+            this.onEntry(invocationID, entry, timestamp);
+        }
+        else if ("EXIT".equals(markers)) {
+            this.onExit(invocationID, entry, timestamp);
+        }
+        else if (markers.startsWith("INVOKE") && !entry.isInvokeReturn()) {
+            this.onInvoke(invocationID, entry, timestamp);
+        }
+
+        this.expire(this.mNow);
+    }
+
+    /**
+     * Evict trees which have been inactive for longer than the timeout.
+     * @param nowMillis current time, in the same terms as the records' timestamps.
+     */
+    public void expire(final long nowMillis) {
+        final Iterator<Span> it = this.mTrees.values().iterator();
+        while (it.hasNext()) {
+            final Span root = it.next();
+            if (this.mSpans.size() <= this.mMaxSpans && nowMillis - root.mLastActivity <= this.mTimeoutMillis) {
+                break;
+            }
+            it.remove();
+            this.evict(root);
+        }
+    }
+
+    /**
+     * Evict every incomplete tree, e.g. at the end of input.
+     */
+    public void flush() {
+        final List<Span> roots = new ArrayList<>(this.mTrees.values());
+        this.mTrees.clear();
+        for (final Span root : roots) {
+            this.evict(root);
+        }
+    }
+
+    /**
+     * Getter.
+     * @return number of spans currently retained.
+     */
+    public int getOpenSpans() {
+        return this.mSpans.size();
+    }
+
+    /**
+     * Getter.
+     * @return number of trees completed so far.
+     */
+    public long getCompletedCount() {
+        return this.mCompletedCount;
+    }
+
+    /**
+     * Getter.
+     * @return number of trees evicted so far.
+     */
+    public long getEvictedCount() {
+        return this.mEvictedCount;
+    }
+
+    /**
+     * Getter.
+     * @return number of EXIT records without a retained ENTRY.
+     */
+    public long getUnmatchedCount() {
+        return this.mUnmatchedCount;
+    }
+
+    /**
+     * Open a span, attaching it to its invoker if that's known.
+     * @param invocationID InvocationID.
+     * @param entry ENTRY record.
+     * @param timestamp record timestamp.
+     */
+    private void onEntry(final String invocationID, final LogEntry entry, final long timestamp) {
+
+        if (this.mSpans.containsKey(invocationID)) {
+            return;
+        }
+
+        final Span span = new Span(invocationID, entry);
+        this.mSpans.put(invocationID, span);
+
+        final Span invoker = this.mPending.remove(invocationID);
+        if (invoker == null) {
+            span.mLastActivity = timestamp;
+            this.mTrees.put(invocationID, span);
+        }
+        else {
+            this.attach(invoker, span, timestamp);
+        }
+    }
+
+    /**
+     * Record an invocation of another component.
+     * @param invocationID InvocationID of the invoker.
+     * @param entry INVOKE record.
+     * @param timestamp record timestamp.
+     */
+    private void onInvoke(final String invocationID, final LogEntry entry, final long timestamp) {
+
+        final Span invoker = this.mSpans.get(invocationID);
+        if (invoker == null) {
+            return;
+        }
+        invoker.mInvokes.add(entry);
+        this.touch(invoker, timestamp);
+
+        final String invokingID = entry.getInvokingID();
+        if (StringUtils.isBlank(invokingID)) {
+            return;
+        }
+
+        // The invoked component may already have logged its ENTRY, if its
+        // records are interleaved from another file; adopt it.
+
+        final Span invoked = this.mSpans.get(invokingID);
+        if (invoked == null) {
+            this.mPending.put(invokingID, invoker);
+        }
+        else if (invoked.mParent == null && invoked != invoker.getRoot()) {
+            this.mTrees.remove(invokingID);
+            this.attach(invoker, invoked, timestamp);
+        }
+    }
+
+    /**
+     * Close a span, and hand on its tree if it was the root.
+     * @param invocationID InvocationID.
+     * @param entry EXIT record.
+     * @param timestamp record timestamp.
+     */
+    private void onExit(final String invocationID, final LogEntry entry, final long timestamp) {
+
+        final Span span = this.mSpans.get(invocationID);
+        if (span == null || span.mExit != null) {
+            this.mUnmatchedCount++;
+            return;
+        }
+        span.mExit = entry;
+
+        if (span.mParent == null) {
+            this.mTrees.remove(invocationID);
+            this.release(span);
+            this.mCompletedCount++;
+            this.mCompleted.accept(span);
+        }
+        else {
+            this.touch(span, timestamp);
+        }
+    }
+
+    /**
+     * Link a child to its invoker.
+     * @param invoker invoking span.
+     * @param invoked invoked span.
+     * @param timestamp record timestamp.
+     */
+    private void attach(final Span invoker, final Span invoked, final long timestamp) {
+        invoked.mParent = invoker;
+        invoker.mChildren.add(invoked);
+        this.touch(invoker, timestamp);
+    }
+
+    /**
+     * Note activity in a span's tree.
+     * @param span span.
+     * @param timestamp record timestamp.
+     */
+    private void touch(final Span span, final long timestamp) {
+        final Span root = span.getRoot();
+        root.mLastActivity = Math.max(root.mLastActivity, timestamp);
+        this.mTrees.get(root.mInvocationID);
+    }
+
+    /**
+     * Hand on an incomplete tree.
+     * @param root root, already removed from {@link #mTrees}.
+     */
+    private void evict(final Span root) {
+        this.release(root);
+        this.mEvictedCount++;
+        this.mEvicted.accept(root);
+    }
+
+    /**
+     * Forget a tree's spans and pending invocations.
+     * @param span root of the tree or subtree.
+     */
+    private void release(final Span span) {
+        this.mSpans.remove(span.mInvocationID);
+        for (final LogEntry invoke : span.mInvokes) {
+            final String invokingID = invoke.getInvokingID();
+            if (invokingID != null && this.mPending.get(invokingID) == span) {
+                this.mPending.remove(invokingID);
+            }
+        }
+        for (final Span child : span.mChildren) {
+            this.release(child);
+        }
+    }
+
+    /**
+     * One invocation of one component, and the invocations it made.
+     */
+    public static final class Span {
+
+        /** InvocationID. */
+        private final String mInvocationID;
+
+        /** ENTRY record. */
+        private final LogEntry mEntry;
+
+        /** EXIT record, null while open. */
+        private LogEntry mExit;
+
+        /** INVOKE records, in order. */
+        private final List<LogEntry> mInvokes = new ArrayList<>(2);
+
+        /** Invoked spans, in the order their ENTRY was linked. */
+        private final List<Span> mChildren = new ArrayList<>(2);
+
+        /** Invoker, null for a root. */
+        private Span mParent;
+
+        /** Latest activity in the tree, maintained on the root only. */
+        private long mLastActivity;
+
+        /**
+         * Construct span.
+         * @param invocationID InvocationID.
+         * @param entry ENTRY record.
+         */
+        Span(final String invocationID, final LogEntry entry) {
+            this.mInvocationID = invocationID;
+            this.mEntry = entry;
+        }
+
+        /**
+         * Getter.
+         * @return InvocationID.
+         */
+        public String getInvocationID() {
+            return this.mInvocationID;
+        }
+
+        /**
+         * Getter.
+         * @return RequestID, from the ENTRY record.
+         */
+        public String getRequestID() {
+            return this.mEntry.getRequestID();
+        }
+
+        /**
+         * Getter.
+         * @return ENTRY record.
+         */
+        public LogEntry getEntry() {
+            return this.mEntry;
+        }
+
+        /**
+         * Getter.
+         * @return EXIT record, or null if it wasn't seen.
+         */
+        public LogEntry getExit() {
+            return this.mExit;
+        }
+
+        /**
+         * Getter.
+         * @return INVOKE records.
+         */
+        public List<LogEntry> getInvokes() {
+            return Collections.unmodifiableList(this.mInvokes);
+        }
+
+        /**
+         * Getter.
+         * @return invoked spans.
+         */
+        public List<Span> getChildren() {
+            return Collections.unmodifiableList(this.mChildren);
+        }
+
+        /**
+         * Getter.
+         * @return invoker, or null for a root.
+         */
+        public Span getParent() {
+            return this.mParent;
+        }
+
+        /**
+         * Getter.
+         * @return true if the EXIT record was seen.
+         */
+        public boolean isComplete() {
+            return this.mExit != null;
+        }
+
+        /**
+         * Find the root of this span's tree.
+         * @return root, possibly this.
+         */
+        Span getRoot() {
+            Span root = this;
+            while (root.mParent != null) {
+                root = root.mParent;
+            }
+            return root;
+        }
+
+        /**
+         * Count the spans in this subtree.
+         * @return count, including this.
+         */
+        public int size() {
+            int size = 1;
+            for (final Span child : this.mChildren) {
+                size += child.size();
+            }
+            return size;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+            final StringBuilder buf = new StringBuilder();
+            this.append(buf, 0);
+            return buf.toString();
+        }
+
+        /**
+         * Render subtree, one span per line.
+         * @param buf target.
+         * @param depth indent.
+         */
+        private void append(final StringBuilder buf, final int depth) {
+            buf.append(StringUtils.repeat(' ', depth * 4)).append(this.mEntry.toShortString());
+            if (this.mExit == null) {
+                buf.append(" (open)");
+            }
+            buf.append('\n');
+            for (final Span child : this.mChildren) {
+                child.append(buf, depth + 1);
+            }
+        }
+    }
+}
@@ -21,9 +21,7 @@
 
 package org.onap.logging.ref.slf4j;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.nio.file.Files;
 
 import javax.servlet.http.HttpServletRequest;
@@ -156,19 +154,7 @@ public class CallGraphTest {
 
         System.err.println("READING LOGFILE: " + log.getAbsolutePath());
 
-        final CallGraphAnalyzer analyzer = new CallGraphAnalyzer();
-        try (final BufferedReader reader = new BufferedReader(new FileReader(log))) {
-            while (true) {
-
-                final String line = reader.readLine();
-                if (line == null) {
-                    break;
-                }
-
-                final LogEntry entry = new LogEntry(line);
-                analyzer.add(entry);
-            }
-        }
+        final CallGraphAnalyzer analyzer = new CallGraphAnalyzer().addAll(log.toPath());
 
         //
         // Debug during dev, but annoying the rest of the time.
@@ -0,0 +1,116 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.logging.ref.slf4j.analysis;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Beats-format lines and temporary logfiles for the analysis tests.
+ */
+final class BeatsLogFixture {
+
+    /** Timestamp of lines whose timing doesn't matter. */
+    static final String TIMESTAMP = "2018-05-07T16:45:53.056Z";
+
+    /** Logfiles written so far. */
+    private final List<Path> mFiles = new ArrayList<>();
+
+    /**
+     * Build a timestamp.
+     * @param second seconds past the minute.
+     * @param millis milliseconds past the second.
+     * @return timestamp.
+     */
+    static String timestamp(final int second, final int millis) {
+        return String.format("2018-05-07T16:45:%02d.%03dZ", second, millis);
+    }
+
+    /**
+     * Build a line.
+     * @param timestamp timestamp.
+     * @param logger logger.
+     * @param mdcs serialized MDCs.
+     * @param message message.
+     * @param markers markers.
+     * @return line, without terminator.
+     */
+    static String line(final String timestamp, final String logger, final String mdcs,
+                       final String message, final String markers) {
+        return timestamp + "\tmain\tINFO\t" + logger + "\t" + mdcs + "\t" + message + "\t\t" + markers + "\t";
+    }
+
+    /**
+     * Build a line for a component's logger.
+     * @param timestamp timestamp.
+     * @param component simple name of the component's class.
+     * @param requestID RequestID.
+     * @param invocationID InvocationID.
+     * @param message message.
+     * @param markers markers.
+     * @return line, without terminator.
+     */
+    static String line(final String timestamp, final String component, final String requestID,
+                       final String invocationID, final String message, final String markers) {
+        return line(timestamp, "org.onap." + component,
+                "RequestID=" + requestID + ", InvocationID=" + invocationID, message, markers);
+    }
+
+    /**
+     * Write a logfile, deleted by {@link #deleteFiles()}.
+     * @param content file content.
+     * @return file.
+     * @throws IOException on write failure.
+     */
+    Path write(final String content) throws IOException {
+        final Path file = Files.createTempFile(BeatsLogFixture.class.getSimpleName(), ".log");
+        this.mFiles.add(file);
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    /**
+     * Write a logfile, deleted by {@link #deleteFiles()}.
+     * @param lines lines.
+     * @param terminator line terminator.
+     * @return file.
+     * @throws IOException on write failure.
+     */
+    Path write(final List<String> lines, final String terminator) throws IOException {
+        return this.write(String.join(terminator, lines));
+    }
+
+    /**
+     * Delete the logfiles written so far.
+     * @throws IOException on delete failure.
+     */
+    void deleteFiles() throws IOException {
+        for (final Path file : this.mFiles) {
+            Files.deleteIfExists(file);
+        }
+        this.mFiles.clear();
+    }
+}
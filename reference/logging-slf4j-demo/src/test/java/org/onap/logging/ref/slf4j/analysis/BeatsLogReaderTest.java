@@ -0,0 +1,135 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.logging.ref.slf4j.analysis;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.onap.logging.ref.slf4j.analysis.BeatsLogFixture.TIMESTAMP;
+import static org.onap.logging.ref.slf4j.analysis.BeatsLogFixture.line;
+
+/**
+ * Tests for {@link BeatsLogReader} and the {@link CallGraphAnalyzer} indexes.
+ */
+public class BeatsLogReaderTest {
+
+    /** Logfiles. */
+    private final BeatsLogFixture mLogs = new BeatsLogFixture();
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        this.mLogs.deleteFiles();
+    }
+
+    @Test
+    public void testRegionsAndRanges() throws Exception {
+
+        final StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            content.append(line(TIMESTAMP, "Logger" + i, "RequestID=r" + (i % 5), "message " + i,
+                    i % 2 == 0 ? "ENTRY" : ""));
+            content.append(i % 3 == 0 ? "\r\n" : "\n");
+        }
+        content.append("not a beats line\n\n");
+        content.append(line(TIMESTAMP, "Last", "", "no newline", "EXIT"));
+        final Path file = this.mLogs.write(content.toString());
+
+        // Whole file, with regions much smaller than the file.
+
+        final List<LogEntry> all = new ArrayList<>();
+        final BeatsLogReader reader = new BeatsLogReader(512);
+        reader.read(file, all::add);
+        assertThat(all.size(), is(51));
+        assertThat(reader.getSkipped(), is(1L));
+        assertThat(all.get(3).getMarkers(), is(""));
+        assertThat(all.get(4).getLogger(), is("Logger4"));
+        assertThat(all.get(4).getMessage(), is("message 4"));
+        assertThat(all.get(50).getMarkers(), is("EXIT"));
+
+        // Arbitrary byte ranges see every line exactly once.
+
+        final long size = Files.size(file);
+        for (final long step : new long[] {1, 97, 700, size}) {
+            final List<LogEntry> ranged = new ArrayList<>();
+            try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                for (long start = 0; start < size; start += step) {
+                    new BeatsLogReader(256).read(channel, start, start + step, ranged::add);
+                }
+            }
+            assertThat(ranged.size(), is(all.size()));
+            for (int i = 0; i < all.size(); i++) {
+                assertThat(ranged.get(i).getFileOffset(), is(all.get(i).getFileOffset()));
+                assertThat(ranged.get(i).getMessage(), is(all.get(i).getMessage()));
+            }
+        }
+    }
+
+    @Test(expectedExceptions = java.io.IOException.class)
+    public void testLineLongerThanRegion() throws Exception {
+        final Path file = this.mLogs.write(line(TIMESTAMP, "Logger", "", "message", "ENTRY") + "\n"
+                + line(TIMESTAMP, "Next", "", "", ""));
+        new BeatsLogReader(16).read(file, e -> { });
+    }
+
+    @Test
+    public void testIndexes() throws Exception {
+
+        final String lines = line(TIMESTAMP, "Alpha", "RequestID=r1, InvocationID=a", "", "ENTRY") + "\n"
+                + line(TIMESTAMP, "Alpha", "RequestID=r1, InvocationID=a", "b", "INVOKE") + "\n"
+                + line(TIMESTAMP, "Beta", "RequestID=r1, InvocationID=b, PartnerName=Alpha", "", "ENTRY") + "\n"
+                + line(TIMESTAMP, "Beta", "RequestID=r1, InvocationID=b", "", "EXIT") + "\n"
+                + line(TIMESTAMP, "Alpha", "RequestID=r1, InvocationID=a", "c", "INVOKE") + "\n"
+                + line(TIMESTAMP, "Alpha", "RequestID=r1, InvocationID=a", "", "EXIT") + "\n"
+                + line(TIMESTAMP, "Alpha", "RequestID=r2, InvocationID=x", "", "ENTRY") + "\n"
+                + line(TIMESTAMP, "Alpha", "RequestID=r2, InvocationID=x", "not a marker line", "") + "\n";
+        final CallGraphAnalyzer analyzer = new CallGraphAnalyzer().addAll(this.mLogs.write(lines));
+        assertThat(analyzer.getEntries().size(), is(7));
+        assertThat(analyzer.findByRequestID("r1").size(), is(6));
+        assertThat(analyzer.findByInvocationID("b").size(), is(2));
+        assertThat(analyzer.findByInvokingID("b").get(0).getLogger(), is("Alpha"));
+
+        final List<LogEntry> roots = analyzer.findEntryPoints();
+        assertThat(roots.size(), is(2));
+        assertThat(roots.get(0).getInvocationID(), is("a"));
+        assertThat(roots.get(1).getInvocationID(), is("x"));
+
+        final List<LogEntry> invokes = analyzer.findInvokes(roots.get(0));
+        assertThat(invokes.size(), is(2));
+        assertThat(analyzer.findInvocation(invokes.get(0)), sameInstance(analyzer.findByInvocationID("b").get(0)));
+        assertThat(analyzer.findInvocation(invokes.get(1)), nullValue());
+
+        final CallGraphReportWriter writer = new CallGraphReportWriter(analyzer, roots.get(0));
+        assertThat(writer.getShortReport(), is("\n    \n    ??\n"));
+    }
+}
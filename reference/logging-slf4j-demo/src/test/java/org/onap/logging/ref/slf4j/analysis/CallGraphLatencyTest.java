@@ -0,0 +1,163 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.logging.ref.slf4j.analysis;
+
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Tests for the latency attribution in {@link CallGraphReportWriter}, and
+ * for {@link EdgeLatencyAggregator}.
+ */
+public class CallGraphLatencyTest {
+
+    /**
+     * Build a record.
+     * @param millis milliseconds past the second.
+     * @param logger logger.
+     * @param requestID RequestID.
+     * @param invocationID InvocationID.
+     * @param message message.
+     * @param markers markers.
+     * @return record.
+     */
+    private static LogEntry entry(final int millis, final String logger, final String requestID,
+                                  final String invocationID, final String message, final String markers) {
+        return new LogEntry(BeatsLogFixture.line(BeatsLogFixture.timestamp(53, millis), logger, requestID, invocationID,
+                message, markers));
+    }
+
+    @Test
+    public void testCriticalPath() {
+
+        // Alpha calls Beta and Gamma concurrently; Gamma calls Delta.
+
+        final CallGraphAnalyzer analyzer = new CallGraphAnalyzer()
+                .add(entry(0, "ComponentAlpha", "r", "a", "Entering", "ENTRY"))
+                .add(entry(10, "ComponentAlpha", "r", "a", "b", "INVOKE [ ASYNCHRONOUS ]"))
+                .add(entry(15, "ComponentBeta", "r", "b", "Entering", "ENTRY"))
+                .add(entry(20, "ComponentAlpha", "r", "a", "c", "INVOKE [ ASYNCHRONOUS ]"))
+                .add(entry(25, "ComponentGamma", "r", "c", "Entering", "ENTRY"))
+                .add(entry(30, "ComponentGamma", "r", "c", "d", "INVOKE"))
+                .add(entry(35, "ComponentDelta", "r", "d", "Entering", "ENTRY"))
+                .add(entry(55, "ComponentBeta", "r", "b", "Exiting", "EXIT"))
+                .add(entry(60, "ComponentAlpha", "r", "a", "b", "INVOKE_RETURN"))
+                .add(entry(85, "ComponentDelta", "r", "d", "Exiting", "EXIT"))
+                .add(entry(90, "ComponentGamma", "r", "c", "InvokeReturn", "INVOKE-RETURN"))
+                .add(entry(95, "ComponentGamma", "r", "c", "Exiting", "EXIT"))
+                .add(entry(100, "ComponentAlpha", "r", "a", "c", "INVOKE_RETURN"))
+                .add(entry(120, "ComponentAlpha", "r", "a", "Exiting", "EXIT"));
+
+        final List<LogEntry> roots = analyzer.findEntryPoints();
+        assertThat(roots.size(), is(1));
+
+        final CallGraphReportWriter writer = new CallGraphReportWriter(analyzer, roots.get(0));
+        assertThat(writer.getShortReport(), is("Alpha\n    Beta\n    Gamma\n        Delta\n"));
+
+        final CallGraphReportWriter.Hop alpha = writer.getRoot();
+        assertThat(alpha.getDuration(), is(120L));
+        assertThat(alpha.getDownstream(), is(90L));
+        assertThat(alpha.getSelf(), is(30L));
+
+        final CallGraphReportWriter.Hop beta = alpha.getChildren().get(0);
+        assertThat(beta.getDuration(), is(40L));
+        assertThat(beta.getCallDuration(), is(50L));
+        assertThat(beta.isCritical(), is(false));
+
+        final CallGraphReportWriter.Hop gamma = alpha.getChildren().get(1);
+        assertThat(gamma.getDuration(), is(70L));
+        assertThat(gamma.getSelf(), is(10L));
+        assertThat(gamma.getCallDuration(), is(80L));
+
+        assertThat(writer.getCriticalPath().toString(),
+                is("[ComponentAlpha(total=120ms, self=30ms), ComponentGamma(total=70ms, self=10ms), "
+                        + "ComponentDelta(total=50ms, self=50ms)]"));
+        assertThat(writer.getLatencyReport(),
+                is("ComponentAlpha total=120ms self=30ms downstream=90ms *\n"
+                        + "    ComponentBeta total=40ms self=40ms downstream=0ms call=50ms\n"
+                        + "    ComponentGamma total=70ms self=10ms downstream=60ms call=80ms *\n"
+                        + "        ComponentDelta total=50ms self=50ms downstream=0ms call=60ms *\n"));
+    }
+
+    @Test
+    public void testMissingRecords() {
+
+        // Beta's logs weren't collected, and Alpha never logged its EXIT.
+
+        final CallGraphAnalyzer analyzer = new CallGraphAnalyzer()
+                .add(entry(0, "ComponentAlpha", "r", "a", "Entering", "ENTRY"))
+                .add(entry(10, "ComponentAlpha", "r", "a", "b", "INVOKE"))
+                .add(entry(30, "ComponentAlpha", "r", "a", "b", "INVOKE_RETURN"));
+
+        final CallGraphReportWriter writer = new CallGraphReportWriter(analyzer, analyzer.findEntryPoints().get(0));
+        assertThat(writer.getLatencyReport(),
+                is("ComponentAlpha total=? self=? downstream=? *\n"
+                        + "    ?? total=20ms self=20ms downstream=0ms call=20ms *\n"));
+    }
+
+    @Test
+    public void testReturnNamingAnotherInvoke() {
+
+        // Alpha's return from Beta wasn't logged; its return from Gamma mustn't stand in for it.
+
+        final CallGraphAnalyzer analyzer = new CallGraphAnalyzer()
+                .add(entry(0, "ComponentAlpha", "r", "a", "Entering", "ENTRY"))
+                .add(entry(10, "ComponentAlpha", "r", "a", "b", "INVOKE"))
+                .add(entry(20, "ComponentAlpha", "r", "a", "c", "INVOKE"))
+                .add(entry(50, "ComponentAlpha", "r", "a", "c", "INVOKE_RETURN"))
+                .add(entry(60, "ComponentAlpha", "r", "a", "Exiting", "EXIT"));
+
+        final CallGraphReportWriter writer = new CallGraphReportWriter(analyzer, analyzer.findEntryPoints().get(0));
+        assertThat(writer.getRoot().getChildren().get(0).getCallDuration(), is(-1L));
+        assertThat(writer.getRoot().getChildren().get(1).getCallDuration(), is(30L));
+    }
+
+    @Test
+    public void testEdgePercentiles() {
+
+        final EdgeLatencyAggregator aggregator = new EdgeLatencyAggregator();
+        for (int i = 1; i <= 100; i++) {
+            final String r = "r" + i;
+            final CallGraphAnalyzer analyzer = new CallGraphAnalyzer()
+                    .add(entry(0, "ComponentAlpha", r, "a" + i, "Entering", "ENTRY"))
+                    .add(entry(0, "ComponentAlpha", r, "a" + i, "b" + i, "INVOKE"))
+                    .add(entry(1, "ComponentBeta", r, "b" + i, "Entering", "ENTRY"))
+                    .add(entry(i, "ComponentBeta", r, "b" + i, "Exiting", "EXIT"))
+                    .add(entry(i, "ComponentAlpha", r, "a" + i, "b" + i, "INVOKE_RETURN"))
+                    .add(entry(200, "ComponentAlpha", r, "a" + i, "Exiting", "EXIT"));
+            aggregator.add(new CallGraphReportWriter(analyzer, analyzer.findEntryPoints().get(0)));
+        }
+
+        final List<EdgeLatencyAggregator.Edge> edges = aggregator.getEdges();
+        assertThat(edges.size(), is(1));
+        assertThat(edges.get(0).getCount(), is(100));
+        assertThat(edges.get(0).getPercentile(50), is(50L));
+        assertThat(edges.get(0).getPercentile(95), is(95L));
+        assertThat(edges.get(0).getPercentile(99), is(99L));
+        assertThat(aggregator.getReport(),
+                is("ComponentAlpha -> ComponentBeta count=100 p50=50ms p95=95ms p99=99ms\n"));
+    }
+}
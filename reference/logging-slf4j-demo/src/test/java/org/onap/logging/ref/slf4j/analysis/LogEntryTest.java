@@ -21,6 +21,8 @@
 
 package org.onap.logging.ref.slf4j.analysis;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
 import org.slf4j.event.Level;
@@ -29,6 +31,7 @@ import org.testng.annotations.Test;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsNull.notNullValue;
+import static org.hamcrest.core.IsNull.nullValue;
 
 public class LogEntryTest {
 
@@ -54,6 +57,65 @@ public class LogEntryTest {
 
     }
 
+    @Test
+    public void testLazyMDC() {
+
+        final String eg = "2018-05-07T16:45:53.056+00:00\tmain\tINFO\tcom.acme.Foo"
+            + "\tRequestID = 46161759-1b92-40a4-a408-800e0d62dd9e, Odd=a=b, Empty=, InvocationID=aac8fec9"
+            + "\tb0b0\t\tINVOKE";
+
+        final LogEntry parsed = new LogEntry(eg);
+        assertThat(parsed.getRequestID(), is("46161759-1b92-40a4-a408-800e0d62dd9e"));
+        assertThat(parsed.getInvocationID(), is("aac8fec9"));
+        assertThat(parsed.getMDC("Odd"), nullValue());
+        assertThat(parsed.getMDC("Empty"), nullValue());
+        assertThat(parsed.getMDC("Missing"), nullValue());
+        assertThat(parsed.getMarkers(), is("INVOKE"));
+        assertThat(parsed.getInvokingID(), is("b0b0"));
+        assertThat(parsed.getTimestamp().getTime(), is(1525711553056L));
+        assertThat(parsed.getMDCs().get("RequestID"), is(parsed.getRequestID()));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testUnsupportedLine() {
+        new LogEntry("2018-05-07T16:45:53.056Z\tmain\tINFO");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testBadTimestamp() {
+        new LogEntry("2018-02-30T16:45:53.056Z\tmain\tINFO\tcom.acme.Foo\t\t\t\tENTRY\t");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testBadLevel() {
+        new LogEntry("2018-05-07T16:45:53.056Z\tmain\tNOTICE\tcom.acme.Foo\t\t\t\tENTRY\t");
+    }
+
+    @Test
+    public void testIsTimestamp() {
+        final String[] timestamps = {
+            "2018-05-07T16:45:53.056Z", "2018-05-07T16:45:53.056+10:00", "2018-05-07T16:45:53.056-05:30:15",
+            "2018-05-07T16:45:53.123456789Z", "2018-05-07T16:45:53Z", "2018-05-07T16:45Z", "2018-05-07T16:45:53.056",
+            "2016-02-29T00:00:00Z", "2018-05-07T16:45:53.056+18:00",
+            "2018-02-29T00:00:00Z", "2018-13-07T16:45:53Z", "2018-05-07T24:00:00Z", "2018-05-07T16:60:00Z",
+            "2018-05-07T16:45:53.Z", "2018-05-07T16:45:53.056+1:00", "2018-05-07T16:45:53.0560000001Z",
+            "2018-05-07T16:45:53.056+19:00", "2018-05-07T16:45:53.056+10", "2018-05-07 16:45:53.056Z", "2018-05-07T16:45:53.056ZZ", "2018-05-07",
+            "", "not a timestamp at all",
+        };
+        for (final String timestamp : timestamps) {
+            final byte[] bytes = timestamp.getBytes(StandardCharsets.UTF_8);
+            boolean parses;
+            try {
+                LogEntry.parseTimestamp(timestamp);
+                parses = true;
+            }
+            catch (final RuntimeException e) {
+                parses = false;
+            }
+            assertThat(timestamp, LogEntry.isTimestamp(ByteBuffer.wrap(bytes), 0, bytes.length), is(parses));
+        }
+    }
+
     @Test
     public void testParseMDCsEmpty() {
         final Map<String, String> map = LogEntry.parseMDCs("");
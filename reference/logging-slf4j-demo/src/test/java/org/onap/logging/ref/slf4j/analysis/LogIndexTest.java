@@ -0,0 +1,109 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.logging.ref.slf4j.analysis;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.apache.commons.lang3.StringUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.onap.logging.ref.slf4j.analysis.BeatsLogFixture.TIMESTAMP;
+import static org.onap.logging.ref.slf4j.analysis.BeatsLogFixture.line;
+
+/**
+ * Tests for {@link LogIndex} and {@link IdOffsetIndex}.
+ */
+public class LogIndexTest {
+
+    /** Logfiles. */
+    private final BeatsLogFixture mLogs = new BeatsLogFixture();
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        this.mLogs.deleteFiles();
+    }
+
+    @Test
+    public void testIdOffsetIndex() {
+
+        final IdOffsetIndex index = new IdOffsetIndex(4);
+        final List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            final UUID id = UUID.randomUUID();
+            ids.add(id);
+            index.add(id.toString(), i);
+            index.add(id.getMostSignificantBits(), id.getLeastSignificantBits(), i + 100_000);
+        }
+        index.add("not-a-uuid", 7L);
+        index.add("not-a-uuid", 8L);
+
+        assertThat(index.getKeys(), is(5001L));
+        assertThat(index.size(), is(10002L));
+        for (int i = 0; i < ids.size(); i++) {
+            final long[] values = index.get(ids.get(i).toString());
+            assertThat(values.length, is(2));
+            assertThat(values[0], is((long) i));
+            assertThat(values[1], is(i + 100_000L));
+        }
+        assertThat(index.get("not-a-uuid").length, is(2));
+        assertThat(index.get("not-a-uuid")[1], is(8L));
+        assertThat(index.get(UUID.randomUUID().toString()).length, is(0));
+        assertThat(index.get("NOT-A-UUID").length, is(0));
+    }
+
+    @Test
+    public void testLookupAcrossFiles() throws Exception {
+
+        final String request = UUID.randomUUID().toString();
+        final String other = UUID.randomUUID().toString();
+
+        final List<String> alpha = new ArrayList<>();
+        alpha.add(line(TIMESTAMP, "ComponentAlpha", request, "a", "Entering", "ENTRY"));
+        alpha.add(line(TIMESTAMP, "ComponentAlpha", other, "x", StringUtils.repeat('x', 10_000), ""));
+        alpha.add(line(TIMESTAMP, "ComponentAlpha", request, "a", "b", "INVOKE"));
+        alpha.add(line(TIMESTAMP, "ComponentAlpha", request, "a", "Exiting", "EXIT"));
+
+        final List<String> beta = new ArrayList<>();
+        beta.add(line(TIMESTAMP, "ComponentBeta", request, "b", "Entering", "ENTRY"));
+        beta.add(line(TIMESTAMP, "ComponentBeta", request, "b", "Exiting", "EXIT"));
+
+        final LogIndex index = new LogIndex().add(this.mLogs.write(alpha, "\r\n")).add(this.mLogs.write(beta, "\n"));
+        assertThat(index.getLines(), is(6L));
+
+        final List<LogEntry> entries = index.findByRequestID(request);
+        assertThat(entries.size(), is(5));
+        assertThat(entries.get(0).getLogger(), is("org.onap.ComponentAlpha"));
+        assertThat(entries.get(4).getMarkers(), is("EXIT"));
+        assertThat(index.findByRequestID(other).get(0).getMessage().length(), is(10_000));
+        assertThat(index.findByInvocationID("b").size(), is(2));
+        assertThat(index.findByInvocationID("c").size(), is(0));
+
+        final CallGraphAnalyzer analyzer = index.analyze(request);
+        assertThat(new CallGraphReportWriter(analyzer, analyzer.findEntryPoints().get(0)).getShortReport(),
+                is("Alpha\n    Beta\n"));
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.logging.ref.slf4j.analysis;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.onap.logging.ref.slf4j.analysis.BeatsLogFixture.TIMESTAMP;
+import static org.onap.logging.ref.slf4j.analysis.BeatsLogFixture.line;
+
+/**
+ * Tests for {@link ParallelLogIngester}.
+ */
+public class ParallelLogIngesterTest {
+
+    /** Logfiles, one per component. */
+    private final BeatsLogFixture mLogs = new BeatsLogFixture();
+
+    /** Pool. */
+    private ForkJoinPool mPool;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        this.mPool = new ForkJoinPool(4);
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        this.mPool.shutdownNow();
+        this.mLogs.deleteFiles();
+    }
+
+    @Test
+    public void testMergeAcrossFiles() throws Exception {
+
+        // Many requests through two components, each with its own logfile.
+
+        final List<String> alpha = new ArrayList<>();
+        final List<String> beta = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            final String r = "r" + i;
+            alpha.add(line(TIMESTAMP, "ComponentAlpha", r, "a" + i, "Entering", "ENTRY"));
+            alpha.add(line(TIMESTAMP, "ComponentAlpha", r, "a" + i, "b" + i, "INVOKE"));
+            alpha.add(line(TIMESTAMP, "ComponentAlpha", r, "a" + i, "unmarked", ""));
+            alpha.add(line(TIMESTAMP, "ComponentAlpha", r, "a" + i, "Exiting", "EXIT"));
+            beta.add(line(TIMESTAMP, "ComponentBeta", r, "b" + i, "Entering", "ENTRY"));
+            beta.add(line(TIMESTAMP, "ComponentBeta", r, "b" + i, "Exiting", "EXIT"));
+        }
+        alpha.add(50, "not a beats line");
+
+        final List<Path> files = Arrays.asList(this.mLogs.write(alpha, "\n"), this.mLogs.write(beta, "\n"));
+        final ParallelLogIngester ingester = new ParallelLogIngester(this.mPool, 997);
+        final Map<String, CallGraphAnalyzer> graphs = ingester.ingest(files);
+
+        assertThat(graphs.size(), is(200));
+        assertThat(ingester.getLines(), is(1200L));
+        assertThat(ingester.getSkipped(), is(1L));
+
+        for (int i = 0; i < 200; i++) {
+            final CallGraphAnalyzer graph = graphs.get("r" + i);
+            assertThat(graph.getEntries().size(), is(5));
+            assertThat(graph.getEntries().get(0).getMarkers(), is("ENTRY"));
+            assertThat(graph.getEntries().get(0).getLogger(), is("org.onap.ComponentAlpha"));
+            assertThat(graph.getEntries().get(4).getLogger(), is("org.onap.ComponentBeta"));
+
+            final List<LogEntry> roots = graph.findEntryPoints();
+            assertThat(roots.size(), is(1));
+            final CallGraphReportWriter writer = new CallGraphReportWriter(graph, roots.get(0));
+            assertThat(writer.getShortReport(), is("Alpha\n    Beta\n"));
+        }
+    }
+
+    @Test
+    public void testEmpty() throws Exception {
+        final Path empty = this.mLogs.write("");
+        assertThat(new ParallelLogIngester(this.mPool, 1024).ingest(Arrays.asList(empty)).size(), is(0));
+    }
+}
@@ -0,0 +1,178 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.logging.ref.slf4j.analysis;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.hamcrest.core.IsSame.sameInstance;
+
+/**
+ * Tests for {@link StreamingCallGraphBuilder}.
+ */
+public class StreamingCallGraphBuilderTest {
+
+    /** Completed trees. */
+    private final List<StreamingCallGraphBuilder.Span> mCompleted = new ArrayList<>();
+
+    /** Evicted trees. */
+    private final List<StreamingCallGraphBuilder.Span> mEvicted = new ArrayList<>();
+
+    @BeforeMethod
+    public void setUp() {
+        this.mCompleted.clear();
+        this.mEvicted.clear();
+    }
+
+    /**
+     * Build a record.
+     * @param second seconds past the minute.
+     * @param logger logger.
+     * @param invocationID InvocationID.
+     * @param message message.
+     * @param markers markers.
+     * @return record.
+     */
+    private static LogEntry entry(final int second, final String logger,
+                                  final String invocationID, final String message, final String markers) {
+        return new LogEntry(BeatsLogFixture.line(BeatsLogFixture.timestamp(second, 56), logger, "r1", invocationID,
+                message, markers));
+    }
+
+    /**
+     * Create builder which records what it emits.
+     * @param timeoutMillis timeout.
+     * @param maxSpans span limit.
+     * @return builder.
+     */
+    private StreamingCallGraphBuilder builder(final long timeoutMillis, final int maxSpans) {
+        return new StreamingCallGraphBuilder(this.mCompleted::add, this.mEvicted::add, timeoutMillis, maxSpans);
+    }
+
+    @Test
+    public void testCompletedTree() {
+
+        final StreamingCallGraphBuilder builder = this.builder(60_000L, 100);
+        builder.accept(entry(0, "ComponentAlpha", "a", "Entering", "ENTRY"));
+        builder.accept(entry(0, "ComponentAlpha", "a", "no markers", ""));
+        builder.accept(entry(1, "ComponentAlpha", "a", "b", "INVOKE [ SYNCHRONOUS ]"));
+        builder.accept(entry(1, "ComponentBeta", "b", "Entering", "ENTRY"));
+        builder.accept(entry(2, "ComponentBeta", "b", "c", "INVOKE"));
+        builder.accept(entry(2, "ComponentGamma", "c", "Entering", "ENTRY"));
+        builder.accept(entry(3, "ComponentGamma", "c", "Exiting", "EXIT"));
+        builder.accept(entry(3, "ComponentBeta", "b", "Exiting", "EXIT"));
+
+        assertThat(this.mCompleted.size(), is(0));
+        assertThat(builder.getOpenSpans(), is(3));
+
+        builder.accept(entry(4, "ComponentAlpha", "a", "Exiting", "EXIT"));
+
+        assertThat(this.mCompleted.size(), is(1));
+        assertThat(builder.getOpenSpans(), is(0));
+        assertThat(builder.getCompletedCount(), is(1L));
+
+        final StreamingCallGraphBuilder.Span root = this.mCompleted.get(0);
+        assertThat(root.getInvocationID(), is("a"));
+        assertThat(root.getRequestID(), is("r1"));
+        assertThat(root.getParent(), nullValue());
+        assertThat(root.size(), is(3));
+        assertThat(root.getInvokes().size(), is(1));
+
+        final StreamingCallGraphBuilder.Span beta = root.getChildren().get(0);
+        assertThat(beta.getInvocationID(), is("b"));
+        assertThat(beta.getParent(), sameInstance(root));
+        assertThat(beta.isComplete(), is(true));
+        assertThat(beta.getChildren().get(0).getInvocationID(), is("c"));
+
+        // Late records for a completed tree aren't linked.
+        builder.accept(entry(5, "ComponentBeta", "b", "Exiting", "EXIT"));
+        assertThat(builder.getUnmatchedCount(), is(1L));
+    }
+
+    @Test
+    public void testEntryBeforeInvoke() {
+
+        final StreamingCallGraphBuilder builder = this.builder(60_000L, 100);
+        builder.accept(entry(0, "ComponentAlpha", "a", "Entering", "ENTRY"));
+        builder.accept(entry(1, "ComponentBeta", "b", "Entering", "ENTRY"));
+        builder.accept(entry(1, "ComponentAlpha", "a", "b", "INVOKE"));
+        builder.accept(entry(2, "ComponentBeta", "b", "Exiting", "EXIT"));
+
+        assertThat(this.mCompleted.size(), is(0));
+
+        builder.accept(entry(3, "ComponentAlpha", "a", "Exiting", "EXIT"));
+
+        assertThat(this.mCompleted.size(), is(1));
+        assertThat(this.mCompleted.get(0).size(), is(2));
+        assertThat(builder.getOpenSpans(), is(0));
+    }
+
+    @Test
+    public void testTimeEviction() {
+
+        final StreamingCallGraphBuilder builder = this.builder(10_000L, 100);
+        builder.accept(entry(0, "ComponentAlpha", "a", "Entering", "ENTRY"));
+        builder.accept(entry(0, "ComponentAlpha", "a", "b", "INVOKE"));
+        builder.accept(entry(5, "ComponentAlpha", "x", "Entering", "ENTRY"));
+        assertThat(this.mEvicted.size(), is(0));
+
+        // a's last activity was at 0s, x's at 5s.
+        builder.accept(entry(12, "ComponentAlpha", "y", "Entering", "ENTRY"));
+        assertThat(this.mEvicted.size(), is(1));
+        assertThat(this.mEvicted.get(0).getInvocationID(), is("a"));
+        assertThat(this.mEvicted.get(0).isComplete(), is(false));
+        assertThat(builder.getOpenSpans(), is(2));
+
+        // The pending invocation went with it.
+        builder.accept(entry(13, "ComponentBeta", "b", "Entering", "ENTRY"));
+        builder.accept(entry(13, "ComponentBeta", "b", "Exiting", "EXIT"));
+        assertThat(this.mCompleted.size(), is(1));
+        assertThat(this.mCompleted.get(0).getParent(), nullValue());
+
+        builder.flush();
+        assertThat(builder.getEvictedCount(), is(3L));
+        assertThat(builder.getOpenSpans(), is(0));
+    }
+
+    @Test
+    public void testSizeEviction() {
+
+        final StreamingCallGraphBuilder builder = this.builder(60_000L, 3);
+        builder.accept(entry(0, "ComponentAlpha", "a", "Entering", "ENTRY"));
+        builder.accept(entry(1, "ComponentAlpha", "x", "Entering", "ENTRY"));
+        builder.accept(entry(2, "ComponentAlpha", "a", "b", "INVOKE"));
+        builder.accept(entry(2, "ComponentBeta", "b", "Entering", "ENTRY"));
+        assertThat(this.mEvicted.size(), is(0));
+
+        // a was active more recently than x.
+        builder.accept(entry(3, "ComponentAlpha", "y", "Entering", "ENTRY"));
+        assertThat(this.mEvicted.size(), is(1));
+        assertThat(this.mEvicted.get(0).getInvocationID(), is("x"));
+        assertThat(builder.getOpenSpans(), is(3));
+    }
+}
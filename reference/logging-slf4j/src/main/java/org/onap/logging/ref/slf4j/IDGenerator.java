@@ -0,0 +1,58 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.logging.ref.slf4j;
+
+import java.util.UUID;
+
+/**
+ * Source of RequestIDs and InvocationIDs, in the canonical 36-character
+ * UUID format.
+ *
+ * <p>Implementations must be thread-safe, and shouldn't block.
+ * {@link IDGenerators} chooses the one in use.</p>
+ */
+public interface IDGenerator {
+
+    /**
+     * Generate an ID.
+     * @return UUID.
+     */
+    UUID nextUUID();
+
+    /**
+     * Generate an ID as a string.
+     * @return UUID string.
+     */
+    default String nextID() {
+        return this.nextUUID().toString();
+    }
+
+    /**
+     * Generate an ID into a caller's buffer, without allocating.
+     * @param buffer target, with at least 36 chars from the offset.
+     * @param offset where to write.
+     */
+    default void nextID(final char[] buffer, final int offset) {
+        final UUID uuid = this.nextUUID();
+        IDGenerators.format(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), buffer, offset);
+    }
+}
@@ -0,0 +1,400 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.logging.ref.slf4j;
+
+import java.security.SecureRandom;
+import java.util.Iterator;
+import java.util.ServiceLoader;
+import java.util.UUID;
+
+import org.slf4j.LoggerFactory;
+
+/**
+ * Choice of {@link IDGenerator}, and the built-in implementations.
+ *
+ * <p>{@link UUID#randomUUID()} draws from a shared {@link SecureRandom},
+ * which serializes every thread generating IDs, and then formats them
+ * through several intermediate strings. IDs only need to be unique, not
+ * unpredictable, so the default here draws from a per-thread
+ * xoroshiro128++ generator, seeded once per thread from
+ * {@link SecureRandom} so that its 128 bits of state can reach every
+ * random UUID, and formats directly into a per-thread buffer.</p>
+ *
+ * <p>The generator is chosen by the <tt>ONAP_ID_GENERATOR</tt> system
+ * property: <tt>random</tt> (the default, version 4 UUIDs),
+ * <tt>time</tt> (version 7 UUIDs, which sort by creation time),
+ * <tt>secure</tt> ({@link UUID#randomUUID()}), or the class name of an
+ * {@link IDGenerator} with a public no-arg constructor. Without the
+ * property, the first {@link IDGenerator} registered with
+ * {@link ServiceLoader} is used, if any.</p>
+ */
+public final class IDGenerators {
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //
+    // Constants.
+    //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /** System property naming the generator. */
+    public static final String GENERATOR_PROPERTY = "ONAP_ID_GENERATOR";
+
+    /** Length of a formatted ID. */
+    public static final int LENGTH = 36;
+
+    /** Hex digits. */
+    private static final char[] DIGITS = "0123456789abcdef".toCharArray();
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //
+    // Fields.
+    //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /** Per-thread formatting buffer. */
+    private static final ThreadLocal<char[]> sBuffer = ThreadLocal.withInitial(() -> new char[LENGTH]);
+
+    /** Per-thread random bits. */
+    private static final ThreadLocal<Xoroshiro128PlusPlus> sRandom =
+            ThreadLocal.withInitial(Xoroshiro128PlusPlus::seeded);
+
+    /** Generator in use. */
+    private static volatile IDGenerator sGenerator = init();
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //
+    // Methods.
+    //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Hidden.
+     */
+    private IDGenerators() {
+        // Static.
+    }
+
+    /**
+     * Get the generator in use.
+     * @return generator.
+     */
+    public static IDGenerator get() {
+        return sGenerator;
+    }
+
+    /**
+     * Replace the generator in use.
+     * @param generator generator, or null for the default.
+     */
+    public static void set(final IDGenerator generator) {
+        sGenerator = generator == null ? random() : generator;
+    }
+
+    /**
+     * Generate an ID with the generator in use.
+     * @return UUID string.
+     */
+    public static String nextID() {
+        return sGenerator.nextID();
+    }
+
+    /**
+     * Get the default generator, of random (version 4) UUIDs.
+     * @return generator.
+     */
+    public static IDGenerator random() {
+        return RandomIDGenerator.INSTANCE;
+    }
+
+    /**
+     * Get the generator of time-ordered (version 7) UUIDs.
+     * @return generator.
+     */
+    public static IDGenerator timeOrdered() {
+        return TimeOrderedIDGenerator.INSTANCE;
+    }
+
+    /**
+     * Get the generator which delegates to {@link UUID#randomUUID()}.
+     * @return generator.
+     */
+    public static IDGenerator secure() {
+        return UUID::randomUUID;
+    }
+
+    /**
+     * Format a UUID without intermediate strings.
+     * @param msb most significant bits.
+     * @param lsb least significant bits.
+     * @param buffer target, with at least 36 chars from the offset.
+     * @param offset where to write.
+     */
+    public static void format(final long msb, final long lsb, final char[] buffer, final int offset) {
+        hex(msb >>> 32, 8, buffer, offset);
+        buffer[offset + 8] = '-';
+        hex(msb >>> 16, 4, buffer, offset + 9);
+        buffer[offset + 13] = '-';
+        hex(msb, 4, buffer, offset + 14);
+        buffer[offset + 18] = '-';
+        hex(lsb >>> 48, 4, buffer, offset + 19);
+        buffer[offset + 23] = '-';
+        hex(lsb, 12, buffer, offset + 24);
+    }
+
+    /**
+     * Format a UUID into the per-thread buffer.
+     * @param msb most significant bits.
+     * @param lsb least significant bits.
+     * @return UUID string.
+     */
+    static String format(final long msb, final long lsb) {
+        final char[] buffer = sBuffer.get();
+        format(msb, lsb, buffer, 0);
+        return new String(buffer);
+    }
+
+    /**
+     * Write the low hex digits of a value.
+     * @param value value.
+     * @param digits number of digits.
+     * @param buffer target.
+     * @param offset where to write.
+     */
+    private static void hex(final long value, final int digits, final char[] buffer, final int offset) {
+        long v = value;
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            buffer[i] = DIGITS[(int) v & 0xF];
+            v >>>= 4;
+        }
+    }
+
+    /**
+     * Set the variant.
+     * @param random random bits.
+     * @return least significant bits.
+     */
+    private static long lsb(final long random) {
+        return random & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L;
+    }
+
+    /**
+     * Create the generator named by the system property, falling back to
+     * the default if it's invalid.
+     * @return generator.
+     */
+    private static IDGenerator init() {
+        try {
+            return create(System.getProperty(GENERATOR_PROPERTY));
+        }
+        catch (final IllegalArgumentException e) {
+            LoggerFactory.getLogger(IDGenerators.class).warn("Using default ID generator", e);
+            return random();
+        }
+    }
+
+    /**
+     * Create the generator named by the system property.
+     * @param name property value, nullable.
+     * @return generator.
+     * @throws IllegalArgumentException if the name is invalid.
+     */
+    static IDGenerator create(final String name) {
+        if (name == null || name.trim().isEmpty()) {
+            final Iterator<IDGenerator> loaded = ServiceLoader.load(IDGenerator.class).iterator();
+            return loaded.hasNext() ? loaded.next() : random();
+        }
+        switch (name.trim()) {
+            case "random":
+                return random();
+            case "time":
+                return timeOrdered();
+            case "secure":
+                return secure();
+            default:
+                try {
+                    return (IDGenerator) Class.forName(name.trim()).getDeclaredConstructor().newInstance();
+                }
+                catch (final ReflectiveOperationException | ClassCastException e) {
+                    throw new IllegalArgumentException("Invalid " + GENERATOR_PROPERTY + ": " + name, e);
+                }
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //
+    // Inner classes.
+    //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Version 4 UUIDs from the per-thread {@link Xoroshiro128PlusPlus}.
+     */
+    private static final class RandomIDGenerator implements IDGenerator {
+
+        /** Singleton. */
+        static final IDGenerator INSTANCE = new RandomIDGenerator();
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public UUID nextUUID() {
+            final Xoroshiro128PlusPlus random = sRandom.get();
+            return new UUID(msb(random.nextLong()), lsb(random.nextLong()));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String nextID() {
+            final Xoroshiro128PlusPlus random = sRandom.get();
+            return format(msb(random.nextLong()), lsb(random.nextLong()));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void nextID(final char[] buffer, final int offset) {
+            final Xoroshiro128PlusPlus random = sRandom.get();
+            format(msb(random.nextLong()), lsb(random.nextLong()), buffer, offset);
+        }
+
+        /**
+         * Set the version.
+         * @param random random bits.
+         * @return most significant bits.
+         */
+        private static long msb(final long random) {
+            return random & ~0xF000L | 0x4000L;
+        }
+    }
+
+    /**
+     * Version 7 UUIDs: a millisecond timestamp, then bits from the per-thread {@link Xoroshiro128PlusPlus}.
+     */
+    private static final class TimeOrderedIDGenerator implements IDGenerator {
+
+        /** Singleton. */
+        static final IDGenerator INSTANCE = new TimeOrderedIDGenerator();
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public UUID nextUUID() {
+            final Xoroshiro128PlusPlus random = sRandom.get();
+            return new UUID(msb(random.nextInt()), lsb(random.nextLong()));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String nextID() {
+            final Xoroshiro128PlusPlus random = sRandom.get();
+            return format(msb(random.nextInt()), lsb(random.nextLong()));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void nextID(final char[] buffer, final int offset) {
+            final Xoroshiro128PlusPlus random = sRandom.get();
+            format(msb(random.nextInt()), lsb(random.nextLong()), buffer, offset);
+        }
+
+        /**
+         * Combine timestamp and version.
+         * @param random random bits.
+         * @return most significant bits.
+         */
+        private static long msb(final int random) {
+            return System.currentTimeMillis() << 16 | 0x7000L | random & 0x0FFFL;
+        }
+    }
+
+    /**
+     * The xoroshiro128++ generator of Blackman and Vigna: 128 bits of state,
+     * so unlike {@link java.util.concurrent.ThreadLocalRandom}'s 64 it can
+     * produce every pair of longs. Not thread-safe; each thread has its own.
+     */
+    static final class Xoroshiro128PlusPlus {
+
+        /** Shared source of seeds, used once per thread. */
+        private static final SecureRandom SEEDS = new SecureRandom();
+
+        /** State. */
+        private long mS0;
+
+        /** State. */
+        private long mS1;
+
+        /**
+         * Construct.
+         * @param s0 state, not both zero.
+         * @param s1 state, not both zero.
+         */
+        Xoroshiro128PlusPlus(final long s0, final long s1) {
+            this.mS0 = s0;
+            this.mS1 = s1;
+        }
+
+        /**
+         * Construct from {@link SecureRandom}.
+         * @return generator.
+         */
+        static Xoroshiro128PlusPlus seeded() {
+            long s0;
+            long s1;
+            do {
+                s0 = SEEDS.nextLong();
+                s1 = SEEDS.nextLong();
+            } while (s0 == 0 && s1 == 0);
+            return new Xoroshiro128PlusPlus(s0, s1);
+        }
+
+        /**
+         * Next random bits.
+         * @return 64 random bits.
+         */
+        long nextLong() {
+            final long s0 = this.mS0;
+            long s1 = this.mS1;
+            final long result = Long.rotateLeft(s0 + s1, 17) + s0;
+            s1 ^= s0;
+            this.mS0 = Long.rotateLeft(s0, 49) ^ s1 ^ s1 << 21;
+            this.mS1 = Long.rotateLeft(s1, 28);
+            return result;
+        }
+
+        /**
+         * Next random bits.
+         * @return 32 random bits.
+         */
+        int nextInt() {
+            return (int) (nextLong() >>> 32);
+        }
+    }
+}
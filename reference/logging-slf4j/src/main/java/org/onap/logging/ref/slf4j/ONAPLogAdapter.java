@@ -180,7 +180,7 @@ public class ONAPLogAdapter {
             this.mLogger.info(ONAPLogConstants.Markers.EXIT, EMPTY_MESSAGE);
         }
         finally {
-            MDC.clear();
+            RequestLogContext.clear();
         }
         return this;
     }
@@ -196,7 +196,7 @@ public class ONAPLogAdapter {
      */
     public UUID invoke(final ONAPLogConstants.InvocationMode sync) {
 
-        final UUID invocationID = UUID.randomUUID();
+        final UUID invocationID = IDGenerators.get().nextUUID();
 
         // Derive SYNC/ASYNC marker.
 
@@ -315,16 +315,18 @@ public class ONAPLogAdapter {
         // Set standard MDCs. Override this entire method if you want to set
         // others, OR set them BEFORE or AFTER the invocation of #entering,
         // depending on where you need them to appear, OR extend the
-        // ServiceDescriptor to add them.
-
-        MDC.put(ONAPLogConstants.MDCs.INVOKE_TIMESTAMP,
-                ZonedDateTime.now(ZoneOffset.UTC)
-                        .format(DateTimeFormatter.ISO_INSTANT));
-        MDC.put(ONAPLogConstants.MDCs.REQUEST_ID, requestID);
-        MDC.put(ONAPLogConstants.MDCs.INVOCATION_ID, invocationID);
-        MDC.put(ONAPLogConstants.MDCs.PARTNER_NAME, partnerName);
-        MDC.put(ONAPLogConstants.MDCs.CLIENT_IP_ADDRESS, defaultToEmpty(request.getClientAddress()));
-        MDC.put(ONAPLogConstants.MDCs.SERVER_FQDN, defaultToEmpty(request.getServerAddress()));
+        // ServiceDescriptor to add them. They're installed in one step,
+        // rather than with a put per MDC.
+
+        new RequestLogContext()
+                .setInvokeTimestamp(ZonedDateTime.now(ZoneOffset.UTC)
+                        .format(DateTimeFormatter.ISO_INSTANT))
+                .setRequestID(requestID)
+                .setInvocationID(invocationID)
+                .setPartnerName(partnerName)
+                .setClientIPAddress(defaultToEmpty(request.getClientAddress()))
+                .setServerFQDN(defaultToEmpty(request.getServerAddress()))
+                .install();
 
         // Delegate to the service adapter, for service-related DMCs.
 
@@ -376,7 +378,7 @@ public class ONAPLogAdapter {
      */
     protected static String defaultToUUID(final String in) {
         if (in == null) {
-            return UUID.randomUUID().toString();
+            return IDGenerators.nextID();
         }
         return in;
     }
@@ -0,0 +1,495 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.logging.ref.slf4j;
+
+import java.lang.reflect.Field;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.slf4j.MDC;
+import org.slf4j.spi.MDCAdapter;
+
+/**
+ * SLF4J {@link MDCAdapter} which stores the standard ONAP MDCs in
+ * fixed array slots, with an overflow map only for other keys.
+ *
+ * <p>Reads and writes of well-known keys are an index lookup, and
+ * {@link #getCopyOfContextMap()} returns a copy-on-write view which
+ * shares the slots until either side is next modified. Passing that view
+ * back into {@link #setContextMap(Map)} on another thread adopts it
+ * without copying, so snapshot and restore for thread hand-off are both
+ * O(1).</p>
+ *
+ * <p>SLF4J 1.7 has no hook for replacing the adapter, so
+ * {@link #install()} swaps it reflectively. It only does so when the
+ * bound provider reads the MDC back through SLF4J (Logback, or the basic
+ * adapter); providers with their own context store, like Log4j2, are
+ * left alone.</p>
+ */
+public class ONAPMDCAdapter implements MDCAdapter {
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //
+    // Constants.
+    //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /** Standard keys, in slot order. */
+    static final String[] KEYS = {
+        ONAPLogConstants.MDCs.REQUEST_ID,
+        ONAPLogConstants.MDCs.INVOCATION_ID,
+        ONAPLogConstants.MDCs.SERVER_INVOCATION_ID,
+        ONAPLogConstants.MDCs.CLIENT_INVOCATION_ID,
+        ONAPLogConstants.MDCs.PARTNER_NAME,
+        ONAPLogConstants.MDCs.SERVICE_NAME,
+        ONAPLogConstants.MDCs.TARGET_SERVICE_NAME,
+        ONAPLogConstants.MDCs.TARGET_ENTITY,
+        ONAPLogConstants.MDCs.TARGET_ELEMENT,
+        ONAPLogConstants.MDCs.SERVICE_INSTANCE_ID,
+        ONAPLogConstants.MDCs.INSTANCE_UUID,
+        ONAPLogConstants.MDCs.CLIENT_IP_ADDRESS,
+        ONAPLogConstants.MDCs.SERVER_IP_ADDRESS,
+        ONAPLogConstants.MDCs.SERVER_FQDN,
+        ONAPLogConstants.MDCs.VIRTUAL_SERVER_NAME,
+        ONAPLogConstants.MDCs.CONTEXT_NAME,
+        ONAPLogConstants.MDCs.ENTRY_TIMESTAMP,
+        ONAPLogConstants.MDCs.INVOKE_TIMESTAMP,
+        ONAPLogConstants.MDCs.ELAPSED_TIME,
+        ONAPLogConstants.MDCs.LOG_TIMESTAMP,
+        ONAPLogConstants.MDCs.RESPONSE_CODE,
+        ONAPLogConstants.MDCs.RESPONSE_DESCRIPTION,
+        ONAPLogConstants.MDCs.RESPONSE_SEVERITY,
+        ONAPLogConstants.MDCs.RESPONSE_STATUS_CODE,
+        ONAPLogConstants.MDCs.ERROR_CODE,
+        ONAPLogConstants.MDCs.ERROR_DESC,
+    };
+
+    /** Key to slot index. */
+    private static final Map<String, Integer> SLOTS = new HashMap<>();
+
+    /** Adapters which are known to be read back through <tt>MDC.getMDCAdapter()</tt>. */
+    private static final String[] REPLACEABLE = {
+        "ch.qos.logback.classic.util.LogbackMDCAdapter",
+        "org.slf4j.helpers.BasicMDCAdapter",
+    };
+
+    static {
+        for (int i = 0; i < KEYS.length; i++) {
+            SLOTS.put(KEYS[i], i);
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //
+    // Fields.
+    //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /** Adapter replaced by {@link #install()}, for {@link #uninstall()}. */
+    private static MDCAdapter sReplaced;
+
+    /** Per-thread context. */
+    private final ThreadLocal<SlotMap> mContext = new ThreadLocal<>();
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //
+    // Installation.
+    //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Replace the SLF4J MDC adapter with an {@link ONAPMDCAdapter}.
+     *
+     * <p>Call once at startup, before any MDCs are set: values already
+     * held by the replaced adapter are not carried over.</p>
+     *
+     * @return true if installed (or already installed).
+     */
+    public static synchronized boolean install() {
+        final MDCAdapter current = MDC.getMDCAdapter();
+        if (current instanceof ONAPMDCAdapter) {
+            return true;
+        }
+        if (current == null || !Arrays.asList(REPLACEABLE).contains(current.getClass().getName())) {
+            return false;
+        }
+        if (setAdapter(new ONAPMDCAdapter())) {
+            sReplaced = current;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Restore the adapter replaced by {@link #install()}.
+     *
+     * @return true if restored.
+     */
+    public static synchronized boolean uninstall() {
+        if (sReplaced != null && MDC.getMDCAdapter() instanceof ONAPMDCAdapter && setAdapter(sReplaced)) {
+            sReplaced = null;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Set SLF4J's static adapter field.
+     *
+     * @param adapter replacement.
+     * @return true if set.
+     */
+    private static boolean setAdapter(final MDCAdapter adapter) {
+        try {
+            final Field field = MDC.class.getDeclaredField("mdcAdapter");
+            field.setAccessible(true);
+            field.set(null, adapter);
+            return true;
+        }
+        catch (final ReflectiveOperationException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //
+    // MDCAdapter.
+    //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void put(final String key, final String val) {
+        if (key == null) {
+            throw new IllegalArgumentException("key cannot be null");
+        }
+        SlotMap context = this.mContext.get();
+        if (context == null) {
+            context = new SlotMap();
+            this.mContext.set(context);
+        }
+        context.put(key, val);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String get(final String key) {
+        final SlotMap context = this.mContext.get();
+        return (context == null) ? null : context.get(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void remove(final String key) {
+        final SlotMap context = this.mContext.get();
+        if (context != null) {
+            context.remove(key);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear() {
+        this.mContext.remove();
+    }
+
+    /**
+     * Get a copy-on-write snapshot of the current context.
+     *
+     * @return snapshot, or null if nothing has been set.
+     */
+    @Override
+    public Map<String, String> getCopyOfContextMap() {
+        final SlotMap context = this.mContext.get();
+        return (context == null) ? null : context.snapshot();
+    }
+
+    /**
+     * Replace the current context, adopting snapshots from
+     * {@link #getCopyOfContextMap()} without copying.
+     *
+     * @param contextMap replacement.
+     */
+    @Override
+    public void setContextMap(final Map<String, String> contextMap) {
+        if (contextMap instanceof SlotMap) {
+            this.mContext.set(((SlotMap) contextMap).snapshot());
+            return;
+        }
+        final SlotMap context = new SlotMap();
+        if (contextMap != null) {
+            for (final Map.Entry<String, String> entry : contextMap.entrySet()) {
+                context.put(entry.getKey(), entry.getValue());
+            }
+        }
+        this.mContext.set(context);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //
+    // Inner classes.
+    //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Copy-on-write map of slots plus overflow.
+     */
+    static final class SlotMap extends AbstractMap<String, String> {
+
+        /** Standard values, indexed by slot. */
+        private String[] mValues;
+
+        /** Other values, lazily created. */
+        private Map<String, String> mOverflow;
+
+        /** Number of non-null slots. */
+        private int mSlotCount;
+
+        /** Whether storage is shared with a snapshot, and must be copied before writing. */
+        private boolean mShared;
+
+        /**
+         * Construct empty.
+         */
+        SlotMap() {
+            this.mValues = new String[KEYS.length];
+        }
+
+        /**
+         * Construct sharing storage.
+         *
+         * @param other source.
+         */
+        private SlotMap(final SlotMap other) {
+            this.mValues = other.mValues;
+            this.mOverflow = other.mOverflow;
+            this.mSlotCount = other.mSlotCount;
+            this.mShared = true;
+        }
+
+        /**
+         * Snapshot, sharing storage with this map until either is written.
+         *
+         * @return snapshot.
+         */
+        SlotMap snapshot() {
+            this.mShared = true;
+            return new SlotMap(this);
+        }
+
+        /**
+         * Copy shared storage before a write.
+         */
+        private void own() {
+            if (this.mShared) {
+                this.mValues = this.mValues.clone();
+                if (this.mOverflow != null) {
+                    this.mOverflow = new HashMap<>(this.mOverflow);
+                }
+                this.mShared = false;
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String get(final Object key) {
+            final Integer slot = SLOTS.get(key);
+            if (slot != null) {
+                return this.mValues[slot];
+            }
+            return (this.mOverflow == null) ? null : this.mOverflow.get(key);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean containsKey(final Object key) {
+            return this.get(key) != null;
+        }
+
+        /**
+         * Put value; a null value removes the key.
+         *
+         * @param key key.
+         * @param value value.
+         * @return previous value.
+         */
+        @Override
+        public String put(final String key, final String value) {
+            if (value == null) {
+                return this.remove(key);
+            }
+            this.own();
+            final Integer slot = SLOTS.get(key);
+            if (slot != null) {
+                final String previous = this.mValues[slot];
+                if (previous == null) {
+                    this.mSlotCount++;
+                }
+                this.mValues[slot] = value;
+                return previous;
+            }
+            if (this.mOverflow == null) {
+                this.mOverflow = new HashMap<>();
+            }
+            return this.mOverflow.put(key, value);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String remove(final Object key) {
+            if (this.get(key) == null) {
+                return null;
+            }
+            this.own();
+            final Integer slot = SLOTS.get(key);
+            if (slot != null) {
+                final String previous = this.mValues[slot];
+                this.mValues[slot] = null;
+                this.mSlotCount--;
+                return previous;
+            }
+            return this.mOverflow.remove(key);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void clear() {
+            this.mValues = new String[KEYS.length];
+            this.mOverflow = null;
+            this.mSlotCount = 0;
+            this.mShared = false;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int size() {
+            return this.mSlotCount + ((this.mOverflow == null) ? 0 : this.mOverflow.size());
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Set<Map.Entry<String, String>> entrySet() {
+            return new AbstractSet<Map.Entry<String, String>>() {
+                @Override
+                public Iterator<Map.Entry<String, String>> iterator() {
+                    return new EntryIterator(SlotMap.this.mValues, SlotMap.this.mOverflow);
+                }
+
+                @Override
+                public int size() {
+                    return SlotMap.this.size();
+                }
+            };
+        }
+    }
+
+    /**
+     * Read-only iterator over slots, then overflow.
+     */
+    private static final class EntryIterator implements Iterator<Map.Entry<String, String>> {
+
+        /** Slots being iterated. */
+        private final String[] mValues;
+
+        /** Overflow iterator. */
+        private final Iterator<Map.Entry<String, String>> mOverflow;
+
+        /** Next slot to examine. */
+        private int mSlot;
+
+        /**
+         * Construct.
+         *
+         * @param values slots.
+         * @param overflow overflow, nullable.
+         */
+        EntryIterator(final String[] values, final Map<String, String> overflow) {
+            this.mValues = values;
+            this.mOverflow = (overflow == null)
+                    ? Collections.<Map.Entry<String, String>>emptyIterator()
+                    : Collections.unmodifiableMap(overflow).entrySet().iterator();
+            this.advance();
+        }
+
+        /**
+         * Skip empty slots.
+         */
+        private void advance() {
+            while (this.mSlot < this.mValues.length && this.mValues[this.mSlot] == null) {
+                this.mSlot++;
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean hasNext() {
+            return this.mSlot < this.mValues.length || this.mOverflow.hasNext();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Map.Entry<String, String> next() {
+            if (this.mSlot < this.mValues.length) {
+                final Map.Entry<String, String> entry =
+                        new AbstractMap.SimpleImmutableEntry<>(KEYS[this.mSlot], this.mValues[this.mSlot]);
+                this.mSlot++;
+                this.advance();
+                return entry;
+            }
+            if (this.mOverflow.hasNext()) {
+                return this.mOverflow.next();
+            }
+            throw new NoSuchElementException();
+        }
+    }
+}
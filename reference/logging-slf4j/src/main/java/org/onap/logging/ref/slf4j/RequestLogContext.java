@@ -0,0 +1,552 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.logging.ref.slf4j;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.MDC;
+
+/**
+ * Typed, per-request view of the standard ONAP MDCs.
+ *
+ * <p>Values are collected up front and written to the MDC with a single
+ * {@link MDC#setContextMap} in {@link #install()}, rather than with one
+ * <tt>MDC.put</tt> per key. Each <tt>put</tt> can copy the whole map under
+ * copy-on-write MDC implementations, which adds up on busy inbound APIs.</p>
+ *
+ * <p>Once installed, the context is bound to the current thread and can be
+ * retrieved with {@link #current()}. Setters on an installed context write
+ * through to the MDC and getters read from it, so typed and key-based access
+ * stay consistent.</p>
+ */
+public class RequestLogContext {
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //
+    // Fields.
+    //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /** Context installed on the current thread, if any. */
+    private static final ThreadLocal<RequestLogContext> sCurrent = new ThreadLocal<>();
+
+    /** Values collected before installation. */
+    private final Map<String, String> mValues = new HashMap<>();
+
+    /** Whether this context has been written to the MDC. */
+    private boolean mInstalled;
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //
+    // Public methods.
+    //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Get the context installed on the current thread.
+     *
+     * <p>A context only counts as current while the MDC still holds the
+     * <tt>RequestID</tt> it was installed with, so one left behind by an
+     * earlier request on a pooled thread is never returned.</p>
+     *
+     * @return installed context, or null.
+     */
+    public static RequestLogContext current() {
+        final RequestLogContext context = sCurrent.get();
+        if (context == null) {
+            return null;
+        }
+        final String requestID = context.mValues.get(ONAPLogConstants.MDCs.REQUEST_ID);
+        if (requestID == null || requestID != MDC.get(ONAPLogConstants.MDCs.REQUEST_ID)) {
+            sCurrent.remove();
+            return null;
+        }
+        return context;
+    }
+
+    /**
+     * Clear the MDC and unbind any context from the current thread.
+     */
+    public static void clear() {
+        sCurrent.remove();
+        MDC.clear();
+    }
+
+    /**
+     * Write all collected values to the MDC in one step, preserving any
+     * unrelated entries already present, and bind this context to the
+     * current thread.
+     *
+     * @return this.
+     */
+    public RequestLogContext install() {
+        final Map<String, String> existing = MDC.getCopyOfContextMap();
+        final Map<String, String> contextMap;
+        if (existing == null || existing.isEmpty()) {
+            contextMap = this.mValues;
+        } else {
+            existing.putAll(this.mValues);
+            contextMap = existing;
+        }
+        MDC.setContextMap(contextMap);
+        this.mInstalled = true;
+        sCurrent.set(this);
+        return this;
+    }
+
+    /**
+     * Get value by MDC key.
+     *
+     * @param key MDC key.
+     * @return value, or null.
+     */
+    public String get(final String key) {
+        if (this.mInstalled) {
+            return MDC.get(key);
+        }
+        return this.mValues.get(key);
+    }
+
+    /**
+     * Set value by MDC key. Null values are ignored.
+     *
+     * @param key MDC key.
+     * @param value value.
+     * @return this.
+     */
+    public RequestLogContext set(final String key, final String value) {
+        if (value == null) {
+            return this;
+        }
+        this.mValues.put(key, value);
+        if (this.mInstalled) {
+            MDC.put(key, value);
+        }
+        return this;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //
+    // Typed accessors.
+    //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Getter.
+     *
+     * @return <tt>RequestID</tt>, or null.
+     */
+    public String getRequestID() {
+        return this.get(ONAPLogConstants.MDCs.REQUEST_ID);
+    }
+
+    /**
+     * Setter.
+     *
+     * @param value <tt>RequestID</tt>.
+     * @return this.
+     */
+    public RequestLogContext setRequestID(final String value) {
+        return this.set(ONAPLogConstants.MDCs.REQUEST_ID, value);
+    }
+
+    /**
+     * Getter.
+     *
+     * @return <tt>InvocationID</tt>, or null.
+     */
+    public String getInvocationID() {
+        return this.get(ONAPLogConstants.MDCs.INVOCATION_ID);
+    }
+
+    /**
+     * Setter.
+     *
+     * @param value <tt>InvocationID</tt>.
+     * @return this.
+     */
+    public RequestLogContext setInvocationID(final String value) {
+        return this.set(ONAPLogConstants.MDCs.INVOCATION_ID, value);
+    }
+
+    /**
+     * Getter.
+     *
+     * @return <tt>ServerInvocationId</tt>, or null.
+     */
+    public String getServerInvocationID() {
+        return this.get(ONAPLogConstants.MDCs.SERVER_INVOCATION_ID);
+    }
+
+    /**
+     * Setter.
+     *
+     * @param value <tt>ServerInvocationId</tt>.
+     * @return this.
+     */
+    public RequestLogContext setServerInvocationID(final String value) {
+        return this.set(ONAPLogConstants.MDCs.SERVER_INVOCATION_ID, value);
+    }
+
+    /**
+     * Getter.
+     *
+     * @return <tt>ClientInvocationId</tt>, or null.
+     */
+    public String getClientInvocationID() {
+        return this.get(ONAPLogConstants.MDCs.CLIENT_INVOCATION_ID);
+    }
+
+    /**
+     * Setter.
+     *
+     * @param value <tt>ClientInvocationId</tt>.
+     * @return this.
+     */
+    public RequestLogContext setClientInvocationID(final String value) {
+        return this.set(ONAPLogConstants.MDCs.CLIENT_INVOCATION_ID, value);
+    }
+
+    /**
+     * Getter.
+     *
+     * @return <tt>PartnerName</tt>, or null.
+     */
+    public String getPartnerName() {
+        return this.get(ONAPLogConstants.MDCs.PARTNER_NAME);
+    }
+
+    /**
+     * Setter.
+     *
+     * @param value <tt>PartnerName</tt>.
+     * @return this.
+     */
+    public RequestLogContext setPartnerName(final String value) {
+        return this.set(ONAPLogConstants.MDCs.PARTNER_NAME, value);
+    }
+
+    /**
+     * Getter.
+     *
+     * @return <tt>ServiceName</tt>, or null.
+     */
+    public String getServiceName() {
+        return this.get(ONAPLogConstants.MDCs.SERVICE_NAME);
+    }
+
+    /**
+     * Setter.
+     *
+     * @param value <tt>ServiceName</tt>.
+     * @return this.
+     */
+    public RequestLogContext setServiceName(final String value) {
+        return this.set(ONAPLogConstants.MDCs.SERVICE_NAME, value);
+    }
+
+    /**
+     * Getter.
+     *
+     * @return <tt>TargetServiceName</tt>, or null.
+     */
+    public String getTargetServiceName() {
+        return this.get(ONAPLogConstants.MDCs.TARGET_SERVICE_NAME);
+    }
+
+    /**
+     * Setter.
+     *
+     * @param value <tt>TargetServiceName</tt>.
+     * @return this.
+     */
+    public RequestLogContext setTargetServiceName(final String value) {
+        return this.set(ONAPLogConstants.MDCs.TARGET_SERVICE_NAME, value);
+    }
+
+    /**
+     * Getter.
+     *
+     * @return <tt>TargetEntity</tt>, or null.
+     */
+    public String getTargetEntity() {
+        return this.get(ONAPLogConstants.MDCs.TARGET_ENTITY);
+    }
+
+    /**
+     * Setter.
+     *
+     * @param value <tt>TargetEntity</tt>.
+     * @return this.
+     */
+    public RequestLogContext setTargetEntity(final String value) {
+        return this.set(ONAPLogConstants.MDCs.TARGET_ENTITY, value);
+    }
+
+    /**
+     * Getter.
+     *
+     * @return <tt>InstanceID</tt>, or null.
+     */
+    public String getInstanceUUID() {
+        return this.get(ONAPLogConstants.MDCs.INSTANCE_UUID);
+    }
+
+    /**
+     * Setter.
+     *
+     * @param value <tt>InstanceID</tt>.
+     * @return this.
+     */
+    public RequestLogContext setInstanceUUID(final String value) {
+        return this.set(ONAPLogConstants.MDCs.INSTANCE_UUID, value);
+    }
+
+    /**
+     * Getter.
+     *
+     * @return <tt>ClientIPAddress</tt>, or null.
+     */
+    public String getClientIPAddress() {
+        return this.get(ONAPLogConstants.MDCs.CLIENT_IP_ADDRESS);
+    }
+
+    /**
+     * Setter.
+     *
+     * @param value <tt>ClientIPAddress</tt>.
+     * @return this.
+     */
+    public RequestLogContext setClientIPAddress(final String value) {
+        return this.set(ONAPLogConstants.MDCs.CLIENT_IP_ADDRESS, value);
+    }
+
+    /**
+     * Getter.
+     *
+     * @return <tt>ServerIPAddress</tt>, or null.
+     */
+    public String getServerIPAddress() {
+        return this.get(ONAPLogConstants.MDCs.SERVER_IP_ADDRESS);
+    }
+
+    /**
+     * Setter.
+     *
+     * @param value <tt>ServerIPAddress</tt>.
+     * @return this.
+     */
+    public RequestLogContext setServerIPAddress(final String value) {
+        return this.set(ONAPLogConstants.MDCs.SERVER_IP_ADDRESS, value);
+    }
+
+    /**
+     * Getter.
+     *
+     * @return <tt>ServerFQDN</tt>, or null.
+     */
+    public String getServerFQDN() {
+        return this.get(ONAPLogConstants.MDCs.SERVER_FQDN);
+    }
+
+    /**
+     * Setter.
+     *
+     * @param value <tt>ServerFQDN</tt>.
+     * @return this.
+     */
+    public RequestLogContext setServerFQDN(final String value) {
+        return this.set(ONAPLogConstants.MDCs.SERVER_FQDN, value);
+    }
+
+    /**
+     * Getter.
+     *
+     * @return <tt>EntryTimestamp</tt>, or null.
+     */
+    public String getEntryTimestamp() {
+        return this.get(ONAPLogConstants.MDCs.ENTRY_TIMESTAMP);
+    }
+
+    /**
+     * Setter.
+     *
+     * @param value <tt>EntryTimestamp</tt>.
+     * @return this.
+     */
+    public RequestLogContext setEntryTimestamp(final String value) {
+        return this.set(ONAPLogConstants.MDCs.ENTRY_TIMESTAMP, value);
+    }
+
+    /**
+     * Getter.
+     *
+     * @return <tt>InvokeTimestamp</tt>, or null.
+     */
+    public String getInvokeTimestamp() {
+        return this.get(ONAPLogConstants.MDCs.INVOKE_TIMESTAMP);
+    }
+
+    /**
+     * Setter.
+     *
+     * @param value <tt>InvokeTimestamp</tt>.
+     * @return this.
+     */
+    public RequestLogContext setInvokeTimestamp(final String value) {
+        return this.set(ONAPLogConstants.MDCs.INVOKE_TIMESTAMP, value);
+    }
+
+    /**
+     * Getter.
+     *
+     * @return <tt>LogTimestamp</tt>, or null.
+     */
+    public String getLogTimestamp() {
+        return this.get(ONAPLogConstants.MDCs.LOG_TIMESTAMP);
+    }
+
+    /**
+     * Setter.
+     *
+     * @param value <tt>LogTimestamp</tt>.
+     * @return this.
+     */
+    public RequestLogContext setLogTimestamp(final String value) {
+        return this.set(ONAPLogConstants.MDCs.LOG_TIMESTAMP, value);
+    }
+
+    /**
+     * Getter.
+     *
+     * @return <tt>ElapsedTime</tt>, or null.
+     */
+    public String getElapsedTime() {
+        return this.get(ONAPLogConstants.MDCs.ELAPSED_TIME);
+    }
+
+    /**
+     * Setter.
+     *
+     * @param value <tt>ElapsedTime</tt>.
+     * @return this.
+     */
+    public RequestLogContext setElapsedTime(final String value) {
+        return this.set(ONAPLogConstants.MDCs.ELAPSED_TIME, value);
+    }
+
+    /**
+     * Getter.
+     *
+     * @return <tt>ResponseCode</tt>, or null.
+     */
+    public String getResponseCode() {
+        return this.get(ONAPLogConstants.MDCs.RESPONSE_CODE);
+    }
+
+    /**
+     * Setter.
+     *
+     * @param value <tt>ResponseCode</tt>.
+     * @return this.
+     */
+    public RequestLogContext setResponseCode(final String value) {
+        return this.set(ONAPLogConstants.MDCs.RESPONSE_CODE, value);
+    }
+
+    /**
+     * Getter.
+     *
+     * @return <tt>ResponseDesc</tt>, or null.
+     */
+    public String getResponseDescription() {
+        return this.get(ONAPLogConstants.MDCs.RESPONSE_DESCRIPTION);
+    }
+
+    /**
+     * Setter.
+     *
+     * @param value <tt>ResponseDesc</tt>.
+     * @return this.
+     */
+    public RequestLogContext setResponseDescription(final String value) {
+        return this.set(ONAPLogConstants.MDCs.RESPONSE_DESCRIPTION, value);
+    }
+
+    /**
+     * Getter.
+     *
+     * @return <tt>StatusCode</tt>, or null.
+     */
+    public String getResponseStatusCode() {
+        return this.get(ONAPLogConstants.MDCs.RESPONSE_STATUS_CODE);
+    }
+
+    /**
+     * Setter.
+     *
+     * @param value <tt>StatusCode</tt>.
+     * @return this.
+     */
+    public RequestLogContext setResponseStatusCode(final String value) {
+        return this.set(ONAPLogConstants.MDCs.RESPONSE_STATUS_CODE, value);
+    }
+
+    /**
+     * Getter.
+     *
+     * @return <tt>ErrorCode</tt>, or null.
+     */
+    public String getErrorCode() {
+        return this.get(ONAPLogConstants.MDCs.ERROR_CODE);
+    }
+
+    /**
+     * Setter.
+     *
+     * @param value <tt>ErrorCode</tt>.
+     * @return this.
+     */
+    public RequestLogContext setErrorCode(final String value) {
+        return this.set(ONAPLogConstants.MDCs.ERROR_CODE, value);
+    }
+
+    /**
+     * Getter.
+     *
+     * @return <tt>ErrorDesc</tt>, or null.
+     */
+    public String getErrorDescription() {
+        return this.get(ONAPLogConstants.MDCs.ERROR_DESC);
+    }
+
+    /**
+     * Setter.
+     *
+     * @param value <tt>ErrorDesc</tt>.
+     * @return this.
+     */
+    public RequestLogContext setErrorDescription(final String value) {
+        return this.set(ONAPLogConstants.MDCs.ERROR_DESC, value);
+    }
+}
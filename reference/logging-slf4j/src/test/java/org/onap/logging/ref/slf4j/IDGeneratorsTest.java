@@ -0,0 +1,144 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.logging.ref.slf4j;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsSame.sameInstance;
+
+/**
+ * Tests for {@link IDGenerators}.
+ */
+public class IDGeneratorsTest {
+
+    /**
+     * Restore the default.
+     */
+    @AfterMethod
+    public void tearDown() {
+        IDGenerators.set(null);
+    }
+
+    @Test
+    public void testFormat() {
+        final char[] buffer = new char[40];
+        for (int i = 0; i < 1000; i++) {
+            final UUID uuid = new UUID(ThreadLocalRandom.current().nextLong(), ThreadLocalRandom.current().nextLong());
+            IDGenerators.format(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), buffer, 2);
+            assertThat(new String(buffer, 2, IDGenerators.LENGTH), is(uuid.toString()));
+        }
+    }
+
+    @Test
+    public void testRandom() {
+        final IDGenerator generator = IDGenerators.random();
+        final Set<String> ids = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            final String id = generator.nextID();
+            final UUID uuid = UUID.fromString(id);
+            assertThat(uuid.toString(), is(id));
+            assertThat(uuid.version(), is(4));
+            assertThat(uuid.variant(), is(2));
+            ids.add(id);
+        }
+        assertThat(ids.size(), is(1000));
+        assertThat(generator.nextUUID().version(), is(4));
+
+        final char[] buffer = new char[IDGenerators.LENGTH];
+        generator.nextID(buffer, 0);
+        assertThat(UUID.fromString(new String(buffer)).version(), is(4));
+    }
+
+    @Test
+    public void testTimeOrdered() {
+        final IDGenerator generator = IDGenerators.timeOrdered();
+        final long before = System.currentTimeMillis();
+        final UUID uuid = UUID.fromString(generator.nextID());
+        final long after = System.currentTimeMillis();
+
+        assertThat(uuid.version(), is(7));
+        assertThat(uuid.variant(), is(2));
+        final long timestamp = uuid.getMostSignificantBits() >>> 16;
+        assertThat(timestamp >= before && timestamp <= after, is(true));
+
+        // Later IDs sort after earlier ones, once the millisecond has moved on.
+        final String first = generator.nextID();
+        final long start = System.currentTimeMillis();
+        while (System.currentTimeMillis() == start) {
+            Thread.yield();
+        }
+        assertThat(generator.nextID().compareTo(first) > 0, is(true));
+    }
+
+    @Test
+    public void testXoroshiro128PlusPlus() {
+        // Reference outputs for the seed (1, 2).
+        final IDGenerators.Xoroshiro128PlusPlus random = new IDGenerators.Xoroshiro128PlusPlus(1L, 2L);
+        assertThat(random.nextLong(), is(393217L));
+        assertThat(random.nextLong(), is(669327710093319L));
+        assertThat(random.nextLong(), is(1732421326133921491L));
+    }
+
+    @Test
+    public void testChoice() {
+        assertThat(IDGenerators.create("random"), sameInstance(IDGenerators.random()));
+        assertThat(IDGenerators.create(" time "), sameInstance(IDGenerators.timeOrdered()));
+        assertThat(IDGenerators.create("secure").nextUUID().version(), is(4));
+        assertThat(IDGenerators.create(FixedIDGenerator.class.getName()).nextID(), is(FixedIDGenerator.ID.toString()));
+        assertThat(IDGenerators.create(null), sameInstance(IDGenerators.random()));
+
+        IDGenerators.set(new FixedIDGenerator());
+        assertThat(IDGenerators.nextID(), is(FixedIDGenerator.ID.toString()));
+        IDGenerators.set(null);
+        assertThat(IDGenerators.get(), sameInstance(IDGenerators.random()));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidChoice() {
+        IDGenerators.create("java.lang.String");
+    }
+
+    /**
+     * Generator for tests.
+     */
+    public static class FixedIDGenerator implements IDGenerator {
+
+        /** The only ID. */
+        static final UUID ID = UUID.fromString("8c7b9a2e-6f2d-4a3b-9c1e-0d5f4e3a2b1c");
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public UUID nextUUID() {
+            return ID;
+        }
+    }
+}
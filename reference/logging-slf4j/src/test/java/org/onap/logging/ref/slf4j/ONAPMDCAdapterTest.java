@@ -0,0 +1,142 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.logging.ref.slf4j;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsInstanceOf.instanceOf;
+import static org.hamcrest.core.IsNull.nullValue;
+
+/**
+ * Tests for {@link ONAPMDCAdapter}.
+ */
+public class ONAPMDCAdapterTest {
+
+    /**
+     * Ensure cleanup.
+     */
+    @AfterMethod
+    public void tearDown() {
+        MDC.clear();
+        ONAPMDCAdapter.uninstall();
+    }
+
+    @Test
+    public void testSlotsAndOverflow() {
+
+        final ONAPMDCAdapter adapter = new ONAPMDCAdapter();
+        assertThat(adapter.get(ONAPLogConstants.MDCs.REQUEST_ID), nullValue());
+        assertThat(adapter.getCopyOfContextMap(), nullValue());
+
+        adapter.put(ONAPLogConstants.MDCs.REQUEST_ID, "request123");
+        adapter.put("custom", "value123");
+        assertThat(adapter.get(ONAPLogConstants.MDCs.REQUEST_ID), is("request123"));
+        assertThat(adapter.get("custom"), is("value123"));
+
+        final Map<String, String> expected = new HashMap<>();
+        expected.put(ONAPLogConstants.MDCs.REQUEST_ID, "request123");
+        expected.put("custom", "value123");
+        assertThat(adapter.getCopyOfContextMap(), is(expected));
+
+        adapter.remove(ONAPLogConstants.MDCs.REQUEST_ID);
+        adapter.put("custom", null);
+        assertThat(adapter.get(ONAPLogConstants.MDCs.REQUEST_ID), nullValue());
+        assertThat(adapter.getCopyOfContextMap().isEmpty(), is(true));
+
+        adapter.put(ONAPLogConstants.MDCs.SERVICE_NAME, "service123");
+        adapter.clear();
+        assertThat(adapter.get(ONAPLogConstants.MDCs.SERVICE_NAME), nullValue());
+    }
+
+    @Test
+    public void testSnapshotIsolation() {
+
+        final ONAPMDCAdapter adapter = new ONAPMDCAdapter();
+        adapter.put(ONAPLogConstants.MDCs.REQUEST_ID, "request123");
+        adapter.put("custom", "value123");
+
+        final Map<String, String> snapshot = adapter.getCopyOfContextMap();
+        adapter.put(ONAPLogConstants.MDCs.REQUEST_ID, "request456");
+        adapter.remove("custom");
+        assertThat(snapshot.get(ONAPLogConstants.MDCs.REQUEST_ID), is("request123"));
+        assertThat(snapshot.get("custom"), is("value123"));
+
+        snapshot.put(ONAPLogConstants.MDCs.PARTNER_NAME, "partner123");
+        assertThat(adapter.get(ONAPLogConstants.MDCs.PARTNER_NAME), nullValue());
+    }
+
+    @Test
+    public void testRestoreOnAnotherThread() throws Exception {
+
+        final ONAPMDCAdapter adapter = new ONAPMDCAdapter();
+        adapter.put(ONAPLogConstants.MDCs.REQUEST_ID, "request123");
+        final Map<String, String> snapshot = adapter.getCopyOfContextMap();
+
+        final String[] seen = new String[2];
+        final Thread thread = new Thread(() -> {
+            seen[0] = adapter.get(ONAPLogConstants.MDCs.REQUEST_ID);
+            adapter.setContextMap(snapshot);
+            seen[1] = adapter.get(ONAPLogConstants.MDCs.REQUEST_ID);
+            adapter.put(ONAPLogConstants.MDCs.REQUEST_ID, "request456");
+        });
+        thread.start();
+        thread.join();
+
+        assertThat(seen[0], nullValue());
+        assertThat(seen[1], is("request123"));
+        assertThat(adapter.get(ONAPLogConstants.MDCs.REQUEST_ID), is("request123"));
+        assertThat(snapshot.get(ONAPLogConstants.MDCs.REQUEST_ID), is("request123"));
+    }
+
+    @Test
+    public void testInstall() {
+
+        assertThat(ONAPMDCAdapter.install(), is(true));
+        assertThat(MDC.getMDCAdapter(), instanceOf(ONAPMDCAdapter.class));
+
+        MDC.put(ONAPLogConstants.MDCs.REQUEST_ID, "request123");
+        MDC.put("custom", "value123");
+
+        final Logger logger = (Logger) LoggerFactory.getLogger(this.getClass());
+        final LoggingEvent event = new LoggingEvent(Logger.FQCN, logger, Level.INFO, "message", null, null);
+        final Map<String, String> properties = event.getMDCPropertyMap();
+        MDC.put(ONAPLogConstants.MDCs.REQUEST_ID, "request456");
+
+        assertThat(properties.get(ONAPLogConstants.MDCs.REQUEST_ID), is("request123"));
+        assertThat(properties.get("custom"), is("value123"));
+        assertThat(MDC.get(ONAPLogConstants.MDCs.REQUEST_ID), is("request456"));
+
+        assertThat(ONAPMDCAdapter.uninstall(), is(true));
+        assertThat(MDC.getMDCAdapter() instanceof ONAPMDCAdapter, is(false));
+    }
+}
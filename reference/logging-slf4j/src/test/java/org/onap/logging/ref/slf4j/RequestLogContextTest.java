@@ -0,0 +1,93 @@
+/**
+ * ============LICENSE_START=======================================================
+ * org.onap.logging
+ * ================================================================================
+ * Copyright © 2018 Amdocs
+ * All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.logging.ref.slf4j;
+
+import org.slf4j.MDC;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.hamcrest.core.IsSame.sameInstance;
+
+/**
+ * Tests for {@link RequestLogContext}.
+ */
+public class RequestLogContextTest {
+
+    /**
+     * Ensure cleanup.
+     */
+    @AfterMethod
+    public void tearDown() {
+        RequestLogContext.clear();
+    }
+
+    @Test
+    public void testInstall() {
+
+        MDC.put("unrelated", "kept");
+
+        final RequestLogContext context = new RequestLogContext()
+                .setRequestID("request123")
+                .setInvocationID("invocation123")
+                .setPartnerName("partner123")
+                .setPartnerName(null);
+
+        assertThat(MDC.get(ONAPLogConstants.MDCs.REQUEST_ID), nullValue());
+        assertThat(context.getPartnerName(), is("partner123"));
+
+        context.install();
+
+        assertThat(MDC.get(ONAPLogConstants.MDCs.REQUEST_ID), is("request123"));
+        assertThat(MDC.get(ONAPLogConstants.MDCs.INVOCATION_ID), is("invocation123"));
+        assertThat(MDC.get(ONAPLogConstants.MDCs.PARTNER_NAME), is("partner123"));
+        assertThat(MDC.get("unrelated"), is("kept"));
+        assertThat(RequestLogContext.current(), sameInstance(context));
+    }
+
+    @Test
+    public void testWriteThrough() {
+
+        final RequestLogContext context = new RequestLogContext().setRequestID("request123").install();
+
+        context.setResponseCode("200");
+        assertThat(MDC.get(ONAPLogConstants.MDCs.RESPONSE_CODE), is("200"));
+
+        MDC.put(ONAPLogConstants.MDCs.SERVICE_NAME, "service123");
+        assertThat(context.getServiceName(), is("service123"));
+    }
+
+    @Test
+    public void testCurrentAfterClear() {
+
+        new RequestLogContext().setRequestID("request123").install();
+        MDC.clear();
+        assertThat(RequestLogContext.current(), nullValue());
+
+        new RequestLogContext().setRequestID("request456").install();
+        RequestLogContext.clear();
+        assertThat(RequestLogContext.current(), nullValue());
+        assertThat(MDC.get(ONAPLogConstants.MDCs.REQUEST_ID), nullValue());
+    }
+}